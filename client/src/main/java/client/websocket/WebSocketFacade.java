@@ -0,0 +1,99 @@
+package client.websocket;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
+import jakarta.websocket.ClientEndpointConfig;
+import jakarta.websocket.ContainerProvider;
+import jakarta.websocket.DeploymentException;
+import jakarta.websocket.Endpoint;
+import jakarta.websocket.EndpointConfig;
+import jakarta.websocket.MessageHandler;
+import jakarta.websocket.Session;
+import websocket.BinaryProtocol;
+import websocket.WebSocketTypeAdapterFactory;
+import websocket.commands.UserGameCommand;
+import websocket.messages.ErrorMessage;
+import websocket.messages.ServerMessage;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * The client side of the gameplay websocket. It sends commands and passes each server
+ * message to a listener on the websocket's thread. A facade that asks for binary frames
+ * offers the {@link BinaryProtocol#NAME} sub-protocol, and uses it if the server
+ * accepts. Otherwise it falls back to JSON, which is also the default.
+ */
+public class WebSocketFacade extends Endpoint implements AutoCloseable {
+    private static final Gson GSON = WebSocketTypeAdapterFactory.register(new GsonBuilder()).create();
+
+    private final Consumer<ServerMessage> listener;
+    private final Session session;
+    private final boolean binary;
+
+    /**
+     * Connects with JSON frames
+     */
+    public WebSocketFacade(URI uri, Consumer<ServerMessage> listener) throws DeploymentException, IOException {
+        this(uri, false, listener);
+    }
+
+    /**
+     * @param preferBinary whether to offer the binary sub-protocol
+     */
+    public WebSocketFacade(URI uri, boolean preferBinary, Consumer<ServerMessage> listener)
+            throws DeploymentException, IOException {
+        this.listener = listener;
+        var config = ClientEndpointConfig.Builder.create()
+                .preferredSubprotocols(preferBinary ? List.of(BinaryProtocol.NAME) : List.of())
+                .build();
+        session = ContainerProvider.getWebSocketContainer().connectToServer(this, config, uri);
+        binary = BinaryProtocol.NAME.equals(session.getNegotiatedSubprotocol());
+    }
+
+    @Override
+    public void onOpen(Session session, EndpointConfig config) {
+        session.addMessageHandler(String.class, (MessageHandler.Whole<String>) text -> {
+            ServerMessage message;
+            try {
+                message = GSON.fromJson(text, ServerMessage.class);
+            } catch (JsonParseException e) {
+                message = new ErrorMessage("Error: " + e.getMessage());
+            }
+            listener.accept(message);
+        });
+        session.addMessageHandler(ByteBuffer.class, (MessageHandler.Whole<ByteBuffer>) frame -> {
+            ServerMessage message;
+            try {
+                message = BinaryProtocol.decodeMessage(frame);
+            } catch (IllegalArgumentException e) {
+                message = new ErrorMessage("Error: " + e.getMessage());
+            }
+            listener.accept(message);
+        });
+    }
+
+    /**
+     * @return whether the server accepted binary frames
+     */
+    public boolean isBinary() {
+        return binary;
+    }
+
+    public void send(UserGameCommand command) throws IOException {
+        if (binary) {
+            session.getBasicRemote().sendBinary(BinaryProtocol.encode(command));
+        } else {
+            session.getBasicRemote().sendText(GSON.toJson(command, UserGameCommand.class));
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        session.close();
+    }
+}
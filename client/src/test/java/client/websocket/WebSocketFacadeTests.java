@@ -0,0 +1,102 @@
+package client.websocket;
+
+import chess.ChessGame;
+import chess.PackedMove;
+import io.javalin.Javalin;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import server.websocket.GameUpdates;
+import server.websocket.WebSocketHandler;
+import websocket.GameSync;
+import websocket.commands.ConnectCommand;
+import websocket.commands.MakeMoveCommand;
+import websocket.commands.UserGameCommand;
+import websocket.messages.ErrorMessage;
+import websocket.messages.LoadGameMessage;
+import websocket.messages.MoveMessage;
+import websocket.messages.ServerMessage;
+
+import java.net.URI;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+public class WebSocketFacadeTests {
+    private static final String WHITE = UUID.randomUUID().toString();
+    private static final String BLACK = UUID.randomUUID().toString();
+    private static final String OBSERVER = UUID.randomUUID().toString();
+
+    private Javalin server;
+    private URI uri;
+
+    @BeforeEach
+    public void start() {
+        var games = Map.of(1, new GameUpdates(new ChessGame()));
+        server = Javalin.create();
+        var players = Map.of(WHITE, ChessGame.TeamColor.WHITE, BLACK, ChessGame.TeamColor.BLACK);
+        new WebSocketHandler(games::get, token -> token.equals(OBSERVER) || players.containsKey(token),
+                (token, gameID) -> gameID == 1 ? players.get(token) : null).register(server, "/ws");
+        server.start(0);
+        uri = URI.create("ws://localhost:" + server.port() + "/ws");
+    }
+
+    @AfterEach
+    public void stop() {
+        server.stop();
+    }
+
+    @Test
+    @DisplayName("Plays Over Binary And JSON Sessions Side By Side")
+    public void binaryAndJson() throws Exception {
+        var binaryMessages = new LinkedBlockingQueue<ServerMessage>();
+        var jsonMessages = new LinkedBlockingQueue<ServerMessage>();
+        try (var binary = new WebSocketFacade(uri, true, binaryMessages::add);
+             var json = new WebSocketFacade(uri, jsonMessages::add)) {
+            Assertions.assertTrue(binary.isBinary());
+            Assertions.assertFalse(json.isBinary());
+
+            var sync = new GameSync();
+            binary.send(new ConnectCommand(WHITE, 1, true));
+            Assertions.assertTrue(sync.apply(next(binaryMessages)));
+            json.send(new UserGameCommand(UserGameCommand.CommandType.CONNECT, BLACK, 1));
+            Assertions.assertInstanceOf(LoadGameMessage.class, next(jsonMessages));
+
+            var texts = new String[]{"e2e4", "e7e5", "g1f3"};
+            for (int ply = 0; ply < texts.length; ply++) {
+                var move = new MakeMoveCommand(ply % 2 == 0 ? WHITE : BLACK, 1,
+                        PackedMove.unpack(PackedMove.parse(texts[ply])));
+                if (ply % 2 == 0) {
+                    binary.send(move);
+                } else {
+                    json.send(move);
+                }
+                var update = next(binaryMessages);
+                Assertions.assertInstanceOf(MoveMessage.class, update);
+                Assertions.assertTrue(sync.apply(update));
+                Assertions.assertEquals(sync.getGame(), ((LoadGameMessage) next(jsonMessages)).getGame());
+            }
+            Assertions.assertEquals("rnbqkbnr/pppp1ppp/8/4p3/4P3/5N2/PPPP1PPP/RNBQKB1R b KQkq - 0 1",
+                    sync.getGame().toFen());
+
+            json.send(new MakeMoveCommand(BLACK, 1, PackedMove.unpack(PackedMove.parse("e1e2"))));
+            Assertions.assertInstanceOf(ErrorMessage.class, next(jsonMessages), "Not black's king");
+            binary.send(new MakeMoveCommand(WHITE, 1, PackedMove.unpack(PackedMove.parse("b8c6"))));
+            Assertions.assertEquals(new ErrorMessage("Error: It is BLACK's turn"), next(binaryMessages));
+            binary.send(new MakeMoveCommand(OBSERVER, 1, PackedMove.unpack(PackedMove.parse("b8c6"))));
+            Assertions.assertEquals(new ErrorMessage("Error: only players can make moves"), next(binaryMessages));
+            binary.send(new UserGameCommand(UserGameCommand.CommandType.CONNECT, "wrong", 1));
+            Assertions.assertEquals(new ErrorMessage("Error: unauthorized"), next(binaryMessages));
+        }
+    }
+
+    private static ServerMessage next(BlockingQueue<ServerMessage> messages) throws InterruptedException {
+        var message = messages.poll(5, TimeUnit.SECONDS);
+        Assertions.assertNotNull(message, "No message within 5 seconds");
+        return message;
+    }
+}
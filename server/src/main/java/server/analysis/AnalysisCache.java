@@ -0,0 +1,63 @@
+package server.analysis;
+
+import java.util.LinkedHashMap;
+
+/**
+ * Bounded cache of analysis results keyed by position hash.
+ * <p>
+ * A deeper result costs far more to recompute than a shallow one, so eviction looks
+ * at the few least recently used entries and drops the shallowest of them, the oldest
+ * first on a tie. A result never replaces a deeper one for the same position, since
+ * the deeper result also answers shallower requests.
+ */
+class AnalysisCache {
+    private static final int EVICTION_SAMPLE = 8;
+
+    private final int capacity;
+    private final LinkedHashMap<Long, AnalysisResult> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    AnalysisCache(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        this.capacity = capacity;
+    }
+
+    /**
+     * @return the deepest result cached for the position, or null if there is none
+     */
+    synchronized AnalysisResult get(long hash) {
+        return entries.get(hash);
+    }
+
+    synchronized void put(AnalysisResult result) {
+        var existing = entries.get(result.hash());
+        if (existing != null && existing.depth() > result.depth()) {
+            return;
+        }
+        entries.put(result.hash(), result);
+        if (entries.size() > capacity) {
+            evict(result.hash());
+        }
+    }
+
+    synchronized int size() {
+        return entries.size();
+    }
+
+    private void evict(long keep) {
+        Long victim = null;
+        int victimDepth = Integer.MAX_VALUE;
+        int sampled = 0;
+        for (var entry : entries.entrySet()) {
+            if (sampled++ == EVICTION_SAMPLE) {
+                break;
+            }
+            if (entry.getKey() != keep && entry.getValue().depth() < victimDepth) {
+                victim = entry.getKey();
+                victimDepth = entry.getValue().depth();
+            }
+        }
+        entries.remove(victim);
+    }
+}
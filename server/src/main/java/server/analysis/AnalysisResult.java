@@ -0,0 +1,22 @@
+package server.analysis;
+
+/**
+ * The outcome of analysing one position
+ *
+ * @param hash           the Zobrist hash of the position
+ * @param requestedDepth the depth the caller asked for
+ * @param depth          the depth actually searched, which is less than requested when
+ *                       the service was overloaded
+ * @param score          the score in centipawns for the team whose turn it is
+ * @param bestMove       the packed best move, or {@link chess.PackedMove#NONE} if the
+ *                       position has no legal moves
+ * @param nodes          the positions visited by the search
+ */
+public record AnalysisResult(long hash, int requestedDepth, int depth, int score, int bestMove, long nodes) {
+    /**
+     * @return true if the position was searched less deeply than requested
+     */
+    public boolean isDegraded() {
+        return depth < requestedDepth;
+    }
+}
@@ -0,0 +1,187 @@
+package server.analysis;
+
+import chess.ChessGame;
+import chess.engine.AlphaBetaSearch;
+import chess.engine.Evaluator;
+import chess.engine.MaterialEvaluator;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Analyses positions for clients on a small pool of worker threads of its own, so
+ * searches never run on, or starve, the HTTP and WebSocket threads.
+ * <p>
+ * Requests are answered from a cache when a deep enough result is known. Otherwise a
+ * request for a position already being searched at least as deeply shares that
+ * search instead of starting another, so many spectators asking about the same
+ * position cost one search. New searches wait in a bounded queue; the fuller the
+ * queue, the shallower the depth a new search is given, down to {@link #MIN_DEPTH}
+ * when it is nearly full. Once it is full a request gets whatever the cache holds
+ * for the position, or fails with a {@link RejectedExecutionException}.
+ */
+public class AnalysisService implements AutoCloseable {
+    public static final int MIN_DEPTH = 1;
+
+    private static final int POLL_INTERVAL = 4096;
+
+    private final int maxDepth;
+    private final int queueCapacity;
+    private final ThreadPoolExecutor executor;
+    private final AnalysisCache cache;
+    private final ConcurrentHashMap<Long, Task> inFlight = new ConcurrentHashMap<>();
+    private final ThreadLocal<AlphaBetaSearch> searches;
+    private volatile boolean closed;
+
+    public AnalysisService(int workers, int queueCapacity, int maxDepth, int cacheCapacity) {
+        this(workers, queueCapacity, maxDepth, cacheCapacity, MaterialEvaluator::new);
+    }
+
+    /**
+     * @param workers       the number of searches run at once
+     * @param queueCapacity how many searches may wait for a worker
+     * @param maxDepth      the deepest search a client may ask for
+     * @param cacheCapacity how many results to keep
+     * @param evaluators    creates an evaluator for each worker thread
+     */
+    public AnalysisService(int workers, int queueCapacity, int maxDepth, int cacheCapacity,
+                           Supplier<? extends Evaluator> evaluators) {
+        if (maxDepth < MIN_DEPTH) {
+            throw new IllegalArgumentException("Maximum depth must be at least " + MIN_DEPTH + ": " + maxDepth);
+        }
+        this.maxDepth = maxDepth;
+        this.queueCapacity = queueCapacity;
+        this.cache = new AnalysisCache(cacheCapacity);
+        var threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(workers, workers, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+            var thread = new Thread(runnable, "analysis-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.searches = ThreadLocal.withInitial(() -> {
+            var search = new AlphaBetaSearch(evaluators.get());
+            search.setMonitor(nodes -> closed, POLL_INTERVAL);
+            return search;
+        });
+    }
+
+    /**
+     * Analyses a position; safe to call from any thread. The position is copied, so
+     * the caller may go on using the game.
+     *
+     * @param depth the depth wanted, capped at the service's maximum
+     * @return the result, which may be shallower than asked for when the service is busy
+     */
+    public CompletableFuture<AnalysisResult> analyze(ChessGame game, int depth) {
+        if (depth < MIN_DEPTH) {
+            throw new IllegalArgumentException("Depth must be at least " + MIN_DEPTH + ": " + depth);
+        }
+        int requested = Math.min(depth, maxDepth);
+        long hash = game.getHash();
+        var cached = cache.get(hash);
+        if (cached != null && cached.depth() >= requested) {
+            return CompletableFuture.completedFuture(cached);
+        }
+        int target = degradedDepth(requested);
+        if (cached != null && cached.depth() >= target) {
+            return CompletableFuture.completedFuture(cached);
+        }
+
+        var task = new Task(hash, requested, target, new ChessGame(game));
+        var shared = inFlight.compute(hash, (key, running) -> {
+            if (running != null && running.depth >= target) {
+                return running;
+            }
+            try {
+                executor.execute(task);
+                return task;
+            } catch (RejectedExecutionException e) {
+                // full; a shallower search already running is still better than nothing
+                return running;
+            }
+        });
+        if (shared != null) {
+            return shared.future;
+        }
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+        return CompletableFuture.failedFuture(new RejectedExecutionException("Analysis queue is full"));
+    }
+
+    /**
+     * @return the number of searches waiting for a worker
+     */
+    public int getQueuedCount() {
+        return executor.getQueue().size();
+    }
+
+    /**
+     * @return the number of results in the cache
+     */
+    public int getCachedCount() {
+        return cache.size();
+    }
+
+    /**
+     * Stops the running searches and cancels the waiting ones
+     */
+    @Override
+    public void close() {
+        closed = true;
+        for (var waiting : executor.shutdownNow()) {
+            ((Task) waiting).future.completeExceptionally(new CancellationException("Analysis service closed"));
+        }
+    }
+
+    /**
+     * Scales the depth down linearly with how full the queue is
+     */
+    private int degradedDepth(int requested) {
+        int queued = executor.getQueue().size();
+        return Math.max(MIN_DEPTH, requested - (requested - MIN_DEPTH) * queued / queueCapacity);
+    }
+
+    private class Task implements Runnable {
+        final long hash;
+        final int requestedDepth;
+        final int depth;
+        final ChessGame position;
+        final CompletableFuture<AnalysisResult> future = new CompletableFuture<>();
+
+        Task(long hash, int requestedDepth, int depth, ChessGame position) {
+            this.hash = hash;
+            this.requestedDepth = requestedDepth;
+            this.depth = depth;
+            this.position = position;
+        }
+
+        @Override
+        public void run() {
+            try {
+                var search = searches.get();
+                int score = search.search(position, depth);
+                if (closed) {
+                    throw new CancellationException("Analysis service closed");
+                }
+                var result = new AnalysisResult(hash, requestedDepth, search.getCompletedDepth(), score,
+                        search.getBestMove(), search.getNodes());
+                // cache first so a request arriving after the removal finds the result
+                cache.put(result);
+                inFlight.remove(hash, this);
+                future.complete(result);
+            } catch (RuntimeException e) {
+                inFlight.remove(hash, this);
+                future.completeExceptionally(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package server.benchmark;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.InvalidMoveException;
+import chess.PackedMove;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import server.websocket.GameUpdates;
+import server.websocket.OutgoingMessage;
+import server.websocket.Outbox;
+import websocket.WebSocketTypeAdapterFactory;
+import websocket.messages.LoadGameMessage;
+import websocket.messages.ServerMessage;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Measures fanning a move out to a game's observers, each sent the whole game as JSON,
+ * at 1, 100 and 10,000 observers. The broadcast through {@link GameUpdates} serializes
+ * each message once and queues it to per-session {@link Outbox}es written on virtual
+ * threads; the baseline serializes once per observer and writes on the moving thread.
+ * A write only reads the frame, so this measures the server's side, not the network.
+ * <p>
+ * Usage: BroadcastBenchmark [observers...]
+ */
+public class BroadcastBenchmark {
+    private static final int ROUNDS = 3;
+    private static final int PLIES = 60;
+    private static final int MESSAGES_PER_ROUND = 100_000;
+    private static final Gson GSON = WebSocketTypeAdapterFactory.register(new GsonBuilder()).create();
+
+    public static void main(String[] args) throws InvalidMoveException {
+        int[] observerCounts = args.length > 0
+                ? Arrays.stream(args).mapToInt(Integer::parseInt).toArray() : new int[]{1, 100, 10_000};
+        for (int observers : observerCounts) {
+            var moves = randomGame(new Random(50));
+            int games = Math.max(1, MESSAGES_PER_ROUND / observers / PLIES);
+            double broadcastNanos = 0;
+            double deliveredNanos = 0;
+            double baselineNanos = 0;
+            // the first round warms up the JIT
+            for (int round = 0; round <= ROUNDS; round++) {
+                long[] times = new long[2];
+                long baseline = 0;
+                for (int game = 0; game < games; game++) {
+                    var gameTimes = broadcast(observers, moves);
+                    times[0] += gameTimes[0];
+                    times[1] += gameTimes[1];
+                    baseline += baseline(observers, moves);
+                }
+                if (round > 0) {
+                    broadcastNanos += times[0];
+                    deliveredNanos += times[1];
+                    baselineNanos += baseline;
+                }
+            }
+            long moveCount = (long) games * moves.size();
+            long messages = observers * moveCount;
+            System.out.printf("%6d observers: serialize once %9.1f us/move on the moving thread, "
+                            + "%9.0f messages/s delivered; per observer %9.1f us/move, %9.0f messages/s%n",
+                    observers, broadcastNanos / ROUNDS / moveCount / 1e3, messages / (deliveredNanos / ROUNDS / 1e9),
+                    baselineNanos / ROUNDS / moveCount / 1e3, messages / (baselineNanos / ROUNDS / 1e9));
+        }
+    }
+
+    /**
+     * @return the time spent in makeMove, and the time until every message was written
+     */
+    private static long[] broadcast(int observers, List<ChessMove> moves) throws InvalidMoveException {
+        var written = new LongAdder();
+        var bytes = new LongAdder();
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            var updates = new GameUpdates(new ChessGame());
+            for (int i = 0; i < observers; i++) {
+                updates.connect(new Outbox(executor, Integer.MAX_VALUE, message -> {
+                    bytes.add(message.json().length());
+                    written.increment();
+                }, () -> {
+                }), false);
+            }
+            await(written, observers);
+            written.reset();
+
+            long busy = 0;
+            long start = System.nanoTime();
+            for (var move : moves) {
+                long before = System.nanoTime();
+                updates.makeMove(move);
+                busy += System.nanoTime() - before;
+            }
+            await(written, (long) observers * moves.size());
+            return new long[]{busy, System.nanoTime() - start};
+        }
+    }
+
+    private static long baseline(int observers, List<ChessMove> moves) throws InvalidMoveException {
+        var game = new ChessGame();
+        long bytes = 0;
+        long start = System.nanoTime();
+        for (var move : moves) {
+            game.makeMove(move);
+            for (int i = 0; i < observers; i++) {
+                ServerMessage message = new LoadGameMessage(new ChessGame(game));
+                bytes += GSON.toJson(message, ServerMessage.class).length();
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        if (bytes == 0) {
+            throw new IllegalStateException("Nothing was written");
+        }
+        return elapsed;
+    }
+
+    private static void await(LongAdder written, long expected) {
+        while (written.sum() < expected) {
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * @return the first {@link #PLIES} moves of a random game that lasts that long
+     */
+    private static List<ChessMove> randomGame(Random random) {
+        var moves = new ArrayList<ChessMove>(PLIES);
+        var legalMoves = new int[ChessGame.MAX_MOVES];
+        var game = new ChessGame();
+        while (moves.size() < PLIES) {
+            int count = game.generateMoves(legalMoves);
+            if (count == 0) {
+                game = new ChessGame();
+                moves.clear();
+                continue;
+            }
+            int move = legalMoves[random.nextInt(count)];
+            moves.add(PackedMove.unpack(move));
+            game.doMove(move);
+        }
+        return moves;
+    }
+}
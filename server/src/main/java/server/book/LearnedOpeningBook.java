@@ -0,0 +1,166 @@
+package server.book;
+
+import chess.book.OpeningBook;
+import server.opening.OpeningLearner;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * An opening book learned from the games played on the server.
+ * <p>
+ * Completed games are queued by whichever thread finishes them. An
+ * {@link OpeningLearner} replays the first plies of each queued game into
+ * {@link MoveStatistics} on its own thread and, on a fixed schedule, writes the
+ * statistics out as a new {@link OpeningBook} file. The file is memory mapped and
+ * swapped in as the current book with one atomic reference write, so readers never
+ * wait on the job; a reader holding the previous book keeps using it safely until it
+ * next asks for the current one.
+ * <p>
+ * Snapshots are named {@code learned-<generation>.bin} in the book directory, and the
+ * newest is loaded again on startup so nothing learned is lost across restarts.
+ */
+public final class LearnedOpeningBook implements AutoCloseable {
+    private static final Logger LOGGER = Logger.getLogger(LearnedOpeningBook.class.getName());
+    private static final String PREFIX = "learned-";
+    private static final String SUFFIX = ".bin";
+
+    private final Path directory;
+    private final AtomicReference<OpeningBook> current = new AtomicReference<>();
+    private final OpeningLearner<int[]> learner;
+
+    // only used on the learner's thread once it starts
+    private final MoveStatistics statistics = new MoveStatistics();
+    private long generation;
+    private Path currentFile;
+
+    /**
+     * Loads the newest snapshot in the directory, if any, and starts the background job
+     *
+     * @param maxPly           how many plies of each game to learn from
+     * @param snapshotInterval how often to write a new snapshot when games have been added
+     */
+    public LearnedOpeningBook(Path directory, int maxPly, long snapshotInterval, TimeUnit unit) throws IOException {
+        this.directory = directory;
+        learner = new OpeningLearner<>("learned-opening-book", maxPly, moves -> moves,
+                (key, move, moves) -> statistics.add(key, move, 1), this::snapshot);
+        Files.createDirectories(directory);
+        loadNewestSnapshot();
+        learner.start(snapshotInterval, unit);
+    }
+
+    /**
+     * Queues a completed game to be learned from; safe to call from any thread
+     *
+     * @param moves the packed moves of the game from the starting position
+     */
+    public void addGame(int[] moves) {
+        learner.addGame(moves.clone());
+    }
+
+    /**
+     * @return the newest snapshot, or null if nothing has been learned yet
+     */
+    public OpeningBook current() {
+        return current.get();
+    }
+
+    /**
+     * Folds in every queued game and writes a snapshot now, waiting until it is in use
+     */
+    public void flush() throws IOException {
+        learner.flush();
+    }
+
+    /**
+     * Stops the background job after writing anything not yet in a snapshot
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            learner.close();
+        }
+    }
+
+    /**
+     * Writes the statistics as the next generation; if it fails, the games stay in the
+     * statistics for the next attempt
+     */
+    private void snapshot() throws IOException {
+        var keys = new long[statistics.size()];
+        var moves = new int[statistics.size()];
+        var weights = new int[statistics.size()];
+        int count = statistics.copyTo(keys, moves, weights);
+
+        long next = generation + 1;
+        var file = directory.resolve(PREFIX + next + SUFFIX);
+        var temporary = directory.resolve(PREFIX + next + SUFFIX + ".tmp");
+        OpeningBook.write(temporary, keys, moves, weights, count);
+        Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        current.set(OpeningBook.open(file));
+
+        var previous = currentFile;
+        generation = next;
+        currentFile = file;
+        if (previous != null) {
+            try {
+                // readers may still have it mapped; where the platform refuses, it is retried at startup
+                Files.deleteIfExists(previous);
+            } catch (IOException e) {
+                LOGGER.log(Level.FINE, "Could not delete old opening book " + previous, e);
+            }
+        }
+    }
+
+    private void loadNewestSnapshot() throws IOException {
+        Path newest = null;
+        try (var files = Files.list(directory)) {
+            for (var file : (Iterable<Path>) files::iterator) {
+                long fileGeneration = generationOf(file);
+                if (fileGeneration > generation) {
+                    generation = fileGeneration;
+                    newest = file;
+                }
+            }
+        }
+        if (newest == null) {
+            return;
+        }
+        var book = OpeningBook.open(newest);
+        for (int entry = 0; entry < book.size(); entry++) {
+            statistics.add(book.getKey(entry), book.getMove(entry), book.getWeight(entry));
+        }
+        current.set(book);
+        currentFile = newest;
+        try (var files = Files.list(directory)) {
+            for (var file : (Iterable<Path>) files::iterator) {
+                if (generationOf(file) > 0 && !file.equals(newest)) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the generation in a snapshot file name, or 0 if it is not a snapshot
+     */
+    private static long generationOf(Path file) {
+        var name = file.getFileName().toString();
+        if (!name.startsWith(PREFIX) || !name.endsWith(SUFFIX)) {
+            return 0;
+        }
+        try {
+            return Long.parseLong(name, PREFIX.length(), name.length() - SUFFIX.length(), 10);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+}
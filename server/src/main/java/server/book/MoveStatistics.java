@@ -0,0 +1,60 @@
+package server.book;
+
+import server.opening.PositionMoveIndex;
+
+import java.util.Arrays;
+
+/**
+ * Counts how often each move was played from each position, as a weight per entry of
+ * a {@link PositionMoveIndex}. Adding a game's moves allocates nothing unless the
+ * arrays have to grow.
+ * <p>
+ * Not thread safe; {@link LearnedOpeningBook} only touches it from its own thread.
+ */
+class MoveStatistics {
+    private final PositionMoveIndex index = new PositionMoveIndex();
+    private int[] weights = new int[1024];
+
+    /**
+     * Adds to the weight of a move from a position
+     *
+     * @param weight a positive amount to add
+     */
+    void add(long key, int move, int weight) {
+        int entry = index.add(key, move);
+        if (entry == weights.length) {
+            weights = Arrays.copyOf(weights, entry * 2);
+        }
+        weights[entry] = (int) Math.min((long) weights[entry] + weight, Integer.MAX_VALUE);
+    }
+
+    /**
+     * @return the weight of a move from a position, or 0 if it was never added
+     */
+    int get(long key, int move) {
+        int entry = index.find(key, move);
+        return entry < 0 ? 0 : weights[entry];
+    }
+
+    /**
+     * @return the number of distinct position and move pairs
+     */
+    int size() {
+        return index.size();
+    }
+
+    /**
+     * Copies the entries into arrays at least {@link #size()} long
+     *
+     * @return the number of entries copied
+     */
+    int copyTo(long[] keysOut, int[] movesOut, int[] weightsOut) {
+        int count = index.size();
+        for (int entry = 0; entry < count; entry++) {
+            keysOut[entry] = index.getKey(entry);
+            movesOut[entry] = index.getMove(entry);
+        }
+        System.arraycopy(weights, 0, weightsOut, 0, count);
+        return count;
+    }
+}
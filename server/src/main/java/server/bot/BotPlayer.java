@@ -0,0 +1,129 @@
+package server.bot;
+
+import chess.ChessGame;
+import chess.PackedMove;
+import chess.engine.AlphaBetaSearch;
+import chess.engine.Evaluator;
+import chess.engine.SearchMonitor;
+import chess.engine.TimedSearch;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.Condition;
+import java.util.function.LongSupplier;
+
+/**
+ * The computer opponent in one game. Its search, move ordering tables included, is
+ * kept for the whole game and only ever used by one move at a time.
+ * <p>
+ * Moves are chosen with a {@link TimedSearch} on the game's real clock, so time spent
+ * waiting for a slot counts against the bot just as it would for a human thinking.
+ */
+public class BotPlayer {
+    private static final int POLL_INTERVAL = 256;
+    private static final long NANOS_PER_MILLI = 1_000_000;
+
+    private final BotScheduler scheduler;
+    private final LongSupplier nanoClock;
+    private final TimedSearch timedSearch;
+    private final Turn turn;
+    private final SlicingMonitor monitor = new SlicingMonitor();
+    private CompletableFuture<Integer> pending;
+    private volatile int slices;
+
+    /**
+     * @param nanoClock the clock the bot's time is measured on, in nanoseconds
+     */
+    BotPlayer(BotScheduler scheduler, Evaluator evaluator, LongSupplier nanoClock) {
+        this.scheduler = scheduler;
+        this.nanoClock = nanoClock;
+        var search = new AlphaBetaSearch(evaluator);
+        this.timedSearch = new TimedSearch(search, nanoClock, POLL_INTERVAL);
+        this.turn = new Turn(scheduler.newCondition());
+        // sits between the search and the time management to hand the slot on between quanta
+        search.setMonitor(monitor, POLL_INTERVAL);
+    }
+
+    /**
+     * Starts choosing a move for the team whose turn it is. The position is copied, so
+     * the caller may go on using the game.
+     *
+     * @param remainingMillis the time left on the bot's clock
+     * @param incrementMillis the time added to the clock after each move
+     * @return the chosen packed move, or {@link PackedMove#NONE} if there are no legal moves
+     * @throws IllegalStateException if the bot is still choosing its previous move
+     */
+    public synchronized CompletableFuture<Integer> chooseMove(ChessGame game, long remainingMillis,
+                                                             long incrementMillis) {
+        if (pending != null && !pending.isDone()) {
+            throw new IllegalStateException("Still choosing the previous move");
+        }
+        var position = new ChessGame(game);
+        var result = new CompletableFuture<Integer>();
+        pending = result;
+        long requested = nanoClock.getAsLong();
+        turn.flagNanos = requested + remainingMillis * NANOS_PER_MILLI;
+        slices = 1;
+        monitor.sliceStart = 0;
+        scheduler.submit(turn);
+        scheduler.startThread(() -> {
+            scheduler.awaitSlot(turn);
+            int move = PackedMove.NONE;
+            RuntimeException failure = null;
+            try {
+                long waitedMillis = (nanoClock.getAsLong() - requested) / NANOS_PER_MILLI;
+                move = timedSearch.chooseMove(position, Math.max(remainingMillis - waitedMillis, 0), incrementMillis);
+            } catch (RuntimeException e) {
+                failure = e;
+            } finally {
+                scheduler.release(turn);
+            }
+            // only once the slot is back, since a caller may ask for the next move as soon as this completes
+            if (failure != null) {
+                result.completeExceptionally(failure);
+            } else {
+                result.complete(move);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * @return how many node quanta the last move was searched in
+     */
+    public int getSlices() {
+        return slices;
+    }
+
+    /**
+     * Scheduling state of the bot's move in progress, guarded by the scheduler's lock
+     */
+    static class Turn {
+        final Condition wakeup;
+        long flagNanos;
+        long ticket;
+        boolean running;
+
+        Turn(Condition wakeup) {
+            this.wakeup = wakeup;
+        }
+    }
+
+    private class SlicingMonitor implements SearchMonitor {
+        private long sliceStart;
+
+        @Override
+        public boolean shouldStop(long nodes) {
+            if (nodes - sliceStart >= scheduler.getQuantumNodes()) {
+                scheduler.yieldSlot(turn);
+                sliceStart = nodes;
+                slices++;
+            }
+            return scheduler.isClosed() || timedSearch.shouldStop(nodes);
+        }
+
+        @Override
+        public boolean iterationComplete(int depth, int score, int bestMove, long nodes) {
+            return timedSearch.iterationComplete(depth, score, bestMove, nodes);
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package server.bot;
+
+import chess.engine.Evaluator;
+import chess.engine.MaterialEvaluator;
+
+import java.util.Comparator;
+import java.util.PriorityQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Shares a fixed number of search slots, one per core by default, between the
+ * computer opponents of every game on the server.
+ * <p>
+ * Each bot searches on a virtual thread of its own, which keeps the whole state of a
+ * search in progress, its recursion included, while the bot waits for a slot. Only
+ * as many searches as there are slots run at once; every {@code quantumNodes} nodes a
+ * running search offers its slot back and the slot goes to the most urgent waiting
+ * bot, the one whose clock runs out soonest. Bots whose clocks run out at the same
+ * moment take turns in the order they asked, so equally urgent games are
+ * round-robined. A parked virtual thread holds no carrier thread, so hundreds of
+ * waiting bots cost memory but not CPU.
+ */
+public class BotScheduler implements AutoCloseable {
+    public static final int DEFAULT_QUANTUM_NODES = 16_384;
+
+    private final int quantumNodes;
+    private final ThreadFactory threads = Thread.ofVirtual().name("bot-", 1).factory();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final PriorityQueue<BotPlayer.Turn> waiting = new PriorityQueue<>(
+            Comparator.comparingLong((BotPlayer.Turn turn) -> turn.flagNanos).thenComparingLong(turn -> turn.ticket));
+    private int freeSlots;
+    private long tickets;
+    private volatile boolean closed;
+
+    public BotScheduler() {
+        this(Runtime.getRuntime().availableProcessors(), DEFAULT_QUANTUM_NODES);
+    }
+
+    /**
+     * @param slots        how many bot searches may run at once; no more than the cores,
+     *                     which is how many carrier threads run virtual threads
+     * @param quantumNodes how many nodes a search visits before offering its slot back
+     */
+    public BotScheduler(int slots, int quantumNodes) {
+        if (slots < 1 || quantumNodes < 1) {
+            throw new IllegalArgumentException("Slots and quantum must be positive: " + slots + ", " + quantumNodes);
+        }
+        this.freeSlots = slots;
+        this.quantumNodes = quantumNodes;
+    }
+
+    /**
+     * Creates the computer opponent for one game, searching with material evaluation
+     */
+    public BotPlayer newPlayer() {
+        return newPlayer(new MaterialEvaluator());
+    }
+
+    public BotPlayer newPlayer(Evaluator evaluator) {
+        return newPlayer(evaluator, System::nanoTime);
+    }
+
+    /**
+     * @param nanoClock the clock the bot's time is measured on, in nanoseconds
+     */
+    BotPlayer newPlayer(Evaluator evaluator, LongSupplier nanoClock) {
+        return new BotPlayer(this, evaluator, nanoClock);
+    }
+
+    /**
+     * Stops every bot search; moves in progress finish with the best move found so far
+     */
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            closed = true;
+            // let everything waiting run so it can see the flag and finish
+            freeSlots += waiting.size();
+            dispatch();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    boolean isClosed() {
+        return closed;
+    }
+
+    int getQuantumNodes() {
+        return quantumNodes;
+    }
+
+    Thread startThread(Runnable task) {
+        var thread = threads.newThread(task);
+        thread.start();
+        return thread;
+    }
+
+    /**
+     * Queues the turn for a slot. This runs on the thread asking for the move rather
+     * than the bot's own thread, since with every carrier thread busy searching the
+     * bot's thread might not get to run until a search parks.
+     */
+    void submit(BotPlayer.Turn turn) {
+        lock.lock();
+        try {
+            if (closed) {
+                // run at once so the search sees the flag; the slot is given back on release
+                turn.running = true;
+                freeSlots--;
+                return;
+            }
+            enqueue(turn);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Waits until a submitted turn is given a slot
+     */
+    void awaitSlot(BotPlayer.Turn turn) {
+        lock.lock();
+        try {
+            while (!turn.running) {
+                turn.wakeup.awaitUninterruptibly();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Gives the turn's slot to a more urgent or longer waiting bot, if there is one,
+     * and waits to be given a slot again
+     */
+    void yieldSlot(BotPlayer.Turn turn) {
+        lock.lock();
+        try {
+            if (waiting.isEmpty() || closed) {
+                return;
+            }
+            turn.running = false;
+            freeSlots++;
+            enqueue(turn);
+            awaitSlot(turn);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void release(BotPlayer.Turn turn) {
+        lock.lock();
+        try {
+            turn.running = false;
+            freeSlots++;
+            dispatch();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void enqueue(BotPlayer.Turn turn) {
+        turn.ticket = tickets++;
+        waiting.add(turn);
+        dispatch();
+    }
+
+    private void dispatch() {
+        while (freeSlots > 0 && !waiting.isEmpty()) {
+            var next = waiting.poll();
+            freeSlots--;
+            next.running = true;
+            next.wakeup.signal();
+        }
+    }
+
+    Condition newCondition() {
+        return lock.newCondition();
+    }
+}
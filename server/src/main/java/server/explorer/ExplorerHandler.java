@@ -0,0 +1,67 @@
+package server.explorer;
+
+import chess.ChessGame;
+import chess.Fen;
+import chess.PackedMove;
+import com.google.gson.Gson;
+import io.javalin.http.Context;
+import io.javalin.http.Handler;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Serves opening explorer statistics as JSON. The position is given either as a
+ * {@code fen} query parameter or as {@code moves}, coordinate moves from the starting
+ * position separated by commas or spaces, such as {@code moves=e2e4,e7e5}.
+ */
+public class ExplorerHandler implements Handler {
+    private static final Gson GSON = new Gson();
+
+    private final OpeningExplorer explorer;
+
+    private record ExplorerResponse(String fen, List<ExplorerMove> moves) {
+    }
+
+    public ExplorerHandler(OpeningExplorer explorer) {
+        this.explorer = explorer;
+    }
+
+    @Override
+    public void handle(Context context) {
+        ChessGame position;
+        try {
+            position = position(context.queryParam("fen"), context.queryParam("moves"));
+        } catch (IllegalArgumentException e) {
+            context.status(400).contentType("application/json")
+                    .result(GSON.toJson(Map.of("message", "Error: " + e.getMessage())));
+            return;
+        }
+        var response = new ExplorerResponse(position.toFen(), explorer.explore(position));
+        context.contentType("application/json").result(GSON.toJson(response));
+    }
+
+    /**
+     * @throws IllegalArgumentException if the FEN cannot be read or a move is not legal
+     */
+    private static ChessGame position(String fen, String moves) {
+        var game = fen == null ? new ChessGame() : Fen.parse(fen);
+        if (moves == null || moves.isBlank()) {
+            return game;
+        }
+        var legalMoves = new int[ChessGame.MAX_MOVES];
+        for (var text : moves.trim().split("[,\\s]+")) {
+            int move = PackedMove.parse(text);
+            int count = game.generateMoves(legalMoves);
+            boolean legal = false;
+            for (int i = 0; i < count && !legal; i++) {
+                legal = legalMoves[i] == move;
+            }
+            if (!legal) {
+                throw new IllegalArgumentException("Not a legal move: " + text);
+            }
+            game.doMove(move);
+        }
+        return game;
+    }
+}
@@ -0,0 +1,13 @@
+package server.explorer;
+
+/**
+ * One move the opening explorer knows from a position, with the results of the games
+ * that played it
+ *
+ * @param move  the move in coordinate notation, such as "e2e4"
+ * @param san   the move in standard algebraic notation, such as "e4"
+ * @param games the number of finished games that played it
+ */
+public record ExplorerMove(String move, String san, int games, double whitePercent, double drawPercent,
+                           double blackPercent) {
+}
@@ -0,0 +1,98 @@
+package server.explorer;
+
+import server.opening.PositionMoveIndex;
+
+import java.util.Arrays;
+
+/**
+ * Counts the results of the games that played each move from each position, as three
+ * counts per entry of a {@link PositionMoveIndex}.
+ * <p>
+ * Not thread safe; {@link OpeningExplorer} only touches it from its own thread.
+ */
+class ExplorerStatistics {
+    private final PositionMoveIndex index = new PositionMoveIndex();
+    // games counted per result, three ints per entry
+    private int[] counts = new int[1024 * 3];
+    // every entry as of the last tree, sorted by key
+    private int[] sorted = new int[0];
+
+    void add(long key, int move, GameResult result) {
+        // read the result first, so a missing one leaves the table as it was
+        int ordinal = result.ordinal();
+        int entry = index.add(key, move);
+        if (entry * 3 == counts.length) {
+            counts = Arrays.copyOf(counts, counts.length * 2);
+        }
+        counts[entry * 3 + ordinal]++;
+    }
+
+    /**
+     * @return the number of distinct position and move pairs
+     */
+    int size() {
+        return index.size();
+    }
+
+    /**
+     * Copies the entries out, sorted by key, as a tree that can be read from any thread.
+     * Only the entries added since the last tree are sorted; they are then merged into
+     * that tree's order in one pass.
+     */
+    ExplorerTree toTree() {
+        int size = index.size();
+        var added = new int[size - sorted.length];
+        for (int i = 0; i < added.length; i++) {
+            added[i] = sorted.length + i;
+        }
+        added = sortByKey(added);
+        var order = new int[size];
+        merge(sorted, 0, sorted.length, added, 0, added.length, order, 0);
+        sorted = order;
+
+        var treeKeys = new long[size];
+        var treeMoves = new int[size];
+        var treeCounts = new int[size * 3];
+        for (int i = 0; i < size; i++) {
+            int entry = order[i];
+            treeKeys[i] = index.getKey(entry);
+            treeMoves[i] = index.getMove(entry);
+            System.arraycopy(counts, entry * 3, treeCounts, i * 3, 3);
+        }
+        return new ExplorerTree(treeKeys, treeMoves, treeCounts);
+    }
+
+    /**
+     * A bottom-up merge sort of entries by key, so ties keep the order they were added in
+     *
+     * @return the sorted entries, in either the given array or a new one
+     */
+    private int[] sortByKey(int[] entries) {
+        var from = entries;
+        var to = new int[entries.length];
+        for (int width = 1; width < entries.length; width *= 2) {
+            for (int start = 0; start < entries.length; start += 2 * width) {
+                int middle = Math.min(start + width, entries.length);
+                int end = Math.min(start + 2 * width, entries.length);
+                merge(from, start, middle, from, middle, end, to, start);
+            }
+            var swap = from;
+            from = to;
+            to = swap;
+        }
+        return from;
+    }
+
+    /**
+     * Merges two runs of entries sorted by key, taking from the first run on ties
+     */
+    private void merge(int[] first, int firstFrom, int firstTo, int[] second, int secondFrom, int secondTo,
+                       int[] out, int outFrom) {
+        while (firstFrom < firstTo && secondFrom < secondTo) {
+            out[outFrom++] = index.getKey(second[secondFrom]) < index.getKey(first[firstFrom])
+                    ? second[secondFrom++] : first[firstFrom++];
+        }
+        System.arraycopy(first, firstFrom, out, outFrom, firstTo - firstFrom);
+        System.arraycopy(second, secondFrom, out, outFrom + firstTo - firstFrom, secondTo - secondFrom);
+    }
+}
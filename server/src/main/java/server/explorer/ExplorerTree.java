@@ -0,0 +1,58 @@
+package server.explorer;
+
+/**
+ * An immutable snapshot of the explorer's statistics: parallel arrays of position
+ * hash, move and result counts sorted by hash, so the moves from a position are one
+ * binary search and a short scan away. The moves from each position
+ * are the edges of the tree of positions the games reached.
+ */
+class ExplorerTree {
+    static final ExplorerTree EMPTY = new ExplorerTree(new long[0], new int[0], new int[0]);
+
+    private final long[] keys;
+    private final int[] moves;
+    // white wins, draws and black wins for each entry
+    private final int[] counts;
+
+    ExplorerTree(long[] keys, int[] moves, int[] counts) {
+        this.keys = keys;
+        this.moves = moves;
+        this.counts = counts;
+    }
+
+    int size() {
+        return keys.length;
+    }
+
+    /**
+     * @return the first entry for the position hash, or -1 if no game reached the position
+     */
+    int find(long key) {
+        int low = 0;
+        int high = keys.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (keys[middle] < key) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low < keys.length && keys[low] == key ? low : -1;
+    }
+
+    long getKey(int entry) {
+        return keys[entry];
+    }
+
+    int getMove(int entry) {
+        return moves[entry];
+    }
+
+    /**
+     * @return the number of games with the result that played the entry's move
+     */
+    int getCount(int entry, GameResult result) {
+        return counts[entry * 3 + result.ordinal()];
+    }
+}
@@ -0,0 +1,23 @@
+package server.explorer;
+
+/**
+ * How a finished game ended, as counted by the {@link OpeningExplorer}
+ */
+public enum GameResult {
+    WHITE_WINS,
+    DRAW,
+    BLACK_WINS;
+
+    /**
+     * @param result a PGN termination marker: "1-0", "1/2-1/2" or "0-1"
+     * @return the result, or null for an unfinished game ("*") or anything else
+     */
+    public static GameResult fromPgn(String result) {
+        return switch (result) {
+            case "1-0" -> WHITE_WINS;
+            case "1/2-1/2" -> DRAW;
+            case "0-1" -> BLACK_WINS;
+            default -> null;
+        };
+    }
+}
@@ -0,0 +1,115 @@
+package server.explorer;
+
+import chess.ChessGame;
+import chess.PackedMove;
+import chess.San;
+import server.opening.OpeningLearner;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Opening explorer statistics: for a position, each move played from it in finished
+ * games, with how many games played it and how they ended.
+ * <p>
+ * Requests never aggregate games. Finished games are queued by whichever thread
+ * finishes them, and an {@link OpeningLearner} folds them in batches into
+ * {@link ExplorerStatistics} on its own thread, then publishes a fresh sorted
+ * {@link ExplorerTree} with one atomic reference write. A request reads whichever
+ * tree is current, so it is a binary search over primitive arrays that never waits
+ * on a batch.
+ */
+public final class OpeningExplorer implements AutoCloseable {
+    private final AtomicReference<ExplorerTree> current = new AtomicReference<>(ExplorerTree.EMPTY);
+    private final OpeningLearner<FinishedGame> learner;
+
+    // only used on the learner's thread
+    private final ExplorerStatistics statistics = new ExplorerStatistics();
+
+    private record FinishedGame(int[] moves, GameResult result) {
+    }
+
+    /**
+     * @param maxPly         how many plies of each game to count
+     * @param updateInterval how often to publish a new tree when games have been added
+     */
+    public OpeningExplorer(int maxPly, long updateInterval, TimeUnit unit) {
+        learner = new OpeningLearner<>("opening-explorer", maxPly, FinishedGame::moves,
+                (key, move, finished) -> statistics.add(key, move, finished.result()),
+                () -> current.set(statistics.toTree()));
+        learner.start(updateInterval, unit);
+    }
+
+    /**
+     * Queues a finished game to be counted; safe to call from any thread
+     *
+     * @param moves  the packed moves of the game from the starting position
+     * @param result how the game ended; unfinished games are not counted, so it may not be null
+     */
+    public void addGame(int[] moves, GameResult result) {
+        Objects.requireNonNull(result, "result");
+        learner.addGame(new FinishedGame(moves.clone(), result));
+    }
+
+    /**
+     * @param position the position to look up, left unchanged
+     * @return the moves played from the position, most played first, as of the last
+     * published tree
+     */
+    public List<ExplorerMove> explore(ChessGame position) {
+        var tree = current.get();
+        var moves = new ArrayList<ExplorerMove>();
+        long key = position.getHash();
+        int entry = tree.find(key);
+        if (entry < 0) {
+            return moves;
+        }
+        var scratch = new int[ChessGame.MAX_MOVES];
+        var san = new StringBuilder(8);
+        for (; entry < tree.size() && tree.getKey(entry) == key; entry++) {
+            int move = tree.getMove(entry);
+            int white = tree.getCount(entry, GameResult.WHITE_WINS);
+            int draws = tree.getCount(entry, GameResult.DRAW);
+            int black = tree.getCount(entry, GameResult.BLACK_WINS);
+            int games = white + draws + black;
+            san.setLength(0);
+            San.append(position, move, san, scratch);
+            moves.add(new ExplorerMove(PackedMove.toString(move), san.toString(), games, 100.0 * white / games,
+                    100.0 * draws / games, 100.0 * black / games));
+        }
+        moves.sort(Comparator.comparingInt(ExplorerMove::games).reversed());
+        return moves;
+    }
+
+    /**
+     * @return the number of position and move pairs in the published tree
+     */
+    public int size() {
+        return current.get().size();
+    }
+
+    /**
+     * Folds in every queued game and publishes a new tree now, waiting until it is in use
+     */
+    public void flush() {
+        try {
+            learner.flush();
+        } catch (IOException e) {
+            // publishing a tree does no I/O, so this is either an interrupt, which leaves the flag
+            // set, or a failed update
+            if (!Thread.currentThread().isInterrupted()) {
+                throw new IllegalStateException("Could not update the opening explorer", e.getCause());
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        learner.close();
+    }
+}
@@ -0,0 +1,152 @@
+package server.opening;
+
+import chess.ChessGame;
+
+import java.io.IOException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Learns from finished games without holding up the threads that finish them.
+ * <p>
+ * Games are queued from any thread. One background thread replays the first plies of
+ * each from the starting position, stopping at the first move that is not legal, and
+ * hands every ply to a {@link PlyConsumer}. After a batch that added anything it runs
+ * the {@link Publisher}, on a fixed schedule or when {@link #flush()} asks. Both only
+ * run on that thread, so what they touch needs no locking.
+ *
+ * @param <G> a queued game
+ */
+public final class OpeningLearner<G> implements AutoCloseable {
+    private static final Logger LOGGER = Logger.getLogger(OpeningLearner.class.getName());
+
+    private final String name;
+    private final int maxPly;
+    private final Function<G, int[]> movesOf;
+    private final PlyConsumer<G> consumer;
+    private final Publisher publisher;
+    private final ConcurrentLinkedQueue<G> queued = new ConcurrentLinkedQueue<>();
+    private final ScheduledExecutorService executor;
+
+    // only used on the executor thread
+    private final ChessGame game = new ChessGame();
+    private final int[] legalMoves = new int[ChessGame.MAX_MOVES];
+    private boolean changed;
+
+    @FunctionalInterface
+    public interface PlyConsumer<G> {
+        /**
+         * @param key the hash of the position the move was played from
+         */
+        void accept(long key, int move, G game);
+    }
+
+    @FunctionalInterface
+    public interface Publisher {
+        void publish() throws IOException;
+    }
+
+    /**
+     * @param name    names the background thread and the warnings it logs
+     * @param maxPly  how many plies of each game to replay
+     * @param movesOf the packed moves of a queued game from the starting position
+     */
+    public OpeningLearner(String name, int maxPly, Function<G, int[]> movesOf, PlyConsumer<G> consumer,
+                          Publisher publisher) {
+        this.name = name;
+        this.maxPly = maxPly;
+        this.movesOf = movesOf;
+        this.consumer = consumer;
+        this.publisher = publisher;
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            var thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Starts publishing on a fixed schedule
+     */
+    public void start(long interval, TimeUnit unit) {
+        executor.scheduleWithFixedDelay(this::update, interval, interval, unit);
+    }
+
+    /**
+     * Queues a game; safe to call from any thread. The game must not change afterwards.
+     */
+    public void addGame(G queuedGame) {
+        queued.add(queuedGame);
+    }
+
+    /**
+     * Replays every queued game and publishes now, waiting until it is done
+     *
+     * @throws IOException if publishing failed or the wait was interrupted
+     */
+    public void flush() throws IOException {
+        try {
+            executor.submit(() -> {
+                replayAndPublish();
+                return null;
+            }).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for " + name, e);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof IOException io ? io : new IOException(e.getCause());
+        }
+    }
+
+    /**
+     * Stops the background thread; games still queued are not replayed
+     */
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+
+    private void update() {
+        try {
+            replayAndPublish();
+        } catch (IOException | RuntimeException e) {
+            // keep the schedule alive; what was replayed so far is published next time
+            LOGGER.log(Level.WARNING, "Could not publish " + name, e);
+        }
+    }
+
+    private void replayAndPublish() throws IOException {
+        G queuedGame;
+        while ((queuedGame = queued.poll()) != null) {
+            while (game.getHistorySize() > 0) {
+                game.undoMove();
+            }
+            var moves = movesOf.apply(queuedGame);
+            for (int ply = 0; ply < Math.min(moves.length, maxPly) && isLegal(moves[ply]); ply++) {
+                consumer.accept(game.getHash(), moves[ply], queuedGame);
+                game.doMove(moves[ply]);
+                changed = true;
+            }
+        }
+        if (changed) {
+            publisher.publish();
+            changed = false;
+        }
+    }
+
+    private boolean isLegal(int move) {
+        int count = game.generateMoves(legalMoves);
+        for (int i = 0; i < count; i++) {
+            if (legalMoves[i] == move) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
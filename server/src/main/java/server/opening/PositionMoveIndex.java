@@ -0,0 +1,94 @@
+package server.opening;
+
+import java.util.Arrays;
+
+/**
+ * Numbers each distinct pair of position hash and move in the order it is first added,
+ * so what is counted per pair can be kept in plain arrays indexed by that number. The
+ * pairs are found through an open-addressing hash table of primitive arrays, and adding
+ * allocates nothing unless the table has to grow.
+ * <p>
+ * Not thread safe.
+ */
+public final class PositionMoveIndex {
+    private static final int MINIMUM_CAPACITY = 1024;
+
+    // by entry
+    private long[] keys = new long[MINIMUM_CAPACITY];
+    private int[] moves = new int[MINIMUM_CAPACITY];
+    // entry + 1 in each used slot, so 0 is an empty slot
+    private int[] slots = new int[MINIMUM_CAPACITY];
+    private int size;
+
+    /**
+     * @return the entry for the pair, added as the next entry if the pair is new
+     */
+    public int add(long key, int move) {
+        if ((size + 1) * 4L > slots.length * 3L) {
+            grow();
+        }
+        int mask = slots.length - 1;
+        int slot = slot(key, move, mask);
+        for (; slots[slot] != 0; slot = (slot + 1) & mask) {
+            int entry = slots[slot] - 1;
+            if (keys[entry] == key && moves[entry] == move) {
+                return entry;
+            }
+        }
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+            moves = Arrays.copyOf(moves, size * 2);
+        }
+        keys[size] = key;
+        moves[size] = move;
+        slots[slot] = size + 1;
+        return size++;
+    }
+
+    /**
+     * @return the entry for the pair, or -1 if it was never added
+     */
+    public int find(long key, int move) {
+        int mask = slots.length - 1;
+        for (int slot = slot(key, move, mask); slots[slot] != 0; slot = (slot + 1) & mask) {
+            int entry = slots[slot] - 1;
+            if (keys[entry] == key && moves[entry] == move) {
+                return entry;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return the number of distinct position and move pairs, which are entries 0 to size - 1
+     */
+    public int size() {
+        return size;
+    }
+
+    public long getKey(int entry) {
+        return keys[entry];
+    }
+
+    public int getMove(int entry) {
+        return moves[entry];
+    }
+
+    private void grow() {
+        slots = new int[slots.length * 2];
+        int mask = slots.length - 1;
+        for (int entry = 0; entry < size; entry++) {
+            int slot = slot(keys[entry], moves[entry], mask);
+            while (slots[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            slots[slot] = entry + 1;
+        }
+    }
+
+    private static int slot(long key, int move, int mask) {
+        // Zobrist keys are already random, so mixing in the move is enough to spread the slots
+        long mixed = (key ^ (move * 0x9E3779B97F4A7C15L)) * 0xBF58476D1CE4E5B9L;
+        return (int) (mixed >>> 32) & mask;
+    }
+}
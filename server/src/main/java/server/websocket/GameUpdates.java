@@ -0,0 +1,123 @@
+package server.websocket;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.InvalidMoveException;
+import websocket.messages.LoadGameMessage;
+import websocket.messages.MoveMessage;
+import websocket.messages.ServerMessage;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * The sessions connected to one game and what each is sent when a move is made. A
+ * session that connected with move updates gets a {@link MoveMessage} of the move,
+ * the resulting hash and the game's move count; any other gets the whole game as a
+ * {@link LoadGameMessage}, as before. Every session gets the whole game when it
+ * connects, and a client that finds itself out of sync connects again to catch up.
+ * <p>
+ * Each broadcast is one {@link OutgoingMessage} shared by every session it goes to, so
+ * it is serialized once per wire format rather than once per session. Sessions are
+ * expected to queue it, as an {@link Outbox} does, rather than write to the socket
+ * while the game is locked.
+ */
+public class GameUpdates {
+    private final ChessGame game;
+    private final Map<Consumer<OutgoingMessage>, Boolean> sessions = new LinkedHashMap<>();
+    private int sequence;
+
+    /**
+     * @param game the game to make moves in, which this then owns
+     */
+    public GameUpdates(ChessGame game) {
+        this.game = game;
+    }
+
+    /**
+     * Adds a session, or changes whether an existing one gets move updates, and sends
+     * it the whole game
+     *
+     * @param session     queues a message for the client
+     * @param moveUpdates whether the client applies {@link MoveMessage}s itself
+     */
+    public synchronized void connect(Consumer<OutgoingMessage> session, boolean moveUpdates) {
+        sessions.put(session, moveUpdates);
+        session.accept(new OutgoingMessage(snapshot(moveUpdates)));
+    }
+
+    public synchronized void disconnect(Consumer<OutgoingMessage> session) {
+        sessions.remove(session);
+    }
+
+    /**
+     * Makes a move and sends the update to every connected session
+     *
+     * @throws InvalidMoveException if the move is not legal, in which case nothing is sent
+     */
+    public synchronized void makeMove(ChessMove move) throws InvalidMoveException {
+        makeMove(move, game.getTeamTurn());
+    }
+
+    /**
+     * Makes a move for one side and sends the update to every connected session
+     *
+     * @param player the side the mover plays
+     * @throws InvalidMoveException if it is not that side's turn or the move is not
+     *                              legal, in which case nothing is sent
+     */
+    public synchronized void makeMove(ChessMove move, ChessGame.TeamColor player) throws InvalidMoveException {
+        if (player != game.getTeamTurn()) {
+            throw new InvalidMoveException("It is " + game.getTeamTurn() + "'s turn");
+        }
+        game.makeMove(move);
+        sequence++;
+        OutgoingMessage full = null;
+        OutgoingMessage delta = null;
+        for (var session : sessions.entrySet()) {
+            if (session.getValue()) {
+                if (delta == null) {
+                    delta = new OutgoingMessage(new MoveMessage(move, game.getHash(), sequence));
+                }
+                session.getKey().accept(delta);
+            } else {
+                if (full == null) {
+                    full = new OutgoingMessage(snapshot(false));
+                }
+                session.getKey().accept(full);
+            }
+        }
+    }
+
+    /**
+     * Sends a message, such as a notification, to every connected session but one
+     *
+     * @param except the session not to send it to, such as the one it is about, or null
+     */
+    public synchronized void broadcast(ServerMessage message, Consumer<OutgoingMessage> except) {
+        var outgoing = new OutgoingMessage(message);
+        for (var session : sessions.keySet()) {
+            if (session != except) {
+                session.accept(outgoing);
+            }
+        }
+    }
+
+    /**
+     * @return the number of moves made since the game was loaded
+     */
+    public synchronized int getSequence() {
+        return sequence;
+    }
+
+    public synchronized int getSessionCount() {
+        return sessions.size();
+    }
+
+    private LoadGameMessage snapshot(boolean moveUpdates) {
+        // a copy, so a session serializing it later does not see later moves
+        var copy = new ChessGame(game);
+        return moveUpdates ? new LoadGameMessage(copy, sequence) : new LoadGameMessage(copy);
+    }
+}
@@ -0,0 +1,107 @@
+package server.websocket;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * One session's queue of messages waiting to be written. Whoever broadcasts a move only
+ * adds to the queue, and a task on the executor writes the queue out, at most one task
+ * per session at a time so messages keep their order. A slow socket then holds up only
+ * its own queue. A queue that grows past its capacity means the client cannot keep up:
+ * the messages still queued are dropped and the overflow handler runs once, typically to
+ * close the session so the client reconnects for a fresh snapshot. The handler runs in
+ * place of the writing task, after the write in progress, so the broadcasting thread,
+ * which may hold a game's lock, never waits on it.
+ */
+public class Outbox implements Consumer<OutgoingMessage> {
+    public static final int DEFAULT_CAPACITY = 1024;
+
+    private static final Logger LOGGER = Logger.getLogger(Outbox.class.getName());
+
+    private final Executor executor;
+    private final int capacity;
+    private final Consumer<OutgoingMessage> writer;
+    private final Runnable overflow;
+    private final ConcurrentLinkedQueue<OutgoingMessage> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger size = new AtomicInteger();
+    private final AtomicBoolean draining = new AtomicBoolean();
+    private final AtomicBoolean overflowed = new AtomicBoolean();
+
+    /**
+     * @param executor runs the tasks that write the queue out
+     * @param capacity how many messages can wait before the session counts as too slow
+     * @param writer   writes one message to the socket, blocking until it is sent
+     * @param overflow runs once on the executor, after the write in progress, when the queue is full
+     */
+    public Outbox(Executor executor, int capacity, Consumer<OutgoingMessage> writer, Runnable overflow) {
+        this.executor = executor;
+        this.capacity = capacity;
+        this.writer = writer;
+        this.overflow = overflow;
+    }
+
+    /**
+     * Queues a message to be written; never blocks on the socket
+     */
+    @Override
+    public void accept(OutgoingMessage message) {
+        if (overflowed.get()) {
+            return;
+        }
+        if (size.incrementAndGet() > capacity) {
+            size.decrementAndGet();
+            // a task that is already writing sees the flag after its current message
+            if (overflowed.compareAndSet(false, true) && draining.compareAndSet(false, true)) {
+                executor.execute(this::drain);
+            }
+            return;
+        }
+        queue.add(message);
+        if (draining.compareAndSet(false, true)) {
+            executor.execute(this::drain);
+        }
+    }
+
+    /**
+     * @return the number of messages waiting to be written
+     */
+    public int size() {
+        return size.get();
+    }
+
+    private void drain() {
+        while (true) {
+            OutgoingMessage message;
+            while (!overflowed.get() && (message = queue.poll()) != null) {
+                size.decrementAndGet();
+                try {
+                    writer.accept(message);
+                } catch (RuntimeException e) {
+                    // a failed write is the socket's problem; the close handler cleans up
+                    LOGGER.log(Level.FINE, "Could not write a websocket message", e);
+                }
+            }
+            if (overflowed.get()) {
+                // keep the flag set, so no task ever writes to this session again
+                queue.clear();
+                size.set(0);
+                try {
+                    overflow.run();
+                } catch (RuntimeException e) {
+                    LOGGER.log(Level.WARNING, "Could not handle a websocket overflow", e);
+                }
+                return;
+            }
+            draining.set(false);
+            // a message or overflow added after the last poll but before the flag cleared has no task of its own
+            if ((queue.isEmpty() && !overflowed.get()) || !draining.compareAndSet(false, true)) {
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package server.websocket;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import websocket.BinaryProtocol;
+import websocket.WebSocketTypeAdapterFactory;
+import websocket.messages.ServerMessage;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A server message on its way to any number of sessions, serialized at most once per
+ * wire format however many sessions it goes to. Each form is made the first time a
+ * session asks for it and shared after that: the JSON as a string, the binary frame as
+ * a read-only buffer that every session reads through its own view.
+ */
+public final class OutgoingMessage {
+    private static final Gson GSON = WebSocketTypeAdapterFactory.register(new GsonBuilder()).create();
+
+    private final ServerMessage message;
+    private String json;
+    private ByteBuffer binary;
+
+    public OutgoingMessage(ServerMessage message) {
+        this.message = message;
+    }
+
+    public ServerMessage message() {
+        return message;
+    }
+
+    /**
+     * @return the message as a JSON text frame
+     */
+    public synchronized String json() {
+        if (json == null) {
+            json = GSON.toJson(message, ServerMessage.class);
+        }
+        return json;
+    }
+
+    /**
+     * @return a view of the message as a binary frame, positioned at its start
+     */
+    public synchronized ByteBuffer binary() {
+        if (binary == null) {
+            binary = BinaryProtocol.encode(message).asReadOnlyBuffer();
+        }
+        return binary.duplicate();
+    }
+}
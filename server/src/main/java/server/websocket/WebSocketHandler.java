@@ -0,0 +1,190 @@
+package server.websocket;
+
+import chess.ChessGame;
+import chess.InvalidMoveException;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
+import io.javalin.Javalin;
+import io.javalin.websocket.WsCloseStatus;
+import io.javalin.websocket.WsContext;
+import websocket.BinaryProtocol;
+import websocket.WebSocketTypeAdapterFactory;
+import websocket.commands.ConnectCommand;
+import websocket.commands.MakeMoveCommand;
+import websocket.commands.UserGameCommand;
+import websocket.messages.ErrorMessage;
+import websocket.messages.ServerMessage;
+
+import java.nio.ByteBuffer;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+import java.util.function.Predicate;
+
+/**
+ * The gameplay websocket endpoint. Commands come in and server messages go out as JSON
+ * text frames, unless the client offers the {@link BinaryProtocol#NAME} sub-protocol
+ * when it connects, in which case both directions use binary frames for that session.
+ * <p>
+ * The JSON keeps Gson's reflective form of the game, which is what the passoff tests
+ * read.
+ * <p>
+ * Messages to a session go through its {@link Outbox}, written out on a virtual thread,
+ * so making a move never waits on a socket. A session that falls
+ * {@link Outbox#DEFAULT_CAPACITY} messages behind is closed, and its client reconnects
+ * for a fresh snapshot.
+ */
+public class WebSocketHandler implements AutoCloseable {
+    private static final String SUB_PROTOCOL_HEADER = "Sec-WebSocket-Protocol";
+    private static final Gson GSON = WebSocketTypeAdapterFactory.register(new GsonBuilder()).create();
+
+    private final IntFunction<GameUpdates> games;
+    private final Predicate<String> authTokens;
+    private final BiFunction<String, Integer, ChessGame.TeamColor> players;
+    private final Map<String, Connection> connections = new ConcurrentHashMap<>();
+    private final ExecutorService writers = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("websocket-writer-", 1).factory());
+
+    /**
+     * @param games      finds a game by id, or returns null if there is none
+     * @param authTokens whether an auth token belongs to a signed in user
+     * @param players    the side an auth token's user plays in a game, given the token and
+     *                   game id, or null if the user is not a player in it
+     */
+    public WebSocketHandler(IntFunction<GameUpdates> games, Predicate<String> authTokens,
+                            BiFunction<String, Integer, ChessGame.TeamColor> players) {
+        this.games = games;
+        this.authTokens = authTokens;
+        this.players = players;
+    }
+
+    /**
+     * Adds the endpoint to a server
+     */
+    public void register(Javalin app, String path) {
+        // Javalin leaves sub-protocols to the application, so accept ours before the upgrade
+        app.wsBeforeUpgrade(path, context -> {
+            if (BinaryProtocol.isOffered(context.header(SUB_PROTOCOL_HEADER))) {
+                context.header(SUB_PROTOCOL_HEADER, BinaryProtocol.NAME);
+            }
+        });
+        app.ws(path, ws -> {
+            ws.onConnect(context -> connections.put(context.sessionId(),
+                    new Connection(context, BinaryProtocol.isOffered(context.header(SUB_PROTOCOL_HEADER)), writers)));
+            ws.onMessage(context -> {
+                var connection = connections.get(context.sessionId());
+                UserGameCommand command;
+                try {
+                    command = GSON.fromJson(context.message(), UserGameCommand.class);
+                } catch (JsonParseException e) {
+                    connection.send(new ErrorMessage("Error: " + e.getMessage()));
+                    return;
+                }
+                handle(connection, command);
+            });
+            ws.onBinaryMessage(context -> {
+                var connection = connections.get(context.sessionId());
+                UserGameCommand command;
+                try {
+                    command = BinaryProtocol.decodeCommand(
+                            ByteBuffer.wrap(context.data(), context.offset(), context.length()));
+                } catch (IllegalArgumentException e) {
+                    connection.send(new ErrorMessage("Error: " + e.getMessage()));
+                    return;
+                }
+                handle(connection, command);
+            });
+            ws.onClose(context -> {
+                var connection = connections.remove(context.sessionId());
+                if (connection != null) {
+                    connection.games.forEach(game -> game.disconnect(connection));
+                }
+            });
+        });
+    }
+
+    /**
+     * Stops writing to sessions, after the messages already queued
+     */
+    @Override
+    public void close() {
+        writers.close();
+    }
+
+    private void handle(Connection connection, UserGameCommand command) {
+        if (command == null || command.getCommandType() == null) {
+            connection.send(new ErrorMessage("Error: bad request"));
+            return;
+        }
+        if (!authTokens.test(command.getAuthToken())) {
+            connection.send(new ErrorMessage("Error: unauthorized"));
+            return;
+        }
+        var game = command.getGameID() == null ? null : games.apply(command.getGameID());
+        if (game == null) {
+            connection.send(new ErrorMessage("Error: no game " + command.getGameID()));
+            return;
+        }
+        switch (command.getCommandType()) {
+            case CONNECT -> {
+                connection.games.add(game);
+                game.connect(connection, command instanceof ConnectCommand connect && connect.wantsMoveUpdates());
+            }
+            case MAKE_MOVE -> {
+                if (!(command instanceof MakeMoveCommand move) || move.getMove() == null) {
+                    connection.send(new ErrorMessage("Error: no move given"));
+                    return;
+                }
+                var player = players.apply(command.getAuthToken(), command.getGameID());
+                if (player == null) {
+                    connection.send(new ErrorMessage("Error: only players can make moves"));
+                    return;
+                }
+                try {
+                    game.makeMove(move.getMove(), player);
+                } catch (InvalidMoveException e) {
+                    connection.send(new ErrorMessage("Error: " + e.getMessage()));
+                }
+            }
+            case LEAVE -> {
+                connection.games.remove(game);
+                game.disconnect(connection);
+            }
+            // GameUpdates does not track finished games yet
+            case RESIGN -> connection.send(new ErrorMessage("Error: resigning is not supported"));
+        }
+    }
+
+    /**
+     * One client's session, sending messages in the format it chose when it connected
+     */
+    private static class Connection implements Consumer<OutgoingMessage> {
+        private final Outbox outbox;
+        private final Set<GameUpdates> games = ConcurrentHashMap.newKeySet();
+
+        Connection(WsContext context, boolean binary, ExecutorService writers) {
+            outbox = new Outbox(writers, Outbox.DEFAULT_CAPACITY, message -> {
+                if (binary) {
+                    context.send(message.binary());
+                } else {
+                    context.send(message.json());
+                }
+            }, () -> context.closeSession(WsCloseStatus.TRY_AGAIN_LATER, "Too far behind"));
+        }
+
+        @Override
+        public void accept(OutgoingMessage message) {
+            outbox.accept(message);
+        }
+
+        void send(ServerMessage message) {
+            outbox.accept(new OutgoingMessage(message));
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package server.analysis;
+
+import chess.ChessGame;
+import chess.PackedMove;
+import chess.engine.Evaluator;
+import chess.engine.MaterialEvaluator;
+import chess.testing.GameTestUtilities;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+public class AnalysisServiceTests {
+    private final CountDownLatch started = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @Test
+    @DisplayName("Shares Searches Of The Same Position")
+    public void deduplicates() throws Exception {
+        try (var service = new AnalysisService(1, 8, 3, 16, this::blockingEvaluator)) {
+            var first = service.analyze(new ChessGame(), 2);
+            started.await(5, TimeUnit.SECONDS);
+
+            var afterE4 = service.analyze(GameTestUtilities.play("e2e4"), 2);
+            Assertions.assertSame(afterE4, service.analyze(GameTestUtilities.play("e2e4"), 2));
+            Assertions.assertSame(afterE4, service.analyze(GameTestUtilities.play("e2e4"), 1),
+                    "A deeper search answers a shallower request");
+            Assertions.assertNotSame(afterE4, service.analyze(GameTestUtilities.play("e2e4"), 3));
+
+            release.countDown();
+            Assertions.assertEquals(2, first.get(5, TimeUnit.SECONDS).depth());
+            var result = afterE4.get(5, TimeUnit.SECONDS);
+            Assertions.assertEquals(2, result.depth());
+            Assertions.assertEquals(GameTestUtilities.play("e2e4").getHash(), result.hash());
+
+            service.analyze(GameTestUtilities.play("e2e4"), 3).get(5, TimeUnit.SECONDS);
+            var cached = service.analyze(GameTestUtilities.play("e2e4"), 2);
+            Assertions.assertTrue(cached.isDone(), "A deeper cached result should answer at once");
+            Assertions.assertEquals(3, cached.get().depth());
+        }
+    }
+
+    @Test
+    @DisplayName("Degrades Depth As The Queue Fills")
+    public void degradesUnderLoad() throws Exception {
+        try (var service = new AnalysisService(1, 4, 4, 16, this::blockingEvaluator)) {
+            var running = service.analyze(new ChessGame(), 4);
+            started.await(5, TimeUnit.SECONDS);
+
+            var queued = new String[]{"a2a3", "b2b3", "c2c3", "d2d3"};
+            var expectedDepths = new int[]{4, 4, 3, 2};
+            var futures = new ArrayList<CompletableFuture<AnalysisResult>>();
+            for (var move : queued) {
+                futures.add(service.analyze(GameTestUtilities.play(move), 4));
+            }
+            Assertions.assertEquals(4, service.getQueuedCount());
+            var rejected = service.analyze(GameTestUtilities.play("e2e3"), 4);
+            var failure = Assertions.assertThrows(ExecutionException.class, rejected::get);
+            Assertions.assertInstanceOf(RejectedExecutionException.class, failure.getCause());
+
+            release.countDown();
+            Assertions.assertFalse(running.get(5, TimeUnit.SECONDS).isDegraded());
+            for (int i = 0; i < queued.length; i++) {
+                var result = futures.get(i).get(5, TimeUnit.SECONDS);
+                Assertions.assertEquals(4, result.requestedDepth());
+                Assertions.assertEquals(expectedDepths[i], result.depth(), queued[i]);
+                Assertions.assertEquals(expectedDepths[i] < 4, result.isDegraded());
+            }
+            var unqueued = service.analyze(GameTestUtilities.play("e2e3"), 4);
+            Assertions.assertEquals(4, unqueued.get(5, TimeUnit.SECONDS).depth(),
+                    "With the queue empty again the full depth is searched");
+        }
+    }
+
+    @Test
+    @DisplayName("Analyses A Copy Of The Game")
+    public void copiesGame() throws Exception {
+        try (var service = new AnalysisService(2, 4, 3, 16)) {
+            var game = GameTestUtilities.play("e2e4", "e7e5", "d1h5", "b8c6", "f1c4", "g8f6");
+            var expected = new ChessGame(game);
+            var result = service.analyze(game, 3);
+            game.doMove(PackedMove.parse("h5f7"));
+            Assertions.assertEquals(PackedMove.parse("h5f7"), result.get(5, TimeUnit.SECONDS).bestMove());
+            game.undoMove();
+            Assertions.assertEquals(expected, game);
+        }
+    }
+
+    @Test
+    @DisplayName("Evicts The Shallowest Result")
+    public void depthAwareEviction() {
+        var cache = new AnalysisCache(2);
+        cache.put(new AnalysisResult(1, 5, 5, 0, PackedMove.NONE, 100));
+        cache.put(new AnalysisResult(2, 1, 1, 0, PackedMove.NONE, 10));
+        cache.put(new AnalysisResult(3, 3, 3, 0, PackedMove.NONE, 50));
+        Assertions.assertEquals(2, cache.size());
+        Assertions.assertNull(cache.get(2));
+        Assertions.assertNotNull(cache.get(1));
+
+        cache.put(new AnalysisResult(1, 2, 2, 0, PackedMove.NONE, 20));
+        Assertions.assertEquals(5, cache.get(1).depth(), "A shallower result should not replace a deeper one");
+        cache.put(new AnalysisResult(4, 2, 2, 0, PackedMove.NONE, 20));
+        Assertions.assertNull(cache.get(3), "The shallowest result other than the new one goes");
+    }
+
+    private Evaluator blockingEvaluator() {
+        var material = new MaterialEvaluator();
+        return game -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return material.evaluate(game);
+        };
+    }
+}
@@ -0,0 +1,103 @@
+package server.book;
+
+import chess.ChessGame;
+import chess.PackedMove;
+import chess.book.OpeningBook;
+import chess.testing.GameTestUtilities;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+public class LearnedOpeningBookTests {
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("Learns Moves From Completed Games")
+    public void learnsMoves() throws IOException {
+        try (var book = new LearnedOpeningBook(directory, 4, 1, TimeUnit.HOURS)) {
+            Assertions.assertNull(book.current());
+            book.addGame(GameTestUtilities.moves("e2e4", "e7e5", "g1f3", "b8c6", "f1b5"));
+            book.addGame(GameTestUtilities.moves("e2e4", "c7c5"));
+            book.addGame(GameTestUtilities.moves("d2d4", "d7d5"));
+            book.flush();
+
+            var snapshot = book.current();
+            var start = new ChessGame();
+            Assertions.assertEquals(2, weight(snapshot, start, "e2e4"));
+            Assertions.assertEquals(1, weight(snapshot, start, "d2d4"));
+            var afterE4 = GameTestUtilities.play("e2e4");
+            Assertions.assertEquals(1, weight(snapshot, afterE4, "e7e5"));
+            Assertions.assertEquals(1, weight(snapshot, afterE4, "c7c5"));
+            var afterFour = GameTestUtilities.play("e2e4", "e7e5", "g1f3", "b8c6");
+            Assertions.assertEquals(-1, snapshot.find(afterFour.getHash()),
+                    "Only the first four plies should be learned");
+
+            book.addGame(GameTestUtilities.moves("d2d4", "g8f6"));
+            book.flush();
+            Assertions.assertNotSame(snapshot, book.current());
+            Assertions.assertEquals(2, weight(book.current(), start, "d2d4"));
+            Assertions.assertEquals(1, weight(snapshot, start, "d2d4"), "Old snapshots never change");
+        }
+    }
+
+    @Test
+    @DisplayName("Stops Learning A Game At An Illegal Move")
+    public void illegalMove() throws IOException {
+        try (var book = new LearnedOpeningBook(directory, 10, 1, TimeUnit.HOURS)) {
+            book.addGame(GameTestUtilities.moves("e2e4", "e2e4", "g1f3"));
+            book.flush();
+            Assertions.assertEquals(1, book.current().size());
+        }
+    }
+
+    @Test
+    @DisplayName("Keeps What It Learned Across Restarts")
+    public void restart() throws IOException {
+        try (var book = new LearnedOpeningBook(directory, 10, 1, TimeUnit.HOURS)) {
+            book.addGame(GameTestUtilities.moves("c2c4", "e7e5"));
+        }
+        try (var book = new LearnedOpeningBook(directory, 10, 1, TimeUnit.HOURS)) {
+            Assertions.assertEquals(1, weight(book.current(), new ChessGame(), "c2c4"));
+            book.addGame(GameTestUtilities.moves("c2c4", "c7c5"));
+            book.flush();
+            Assertions.assertEquals(2, weight(book.current(), new ChessGame(), "c2c4"));
+        }
+        try (var files = Files.list(directory)) {
+            Assertions.assertEquals(1, files.count(), "Older snapshots should be deleted");
+        }
+    }
+
+    @Test
+    @DisplayName("Statistics Table Grows Without Losing Counts")
+    public void statisticsGrow() {
+        var statistics = new MoveStatistics();
+        for (int i = 0; i < 5000; i++) {
+            statistics.add(i * 0x9E3779B97F4A7C15L, i & 7, 1);
+            statistics.add(i * 0x9E3779B97F4A7C15L, i & 7, 2);
+        }
+        Assertions.assertEquals(5000, statistics.size());
+        for (int i = 0; i < 5000; i++) {
+            Assertions.assertEquals(3, statistics.get(i * 0x9E3779B97F4A7C15L, i & 7));
+        }
+        Assertions.assertEquals(0, statistics.get(1, 1));
+    }
+
+    private static int weight(OpeningBook book, ChessGame game, String move) {
+        var moves = new int[16];
+        var weights = new int[16];
+        int count = book.probe(game, moves, weights);
+        for (int i = 0; i < count; i++) {
+            if (moves[i] == PackedMove.parse(move)) {
+                return weights[i];
+            }
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,120 @@
+package server.bot;
+
+import chess.ChessGame;
+import chess.PackedMove;
+import chess.engine.Evaluator;
+import chess.engine.MaterialEvaluator;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class BotSchedulerTests {
+    @Test
+    @DisplayName("Never Runs More Searches Than Slots")
+    public void boundedConcurrency() throws Exception {
+        var mostRunning = new AtomicInteger();
+        var counting = countingEvaluator(mostRunning);
+        try (var scheduler = new BotScheduler(2, 512)) {
+            var bots = new ArrayList<BotPlayer>();
+            var moves = new ArrayList<CompletableFuture<Integer>>();
+            for (int i = 0; i < 6; i++) {
+                // a millisecond passes on each bot's own clock every time it is read, so the
+                // nodes each move searches do not depend on how fast this machine is
+                var ticks = new AtomicLong();
+                var bot = scheduler.newPlayer(counting, () -> ticks.addAndGet(1_000_000));
+                bots.add(bot);
+                moves.add(bot.chooseMove(new ChessGame(), 1000, 0));
+            }
+            var legal = legalMoves(new ChessGame());
+            for (var move : moves) {
+                Assertions.assertTrue(legal.contains(move.get(5, TimeUnit.SECONDS)));
+            }
+            Assertions.assertTrue(mostRunning.get() <= 2, "Searches running at once: " + mostRunning.get());
+            Assertions.assertTrue(bots.stream().allMatch(bot -> bot.getSlices() > 1), "Each move spans several quanta");
+        }
+    }
+
+    @Test
+    @DisplayName("The Bot Closest To Flagging Runs First")
+    public void clockPriority() throws Exception {
+        CompletableFuture<Integer> relaxedMove;
+        try (var scheduler = new BotScheduler(1, 256)) {
+            var relaxed = scheduler.newPlayer();
+            relaxedMove = relaxed.chooseMove(new ChessGame(), 600_000, 0);
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (relaxed.getSlices() < 2 && System.nanoTime() < deadline) {
+                Thread.onSpinWait();
+            }
+
+            var hurried = scheduler.newPlayer();
+            var game = new ChessGame();
+            game.doMove(PackedMove.parse("e2e4"));
+            int move = hurried.chooseMove(game, 150, 0).get(5, TimeUnit.SECONDS);
+            Assertions.assertTrue(legalMoves(game).contains(move));
+            Assertions.assertFalse(relaxedMove.isDone(), "The bot with more time should have waited");
+        }
+        Assertions.assertNotEquals(PackedMove.NONE, (int) relaxedMove.get(5, TimeUnit.SECONDS),
+                "Closing finishes the move with the best found so far");
+    }
+
+    @Test
+    @DisplayName("One Move At A Time Per Bot")
+    public void oneMoveAtATime() throws Exception {
+        var mostRunning = new AtomicInteger();
+        var counting = countingEvaluator(mostRunning);
+        try (var scheduler = new BotScheduler(1, 256)) {
+            var bot = scheduler.newPlayer(counting);
+            var first = bot.chooseMove(new ChessGame(), 500, 0);
+            Assertions.assertThrows(IllegalStateException.class, () -> bot.chooseMove(new ChessGame(), 500, 0));
+            first.get(5, TimeUnit.SECONDS);
+            Assertions.assertNotNull(bot.chooseMove(new ChessGame(), 100, 0).get(5, TimeUnit.SECONDS));
+
+            // asking for the next move from the completion itself, as a bot-vs-bot game would
+            var other = scheduler.newPlayer(counting);
+            var chains = new ArrayList<CompletableFuture<Integer>>();
+            for (var player : new BotPlayer[]{bot, other}) {
+                CompletableFuture<Integer> chain = player.chooseMove(new ChessGame(), 100, 0);
+                for (int i = 0; i < 3; i++) {
+                    chain = chain.thenCompose(move -> player.chooseMove(new ChessGame(), 100, 0));
+                }
+                chains.add(chain);
+            }
+            for (var chain : chains) {
+                Assertions.assertNotNull(chain.get(5, TimeUnit.SECONDS));
+            }
+            Assertions.assertTrue(mostRunning.get() <= 1, "Searches running at once: " + mostRunning.get());
+        }
+    }
+
+    /**
+     * Evaluates material, recording the most evaluations ever running at once
+     */
+    private static Evaluator countingEvaluator(AtomicInteger mostRunning) {
+        var running = new AtomicInteger();
+        var material = new MaterialEvaluator();
+        return game -> {
+            mostRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            try {
+                return material.evaluate(game);
+            } finally {
+                running.decrementAndGet();
+            }
+        };
+    }
+
+    private static ArrayList<Integer> legalMoves(ChessGame game) {
+        var moves = new int[ChessGame.MAX_MOVES];
+        int count = game.generateMoves(moves);
+        var legal = new ArrayList<Integer>();
+        for (int i = 0; i < count; i++) {
+            legal.add(moves[i]);
+        }
+        return legal;
+    }
+}
@@ -0,0 +1,157 @@
+package server.explorer;
+
+import chess.ChessGame;
+import chess.testing.GameTestUtilities;
+import io.javalin.Javalin;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+public class OpeningExplorerTests {
+    @Test
+    @DisplayName("Counts Moves And Results In Batches")
+    public void countsResults() {
+        try (var explorer = new OpeningExplorer(4, 1, TimeUnit.HOURS)) {
+            explorer.addGame(GameTestUtilities.moves("e2e4", "e7e5", "g1f3"), GameResult.WHITE_WINS);
+            explorer.addGame(GameTestUtilities.moves("e2e4", "c7c5"), GameResult.DRAW);
+            explorer.addGame(GameTestUtilities.moves("e2e4", "e7e5"), GameResult.BLACK_WINS);
+            explorer.addGame(GameTestUtilities.moves("d2d4", "d7d5"), GameResult.WHITE_WINS);
+            Assertions.assertTrue(explorer.explore(new ChessGame()).isEmpty(), "Nothing is published before a batch");
+            explorer.flush();
+
+            var start = new ChessGame();
+            var moves = explorer.explore(start);
+            Assertions.assertEquals(2, moves.size());
+            var e4 = moves.get(0);
+            Assertions.assertEquals("e2e4", e4.move());
+            Assertions.assertEquals("e4", e4.san());
+            Assertions.assertEquals(3, e4.games());
+            Assertions.assertEquals(100.0 / 3, e4.whitePercent(), 1e-9);
+            Assertions.assertEquals(100.0 / 3, e4.drawPercent(), 1e-9);
+            Assertions.assertEquals(100.0 / 3, e4.blackPercent(), 1e-9);
+            Assertions.assertEquals(new ExplorerMove("d2d4", "d4", 1, 100, 0, 0), moves.get(1));
+            Assertions.assertEquals(new ChessGame(), start, "The position is left unchanged");
+
+            var afterE4 = GameTestUtilities.play("e2e4");
+            Assertions.assertEquals(2, explorer.explore(afterE4).get(0).games());
+            Assertions.assertEquals("e5", explorer.explore(afterE4).get(0).san());
+        }
+    }
+
+    @Test
+    @DisplayName("Rejects Unfinished Games And Keeps Publishing")
+    public void unfinishedGame() {
+        try (var explorer = new OpeningExplorer(4, 1, TimeUnit.HOURS)) {
+            Assertions.assertThrows(NullPointerException.class,
+                    () -> explorer.addGame(GameTestUtilities.moves("e2e4"), GameResult.fromPgn("*")));
+            explorer.addGame(GameTestUtilities.moves("d2d4"), GameResult.DRAW);
+            explorer.flush();
+            Assertions.assertEquals(1, explorer.size());
+            explorer.addGame(GameTestUtilities.moves("e2e4"), GameResult.WHITE_WINS);
+            explorer.flush();
+            Assertions.assertEquals(2, explorer.size());
+        }
+    }
+
+    @Test
+    @DisplayName("Merges Each Batch Into The Published Tree")
+    public void mergesBatches() {
+        var random = new Random(45);
+        var legal = new int[ChessGame.MAX_MOVES];
+        var positions = new ArrayList<ChessGame>();
+        try (var batched = new OpeningExplorer(6, 1, TimeUnit.HOURS);
+             var whole = new OpeningExplorer(6, 1, TimeUnit.HOURS)) {
+            for (int i = 0; i < 600; i++) {
+                var game = new ChessGame();
+                var line = new int[6];
+                for (int ply = 0; ply < line.length; ply++) {
+                    positions.add(new ChessGame(game));
+                    int count = game.generateMoves(legal);
+                    line[ply] = legal[random.nextInt(Math.min(count, 3))];
+                    game.doMove(line[ply]);
+                }
+                var result = GameResult.values()[random.nextInt(3)];
+                batched.addGame(line, result);
+                whole.addGame(line, result);
+                if (i % 50 == 49) {
+                    batched.flush();
+                }
+            }
+            whole.flush();
+
+            Assertions.assertEquals(whole.size(), batched.size());
+            for (var position : positions) {
+                Assertions.assertEquals(whole.explore(position), batched.explore(position));
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Answers Lookups Well Within The Latency Budget")
+    public void latency() {
+        var random = new Random(44);
+        var legal = new int[ChessGame.MAX_MOVES];
+        var positions = new ChessGame[2000];
+        try (var explorer = new OpeningExplorer(12, 1, TimeUnit.HOURS)) {
+            for (int i = 0; i < 20_000; i++) {
+                var game = new ChessGame();
+                var line = new int[12];
+                for (int ply = 0; ply < line.length; ply++) {
+                    int count = game.generateMoves(legal);
+                    line[ply] = legal[random.nextInt(Math.min(count, 4))];
+                    game.doMove(line[ply]);
+                    if (i < positions.length && ply == 5) {
+                        positions[i] = new ChessGame(game);
+                    }
+                }
+                explorer.addGame(line, GameResult.values()[random.nextInt(3)]);
+            }
+            explorer.flush();
+
+            var nanos = new long[positions.length * 5];
+            for (int i = 0; i < nanos.length; i++) {
+                long start = System.nanoTime();
+                Assertions.assertFalse(explorer.explore(positions[i % positions.length]).isEmpty());
+                nanos[i] = System.nanoTime() - start;
+            }
+            Arrays.sort(nanos);
+            long p99 = nanos[nanos.length * 99 / 100];
+            Assertions.assertTrue(p99 < TimeUnit.MILLISECONDS.toNanos(5), "p99 was " + p99 + " ns");
+        }
+    }
+
+    @Test
+    @DisplayName("Serves Statistics Over HTTP")
+    public void servesJson() throws IOException, InterruptedException {
+        try (var explorer = new OpeningExplorer(4, 1, TimeUnit.HOURS)) {
+            explorer.addGame(GameTestUtilities.moves("e2e4", "e7e5"), GameResult.WHITE_WINS);
+            explorer.flush();
+            var app = Javalin.create().get("/explorer", new ExplorerHandler(explorer)).start(0);
+            try {
+                var client = HttpClient.newHttpClient();
+                var base = "http://localhost:" + app.port() + "/explorer";
+                var response = client.send(HttpRequest.newBuilder(URI.create(base + "?moves=e2e4")).build(),
+                        HttpResponse.BodyHandlers.ofString());
+                Assertions.assertEquals(200, response.statusCode());
+                Assertions.assertTrue(response.body().contains("\"move\":\"e7e5\""), response.body());
+                Assertions.assertTrue(response.body().contains("\"whitePercent\":100.0"), response.body());
+
+                var bad = client.send(HttpRequest.newBuilder(URI.create(base + "?moves=e2e5")).build(),
+                        HttpResponse.BodyHandlers.ofString());
+                Assertions.assertEquals(400, bad.statusCode());
+            } finally {
+                app.stop();
+            }
+        }
+    }
+}
@@ -0,0 +1,214 @@
+package server.websocket;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import chess.InvalidMoveException;
+import chess.PackedMove;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import websocket.GameSync;
+import websocket.WebSocketTypeAdapterFactory;
+import websocket.messages.LoadGameMessage;
+import websocket.messages.MoveMessage;
+import websocket.messages.NotificationMessage;
+import websocket.messages.ServerMessage;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+public class GameUpdatesTests {
+    private final Gson gson = WebSocketTypeAdapterFactory.register(new GsonBuilder()).create();
+
+    @Test
+    @DisplayName("Keeps Delta Clients In Sync Through A Game")
+    public void deltasStayInSync() throws InvalidMoveException {
+        var updates = new GameUpdates(new ChessGame());
+        var sync = new GameSync();
+        var fullJson = new ArrayList<String>();
+        var deltaJson = new ArrayList<String>();
+        updates.connect(message -> Assertions.assertTrue(sync.apply(overTheWire(message, deltaJson))), true);
+        var legacy = new ArrayList<ServerMessage>();
+        updates.connect(message -> legacy.add(overTheWire(message, fullJson)), false);
+
+        var reference = new ChessGame();
+        var random = new Random(48);
+        var moves = new int[ChessGame.MAX_MOVES];
+        for (int ply = 0; ply < 60; ply++) {
+            int count = reference.generateMoves(moves);
+            if (count == 0) {
+                break;
+            }
+            int move = moves[random.nextInt(count)];
+            reference.doMove(move);
+            updates.makeMove(PackedMove.unpack(move));
+            Assertions.assertEquals(reference, sync.getGame());
+            Assertions.assertEquals(reference.getHash(), sync.getGame().getHash());
+            Assertions.assertEquals(updates.getSequence(), sync.getSequence());
+        }
+        Assertions.assertTrue(legacy.stream().allMatch(message -> message instanceof LoadGameMessage load
+                && load.getSequence() == null));
+        Assertions.assertEquals(reference, ((LoadGameMessage) legacy.get(legacy.size() - 1)).getGame());
+        Assertions.assertTrue(deltaJson.subList(1, deltaJson.size()).stream()
+                        .allMatch(json -> json.length() < fullJson.get(1).length()),
+                deltaJson.get(1) + " against " + fullJson.get(1));
+    }
+
+    @Test
+    @DisplayName("Catches Up With A Snapshot After A Missed Move")
+    public void resyncsAfterGap() throws InvalidMoveException {
+        var updates = new GameUpdates(new ChessGame());
+        var sync = new GameSync();
+        var dropNext = new boolean[1];
+        Consumer<OutgoingMessage> session = message -> {
+            if (!dropNext[0]) {
+                sync.apply(overTheWire(message, new ArrayList<>()));
+            }
+            dropNext[0] = false;
+        };
+        updates.connect(session, true);
+        Assertions.assertTrue(sync.isSynced());
+        updates.makeMove(move("e2e4"));
+        dropNext[0] = true;
+        updates.makeMove(move("e7e5"));
+        updates.makeMove(move("g1f3"));
+        Assertions.assertFalse(sync.isSynced(), "A gap in the sequence is noticed");
+
+        updates.connect(session, true);
+        Assertions.assertTrue(sync.isSynced());
+        Assertions.assertEquals(3, sync.getSequence());
+        updates.makeMove(move("b8c6"));
+        Assertions.assertTrue(sync.isSynced());
+        Assertions.assertEquals(ChessGame.fromFen("r1bqkbnr/pppp1ppp/2n5/4p3/4P3/5N2/PPPP1PPP/RNBQKB1R w KQkq - 2 3"),
+                sync.getGame());
+        Assertions.assertEquals(1, updates.getSessionCount());
+    }
+
+    @Test
+    @DisplayName("Falls Out Of Sync On A Different Position")
+    public void checksHash() throws InvalidMoveException {
+        var sync = new GameSync();
+        sync.apply(new LoadGameMessage(new ChessGame(), 0));
+        var e4 = move("e2e4");
+        Assertions.assertFalse(sync.apply(new MoveMessage(e4, 12345, 1)));
+        Assertions.assertFalse(sync.apply(new MoveMessage(move("e7e5"), 0, 2)), "Stays out of sync until a snapshot");
+
+        sync.apply(new LoadGameMessage(new ChessGame(), 0));
+        Assertions.assertFalse(sync.apply(new MoveMessage(move("e2e5"), 0, 1)), "Illegal moves are refused");
+        Assertions.assertThrows(InvalidMoveException.class, () -> new GameUpdates(new ChessGame()).makeMove(
+                new ChessMove(new ChessPosition(2, 5), new ChessPosition(5, 5), null)));
+        var turns = new GameUpdates(new ChessGame());
+        Assertions.assertThrows(InvalidMoveException.class,
+                () -> turns.makeMove(move("e2e4"), ChessGame.TeamColor.BLACK), "Black cannot move for white");
+        turns.makeMove(move("e2e4"), ChessGame.TeamColor.WHITE);
+        Assertions.assertThrows(InvalidMoveException.class,
+                () -> turns.makeMove(move("d2d4"), ChessGame.TeamColor.WHITE), "White cannot move twice");
+        Assertions.assertEquals(1, turns.getSequence());
+        Assertions.assertFalse(new GameSync().apply(new LoadGameMessage(new ChessGame())),
+                "A snapshot without a sequence is not for move updates");
+    }
+
+    @Test
+    @DisplayName("Serializes Each Broadcast Once For Every Session")
+    public void serializesOnce() throws InvalidMoveException {
+        var updates = new GameUpdates(new ChessGame());
+        var received = new ArrayList<OutgoingMessage>();
+        for (int i = 0; i < 3; i++) {
+            updates.connect(received::add, false);
+        }
+        received.clear();
+        updates.makeMove(move("e2e4"));
+        updates.broadcast(new NotificationMessage("white played e4"), null);
+        Assertions.assertEquals(6, received.size());
+        Assertions.assertSame(received.get(0), received.get(2));
+        Assertions.assertSame(received.get(0).json(), received.get(1).json());
+        Assertions.assertSame(received.get(3), received.get(5));
+
+        var first = received.get(0).binary();
+        first.get();
+        Assertions.assertEquals(0, received.get(0).binary().position(), "Each session reads its own view");
+        Assertions.assertTrue(first.isReadOnly());
+    }
+
+    @Test
+    @DisplayName("Queues Messages Behind A Slow Socket")
+    public void queuesBehindSlowSockets() throws InterruptedException {
+        var written = new LinkedBlockingQueue<String>();
+        var release = new CountDownLatch(1);
+        var overflows = new AtomicInteger();
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            var outbox = new Outbox(executor, 3, message -> {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                written.add(((NotificationMessage) message.message()).getMessage());
+            }, overflows::incrementAndGet);
+            for (int i = 0; i < 3; i++) {
+                outbox.accept(new OutgoingMessage(new NotificationMessage(Integer.toString(i))));
+            }
+            Assertions.assertTrue(written.isEmpty(), "Nothing is written while the socket is stuck");
+            release.countDown();
+            var order = new ArrayList<String>();
+            for (int i = 0; i < 3; i++) {
+                order.add(written.poll(5, TimeUnit.SECONDS));
+            }
+            Assertions.assertEquals(List.of("0", "1", "2"), order);
+        }
+        Assertions.assertEquals(0, overflows.get());
+    }
+
+    @Test
+    @DisplayName("Handles Overflow Off The Broadcasting Thread")
+    public void overflowsOnWriter() throws InterruptedException {
+        var written = new LinkedBlockingQueue<String>();
+        var writing = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+        var overflowThreads = new LinkedBlockingQueue<Thread>();
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            var outbox = new Outbox(executor, 3, message -> {
+                writing.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                written.add(((NotificationMessage) message.message()).getMessage());
+            }, () -> overflowThreads.add(Thread.currentThread()));
+            outbox.accept(new OutgoingMessage(new NotificationMessage("0")));
+            Assertions.assertTrue(writing.await(5, TimeUnit.SECONDS));
+            for (int i = 1; i < 8; i++) {
+                outbox.accept(new OutgoingMessage(new NotificationMessage(Integer.toString(i))));
+            }
+            Assertions.assertTrue(overflowThreads.isEmpty(), "The broadcasting thread does not wait on the overflow");
+            release.countDown();
+            var overflowThread = overflowThreads.poll(5, TimeUnit.SECONDS);
+            Assertions.assertNotNull(overflowThread);
+            Assertions.assertNotSame(Thread.currentThread(), overflowThread);
+            outbox.accept(new OutgoingMessage(new NotificationMessage("8")));
+        }
+        Assertions.assertEquals(List.of("0"), List.copyOf(written), "Messages queued behind the overflow are dropped");
+        Assertions.assertTrue(overflowThreads.isEmpty(), "The overflow is handled once");
+    }
+
+    private ServerMessage overTheWire(OutgoingMessage message, List<String> sent) {
+        var json = message.json();
+        sent.add(json);
+        return gson.fromJson(json, ServerMessage.class);
+    }
+
+    private static ChessMove move(String text) {
+        return PackedMove.unpack(PackedMove.parse(text));
+    }
+}
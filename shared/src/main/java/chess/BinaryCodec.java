@@ -0,0 +1,231 @@
+package chess;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * A compact binary form of boards and game positions, for storage and messages where
+ * the Gson form of an 8x8 array of piece objects is too large. Gson stays the
+ * human-readable form.
+ * <p>
+ * Every encoding starts with a header byte holding the format version in the high
+ * nibble and the kind (board or game) in the low nibble. A board follows as a
+ * 64-bit occupancy mask, little-endian with a1 as bit 0, then one nibble per occupied
+ * square in square order: the piece type's ordinal, plus 8 for black. A full board is
+ * 25 bytes. A game adds a byte of side to move (bit 0, set for black) and castling
+ * rights (bits 1-4), and a byte for the en passant square or 255 for none, so a game
+ * is at most 27 bytes. ChessGame does not count moves, so there are no clocks.
+ */
+public final class BinaryCodec {
+    public static final int VERSION = 1;
+    public static final int MAX_BOARD_BYTES = 1 + Long.BYTES + 16;
+    public static final int MAX_GAME_BYTES = MAX_BOARD_BYTES + 2;
+
+    private static final int KIND_BOARD = 0;
+    private static final int KIND_GAME = 1;
+    private static final int NO_EN_PASSANT = 0xFF;
+    private static final ChessPiece.PieceType[] PIECE_TYPES = ChessPiece.PieceType.values();
+
+    private BinaryCodec() {
+    }
+
+    public static byte[] encode(ChessBoard board) {
+        var buffer = ByteBuffer.allocate(MAX_BOARD_BYTES);
+        encode(board, buffer);
+        return trim(buffer);
+    }
+
+    public static byte[] encode(ChessGame game) {
+        var buffer = ByteBuffer.allocate(MAX_GAME_BYTES);
+        encode(game, buffer);
+        return trim(buffer);
+    }
+
+    /**
+     * Writes the board at the buffer's position, which needs {@link #MAX_BOARD_BYTES} free
+     */
+    public static void encode(ChessBoard board, ByteBuffer out) {
+        out.put((byte) (VERSION << 4 | KIND_BOARD));
+        putPieces(board, out);
+    }
+
+    /**
+     * Writes the game's position at the buffer's position, which needs
+     * {@link #MAX_GAME_BYTES} free
+     */
+    public static void encode(ChessGame game, ByteBuffer out) {
+        out.put((byte) (VERSION << 4 | KIND_GAME));
+        putPieces(game.getBoard(), out);
+        int black = game.getTeamTurn() == ChessGame.TeamColor.BLACK ? 1 : 0;
+        out.put((byte) (black | game.getCastlingRights() << 1));
+        int enPassant = game.getEnPassantSquare();
+        out.put((byte) (enPassant == ChessGame.NO_SQUARE ? NO_EN_PASSANT : enPassant));
+    }
+
+    /**
+     * @throws IllegalArgumentException if the bytes are not an encoded board of a supported version
+     */
+    public static ChessBoard decodeBoard(byte[] bytes) {
+        return decodeBoard(ByteBuffer.wrap(bytes));
+    }
+
+    /**
+     * Reads a board from the buffer's position, leaving the position after it
+     *
+     * @throws IllegalArgumentException if the bytes are not an encoded board of a supported version
+     */
+    public static ChessBoard decodeBoard(ByteBuffer in) {
+        checkHeader(in, KIND_BOARD);
+        var board = new ChessBoard();
+        try {
+            getPieces(in, board);
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Binary board is truncated", e);
+        }
+        return board;
+    }
+
+    /**
+     * @throws IllegalArgumentException if the bytes are not an encoded game of a supported version
+     */
+    public static ChessGame decodeGame(byte[] bytes) {
+        var game = new ChessGame();
+        decode(ByteBuffer.wrap(bytes), game);
+        return game;
+    }
+
+    /**
+     * Reads a game position from the buffer's position into an existing game, reusing
+     * its board and clearing its move history. The game is left unchanged if the bytes
+     * are not valid.
+     *
+     * @throws IllegalArgumentException if the bytes are not an encoded game of a supported version
+     */
+    public static void decode(ByteBuffer in, ChessGame game) {
+        int start = in.position();
+        try {
+            checkHeader(in, KIND_GAME);
+            // check everything before touching the game's board
+            in.position(in.position() + piecesLength(in));
+            int state = in.get() & 0xFF;
+            int enPassant = in.get() & 0xFF;
+            var team = (state & 1) == 0 ? ChessGame.TeamColor.WHITE : ChessGame.TeamColor.BLACK;
+            if (state >> 5 != 0) {
+                throw new IllegalArgumentException("Not castling rights in binary game: " + state);
+            }
+            if (enPassant != NO_EN_PASSANT && enPassant >> 3 != (team == ChessGame.TeamColor.WHITE ? 5 : 2)) {
+                throw new IllegalArgumentException("Not an en passant square in binary game: " + enPassant);
+            }
+            int end = in.position();
+            in.position(start + 1);
+            var board = game.getBoard();
+            board.clearBoard();
+            getPieces(in, board);
+            in.position(end);
+            game.setPosition(board, team, state >> 1, enPassant == NO_EN_PASSANT ? ChessGame.NO_SQUARE : enPassant);
+        } catch (BufferUnderflowException e) {
+            in.position(start);
+            throw new IllegalArgumentException("Binary game is truncated", e);
+        } catch (IllegalArgumentException e) {
+            in.position(start);
+            throw e;
+        }
+    }
+
+    private static void putPieces(ChessBoard board, ByteBuffer out) {
+        long occupancy = 0;
+        for (int square = 0; square < 64; square++) {
+            if (board.getPiece(square) != null) {
+                occupancy |= 1L << square;
+            }
+        }
+        for (int i = 0; i < Long.BYTES; i++) {
+            out.put((byte) (occupancy >>> (i * 8)));
+        }
+        int pending = -1;
+        for (long rest = occupancy; rest != 0; rest &= rest - 1) {
+            var piece = board.getPiece(Long.numberOfTrailingZeros(rest));
+            int nibble = piece.getPieceType().ordinal() | (piece.getTeamColor() == ChessGame.TeamColor.BLACK ? 8 : 0);
+            if (pending < 0) {
+                pending = nibble;
+            } else {
+                out.put((byte) (pending | nibble << 4));
+                pending = -1;
+            }
+        }
+        if (pending >= 0) {
+            out.put((byte) pending);
+        }
+    }
+
+    /**
+     * Checks the pieces at the buffer's position without moving it
+     *
+     * @return the number of bytes they take
+     */
+    private static int piecesLength(ByteBuffer in) {
+        int start = in.position();
+        if (in.limit() - start < Long.BYTES) {
+            throw new BufferUnderflowException();
+        }
+        long occupancy = occupancy(in, start);
+        int count = Long.bitCount(occupancy);
+        if (count > 32) {
+            throw new IllegalArgumentException("Too many pieces in binary board: " + count);
+        }
+        int length = Long.BYTES + (count + 1) / 2;
+        if (in.limit() - start < length) {
+            throw new BufferUnderflowException();
+        }
+        for (int i = 0; i < count; i++) {
+            int nibble = in.get(start + Long.BYTES + i / 2) >> (i % 2 * 4) & 0xF;
+            if ((nibble & 7) >= PIECE_TYPES.length) {
+                throw new IllegalArgumentException("Not a piece in binary board: " + nibble);
+            }
+        }
+        return length;
+    }
+
+    private static void getPieces(ByteBuffer in, ChessBoard board) {
+        piecesLength(in);
+        long occupancy = occupancy(in, in.position());
+        in.position(in.position() + Long.BYTES);
+        int i = 0;
+        int current = 0;
+        for (long rest = occupancy; rest != 0; rest &= rest - 1, i++) {
+            if (i % 2 == 0) {
+                current = in.get() & 0xFF;
+            }
+            int nibble = i % 2 == 0 ? current & 0xF : current >> 4;
+            var color = (nibble & 8) == 0 ? ChessGame.TeamColor.WHITE : ChessGame.TeamColor.BLACK;
+            board.setPiece(Long.numberOfTrailingZeros(rest), ChessPiece.of(color, PIECE_TYPES[nibble & 7]));
+        }
+    }
+
+    private static long occupancy(ByteBuffer in, int index) {
+        long occupancy = 0;
+        for (int i = 0; i < Long.BYTES; i++) {
+            occupancy |= (in.get(index + i) & 0xFFL) << (i * 8);
+        }
+        return occupancy;
+    }
+
+    private static void checkHeader(ByteBuffer in, int kind) {
+        if (!in.hasRemaining()) {
+            throw new IllegalArgumentException("Binary data is empty");
+        }
+        int header = in.get() & 0xFF;
+        if (header >> 4 != VERSION) {
+            throw new IllegalArgumentException("Unsupported binary format version " + (header >> 4));
+        }
+        if ((header & 0xF) != kind) {
+            throw new IllegalArgumentException("Binary data is not a " + (kind == KIND_BOARD ? "board" : "game"));
+        }
+    }
+
+    private static byte[] trim(ByteBuffer buffer) {
+        var bytes = new byte[buffer.position()];
+        buffer.get(0, bytes);
+        return bytes;
+    }
+}
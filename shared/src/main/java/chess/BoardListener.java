@@ -0,0 +1,20 @@
+package chess;
+
+/**
+ * Receives every piece placement and removal a ChessGame makes while moves are
+ * made and undone, so derived state (evaluation accumulators, hashes, ...) can be
+ * updated incrementally instead of rescanning the board.
+ * <p>
+ * Squares are 0-63 indexes as returned by {@link ChessPosition#toSquare()}.
+ */
+public interface BoardListener {
+    void pieceAdded(ChessPiece piece, int square);
+
+    void pieceRemoved(ChessPiece piece, int square);
+
+    /**
+     * Called when the game's board is replaced wholesale, or when the listener is
+     * first attached, so the listener can rebuild its state from scratch
+     */
+    void boardReset(ChessBoard board);
+}
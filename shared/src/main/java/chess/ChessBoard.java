@@ -31,22 +31,22 @@ public class ChessBoard {
 
     @Override
     public String toString() {
-        String finalString = "";
+        var builder = new StringBuilder(8 * 18);
         for (int i = 7; i > -1; i--) {
-            var row = board[i];
-            finalString += "|";
-            for (var col : row) {
-                if (col == null) {
-                    finalString += " ";
-                } else {
-                    finalString += col;
-                }
-                ;
-                finalString += "|";
+            builder.append('|');
+            for (var piece : board[i]) {
+                builder.append(piece == null ? ' ' : piece.toChar()).append('|');
             }
-            finalString += "\n";
+            builder.append('\n');
         }
-        return finalString;
+        return builder.toString();
+    }
+
+    /**
+     * @return the piece placement field of FEN, such as "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR"
+     */
+    public String toFen() {
+        return Fen.appendPlacement(this, new StringBuilder(64)).toString();
     }
 
     public ChessBoard() {
@@ -54,7 +54,17 @@ public class ChessBoard {
         clearBoard();
     }
 
-    private void clearBoard() {
+    /**
+     * Creates a board holding the same pieces as another board
+     */
+    public ChessBoard(ChessBoard other) {
+        board = new ChessPiece[8][8];
+        for (int i = 0; i < 8; i++) {
+            System.arraycopy(other.board[i], 0, board[i], 0, 8);
+        }
+    }
+
+    void clearBoard() {
         for (int i = 0; i < 8; i++) {
             for (int j = 0; j < 8; j++) {
                 board[i][j] = null;
@@ -83,6 +93,20 @@ public class ChessBoard {
         return board[position.getRow() - 1][position.getColumn() - 1];
     }
 
+    /**
+     * Gets a chess piece on the chessboard by square index
+     *
+     * @param square 0-63 square index, counting a1 as 0 and h8 as 63
+     * @return Either the piece on the square, or null if the square is empty
+     */
+    public ChessPiece getPiece(int square) {
+        return board[square >> 3][square & 7];
+    }
+
+    void setPiece(int square, ChessPiece piece) {
+        board[square >> 3][square & 7] = piece;
+    }
+
     public boolean inBounds(ChessPosition position) {
         return position.getRow() >= 1 && position.getColumn() >= 1 && position.getRow() <= 8 && position.getColumn() <= 8;
     }
@@ -1,6 +1,9 @@
 package chess;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Objects;
 
 /**
  * For a class that can manage a chess game, making moves on a board
@@ -9,16 +12,82 @@ import java.util.Collection;
  * signature of the existing methods.
  */
 public class ChessGame {
+    /**
+     * Enough room for every legal move in any reachable position
+     */
+    public static final int MAX_MOVES = 256;
+
+    static final int WHITE_KINGSIDE = 1;
+    static final int WHITE_QUEENSIDE = 2;
+    static final int BLACK_KINGSIDE = 4;
+    static final int BLACK_QUEENSIDE = 8;
+    static final int NO_SQUARE = -1;
+
+
+    private ChessBoard board;
+    private TeamColor teamTurn;
+    private int castlingRights;
+    private int enPassantSquare;
+
+    private transient BoardListener listener;
+    private transient int[] kingSquares = {NO_SQUARE, NO_SQUARE};
+    private transient long hash;
+    // the board the hash was computed for; any other board, such as one Gson put in
+    // place after the constructor ran, means the hash is stale
+    private transient ChessBoard hashedBoard;
+
+    private transient int historySize;
+    private transient int[] historyMoves = new int[64];
+    private transient ChessPiece[] historyCaptures = new ChessPiece[64];
+    private transient int[] historyCastlingRights = new int[64];
+    private transient int[] historyEnPassantSquares = new int[64];
+    private transient TeamColor[] historyTurns = new TeamColor[64];
+    private transient long[] historyHashes = new long[64];
+    // scratch for isLegal; one queen has at most 27 moves
+    private transient int[] pieceMoves = new int[32];
 
     public ChessGame() {
+        board = new ChessBoard();
+        board.resetBoard();
+        teamTurn = TeamColor.WHITE;
+        resetState();
+    }
 
+    /**
+     * Creates an independent copy of another game's position, including castling
+     * rights and any en passant square. The move history is not copied, so the
+     * copy starts with nothing to undo.
+     */
+    public ChessGame(ChessGame other) {
+        board = new ChessBoard(other.board);
+        teamTurn = other.teamTurn;
+        castlingRights = other.castlingRights;
+        enPassantSquare = other.enPassantSquare;
+        hash = other.getHash();
+        hashedBoard = board;
+    }
+
+    /**
+     * Creates a game from a position in Forsyth-Edwards Notation; see {@link Fen}
+     *
+     * @throws IllegalArgumentException if the text is not FEN
+     */
+    public static ChessGame fromFen(CharSequence fen) {
+        return Fen.parse(fen);
+    }
+
+    /**
+     * @return the position in Forsyth-Edwards Notation
+     */
+    public String toFen() {
+        return Fen.toString(this);
     }
 
     /**
      * @return Which team's turn it is
      */
     public TeamColor getTeamTurn() {
-        throw new RuntimeException("Not implemented");
+        return teamTurn;
     }
 
     /**
@@ -27,7 +96,10 @@ public class ChessGame {
      * @param team the team whose turn it is
      */
     public void setTeamTurn(TeamColor team) {
-        throw new RuntimeException("Not implemented");
+        checkHash();
+        hash ^= stateKey();
+        teamTurn = team;
+        hash ^= stateKey();
     }
 
     /**
@@ -35,7 +107,11 @@ public class ChessGame {
      */
     public enum TeamColor {
         WHITE,
-        BLACK
+        BLACK;
+
+        public TeamColor opponent() {
+            return this == WHITE ? BLACK : WHITE;
+        }
     }
 
     /**
@@ -46,7 +122,32 @@ public class ChessGame {
      * startPosition
      */
     public Collection<ChessMove> validMoves(ChessPosition startPosition) {
-        throw new RuntimeException("Not implemented");
+        if (!board.inBounds(startPosition)) {
+            return null;
+        }
+        var piece = board.getPiece(startPosition);
+        if (piece == null) {
+            return null;
+        }
+        Collection<ChessMove> moves = new ArrayList<>();
+        for (var move : piece.pieceMoves(board, startPosition)) {
+            if (keepsKingSafe(PackedMove.pack(move))) {
+                moves.add(move);
+            }
+        }
+        int square = startPosition.toSquare();
+        int[] specialMoves = new int[2];
+        int count = switch (piece.getPieceType()) {
+            case KING -> addCastlingMoves(square, piece.getTeamColor(), specialMoves, 0);
+            case PAWN -> addEnPassantMove(square, piece.getTeamColor(), specialMoves, 0);
+            default -> 0;
+        };
+        for (int i = 0; i < count; i++) {
+            if (keepsKingSafe(specialMoves[i])) {
+                moves.add(PackedMove.unpack(specialMoves[i]));
+            }
+        }
+        return moves;
     }
 
     /**
@@ -56,7 +157,204 @@ public class ChessGame {
      * @throws InvalidMoveException if move is invalid
      */
     public void makeMove(ChessMove move) throws InvalidMoveException {
-        throw new RuntimeException("Not implemented");
+        var start = move.getStartPosition();
+        var piece = board.inBounds(start) ? board.getPiece(start) : null;
+        if (piece == null) {
+            throw new InvalidMoveException("There is no piece at " + start);
+        }
+        if (piece.getTeamColor() != teamTurn) {
+            throw new InvalidMoveException("It is not " + piece.getTeamColor() + "'s turn");
+        }
+        if (!validMoves(start).contains(move)) {
+            throw new InvalidMoveException("Illegal move " + move);
+        }
+        doMove(PackedMove.pack(move));
+    }
+
+    /**
+     * Generates every legal move for the team whose turn it is without allocating
+     *
+     * @param moves buffer to write packed moves into, at least {@link #MAX_MOVES} long
+     * @return the number of moves written to the buffer
+     */
+    public int generateMoves(int[] moves) {
+        int count = 0;
+        for (int square = 0; square < 64; square++) {
+            var piece = board.getPiece(square);
+            if (piece != null && piece.getTeamColor() == teamTurn) {
+                count = addPseudoLegalMoves(square, piece, moves, count);
+            }
+        }
+        int legal = 0;
+        for (int i = 0; i < count; i++) {
+            if (keepsKingSafe(moves[i])) {
+                moves[legal++] = moves[i];
+            }
+        }
+        return legal;
+    }
+
+    /**
+     * Checks one move without generating the moves of every piece: only the moves of the
+     * piece on the start square are generated, and the move is made only if it is one of them
+     *
+     * @param move any packed move
+     * @return true if the move is legal for the team whose turn it is
+     */
+    public boolean isLegal(int move) {
+        int start = PackedMove.getStartSquare(move);
+        var piece = board.getPiece(start);
+        if (piece == null || piece.getTeamColor() != teamTurn) {
+            return false;
+        }
+        int count = addPseudoLegalMoves(start, piece, pieceMoves, 0);
+        for (int i = 0; i < count; i++) {
+            if (pieceMoves[i] == move) {
+                return keepsKingSafe(move);
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Makes a packed move, such as one from {@link #generateMoves(int[])}, without
+     * checking that it is legal. It can be taken back with {@link #undoMove()}.
+     *
+     * @param move the packed move to perform
+     */
+    public void doMove(int move) {
+        checkHash();
+        int start = PackedMove.getStartSquare(move);
+        int end = PackedMove.getEndSquare(move);
+        var piece = board.getPiece(start);
+        var captured = board.getPiece(end);
+        boolean pawn = piece.getPieceType() == ChessPiece.PieceType.PAWN;
+
+        int capturedSquare = end;
+        if (pawn && end == enPassantSquare && captured == null) {
+            capturedSquare = capturedPawnSquare(start, end);
+            captured = board.getPiece(capturedSquare);
+        }
+        pushHistory(move, captured);
+        hash ^= stateKey();
+        if (capturedSquare != end) {
+            putPiece(capturedSquare, null);
+        }
+
+        var promotion = PackedMove.getPromotionPiece(move);
+        putPiece(end, promotion == null ? piece : ChessPiece.of(piece.getTeamColor(), promotion));
+        putPiece(start, null);
+
+        if (piece.getPieceType() == ChessPiece.PieceType.KING && Math.abs(end - start) == 2) {
+            boolean kingside = end > start;
+            int rookStart = kingside ? start + 3 : start - 4;
+            putPiece(kingside ? start + 1 : start - 1, board.getPiece(rookStart));
+            putPiece(rookStart, null);
+        }
+
+        enPassantSquare = pawn && Math.abs(end - start) == 16 ? (start + end) / 2 : NO_SQUARE;
+        castlingRights &= castlingMask(start) & castlingMask(end);
+        teamTurn = piece.getTeamColor().opponent();
+        hash ^= stateKey();
+    }
+
+    /**
+     * Passes the turn to the other team without moving a piece, as used by null-move
+     * pruning in search. It is taken back with {@link #undoMove()} like any other move.
+     */
+    public void doNullMove() {
+        checkHash();
+        pushHistory(PackedMove.NONE, null);
+        hash ^= stateKey();
+        enPassantSquare = NO_SQUARE;
+        teamTurn = teamTurn.opponent();
+        hash ^= stateKey();
+    }
+
+    /**
+     * @param move a packed move for the current board
+     * @return True if the move takes a piece, including en passant captures
+     */
+    public boolean isCapture(int move) {
+        int start = PackedMove.getStartSquare(move);
+        int end = PackedMove.getEndSquare(move);
+        if (board.getPiece(end) != null) {
+            return true;
+        }
+        var piece = board.getPiece(start);
+        return piece != null && piece.getPieceType() == ChessPiece.PieceType.PAWN && (start & 7) != (end & 7);
+    }
+
+    /**
+     * Takes back the most recent move made on this game
+     *
+     * @throws IllegalStateException if there are no moves to take back
+     */
+    public void undoMove() {
+        if (historySize == 0) {
+            throw new IllegalStateException("There are no moves to undo");
+        }
+        historySize--;
+        int move = historyMoves[historySize];
+        ChessPiece captured = historyCaptures[historySize];
+        castlingRights = historyCastlingRights[historySize];
+        enPassantSquare = historyEnPassantSquares[historySize];
+        teamTurn = historyTurns[historySize];
+        if (move == PackedMove.NONE) {
+            hash = historyHashes[historySize];
+            return;
+        }
+
+        int start = PackedMove.getStartSquare(move);
+        int end = PackedMove.getEndSquare(move);
+        var piece = board.getPiece(end);
+        if (PackedMove.isPromotion(move)) {
+            piece = ChessPiece.of(piece.getTeamColor(), ChessPiece.PieceType.PAWN);
+        }
+        putPiece(end, null);
+        putPiece(start, piece);
+
+        if (piece.getPieceType() == ChessPiece.PieceType.KING && Math.abs(end - start) == 2) {
+            boolean kingside = end > start;
+            putPiece(kingside ? start + 3 : start - 4, board.getPiece(kingside ? start + 1 : start - 1));
+            putPiece(kingside ? start + 1 : start - 1, null);
+        }
+        if (captured != null) {
+            boolean enPassant = piece.getPieceType() == ChessPiece.PieceType.PAWN && end == enPassantSquare;
+            putPiece(enPassant ? capturedPawnSquare(start, end) : end, captured);
+        }
+        hash = historyHashes[historySize];
+    }
+
+    /**
+     * The Zobrist hash of the position, kept up to date as moves are made and undone.
+     * Equal positions have equal hashes, counting en passant only when a capture is
+     * actually possible. After editing the board directly rather than through the
+     * game, call {@link #setBoard} to recompute it.
+     *
+     * @return the 64-bit hash of the position
+     */
+    public long getHash() {
+        checkHash();
+        return hash;
+    }
+
+    int getCastlingRights() {
+        return castlingRights;
+    }
+
+    /**
+     * @return the square a pawn could capture onto en passant, or -1
+     */
+    int getEnPassantSquare() {
+        return enPassantSquare;
+    }
+
+    /**
+     * @return the number of moves made on this game that can be undone
+     */
+    public int getHistorySize() {
+        return historySize;
     }
 
     /**
@@ -66,7 +364,8 @@ public class ChessGame {
      * @return True if the specified team is in check
      */
     public boolean isInCheck(TeamColor teamColor) {
-        throw new RuntimeException("Not implemented");
+        int kingSquare = findKing(teamColor);
+        return kingSquare != NO_SQUARE && isSquareAttacked(kingSquare, teamColor.opponent());
     }
 
     /**
@@ -76,7 +375,7 @@ public class ChessGame {
      * @return True if the specified team is in checkmate
      */
     public boolean isInCheckmate(TeamColor teamColor) {
-        throw new RuntimeException("Not implemented");
+        return isInCheck(teamColor) && !hasValidMove(teamColor);
     }
 
     /**
@@ -87,7 +386,7 @@ public class ChessGame {
      * @return True if the specified team is in stalemate, otherwise false
      */
     public boolean isInStalemate(TeamColor teamColor) {
-        throw new RuntimeException("Not implemented");
+        return !isInCheck(teamColor) && !hasValidMove(teamColor);
     }
 
     /**
@@ -96,7 +395,26 @@ public class ChessGame {
      * @param board the new board to use
      */
     public void setBoard(ChessBoard board) {
-        throw new RuntimeException("Not implemented");
+        this.board = board;
+        resetState();
+    }
+
+    /**
+     * Loads a board along with the state a position description carries beyond the
+     * pieces, clearing the move history
+     *
+     * @param castlingRights  the castling bits to allow; any whose king or rook is not on
+     *                        its starting square are dropped
+     * @param enPassantSquare the square a pawn could capture onto en passant, or -1
+     */
+    void setPosition(ChessBoard board, TeamColor team, int castlingRights, int enPassantSquare) {
+        this.board = board;
+        this.teamTurn = team;
+        resetState();
+        hash ^= stateKey();
+        this.castlingRights &= castlingRights;
+        this.enPassantSquare = enPassantSquare;
+        hash ^= stateKey();
     }
 
     /**
@@ -105,6 +423,411 @@ public class ChessGame {
      * @return the chessboard
      */
     public ChessBoard getBoard() {
-        throw new RuntimeException("Not implemented");
+        return board;
+    }
+
+    /**
+     * Registers a listener that is told about every piece added to or removed from
+     * the board as moves are made and undone. Moves tried and taken back only to test
+     * whether they are legal are not reported. Only one listener is kept; pass null
+     * to remove it.
+     */
+    public void setBoardListener(BoardListener listener) {
+        this.listener = listener;
+        if (listener != null) {
+            listener.boardReset(board);
+        }
+    }
+
+    /**
+     * Determines if any piece of the given team attacks a square
+     *
+     * @param square   0-63 square index
+     * @param attacker the team that may be attacking the square
+     * @return True if a piece of the attacking team could capture on the square
+     */
+    public boolean isSquareAttacked(int square, TeamColor attacker) {
+        int row = square >> 3;
+        int col = square & 7;
+
+        int pawnRow = attacker == TeamColor.WHITE ? row - 1 : row + 1;
+        if (isPiece(pawnRow, col - 1, attacker, ChessPiece.PieceType.PAWN)
+                || isPiece(pawnRow, col + 1, attacker, ChessPiece.PieceType.PAWN)) {
+            return true;
+        }
+        for (var step : Steps.KNIGHT) {
+            if (isPiece(row + step[0], col + step[1], attacker, ChessPiece.PieceType.KNIGHT)) {
+                return true;
+            }
+        }
+        for (var step : Steps.KING) {
+            if (isPiece(row + step[0], col + step[1], attacker, ChessPiece.PieceType.KING)) {
+                return true;
+            }
+        }
+        return isAttackedAlong(row, col, Steps.ROOK, attacker, ChessPiece.PieceType.ROOK)
+                || isAttackedAlong(row, col, Steps.BISHOP, attacker, ChessPiece.PieceType.BISHOP);
+    }
+
+    private boolean isAttackedAlong(int row, int col, int[][] directions, TeamColor attacker,
+                                    ChessPiece.PieceType slider) {
+        for (var direction : directions) {
+            int r = row + direction[0];
+            int c = col + direction[1];
+            while (r >= 0 && r < 8 && c >= 0 && c < 8) {
+                var piece = board.getPiece(r * 8 + c);
+                if (piece != null) {
+                    if (piece.getTeamColor() == attacker && (piece.getPieceType() == slider
+                            || piece.getPieceType() == ChessPiece.PieceType.QUEEN)) {
+                        return true;
+                    }
+                    break;
+                }
+                r += direction[0];
+                c += direction[1];
+            }
+        }
+        return false;
+    }
+
+    private boolean isPiece(int row, int col, TeamColor color, ChessPiece.PieceType type) {
+        if (row < 0 || row > 7 || col < 0 || col > 7) {
+            return false;
+        }
+        var piece = board.getPiece(row * 8 + col);
+        return piece != null && piece.getTeamColor() == color && piece.getPieceType() == type;
+    }
+
+    /**
+     * The king square is tracked as moves are made, but the board can also be edited
+     * directly through getBoard, so the cached square is verified before it is trusted
+     */
+    private int findKing(TeamColor teamColor) {
+        var king = ChessPiece.of(teamColor, ChessPiece.PieceType.KING);
+        int cached = kingSquares[teamColor.ordinal()];
+        if (cached != NO_SQUARE && king.equals(board.getPiece(cached))) {
+            return cached;
+        }
+        for (int square = 0; square < 64; square++) {
+            if (king.equals(board.getPiece(square))) {
+                kingSquares[teamColor.ordinal()] = square;
+                return square;
+            }
+        }
+        return NO_SQUARE;
+    }
+
+    private boolean hasValidMove(TeamColor teamColor) {
+        for (int square = 0; square < 64; square++) {
+            var piece = board.getPiece(square);
+            if (piece != null && piece.getTeamColor() == teamColor
+                    && !validMoves(ChessPosition.fromSquare(square)).isEmpty()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @param move a move the piece on its start square can make by the way it moves
+     * @return true if making it does not leave the mover's own king in check
+     */
+    private boolean keepsKingSafe(int move) {
+        var mover = board.getPiece(PackedMove.getStartSquare(move)).getTeamColor();
+        // the board is back as it was afterwards, so the listener has nothing to hear
+        var heard = listener;
+        listener = null;
+        try {
+            doMove(move);
+            boolean legal = !isInCheck(mover);
+            undoMove();
+            return legal;
+        } finally {
+            listener = heard;
+        }
+    }
+
+    private int addPseudoLegalMoves(int square, ChessPiece piece, int[] moves, int count) {
+        var color = piece.getTeamColor();
+        return switch (piece.getPieceType()) {
+            case PAWN -> addPawnMoves(square, color, moves, count);
+            case KNIGHT -> addStepMoves(square, color, Steps.KNIGHT, moves, count);
+            case BISHOP -> addSlidingMoves(square, color, Steps.BISHOP, moves, count);
+            case ROOK -> addSlidingMoves(square, color, Steps.ROOK, moves, count);
+            case QUEEN -> addSlidingMoves(square, color, Steps.ROOK, moves,
+                    addSlidingMoves(square, color, Steps.BISHOP, moves, count));
+            case KING -> addCastlingMoves(square, color, moves,
+                    addStepMoves(square, color, Steps.KING, moves, count));
+        };
+    }
+
+    private int addStepMoves(int square, TeamColor color, int[][] steps, int[] moves, int count) {
+        int row = square >> 3;
+        int col = square & 7;
+        for (var step : steps) {
+            int r = row + step[0];
+            int c = col + step[1];
+            if (r >= 0 && r < 8 && c >= 0 && c < 8) {
+                var target = board.getPiece(r * 8 + c);
+                if (target == null || target.getTeamColor() != color) {
+                    moves[count++] = PackedMove.pack(square, r * 8 + c, null);
+                }
+            }
+        }
+        return count;
+    }
+
+    private int addSlidingMoves(int square, TeamColor color, int[][] directions, int[] moves, int count) {
+        int row = square >> 3;
+        int col = square & 7;
+        for (var direction : directions) {
+            int r = row + direction[0];
+            int c = col + direction[1];
+            while (r >= 0 && r < 8 && c >= 0 && c < 8) {
+                var target = board.getPiece(r * 8 + c);
+                if (target != null && target.getTeamColor() == color) {
+                    break;
+                }
+                moves[count++] = PackedMove.pack(square, r * 8 + c, null);
+                if (target != null) {
+                    break;
+                }
+                r += direction[0];
+                c += direction[1];
+            }
+        }
+        return count;
+    }
+
+    private int addPawnMoves(int square, TeamColor color, int[] moves, int count) {
+        int forward = color == TeamColor.WHITE ? 8 : -8;
+        int startRow = color == TeamColor.WHITE ? 1 : 6;
+        int oneStep = square + forward;
+        if (oneStep < 0 || oneStep > 63) {
+            return count;
+        }
+        if (board.getPiece(oneStep) == null) {
+            count = addPawnMove(square, oneStep, moves, count);
+            int twoSteps = oneStep + forward;
+            if ((square >> 3) == startRow && board.getPiece(twoSteps) == null) {
+                moves[count++] = PackedMove.pack(square, twoSteps, null);
+            }
+        }
+        int col = square & 7;
+        if (col > 0) {
+            count = addPawnCapture(square, oneStep - 1, color, moves, count);
+        }
+        if (col < 7) {
+            count = addPawnCapture(square, oneStep + 1, color, moves, count);
+        }
+        return addEnPassantMove(square, color, moves, count);
+    }
+
+    private int addPawnCapture(int square, int target, TeamColor color, int[] moves, int count) {
+        var victim = board.getPiece(target);
+        if (victim != null && victim.getTeamColor() != color) {
+            count = addPawnMove(square, target, moves, count);
+        }
+        return count;
+    }
+
+    private int addPawnMove(int square, int target, int[] moves, int count) {
+        int targetRow = target >> 3;
+        if (targetRow == 0 || targetRow == 7) {
+            moves[count++] = PackedMove.pack(square, target, ChessPiece.PieceType.QUEEN);
+            moves[count++] = PackedMove.pack(square, target, ChessPiece.PieceType.ROOK);
+            moves[count++] = PackedMove.pack(square, target, ChessPiece.PieceType.BISHOP);
+            moves[count++] = PackedMove.pack(square, target, ChessPiece.PieceType.KNIGHT);
+        } else {
+            moves[count++] = PackedMove.pack(square, target, null);
+        }
+        return count;
+    }
+
+    /**
+     * Adds castling moves whose path is clear and not attacked; whether the king
+     * ends up in check is left to the caller's legality check
+     */
+    private int addCastlingMoves(int kingSquare, TeamColor color, int[] moves, int count) {
+        int homeSquare = color == TeamColor.WHITE ? 4 : 60;
+        int kingside = color == TeamColor.WHITE ? WHITE_KINGSIDE : BLACK_KINGSIDE;
+        int queenside = color == TeamColor.WHITE ? WHITE_QUEENSIDE : BLACK_QUEENSIDE;
+        if (kingSquare != homeSquare || (castlingRights & (kingside | queenside)) == 0 || isInCheck(color)) {
+            return count;
+        }
+        if ((castlingRights & kingside) != 0 && canCastle(kingSquare, kingSquare + 3, 1, color)) {
+            moves[count++] = PackedMove.pack(kingSquare, kingSquare + 2, null);
+        }
+        if ((castlingRights & queenside) != 0 && canCastle(kingSquare, kingSquare - 4, -1, color)) {
+            moves[count++] = PackedMove.pack(kingSquare, kingSquare - 2, null);
+        }
+        return count;
+    }
+
+    private boolean canCastle(int kingSquare, int rookSquare, int step, TeamColor color) {
+        if (!isOnSquare(rookSquare, color, ChessPiece.PieceType.ROOK)) {
+            return false;
+        }
+        for (int square = kingSquare + step; square != rookSquare; square += step) {
+            if (board.getPiece(square) != null) {
+                return false;
+            }
+        }
+        return !isSquareAttacked(kingSquare + step, color.opponent());
+    }
+
+    private int addEnPassantMove(int pawnSquare, TeamColor color, int[] moves, int count) {
+        if (enPassantSquare == NO_SQUARE) {
+            return count;
+        }
+        int pawnRow = color == TeamColor.WHITE ? 4 : 3;
+        int targetRow = color == TeamColor.WHITE ? 5 : 2;
+        boolean adjacent = Math.abs((pawnSquare & 7) - (enPassantSquare & 7)) == 1;
+        if ((pawnSquare >> 3) == pawnRow && (enPassantSquare >> 3) == targetRow && adjacent) {
+            moves[count++] = PackedMove.pack(pawnSquare, enPassantSquare, null);
+        }
+        return count;
+    }
+
+    private static int capturedPawnSquare(int start, int end) {
+        return (start & ~7) | (end & 7);
+    }
+
+    private static int castlingMask(int square) {
+        return switch (square) {
+            case 0 -> ~WHITE_QUEENSIDE;
+            case 4 -> ~(WHITE_KINGSIDE | WHITE_QUEENSIDE);
+            case 7 -> ~WHITE_KINGSIDE;
+            case 56 -> ~BLACK_QUEENSIDE;
+            case 60 -> ~(BLACK_KINGSIDE | BLACK_QUEENSIDE);
+            case 63 -> ~BLACK_KINGSIDE;
+            default -> ~0;
+        };
+    }
+
+    private void pushHistory(int move, ChessPiece captured) {
+        if (historySize == historyMoves.length) {
+            int capacity = historySize * 2;
+            historyMoves = Arrays.copyOf(historyMoves, capacity);
+            historyCaptures = Arrays.copyOf(historyCaptures, capacity);
+            historyCastlingRights = Arrays.copyOf(historyCastlingRights, capacity);
+            historyEnPassantSquares = Arrays.copyOf(historyEnPassantSquares, capacity);
+            historyTurns = Arrays.copyOf(historyTurns, capacity);
+            historyHashes = Arrays.copyOf(historyHashes, capacity);
+        }
+        historyMoves[historySize] = move;
+        historyCaptures[historySize] = captured;
+        historyCastlingRights[historySize] = castlingRights;
+        historyEnPassantSquares[historySize] = enPassantSquare;
+        historyTurns[historySize] = teamTurn;
+        historyHashes[historySize] = hash;
+        historySize++;
+    }
+
+    private void putPiece(int square, ChessPiece piece) {
+        var old = board.getPiece(square);
+        board.setPiece(square, piece);
+        if (old != null) {
+            hash ^= Zobrist.piece(old, square);
+        }
+        if (piece != null) {
+            hash ^= Zobrist.piece(piece, square);
+        }
+        if (piece != null && piece.getPieceType() == ChessPiece.PieceType.KING) {
+            kingSquares[piece.getTeamColor().ordinal()] = square;
+        }
+        if (listener != null) {
+            if (old != null) {
+                listener.pieceRemoved(old, square);
+            }
+            if (piece != null) {
+                listener.pieceAdded(piece, square);
+            }
+        }
+    }
+
+    /**
+     * Castling is allowed for any king and rook still on their starting squares
+     * when a board is loaded, since the board carries no move history.
+     */
+    private void resetState() {
+        castlingRights = 0;
+        if (isOnSquare(4, TeamColor.WHITE, ChessPiece.PieceType.KING)) {
+            castlingRights |= isOnSquare(7, TeamColor.WHITE, ChessPiece.PieceType.ROOK) ? WHITE_KINGSIDE : 0;
+            castlingRights |= isOnSquare(0, TeamColor.WHITE, ChessPiece.PieceType.ROOK) ? WHITE_QUEENSIDE : 0;
+        }
+        if (isOnSquare(60, TeamColor.BLACK, ChessPiece.PieceType.KING)) {
+            castlingRights |= isOnSquare(63, TeamColor.BLACK, ChessPiece.PieceType.ROOK) ? BLACK_KINGSIDE : 0;
+            castlingRights |= isOnSquare(56, TeamColor.BLACK, ChessPiece.PieceType.ROOK) ? BLACK_QUEENSIDE : 0;
+        }
+        enPassantSquare = NO_SQUARE;
+        historySize = 0;
+        hash = computeHash();
+        hashedBoard = board;
+        if (listener != null) {
+            listener.boardReset(board);
+        }
+    }
+
+    /**
+     * Recomputes the hash if the board was replaced behind the game's back, as Gson does
+     * when it reads a game
+     */
+    private void checkHash() {
+        if (board != hashedBoard) {
+            hash = computeHash();
+            hashedBoard = board;
+        }
+    }
+
+    private long computeHash() {
+        long key = stateKey();
+        for (int square = 0; square < 64; square++) {
+            var piece = board.getPiece(square);
+            if (piece != null) {
+                key ^= Zobrist.piece(piece, square);
+            }
+        }
+        return key;
+    }
+
+    /**
+     * @return the part of the hash that does not come from the pieces
+     */
+    private long stateKey() {
+        long key = Zobrist.CASTLING[castlingRights];
+        if (teamTurn == TeamColor.BLACK) {
+            key ^= Zobrist.BLACK_TO_MOVE;
+        }
+        if (enPassantSquare != NO_SQUARE) {
+            // only hash the en passant square when a pawn could take there, so the position
+            // after a double step matches the same position reached any other way
+            int pushedPawn = teamTurn == TeamColor.WHITE ? enPassantSquare - 8 : enPassantSquare + 8;
+            int file = pushedPawn & 7;
+            if ((file > 0 && isOnSquare(pushedPawn - 1, teamTurn, ChessPiece.PieceType.PAWN))
+                    || (file < 7 && isOnSquare(pushedPawn + 1, teamTurn, ChessPiece.PieceType.PAWN))) {
+                key ^= Zobrist.EN_PASSANT_FILE[file];
+            }
+        }
+        return key;
+    }
+
+    private boolean isOnSquare(int square, TeamColor color, ChessPiece.PieceType type) {
+        return ChessPiece.of(color, type).equals(board.getPiece(square));
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        ChessGame that = (ChessGame) o;
+        return castlingRights == that.castlingRights && enPassantSquare == that.enPassantSquare
+                && Objects.equals(board, that.board) && teamTurn == that.teamTurn;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(board, teamTurn, castlingRights, enPassantSquare);
     }
 }
@@ -28,19 +28,15 @@ public class ChessPiece {
 
     @Override
     public String toString() {
-        final Map<PieceType, String> pieceToString = Map.of(
-                PieceType.KING, "k",
-                PieceType.QUEEN, "q",
-                PieceType.BISHOP, "b",
-                PieceType.KNIGHT, "n",
-                PieceType.ROOK, "r",
-                PieceType.PAWN, "p");
-
-        String pieceString = pieceToString.get(type);
-        if (pieceColor == ChessGame.TeamColor.WHITE) {
-            pieceString = pieceString.toUpperCase();
-        }
-        return pieceString;
+        return String.valueOf(toChar());
+    }
+
+    /**
+     * @return the piece's letter, upper case for white and lower case for black
+     */
+    char toChar() {
+        char letter = LETTERS.charAt(type.ordinal());
+        return pieceColor == ChessGame.TeamColor.WHITE ? Character.toUpperCase(letter) : letter;
     }
 
     private ChessPosition forward() {
@@ -73,6 +69,26 @@ public class ChessPiece {
         this.type = type;
     }
 
+    private static final ChessPiece[][] SHARED_PIECES = new ChessPiece[2][6];
+    private static final String LETTERS = "kqbnrp";
+
+    static {
+        for (var color : ChessGame.TeamColor.values()) {
+            for (var type : PieceType.values()) {
+                SHARED_PIECES[color.ordinal()][type.ordinal()] = new ChessPiece(color, type);
+            }
+        }
+    }
+
+    /**
+     * Pieces are immutable, so hot paths can use these shared instances instead of allocating
+     *
+     * @return the shared piece of the given color and type
+     */
+    public static ChessPiece of(ChessGame.TeamColor pieceColor, ChessPiece.PieceType type) {
+        return SHARED_PIECES[pieceColor.ordinal()][type.ordinal()];
+    }
+
     /**
      * The various different chess piece options
      */
@@ -231,8 +247,7 @@ public class ChessPiece {
 
     private Collection<ChessMove> pawnPromotion(ChessBoard board, ChessPosition oldPosition, ChessPosition newPosition, ChessGame.TeamColor teamColor) {
         Collection<ChessMove> moves = new ArrayList<>();
-        var forwardTwo = newPosition.add(forward().mul(2));
-        var canPromote = !board.inBounds(forwardTwo);
+        var canPromote = !board.inBounds(newPosition.add(forward()));
         if (canPromote) {
             moves.add(new ChessMove(oldPosition, newPosition, PieceType.QUEEN));
             moves.add(new ChessMove(oldPosition, newPosition, PieceType.BISHOP));
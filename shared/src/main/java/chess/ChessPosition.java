@@ -58,4 +58,19 @@ public class ChessPosition {
     public ChessPosition mul(int n) {
         return new ChessPosition(row * n, col * n);
     }
+
+    /**
+     * @return the 0-63 square index of this position, counting a1 as 0 and h8 as 63
+     */
+    public int toSquare() {
+        return (row - 1) * 8 + (col - 1);
+    }
+
+    /**
+     * @param square a 0-63 square index, counting a1 as 0 and h8 as 63
+     * @return the position for the given square index
+     */
+    public static ChessPosition fromSquare(int square) {
+        return new ChessPosition((square >> 3) + 1, (square & 7) + 1);
+    }
 }
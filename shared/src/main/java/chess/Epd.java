@@ -0,0 +1,124 @@
+package chess;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One line of an Extended Position Description (EPD) file: a position followed by
+ * operations such as {@code bm Nf3;} (best move), {@code am Qxb7;} (avoid move) or
+ * {@code id "WAC.001";}.
+ * <p>
+ * The position takes the first four fields of {@link Fen}: the pieces, the side to
+ * move, the castling rights and the en passant target square.
+ */
+public final class Epd {
+    private final ChessGame game;
+    private final Map<String, List<String>> operations;
+
+    private Epd(ChessGame game, Map<String, List<String>> operations) {
+        this.game = game;
+        this.operations = operations;
+    }
+
+    /**
+     * @throws IllegalArgumentException if the line is not a valid EPD record
+     */
+    public static Epd parse(CharSequence line) {
+        var game = new ChessGame();
+        int index = Fen.parsePosition(line, 0, game);
+        return new Epd(game, parseOperations(line, index));
+    }
+
+    /**
+     * @return a copy of the position, free for the caller to make moves on
+     */
+    public ChessGame getGame() {
+        return new ChessGame(game);
+    }
+
+    /**
+     * @return the first operand of the {@code id} operation, or null if there is none
+     */
+    public String getId() {
+        var operands = getOperands("id");
+        return operands.isEmpty() ? null : operands.get(0);
+    }
+
+    /**
+     * @return the operands of an operation, with quotes removed, or an empty list if
+     * the record does not have it
+     */
+    public List<String> getOperands(String opcode) {
+        return operations.getOrDefault(opcode, List.of());
+    }
+
+    /**
+     * Reads the SAN operands of a move operation such as {@code bm} or {@code am}
+     *
+     * @return the packed moves
+     * @throws IllegalArgumentException if an operand is not a legal move in the position
+     */
+    public int[] getMoves(String opcode) {
+        var operands = getOperands(opcode);
+        var legalMoves = new int[ChessGame.MAX_MOVES];
+        var moves = new int[operands.size()];
+        for (int i = 0; i < moves.length; i++) {
+            moves[i] = San.parse(game, operands.get(i), legalMoves);
+        }
+        return moves;
+    }
+
+    /**
+     * Reads operations of the form {@code opcode operand operand;}, where an operand in
+     * double quotes may contain spaces and semicolons
+     */
+    private static Map<String, List<String>> parseOperations(CharSequence line, int index) {
+        var operations = new LinkedHashMap<String, List<String>>();
+        var token = new StringBuilder();
+        String opcode = null;
+        List<String> operands = null;
+        while (index < line.length()) {
+            char c = line.charAt(index++);
+            if (c == '"') {
+                while (index < line.length() && line.charAt(index) != '"') {
+                    token.append(line.charAt(index++));
+                }
+                index++;
+                addOperand(opcode, operands, token);
+                continue;
+            }
+            if (c != ' ' && c != '\t' && c != ';') {
+                token.append(c);
+                continue;
+            }
+            if (!token.isEmpty()) {
+                if (opcode == null) {
+                    opcode = token.toString();
+                    operands = new ArrayList<>();
+                    token.setLength(0);
+                } else {
+                    addOperand(opcode, operands, token);
+                }
+            }
+            if (c == ';' && opcode != null) {
+                operations.put(opcode, Collections.unmodifiableList(operands));
+                opcode = null;
+            }
+        }
+        if (!token.isEmpty() || opcode != null) {
+            throw new IllegalArgumentException("Operation not ended with a semicolon: " + line);
+        }
+        return operations;
+    }
+
+    private static void addOperand(String opcode, List<String> operands, StringBuilder token) {
+        if (opcode == null) {
+            throw new IllegalArgumentException("Operand has no opcode: " + token);
+        }
+        operands.add(token.toString());
+        token.setLength(0);
+    }
+}
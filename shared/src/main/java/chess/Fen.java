@@ -0,0 +1,327 @@
+package chess;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Reads and writes Forsyth-Edwards Notation (FEN), such as
+ * {@code rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq e3 0 1}: the pieces from
+ * rank 8 down with digits for runs of empty squares, the side to move, the castling
+ * rights, the en passant target square, the halfmove clock and the fullmove number.
+ * <p>
+ * Parsing works straight off the characters of a {@link CharSequence} or the bytes of
+ * a {@link ByteBuffer} without building strings, and can load into an existing game
+ * to reuse its board. Writing appends to a caller's {@link StringBuilder} so one
+ * builder can serve many positions. ChessGame does not count moves, so the two
+ * counters are checked when read but not kept, and written as "0 1".
+ */
+public final class Fen {
+    public static final String START = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+
+    private Fen() {
+    }
+
+    /**
+     * @throws IllegalArgumentException if the text is not FEN
+     */
+    public static ChessGame parse(CharSequence fen) {
+        var game = new ChessGame();
+        load(game, fen);
+        return game;
+    }
+
+    /**
+     * Reads one FEN record from the buffer's position up to the next line break or the
+     * limit, leaving the position after the line break
+     *
+     * @throws IllegalArgumentException if the record is not FEN
+     */
+    public static ChessGame parse(ByteBuffer buffer) {
+        var game = new ChessGame();
+        load(game, buffer);
+        return game;
+    }
+
+    /**
+     * Replaces the game's position, reusing its board, and clears its move history.
+     * The game is left unchanged if the text is not FEN.
+     *
+     * @throws IllegalArgumentException if the text is not FEN
+     */
+    public static void load(ChessGame game, CharSequence fen) {
+        // check the counters first, so nothing is changed when they are bad
+        int index = 0;
+        for (int field = 0; field < 4; field++) {
+            index = fieldEnd(fen, skipSpaces(fen, index));
+        }
+        index = parseCounter(fen, index);
+        index = parseCounter(fen, index);
+        if (skipSpaces(fen, index) != fen.length()) {
+            throw new IllegalArgumentException("Unexpected text after FEN: " + fen);
+        }
+        parsePosition(fen, 0, game);
+    }
+
+    /**
+     * Like {@link #load(ChessGame, CharSequence)}, reading one record from the buffer's
+     * position up to the next line break or the limit
+     */
+    public static void load(ChessGame game, ByteBuffer buffer) {
+        int start = buffer.position();
+        int end = start;
+        while (end < buffer.limit() && buffer.get(end) != '\n') {
+            end++;
+        }
+        int length = end > start && buffer.get(end - 1) == '\r' ? end - 1 - start : end - start;
+        load(game, new AsciiSequence(buffer, start, length));
+        buffer.position(Math.min(end + 1, buffer.limit()));
+    }
+
+    public static String toString(ChessGame game) {
+        return append(game, new StringBuilder(90)).toString();
+    }
+
+    /**
+     * Writes the game's position as FEN
+     *
+     * @return the builder
+     */
+    public static StringBuilder append(ChessGame game, StringBuilder out) {
+        appendPlacement(game.getBoard(), out);
+        out.append(game.getTeamTurn() == ChessGame.TeamColor.WHITE ? " w " : " b ");
+        int castling = game.getCastlingRights();
+        if (castling == 0) {
+            out.append('-');
+        } else {
+            if ((castling & ChessGame.WHITE_KINGSIDE) != 0) {
+                out.append('K');
+            }
+            if ((castling & ChessGame.WHITE_QUEENSIDE) != 0) {
+                out.append('Q');
+            }
+            if ((castling & ChessGame.BLACK_KINGSIDE) != 0) {
+                out.append('k');
+            }
+            if ((castling & ChessGame.BLACK_QUEENSIDE) != 0) {
+                out.append('q');
+            }
+        }
+        out.append(' ');
+        if (game.getEnPassantSquare() == ChessGame.NO_SQUARE) {
+            out.append('-');
+        } else {
+            PackedMove.appendSquare(out, game.getEnPassantSquare());
+        }
+        return out.append(" 0 1");
+    }
+
+    /**
+     * Writes the piece placement field
+     *
+     * @return the builder
+     */
+    public static StringBuilder appendPlacement(ChessBoard board, StringBuilder out) {
+        for (int rank = 7; rank >= 0; rank--) {
+            int empty = 0;
+            for (int file = 0; file < 8; file++) {
+                var piece = board.getPiece(rank * 8 + file);
+                if (piece == null) {
+                    empty++;
+                    continue;
+                }
+                if (empty > 0) {
+                    out.append((char) ('0' + empty));
+                    empty = 0;
+                }
+                out.append(piece.toChar());
+            }
+            if (empty > 0) {
+                out.append((char) ('0' + empty));
+            }
+            if (rank > 0) {
+                out.append('/');
+            }
+        }
+        return out;
+    }
+
+    /**
+     * Reads a piece placement field, such as "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR"
+     *
+     * @throws IllegalArgumentException if the text is not a piece placement
+     */
+    public static ChessBoard parsePlacement(CharSequence placement) {
+        placePieces(placement, 0, placement.length(), null);
+        var board = new ChessBoard();
+        placePieces(placement, 0, placement.length(), board);
+        return board;
+    }
+
+    /**
+     * Reads the placement, side to move, castling and en passant fields into the game,
+     * changing nothing unless all four are valid
+     *
+     * @return the index just after the en passant field
+     */
+    static int parsePosition(CharSequence text, int index, ChessGame game) {
+        int placementStart = skipSpaces(text, index);
+        int placementEnd = fieldEnd(text, placementStart);
+        placePieces(text, placementStart, placementEnd, null);
+
+        int sideStart = skipSpaces(text, placementEnd);
+        int sideEnd = fieldEnd(text, sideStart);
+        if (sideEnd - sideStart != 1 || (text.charAt(sideStart) != 'w' && text.charAt(sideStart) != 'b')) {
+            throw new IllegalArgumentException("Not a side to move in FEN: " + text);
+        }
+        var team = text.charAt(sideStart) == 'w' ? ChessGame.TeamColor.WHITE : ChessGame.TeamColor.BLACK;
+
+        int castlingStart = skipSpaces(text, sideEnd);
+        int castlingEnd = fieldEnd(text, castlingStart);
+        int castling = parseCastling(text, castlingStart, castlingEnd);
+
+        int enPassantStart = skipSpaces(text, castlingEnd);
+        int enPassantEnd = fieldEnd(text, enPassantStart);
+        int enPassantSquare = ChessGame.NO_SQUARE;
+        if (enPassantEnd - enPassantStart == 2) {
+            enPassantSquare = PackedMove.parseSquare(text, enPassantStart);
+            if (enPassantSquare >> 3 != (team == ChessGame.TeamColor.WHITE ? 5 : 2)) {
+                throw new IllegalArgumentException("Not an en passant square in FEN: " + text);
+            }
+        } else if (enPassantEnd - enPassantStart != 1 || text.charAt(enPassantStart) != '-') {
+            throw new IllegalArgumentException("Not an en passant square in FEN: " + text);
+        }
+
+        var board = game.getBoard();
+        board.clearBoard();
+        placePieces(text, placementStart, placementEnd, board);
+        game.setPosition(board, team, castling, enPassantSquare);
+        return enPassantEnd;
+    }
+
+    /**
+     * Checks the placement field, and writes its pieces to the board when one is given
+     */
+    private static void placePieces(CharSequence text, int start, int end, ChessBoard board) {
+        int rank = 7;
+        int file = 0;
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            if (c == '/') {
+                if (file != 8 || rank == 0) {
+                    throw new IllegalArgumentException("Not a piece placement in FEN: " + text);
+                }
+                rank--;
+                file = 0;
+                continue;
+            }
+            if (c >= '1' && c <= '8') {
+                file += c - '0';
+            } else {
+                var piece = piece(c);
+                if (piece == null || file > 7) {
+                    throw new IllegalArgumentException("Not a piece placement in FEN: " + text);
+                }
+                if (board != null) {
+                    board.setPiece(rank * 8 + file, piece);
+                }
+                file++;
+            }
+            if (file > 8) {
+                throw new IllegalArgumentException("Not a piece placement in FEN: " + text);
+            }
+        }
+        if (rank != 0 || file != 8) {
+            throw new IllegalArgumentException("Not a piece placement in FEN: " + text);
+        }
+    }
+
+    private static int parseCastling(CharSequence text, int start, int end) {
+        if (end - start == 1 && text.charAt(start) == '-') {
+            return 0;
+        }
+        if (start == end) {
+            throw new IllegalArgumentException("Missing castling rights in FEN: " + text);
+        }
+        int rights = 0;
+        for (int i = start; i < end; i++) {
+            rights |= switch (text.charAt(i)) {
+                case 'K' -> ChessGame.WHITE_KINGSIDE;
+                case 'Q' -> ChessGame.WHITE_QUEENSIDE;
+                case 'k' -> ChessGame.BLACK_KINGSIDE;
+                case 'q' -> ChessGame.BLACK_QUEENSIDE;
+                default -> throw new IllegalArgumentException("Not castling rights in FEN: " + text);
+            };
+        }
+        return rights;
+    }
+
+    /**
+     * Checks an optional move counter
+     *
+     * @return the index after it
+     */
+    private static int parseCounter(CharSequence text, int index) {
+        int start = skipSpaces(text, index);
+        int end = fieldEnd(text, start);
+        if (start == end) {
+            return end;
+        }
+        for (int i = start; i < end; i++) {
+            if (text.charAt(i) < '0' || text.charAt(i) > '9') {
+                throw new IllegalArgumentException("Not a move counter in FEN: " + text);
+            }
+        }
+        return end;
+    }
+
+    private static ChessPiece piece(char c) {
+        var color = c < 'a' ? ChessGame.TeamColor.WHITE : ChessGame.TeamColor.BLACK;
+        var type = switch (c | 0x20) {
+            case 'k' -> ChessPiece.PieceType.KING;
+            case 'q' -> ChessPiece.PieceType.QUEEN;
+            case 'r' -> ChessPiece.PieceType.ROOK;
+            case 'b' -> ChessPiece.PieceType.BISHOP;
+            case 'n' -> ChessPiece.PieceType.KNIGHT;
+            case 'p' -> ChessPiece.PieceType.PAWN;
+            default -> null;
+        };
+        return type == null ? null : ChessPiece.of(color, type);
+    }
+
+    private static int skipSpaces(CharSequence text, int index) {
+        while (index < text.length() && (text.charAt(index) == ' ' || text.charAt(index) == '\t')) {
+            index++;
+        }
+        return index;
+    }
+
+    private static int fieldEnd(CharSequence text, int index) {
+        while (index < text.length() && text.charAt(index) != ' ' && text.charAt(index) != '\t') {
+            index++;
+        }
+        return index;
+    }
+
+    /**
+     * Reads bytes of a buffer as characters in place, so parsing from a buffer needs no copy
+     */
+    private record AsciiSequence(ByteBuffer buffer, int offset, int length) implements CharSequence {
+        @Override
+        public char charAt(int index) {
+            return (char) (buffer.get(offset + index) & 0xFF);
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            return new AsciiSequence(buffer, offset + start, end - start);
+        }
+
+        @Override
+        public String toString() {
+            var chars = new char[length];
+            for (int i = 0; i < length; i++) {
+                chars[i] = charAt(i);
+            }
+            return new String(chars);
+        }
+    }
+}
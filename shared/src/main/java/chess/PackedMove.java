@@ -0,0 +1,112 @@
+package chess;
+
+/**
+ * Packs a chess move into a single int so hot paths can pass moves around
+ * without allocating ChessMove and ChessPosition objects.
+ * <p>
+ * Bits 0-5 hold the start square, bits 6-11 the end square and bits 12-14 the
+ * promotion piece (0 for none). Squares are 0-63 indexes as returned by
+ * {@link ChessPosition#toSquare()}.
+ */
+public final class PackedMove {
+    /**
+     * Never a legal move, since the start and end squares are the same
+     */
+    public static final int NONE = 0;
+
+    private static final ChessPiece.PieceType[] PIECE_TYPES = ChessPiece.PieceType.values();
+
+    private PackedMove() {
+    }
+
+    public static int pack(int startSquare, int endSquare, ChessPiece.PieceType promotionPiece) {
+        int promotion = promotionPiece == null ? 0 : promotionPiece.ordinal() + 1;
+        return startSquare | (endSquare << 6) | (promotion << 12);
+    }
+
+    public static int pack(ChessMove move) {
+        return pack(move.getStartPosition().toSquare(), move.getEndPosition().toSquare(), move.getPromotionPiece());
+    }
+
+    public static ChessMove unpack(int move) {
+        return new ChessMove(ChessPosition.fromSquare(getStartSquare(move)),
+                ChessPosition.fromSquare(getEndSquare(move)), getPromotionPiece(move));
+    }
+
+    public static int getStartSquare(int move) {
+        return move & 63;
+    }
+
+    public static int getEndSquare(int move) {
+        return (move >>> 6) & 63;
+    }
+
+    /**
+     * @return Type of piece to promote a pawn to, or null if no promotion
+     */
+    public static ChessPiece.PieceType getPromotionPiece(int move) {
+        int promotion = (move >>> 12) & 7;
+        return promotion == 0 ? null : PIECE_TYPES[promotion - 1];
+    }
+
+    public static boolean isPromotion(int move) {
+        return (move >>> 12) != 0;
+    }
+
+    /**
+     * Parses coordinate notation such as "e2e4" or "e7e8q"
+     *
+     * @throws IllegalArgumentException if the text is not a move in coordinate notation
+     */
+    public static int parse(CharSequence text) {
+        if (text.length() < 4 || text.length() > 5) {
+            throw new IllegalArgumentException("Not a coordinate move: " + text);
+        }
+        int start = parseSquare(text, 0);
+        int end = parseSquare(text, 2);
+        ChessPiece.PieceType promotion = null;
+        if (text.length() == 5) {
+            promotion = switch (Character.toLowerCase(text.charAt(4))) {
+                case 'q' -> ChessPiece.PieceType.QUEEN;
+                case 'r' -> ChessPiece.PieceType.ROOK;
+                case 'b' -> ChessPiece.PieceType.BISHOP;
+                case 'n' -> ChessPiece.PieceType.KNIGHT;
+                default -> throw new IllegalArgumentException("Not a coordinate move: " + text);
+            };
+        }
+        return pack(start, end, promotion);
+    }
+
+    /**
+     * @return the move in coordinate notation, such as "e2e4" or "e7e8q"
+     */
+    public static String toString(int move) {
+        var builder = new StringBuilder(5);
+        appendSquare(builder, getStartSquare(move));
+        appendSquare(builder, getEndSquare(move));
+        var promotion = getPromotionPiece(move);
+        if (promotion != null) {
+            builder.append(ChessPiece.of(ChessGame.TeamColor.BLACK, promotion));
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Parses a square name such as "e4" starting at the given index
+     *
+     * @return the 0-63 square index
+     * @throws IllegalArgumentException if the characters are not a square name
+     */
+    public static int parseSquare(CharSequence text, int index) {
+        int file = text.charAt(index) - 'a';
+        int rank = text.charAt(index + 1) - '1';
+        if (file < 0 || file > 7 || rank < 0 || rank > 7) {
+            throw new IllegalArgumentException("Not a square: " + text.subSequence(index, index + 2));
+        }
+        return rank * 8 + file;
+    }
+
+    public static void appendSquare(StringBuilder builder, int square) {
+        builder.append((char) ('a' + (square & 7))).append((char) ('1' + (square >> 3)));
+    }
+}
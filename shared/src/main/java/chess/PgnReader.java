@@ -0,0 +1,350 @@
+package chess;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Reads the games of a Portable Game Notation (PGN) archive one at a time from a
+ * channel, so an archive of any size is read through one fixed buffer.
+ * <p>
+ * Each call to {@link #next()} reads the tag pairs and movetext of one game and
+ * replays its moves on a single reused game with {@link ChessGame#doMove(int)},
+ * starting from the FEN tag when there is one. Comments, variations, move numbers and
+ * numeric annotation glyphs are skipped. A move that cannot be read ends the replay;
+ * the moves before it are kept and {@link #getError()} says what went wrong. Bytes are
+ * read as ISO-8859-1.
+ * <p>
+ * The tags, moves and game belong to the reader and are replaced by the next call to
+ * {@link #next()}, so copy whatever has to outlive it.
+ */
+public class PgnReader implements Closeable {
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final ReadableByteChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE).flip();
+    private final StringBuilder token = new StringBuilder(16);
+    private final Map<String, String> tags = new LinkedHashMap<>();
+    private final ChessGame game;
+    private final int[] legalMoves = new int[ChessGame.MAX_MOVES];
+    private int[] moves = new int[256];
+    private int moveCount;
+    private boolean started;
+    private boolean standardStart;
+    private String result;
+    private String error;
+    private long games;
+    private long offset;
+    private long bufferOffset;
+    private int length;
+    private boolean endOfInput;
+
+    public PgnReader(ReadableByteChannel channel) {
+        this.channel = channel;
+        this.game = new ChessGame();
+        standardStart = true;
+    }
+
+    /**
+     * Replays the games on the given game instead of one of the reader's own, so one
+     * game can serve many readers. Its position and history are replaced.
+     */
+    public PgnReader(ReadableByteChannel channel, ChessGame game) {
+        this.channel = channel;
+        this.game = game;
+    }
+
+    /**
+     * Reads the next game
+     *
+     * @return false if there are no more games
+     * @throws IOException if the channel cannot be read
+     */
+    public boolean next() throws IOException {
+        tags.clear();
+        moveCount = 0;
+        started = false;
+        result = null;
+        error = null;
+        boolean found = false;
+        boolean inMovetext = false;
+        int c;
+        while ((c = peek()) >= 0) {
+            if (!found && c > ' ') {
+                offset = bufferOffset + buffer.position();
+            }
+            if (c <= ' ') {
+                read();
+            } else if (c == '[') {
+                if (inMovetext) {
+                    break;
+                }
+                readTag();
+                found = true;
+            } else if (c == '{') {
+                skipPast('}');
+            } else if (c == ';' || c == '%') {
+                skipPast('\n');
+            } else if (c == '(') {
+                skipVariation();
+            } else if (c == ')' || c == ']' || c == '}') {
+                read();
+            } else {
+                readToken();
+                found = true;
+                inMovetext = true;
+                if (isResult()) {
+                    result = token.toString();
+                    break;
+                }
+                addMove();
+            }
+        }
+        if (!found) {
+            return false;
+        }
+        length = (int) (bufferOffset + buffer.position() - offset);
+        start();
+        if (result == null) {
+            result = tags.getOrDefault("Result", "*");
+        }
+        games++;
+        return true;
+    }
+
+    /**
+     * @return the tag pairs of the current game in the order they were read
+     */
+    public Map<String, String> getTags() {
+        return tags;
+    }
+
+    /**
+     * @return the value of a tag of the current game, or null if it has none
+     */
+    public String getTag(String name) {
+        return tags.get(name);
+    }
+
+    /**
+     * @return the packed moves of the current game; only the first {@link #getMoveCount()} are used
+     */
+    public int[] getMoves() {
+        return moves;
+    }
+
+    public int getMoveCount() {
+        return moveCount;
+    }
+
+    /**
+     * @return the current game after its moves, with the moves in its history
+     */
+    public ChessGame getGame() {
+        return game;
+    }
+
+    /**
+     * @return the game termination marker, such as "1-0" or "*"
+     */
+    public String getResult() {
+        return result;
+    }
+
+    /**
+     * @return why the moves of the current game stopped early, or null if they were all read
+     */
+    public String getError() {
+        return error;
+    }
+
+    /**
+     * @return the byte offset in the channel of the current game's first tag or move
+     */
+    public long getOffset() {
+        return offset;
+    }
+
+    /**
+     * @return the number of bytes from the current game's first tag or move to the end
+     * of its termination marker, or to the next game's tags when it has none
+     */
+    public int getLength() {
+        return length;
+    }
+
+    /**
+     * @return the number of games read so far
+     */
+    public long getGames() {
+        return games;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private void addMove() {
+        if (error != null || token.isEmpty() || token.charAt(0) == '$') {
+            return;
+        }
+        start();
+        if (error != null) {
+            return;
+        }
+        int move;
+        try {
+            move = San.parse(game, token, legalMoves);
+        } catch (IllegalArgumentException e) {
+            error = e.getMessage();
+            return;
+        }
+        if (moveCount == moves.length) {
+            moves = Arrays.copyOf(moves, moves.length * 2);
+        }
+        moves[moveCount++] = move;
+        game.doMove(move);
+    }
+
+    /**
+     * Sets up the game's starting position the first time the current game needs it
+     */
+    private void start() {
+        if (started) {
+            return;
+        }
+        started = true;
+        var fen = tags.get("FEN");
+        if (fen != null) {
+            try {
+                Fen.load(game, fen);
+                standardStart = false;
+            } catch (IllegalArgumentException e) {
+                error = e.getMessage();
+            }
+        } else if (standardStart) {
+            while (game.getHistorySize() > 0) {
+                game.undoMove();
+            }
+        } else {
+            Fen.load(game, Fen.START);
+            standardStart = true;
+        }
+    }
+
+    private void readTag() throws IOException {
+        read();
+        token.setLength(0);
+        int c;
+        while ((c = peek()) > ' ' && c != '"' && c != ']') {
+            token.append((char) read());
+        }
+        var name = token.toString();
+        while ((c = read()) >= 0 && c != '"' && c != ']' && c != '\n') {
+            // skip to the value
+        }
+        if (c != '"') {
+            return;
+        }
+        token.setLength(0);
+        while ((c = read()) >= 0 && c != '"' && c != '\n') {
+            if (c == '\\') {
+                c = read();
+            }
+            token.append((char) c);
+        }
+        tags.put(name, token.toString());
+        skipPast(']');
+    }
+
+    /**
+     * Reads a movetext token into {@link #token}, without any move number in front of it
+     */
+    private void readToken() throws IOException {
+        token.setLength(0);
+        int c;
+        while ((c = peek()) > ' ' && c != '{' && c != '}' && c != '(' && c != ')' && c != ';' && c != '[') {
+            token.append((char) read());
+            if (c == '.' && isMoveNumber()) {
+                token.setLength(0);
+            }
+        }
+    }
+
+    private boolean isMoveNumber() {
+        for (int i = 0; i < token.length(); i++) {
+            char c = token.charAt(i);
+            if ((c < '0' || c > '9') && c != '.') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean isResult() {
+        return switch (token.length()) {
+            case 1 -> token.charAt(0) == '*';
+            case 3 -> token.charAt(1) == '-' && token.charAt(0) + token.charAt(2) == '0' + '1';
+            case 7 -> token.charAt(0) == '1' && token.charAt(1) == '/' && token.charAt(3) == '-';
+            default -> false;
+        };
+    }
+
+    private void skipPast(char end) throws IOException {
+        int c;
+        while ((c = read()) >= 0 && c != end) {
+            // skip
+        }
+    }
+
+    private void skipVariation() throws IOException {
+        int depth = 0;
+        int c;
+        while ((c = read()) >= 0) {
+            if (c == '{') {
+                skipPast('}');
+            } else if (c == '(') {
+                depth++;
+            } else if (c == ')' && --depth == 0) {
+                return;
+            }
+        }
+    }
+
+    private int peek() throws IOException {
+        if (!buffer.hasRemaining() && !fill()) {
+            return -1;
+        }
+        return buffer.get(buffer.position()) & 0xFF;
+    }
+
+    private int read() throws IOException {
+        if (!buffer.hasRemaining() && !fill()) {
+            return -1;
+        }
+        return buffer.get() & 0xFF;
+    }
+
+    private boolean fill() throws IOException {
+        if (endOfInput) {
+            return false;
+        }
+        bufferOffset += buffer.limit();
+        buffer.clear();
+        int read;
+        do {
+            read = channel.read(buffer);
+        } while (read == 0);
+        buffer.flip();
+        if (read < 0) {
+            endOfInput = true;
+            return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,126 @@
+package chess;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.Map;
+
+/**
+ * Writes games in Portable Game Notation (PGN) to a channel through one fixed buffer,
+ * so an archive of any size can be written a game at a time.
+ * <p>
+ * Moves are written in SAN with {@link San}, replaying them on the given game with
+ * {@link ChessGame#doMove(int)} and taking them back afterwards. Movetext lines are
+ * wrapped before {@value #LINE_LENGTH} characters. Characters are written as
+ * ISO-8859-1.
+ */
+public class PgnWriter implements Closeable, Flushable {
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final int LINE_LENGTH = 80;
+
+    private final WritableByteChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+    private final StringBuilder text = new StringBuilder(1024);
+    private final int[] legalMoves = new int[ChessGame.MAX_MOVES];
+    private final ChessGame standardStart = new ChessGame();
+
+    public PgnWriter(WritableByteChannel channel) {
+        this.channel = channel;
+    }
+
+    /**
+     * Writes one game. When the game is not at the starting position and the tags have
+     * no FEN tag, SetUp and FEN tags are added for it. The termination marker is the
+     * Result tag, or "*" without one.
+     *
+     * @param game  the position the moves start from, left unchanged
+     * @param moves the packed moves, which must be legal; only the first count are written
+     * @throws IOException if the channel cannot be written
+     */
+    public void write(Map<String, String> tags, ChessGame game, int[] moves, int count) throws IOException {
+        text.setLength(0);
+        for (var tag : tags.entrySet()) {
+            appendTag(tag.getKey(), tag.getValue());
+        }
+        if (!tags.containsKey("FEN") && !standardStart.equals(game)) {
+            appendTag("SetUp", "1");
+            appendTag("FEN", Fen.toString(game));
+        }
+        text.append('\n');
+
+        int lineStart = text.length();
+        int number = 1;
+        for (int i = 0; i < count; i++) {
+            boolean white = game.getTeamTurn() == ChessGame.TeamColor.WHITE;
+            int tokenStart = text.length();
+            if (i > 0) {
+                text.append(' ');
+            }
+            if (white || i == 0) {
+                text.append(number).append(white ? ". " : "... ");
+            }
+            San.append(game, moves[i], text, legalMoves);
+            game.doMove(moves[i]);
+            if (!white) {
+                number++;
+            }
+            if (text.length() - lineStart >= LINE_LENGTH && i > 0) {
+                text.setCharAt(tokenStart, '\n');
+                lineStart = tokenStart + 1;
+            }
+        }
+        for (int i = 0; i < count; i++) {
+            game.undoMove();
+        }
+        var result = tags.getOrDefault("Result", "*");
+        if (count > 0) {
+            text.append(text.length() - lineStart + 1 + result.length() >= LINE_LENGTH ? '\n' : ' ');
+        }
+        text.append(result).append("\n\n");
+        put(text);
+    }
+
+    /**
+     * Writes out everything buffered so far
+     */
+    @Override
+    public void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            channel.close();
+        }
+    }
+
+    private void appendTag(String name, String value) {
+        text.append('[').append(name).append(" \"");
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                text.append('\\');
+            }
+            text.append(c);
+        }
+        text.append("\"]\n");
+    }
+
+    private void put(CharSequence chars) throws IOException {
+        for (int i = 0; i < chars.length(); i++) {
+            if (!buffer.hasRemaining()) {
+                flush();
+            }
+            buffer.put((byte) chars.charAt(i));
+        }
+    }
+}
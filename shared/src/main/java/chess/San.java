@@ -0,0 +1,396 @@
+package chess;
+
+/**
+ * Reads and writes moves in standard algebraic notation (SAN), such as "Nf3", "exd5",
+ * "O-O" or "e8=Q+", and writes long algebraic notation (LAN), such as "Ng1-f3" or
+ * "e7xd8=Q#". Reading accepts LAN too, since LAN is SAN with the start square always
+ * given.
+ * <p>
+ * Neither direction generates all the legal moves for an ordinary move. The pieces
+ * that could reach the target square are found by looking outward from it, the way
+ * {@link ChessGame#isSquareAttacked} finds attackers, and only those few are checked
+ * with {@link ChessGame#isLegal(int)}. Legal moves are generated into a scratch buffer the caller can reuse
+ * across a whole game, and only to read castling, to tell mate from check, and to
+ * explain a move that cannot be read.
+ */
+public final class San {
+    private San() {
+    }
+
+    /**
+     * @return the legal move in SAN
+     */
+    public static String toString(ChessGame game, int move) {
+        return append(game, move, new StringBuilder(8), new int[ChessGame.MAX_MOVES]).toString();
+    }
+
+    /**
+     * Writes a legal move of the game in SAN, with a "+" or "#" suffix for check or mate
+     *
+     * @param moves scratch buffer for the legal moves, at least {@link ChessGame#MAX_MOVES} long
+     * @return the builder
+     */
+    public static StringBuilder append(ChessGame game, int move, StringBuilder out, int[] moves) {
+        var board = game.getBoard();
+        int start = PackedMove.getStartSquare(move);
+        int end = PackedMove.getEndSquare(move);
+        var piece = board.getPiece(start);
+        var type = piece.getPieceType();
+        boolean capture = game.isCapture(move);
+
+        if (type == ChessPiece.PieceType.KING && Math.abs(end - start) == 2) {
+            out.append(end > start ? "O-O" : "O-O-O");
+        } else if (type == ChessPiece.PieceType.PAWN) {
+            if (capture) {
+                out.append((char) ('a' + (start & 7))).append('x');
+            }
+            PackedMove.appendSquare(out, end);
+        } else {
+            out.append(Character.toUpperCase(piece.toChar()));
+            appendDisambiguation(game, piece, start, end, out);
+            if (capture) {
+                out.append('x');
+            }
+            PackedMove.appendSquare(out, end);
+        }
+        appendPromotion(move, out);
+        return appendCheck(game, move, out, moves);
+    }
+
+    /**
+     * Writes a legal move of the game in LAN, such as "Ng1-f3", "e5xd6" or "O-O+"
+     *
+     * @param moves scratch buffer for the legal moves, at least {@link ChessGame#MAX_MOVES} long
+     * @return the builder
+     */
+    public static StringBuilder appendLan(ChessGame game, int move, StringBuilder out, int[] moves) {
+        int start = PackedMove.getStartSquare(move);
+        int end = PackedMove.getEndSquare(move);
+        var piece = game.getBoard().getPiece(start);
+        if (piece.getPieceType() == ChessPiece.PieceType.KING && Math.abs(end - start) == 2) {
+            out.append(end > start ? "O-O" : "O-O-O");
+        } else {
+            if (piece.getPieceType() != ChessPiece.PieceType.PAWN) {
+                out.append(Character.toUpperCase(piece.toChar()));
+            }
+            PackedMove.appendSquare(out, start);
+            out.append(game.isCapture(move) ? 'x' : '-');
+            PackedMove.appendSquare(out, end);
+            appendPromotion(move, out);
+        }
+        return appendCheck(game, move, out, moves);
+    }
+
+    /**
+     * Writes a sequence of legal moves from the game's position as numbered SAN, such
+     * as "1. e4 e5 2. Nf3", or "1... e5 2. Nf3" when black moves first. The moves are
+     * made on the game to write them and taken back afterwards.
+     *
+     * @param moves scratch buffer for the legal moves, at least {@link ChessGame#MAX_MOVES} long
+     * @return the builder
+     */
+    public static StringBuilder appendMoves(ChessGame game, int[] line, int count, StringBuilder out, int[] moves) {
+        int number = 1;
+        for (int i = 0; i < count; i++) {
+            boolean white = game.getTeamTurn() == ChessGame.TeamColor.WHITE;
+            if (i > 0) {
+                out.append(' ');
+            }
+            if (white || i == 0) {
+                out.append(number).append(white ? ". " : "... ");
+            }
+            append(game, line[i], out, moves);
+            game.doMove(line[i]);
+            if (!white) {
+                number++;
+            }
+        }
+        for (int i = 0; i < count; i++) {
+            game.undoMove();
+        }
+        return out;
+    }
+
+    /**
+     * Finds the legal move a SAN string describes. Check, mate and annotation suffixes
+     * are ignored.
+     *
+     * @param moves scratch buffer for the legal moves, at least {@link ChessGame#MAX_MOVES} long
+     * @return the packed move
+     * @throws IllegalArgumentException if the text is not SAN for exactly one legal move
+     */
+    public static int parse(ChessGame game, CharSequence text, int[] moves) {
+        int end = text.length();
+        while (end > 0 && isSuffix(text.charAt(end - 1))) {
+            end--;
+        }
+        if (end < 2) {
+            throw new IllegalArgumentException("Not a SAN move: " + text);
+        }
+
+        if (isCastling(text, end)) {
+            int count = game.generateMoves(moves);
+            boolean kingside = end == 3;
+            for (int i = 0; i < count; i++) {
+                int start = PackedMove.getStartSquare(moves[i]);
+                int target = PackedMove.getEndSquare(moves[i]);
+                if (game.getBoard().getPiece(start).getPieceType() == ChessPiece.PieceType.KING
+                        && target - start == (kingside ? 2 : -2)) {
+                    return moves[i];
+                }
+            }
+            throw new IllegalArgumentException("Castling is not legal: " + text);
+        }
+
+        ChessPiece.PieceType promotion = null;
+        if (Character.isUpperCase(text.charAt(end - 1))) {
+            promotion = pieceType(text.charAt(end - 1));
+            end -= text.charAt(end - 2) == '=' ? 2 : 1;
+        }
+        if (end < 2) {
+            throw new IllegalArgumentException("Not a SAN move: " + text);
+        }
+        int target = PackedMove.parseSquare(text, end - 2);
+
+        int index = 0;
+        var type = ChessPiece.PieceType.PAWN;
+        if (Character.isUpperCase(text.charAt(0))) {
+            type = pieceType(text.charAt(0));
+            index = 1;
+        }
+        int fromFile = -1;
+        int fromRank = -1;
+        for (; index < end - 2; index++) {
+            char c = text.charAt(index);
+            if (c >= 'a' && c <= 'h') {
+                fromFile = c - 'a';
+            } else if (c >= '1' && c <= '8') {
+                fromRank = c - '1';
+            } else if (c != 'x' && c != ':' && c != '-') {
+                throw new IllegalArgumentException("Not a SAN move: " + text);
+            }
+        }
+
+        int found = findMove(game, type, target, promotion, fromFile, fromRank, text);
+        if (found != PackedMove.NONE) {
+            return found;
+        }
+        // nothing matched, so check against the legal moves to say why
+        int count = game.generateMoves(moves);
+        for (int i = 0; i < count; i++) {
+            int move = moves[i];
+            int start = PackedMove.getStartSquare(move);
+            if (PackedMove.getEndSquare(move) == target
+                    && PackedMove.getPromotionPiece(move) == promotion
+                    && game.getBoard().getPiece(start).getPieceType() == type
+                    && (fromFile < 0 || (start & 7) == fromFile)
+                    && (fromRank < 0 || (start >> 3) == fromRank)) {
+                if (found != PackedMove.NONE) {
+                    throw new IllegalArgumentException("Ambiguous move: " + text);
+                }
+                found = move;
+            }
+        }
+        if (found == PackedMove.NONE) {
+            throw new IllegalArgumentException("No legal move matches " + text);
+        }
+        return found;
+    }
+
+    /**
+     * Finds the move by looking outward from the target square for the pieces that could
+     * have made it, trying only those for legality
+     *
+     * @return the move, or {@link PackedMove#NONE} if no piece can legally make it
+     * @throws IllegalArgumentException if more than one piece can
+     */
+    private static int findMove(ChessGame game, ChessPiece.PieceType type, int target,
+                                ChessPiece.PieceType promotion, int fromFile, int fromRank, CharSequence text) {
+        var board = game.getBoard();
+        var team = game.getTeamTurn();
+        var captured = board.getPiece(target);
+        if (captured != null && captured.getTeamColor() == team) {
+            return PackedMove.NONE;
+        }
+        var piece = ChessPiece.of(team, type);
+        int row = target >> 3;
+        int col = target & 7;
+        int found = PackedMove.NONE;
+        if (type == ChessPiece.PieceType.PAWN) {
+            int forward = team == ChessGame.TeamColor.WHITE ? 8 : -8;
+            boolean lastRank = row == (team == ChessGame.TeamColor.WHITE ? 7 : 0);
+            if (lastRank != (promotion != null) || promotion == ChessPiece.PieceType.KING) {
+                return PackedMove.NONE;
+            }
+            if (fromFile >= 0 && fromFile != col) {
+                if (Math.abs(fromFile - col) == 1 && (captured != null || target == game.getEnPassantSquare())) {
+                    found = match(game, piece, target - forward + fromFile - col, target, promotion, fromFile, fromRank, found, text);
+                }
+            } else if (captured == null) {
+                int single = target - forward;
+                if (single >= 0 && single < 64 && board.getPiece(single) == null) {
+                    if (row == (team == ChessGame.TeamColor.WHITE ? 3 : 4)) {
+                        found = match(game, piece, single - forward, target, null, fromFile, fromRank, found, text);
+                    }
+                } else {
+                    found = match(game, piece, single, target, promotion, fromFile, fromRank, found, text);
+                }
+            }
+            return found;
+        }
+        if (promotion != null) {
+            return PackedMove.NONE;
+        }
+        if (type == ChessPiece.PieceType.KNIGHT) {
+            for (var step : Steps.KNIGHT) {
+                int r = row + step[0];
+                int c = col + step[1];
+                if (r >= 0 && r < 8 && c >= 0 && c < 8) {
+                    found = match(game, piece, r * 8 + c, target, null, fromFile, fromRank, found, text);
+                }
+            }
+            return found;
+        }
+        for (int d = 0; d < 8; d++) {
+            var direction = d < 4 ? Steps.ROOK[d] : Steps.BISHOP[d - 4];
+            if ((d < 4 && type == ChessPiece.PieceType.BISHOP) || (d >= 4 && type == ChessPiece.PieceType.ROOK)) {
+                continue;
+            }
+            int r = row + direction[0];
+            int c = col + direction[1];
+            while (r >= 0 && r < 8 && c >= 0 && c < 8) {
+                int square = r * 8 + c;
+                if (board.getPiece(square) != null || type == ChessPiece.PieceType.KING) {
+                    found = match(game, piece, square, target, null, fromFile, fromRank, found, text);
+                    break;
+                }
+                r += direction[0];
+                c += direction[1];
+            }
+        }
+        return found;
+    }
+
+    /**
+     * @return the move from the start square if the piece there can legally make it and
+     * matches the given start file and rank, or else the move found so far
+     * @throws IllegalArgumentException if a move was already found
+     */
+    private static int match(ChessGame game, ChessPiece piece, int start, int target, ChessPiece.PieceType promotion,
+                             int fromFile, int fromRank, int found, CharSequence text) {
+        if (start < 0 || start >= 64 || !piece.equals(game.getBoard().getPiece(start))
+                || (fromFile >= 0 && (start & 7) != fromFile) || (fromRank >= 0 && (start >> 3) != fromRank)) {
+            return found;
+        }
+        int move = PackedMove.pack(start, target, promotion);
+        if (!game.isLegal(move)) {
+            return found;
+        }
+        if (found != PackedMove.NONE) {
+            throw new IllegalArgumentException("Ambiguous move: " + text);
+        }
+        return move;
+    }
+
+    /**
+     * Adds the start file, rank or both when another piece of the same kind could also
+     * legally move to the target square
+     */
+    private static void appendDisambiguation(ChessGame game, ChessPiece piece, int start, int end, StringBuilder out) {
+        var board = game.getBoard();
+        int row = end >> 3;
+        int col = end & 7;
+        boolean sameFile = false;
+        boolean sameRank = false;
+        boolean ambiguous = false;
+        var type = piece.getPieceType();
+        if (type == ChessPiece.PieceType.KNIGHT) {
+            for (var step : Steps.KNIGHT) {
+                int r = row + step[0];
+                int c = col + step[1];
+                if (r >= 0 && r < 8 && c >= 0 && c < 8) {
+                    int other = r * 8 + c;
+                    if (other != start && piece.equals(board.getPiece(other))
+                            && game.isLegal(PackedMove.pack(other, end, null))) {
+                        ambiguous = true;
+                        sameFile |= (other & 7) == (start & 7);
+                        sameRank |= (other >> 3) == (start >> 3);
+                    }
+                }
+            }
+        } else if (type != ChessPiece.PieceType.KING) {
+            for (int d = 0; d < 8; d++) {
+                var direction = d < 4 ? Steps.ROOK[d] : Steps.BISHOP[d - 4];
+                if ((d < 4 && type == ChessPiece.PieceType.BISHOP) || (d >= 4 && type == ChessPiece.PieceType.ROOK)) {
+                    continue;
+                }
+                int r = row + direction[0];
+                int c = col + direction[1];
+                while (r >= 0 && r < 8 && c >= 0 && c < 8) {
+                    int other = r * 8 + c;
+                    var found = board.getPiece(other);
+                    if (found != null) {
+                        if (other != start && piece.equals(found) && game.isLegal(PackedMove.pack(other, end, null))) {
+                            ambiguous = true;
+                            sameFile |= (other & 7) == (start & 7);
+                            sameRank |= (other >> 3) == (start >> 3);
+                        }
+                        break;
+                    }
+                    r += direction[0];
+                    c += direction[1];
+                }
+            }
+        }
+        if (!ambiguous) {
+            return;
+        }
+        if (!sameFile) {
+            out.append((char) ('a' + (start & 7)));
+        } else if (!sameRank) {
+            out.append((char) ('1' + (start >> 3)));
+        } else {
+            PackedMove.appendSquare(out, start);
+        }
+    }
+
+    private static void appendPromotion(int move, StringBuilder out) {
+        var promotion = PackedMove.getPromotionPiece(move);
+        if (promotion != null) {
+            out.append('=').append(ChessPiece.of(ChessGame.TeamColor.WHITE, promotion).toChar());
+        }
+    }
+
+    private static StringBuilder appendCheck(ChessGame game, int move, StringBuilder out, int[] moves) {
+        game.doMove(move);
+        if (game.isInCheck(game.getTeamTurn())) {
+            out.append(game.generateMoves(moves) == 0 ? '#' : '+');
+        }
+        game.undoMove();
+        return out;
+    }
+
+    private static boolean isCastling(CharSequence text, int end) {
+        char first = text.charAt(0);
+        if (first != 'O' && first != '0') {
+            return false;
+        }
+        return (end == 3 || end == 5) && text.charAt(1) == '-' && text.charAt(2) == first
+                && (end == 3 || (text.charAt(3) == '-' && text.charAt(4) == first));
+    }
+
+    private static boolean isSuffix(char c) {
+        return c == '+' || c == '#' || c == '!' || c == '?';
+    }
+
+    private static ChessPiece.PieceType pieceType(char letter) {
+        return switch (letter) {
+            case 'K' -> ChessPiece.PieceType.KING;
+            case 'Q' -> ChessPiece.PieceType.QUEEN;
+            case 'R' -> ChessPiece.PieceType.ROOK;
+            case 'B' -> ChessPiece.PieceType.BISHOP;
+            case 'N' -> ChessPiece.PieceType.KNIGHT;
+            default -> throw new IllegalArgumentException("Not a piece letter: " + letter);
+        };
+    }
+}
@@ -0,0 +1,25 @@
+package chess;
+
+/**
+ * The steps pieces move and attack by, as {row, column} offsets on the 0-63 squares.
+ * A knight or king takes one step; a rook, bishop or queen repeats a step until it is
+ * blocked. The arrays are shared, so they must not be changed.
+ */
+public final class Steps {
+    public static final int[][] KNIGHT = {{1, 2}, {2, 1}, {2, -1}, {1, -2}, {-1, -2}, {-2, -1}, {-2, 1}, {-1, 2}};
+    public static final int[][] KING = {{1, 0}, {1, 1}, {0, 1}, {-1, 1}, {-1, 0}, {-1, -1}, {0, -1}, {1, -1}};
+    public static final int[][] ROOK = {{1, 0}, {-1, 0}, {0, 1}, {0, -1}};
+    public static final int[][] BISHOP = {{1, 1}, {1, -1}, {-1, 1}, {-1, -1}};
+
+    private Steps() {
+    }
+
+    /**
+     * @return the square one step away, or -1 if the step leaves the board
+     */
+    public static int step(int square, int[] step) {
+        int row = (square >> 3) + step[0];
+        int col = (square & 7) + step[1];
+        return row >= 0 && row < 8 && col >= 0 && col < 8 ? row * 8 + col : -1;
+    }
+}
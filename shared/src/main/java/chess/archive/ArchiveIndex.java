@@ -0,0 +1,177 @@
+package chess.archive;
+
+import chess.PgnReader;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Random access to the games of a PGN archive by game number, through a sidecar index
+ * of where each game starts and how long it is. The index is read through a memory
+ * map, so finding a game is one lookup and reading it one positional read, however
+ * far into the archive it is.
+ * <p>
+ * The index file is little-endian: magic, version and game count as ints and one
+ * unused int, the size of the archive it was built from as a long, then 12-byte
+ * entries of byte offset (long) and length (int), one per game in archive order. An
+ * index whose archive has since changed size is refused as stale.
+ */
+public class ArchiveIndex implements Closeable {
+    private static final int MAGIC = 0x58444E49;
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 4 * Integer.BYTES + Long.BYTES;
+    private static final int ENTRY_BYTES = Long.BYTES + Integer.BYTES;
+    private static final int WRITE_BUFFER_ENTRIES = 1 << 12;
+
+    private final MappedByteBuffer index;
+    private final FileChannel archive;
+    private final int size;
+
+    private ArchiveIndex(MappedByteBuffer index, FileChannel archive, int size) {
+        this.index = index;
+        this.archive = archive;
+        this.size = size;
+    }
+
+    /**
+     * Scans the archive once and writes the index for it
+     *
+     * @return the number of games indexed
+     * @throws IOException if the archive cannot be read or the index written
+     */
+    public static int build(Path archivePath, Path indexPath) throws IOException {
+        try (var reader = new PgnReader(FileChannel.open(archivePath, StandardOpenOption.READ));
+             var channel = FileChannel.open(indexPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                     StandardOpenOption.TRUNCATE_EXISTING)) {
+            var buffer = ByteBuffer.allocate(WRITE_BUFFER_ENTRIES * ENTRY_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            channel.position(HEADER_BYTES);
+            int count = 0;
+            while (reader.next()) {
+                if (!buffer.hasRemaining()) {
+                    writeFully(channel, buffer.flip());
+                    buffer.clear();
+                }
+                buffer.putLong(reader.getOffset()).putInt(reader.getLength());
+                count++;
+                if (count == Integer.MAX_VALUE / ENTRY_BYTES) {
+                    throw new IOException(archivePath + " has too many games to index");
+                }
+            }
+            writeFully(channel, buffer.flip());
+            var header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN)
+                    .putInt(MAGIC).putInt(VERSION).putInt(count).putInt(0).putLong(Files.size(archivePath));
+            channel.position(0);
+            writeFully(channel, header.flip());
+            return count;
+        }
+    }
+
+    /**
+     * @throws IOException if either file cannot be read, or the index is not an index of
+     *                     a supported version for the archive as it is now
+     */
+    public static ArchiveIndex open(Path archivePath, Path indexPath) throws IOException {
+        MappedByteBuffer buffer;
+        try (var channel = FileChannel.open(indexPath, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_BYTES || channel.size() > Integer.MAX_VALUE) {
+                throw new IOException(indexPath + " is not an archive index");
+            }
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            if (buffer.getInt(0) != MAGIC) {
+                throw new IOException(indexPath + " is not an archive index");
+            }
+            if (buffer.getInt(4) != VERSION) {
+                throw new IOException("Unsupported archive index version " + buffer.getInt(4));
+            }
+            if (channel.size() != HEADER_BYTES + (long) buffer.getInt(8) * ENTRY_BYTES) {
+                throw new IOException(indexPath + " has the wrong size for " + buffer.getInt(8) + " games");
+            }
+        }
+        if (buffer.getLong(16) != Files.size(archivePath)) {
+            throw new IOException(indexPath + " is stale: " + archivePath + " has changed since it was built");
+        }
+        return new ArchiveIndex(buffer, FileChannel.open(archivePath, StandardOpenOption.READ), buffer.getInt(8));
+    }
+
+    /**
+     * @return the number of games in the archive
+     */
+    public int size() {
+        return size;
+    }
+
+    public long getOffset(int gameNumber) {
+        return index.getLong(entry(gameNumber));
+    }
+
+    public int getLength(int gameNumber) {
+        return index.getInt(entry(gameNumber) + Long.BYTES);
+    }
+
+    /**
+     * @param gameNumber counting the first game of the archive as 0
+     * @return the PGN text of the game
+     * @throws IOException if the archive cannot be read
+     */
+    public String read(int gameNumber) throws IOException {
+        entry(gameNumber);
+        return read(gameNumber, 1).get(0);
+    }
+
+    /**
+     * Reads a page of consecutive games with one read of the archive
+     *
+     * @return the PGN text of the games from the first one, fewer than asked for at the
+     * end of the archive
+     * @throws IOException if the archive cannot be read
+     */
+    public List<String> read(int first, int count) throws IOException {
+        int end = (int) Math.min((long) first + count, size);
+        var games = new ArrayList<String>(Math.max(end - first, 0));
+        if (first >= end) {
+            return games;
+        }
+        long start = getOffset(first);
+        long last = getOffset(end - 1) + getLength(end - 1);
+        var buffer = ByteBuffer.allocate(Math.toIntExact(last - start));
+        while (buffer.hasRemaining()) {
+            if (archive.read(buffer, start + buffer.position()) < 0) {
+                throw new IOException("The archive ended before game " + (end - 1));
+            }
+        }
+        for (int game = first; game < end; game++) {
+            int from = (int) (getOffset(game) - start);
+            games.add(new String(buffer.array(), from, getLength(game), StandardCharsets.ISO_8859_1).strip());
+        }
+        return games;
+    }
+
+    @Override
+    public void close() throws IOException {
+        archive.close();
+    }
+
+    private int entry(int gameNumber) {
+        if (gameNumber < 0 || gameNumber >= size) {
+            throw new IndexOutOfBoundsException("Game " + gameNumber + " of " + size);
+        }
+        return HEADER_BYTES + gameNumber * ENTRY_BYTES;
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+}
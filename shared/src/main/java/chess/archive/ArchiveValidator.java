@@ -0,0 +1,400 @@
+package chess.archive;
+
+import chess.ChessGame;
+import chess.Fen;
+import chess.PgnReader;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Re-validates every game of a PGN archive in parallel: the file is split into chunks
+ * at game boundaries, the chunks are read and replayed on a {@link ForkJoinPool} with
+ * one reused {@link ChessGame} per worker thread, and a report for each game comes
+ * back through a bounded queue to the calling thread. A full queue holds the workers
+ * back, so a slow consumer bounds the memory used rather than letting reports pile up.
+ * If the consumer throws or the caller is interrupted, the workers stop at their next
+ * report instead of waiting on the queue.
+ * <p>
+ * Reports from different chunks arrive interleaved; within a chunk they arrive in
+ * file order, and each one carries the byte offset of its game.
+ */
+public class ArchiveValidator {
+    public static final int DEFAULT_CHUNK_BYTES = 4 << 20;
+    public static final int DEFAULT_QUEUE_CAPACITY = 4096;
+
+    private static final int TAG_NONE = 0;
+    private static final int TAG_NAME_START = 1;
+    private static final int TAG_NAME = 2;
+    private static final int TAG_SPACE = 3;
+    private static final int TAG_VALUE = 4;
+
+    private final ForkJoinPool pool;
+    private final int chunkBytes;
+    private final int queueCapacity;
+    private final ThreadLocal<ChessGame> workerGames = ThreadLocal.withInitial(ChessGame::new);
+
+    /**
+     * How a game ended up after replaying its moves
+     */
+    public enum State {
+        /** A move could not be read or was not legal */
+        ILLEGAL,
+        CHECKMATE,
+        STALEMATE,
+        /** Neither side is mated or stalemated */
+        PLAYABLE
+    }
+
+    /**
+     * @param offset the byte offset of the game in the archive
+     * @param plies  the number of moves replayed
+     * @param result the game termination marker, such as "1-0"
+     * @param error  why the moves stopped early, or null
+     * @param fen    the position after the moves
+     */
+    public record GameReport(long offset, int plies, String result, State state, String error, String fen) {
+    }
+
+    /**
+     * Throughput of each stage of one run. Replay time is summed over the workers.
+     */
+    public record Metrics(int chunks, long bytes, long splitNanos, long games, long moves, long illegalGames,
+                          long replayNanos, long reportNanos, long blockedNanos, long elapsedNanos) {
+        @Override
+        public String toString() {
+            return String.format("""
+                            split:  %d chunks, %.1f MB in %.1f ms
+                            replay: %d games, %d moves, %d illegal; %.0f games/s per worker, %.0f games/s overall
+                            report: %.1f ms consuming, %.1f ms workers blocked on a full queue
+                            total:  %.1f ms""",
+                    chunks, bytes / 1e6, splitNanos / 1e6,
+                    games, moves, illegalGames, games / Math.max(replayNanos / 1e9, 1e-9),
+                    games / Math.max(elapsedNanos / 1e9, 1e-9),
+                    reportNanos / 1e6, blockedNanos / 1e6, elapsedNanos / 1e6);
+        }
+    }
+
+    public ArchiveValidator(ForkJoinPool pool) {
+        this(pool, DEFAULT_CHUNK_BYTES, DEFAULT_QUEUE_CAPACITY);
+    }
+
+    /**
+     * @param chunkBytes    the approximate size of the chunks the archive is split into
+     * @param queueCapacity how many reports can wait for the consumer
+     */
+    public ArchiveValidator(ForkJoinPool pool, int chunkBytes, int queueCapacity) {
+        this.pool = pool;
+        this.chunkBytes = chunkBytes;
+        this.queueCapacity = queueCapacity;
+    }
+
+    /**
+     * Validates every game of a PGN file, passing each report to the consumer on the
+     * calling thread
+     *
+     * @return the metrics of the run
+     * @throws IOException if the file cannot be read
+     */
+    public Metrics validate(Path path, Consumer<GameReport> consumer) throws IOException {
+        long start = System.nanoTime();
+        try (var channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            var chunks = split(channel, size);
+            long split = System.nanoTime();
+
+            BlockingQueue<GameReport> reports = new ArrayBlockingQueue<>(queueCapacity);
+            var replayNanos = new LongAdder();
+            var blockedNanos = new LongAdder();
+            var moves = new LongAdder();
+            var stopped = new AtomicBoolean();
+            var tasks = new ArrayList<Future<?>>(chunks.size() - 1);
+            for (int i = 0; i + 1 < chunks.size(); i++) {
+                long from = chunks.get(i);
+                long to = chunks.get(i + 1);
+                var buffer = channel.map(FileChannel.MapMode.READ_ONLY, from, to - from);
+                tasks.add(pool.submit(() -> replay(buffer, from, reports, stopped, replayNanos, blockedNanos, moves)));
+            }
+
+            long games = 0;
+            long illegal = 0;
+            long reportNanos = 0;
+            int done = 0;
+            boolean finished = false;
+            try {
+                while (done < tasks.size() || !reports.isEmpty()) {
+                    GameReport report;
+                    try {
+                        report = reports.poll(10, TimeUnit.MILLISECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new IOException("Interrupted while validating " + path, e);
+                    }
+                    if (report == null) {
+                        done = countDone(tasks);
+                        continue;
+                    }
+                    long consumed = System.nanoTime();
+                    consumer.accept(report);
+                    reportNanos += System.nanoTime() - consumed;
+                    games++;
+                    if (report.state() == State.ILLEGAL) {
+                        illegal++;
+                    }
+                }
+                finished = true;
+            } finally {
+                if (!finished) {
+                    stopped.set(true);
+                    tasks.forEach(task -> task.cancel(true));
+                }
+            }
+            for (var task : tasks) {
+                try {
+                    task.get();
+                } catch (Exception e) {
+                    throw new IOException("Could not validate " + path, e.getCause() == null ? e : e.getCause());
+                }
+            }
+            return new Metrics(tasks.size(), size, split - start, games, moves.sum(), illegal, replayNanos.sum(),
+                    reportNanos, blockedNanos.sum(), System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Finds where the chunks start: the beginning of the file, then the first game
+     * boundary after every multiple of the chunk size, then the end of the file
+     */
+    List<Long> split(FileChannel channel, long size) throws IOException {
+        var starts = new ArrayList<Long>();
+        starts.add(0L);
+        var probe = ByteBuffer.allocate(1 << 14);
+        long next = chunkBytes;
+        while (next < size) {
+            long boundary = nextGame(channel, next, size, probe);
+            if (boundary >= size) {
+                break;
+            }
+            starts.add(boundary);
+            next = boundary + chunkBytes;
+        }
+        starts.add(size);
+        return starts;
+    }
+
+    /**
+     * Scans forward for a game start: a whole tag pair line, such as {@code [Event "x"]},
+     * after a blank line that follows movetext. Brace and semicolon comments are skipped,
+     * so a wrapped comment with a line starting with a bracket is not taken for a game.
+     * A closing brace with no opening brace means the scan started inside a comment, so
+     * anything read before it was comment text rather than movetext.
+     *
+     * @return the offset of the tag line, or the size of the file if there is none
+     */
+    private static long nextGame(FileChannel channel, long from, long size, ByteBuffer probe) throws IOException {
+        // the scan starts mid-line, so the first line can neither be blank nor start a game
+        boolean lineBlank = false;
+        boolean previousBlank = false;
+        boolean seenMovetext = false;
+        boolean inBrace = false;
+        boolean inLineComment = false;
+        boolean inTagLine = false;
+        long candidate = -1;
+        int tagState = 0;
+        int lastTwo = 0;
+        long position = from;
+        while (position < size) {
+            probe.clear();
+            int read = channel.read(probe, position);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                byte b = probe.get(i);
+                if (candidate >= 0) {
+                    if (b == '\n') {
+                        if (tagState == TAG_VALUE && lastTwo == ('"' << 8 | ']')) {
+                            return candidate;
+                        }
+                        candidate = -1;
+                    } else if (tagState == TAG_NAME_START) {
+                        tagState = isTagNameByte(b) ? TAG_NAME : TAG_NONE;
+                    } else if (tagState == TAG_NAME) {
+                        tagState = isTagNameByte(b) ? TAG_NAME : b == ' ' ? TAG_SPACE : TAG_NONE;
+                    } else if (tagState == TAG_SPACE) {
+                        tagState = b == ' ' ? TAG_SPACE : b == '"' ? TAG_VALUE : TAG_NONE;
+                    }
+                    if (b > ' ') {
+                        lastTwo = (lastTwo << 8 | (b & 0xFF)) & 0xFFFF;
+                    }
+                    if (candidate >= 0) {
+                        continue;
+                    }
+                }
+                if (b == '\n') {
+                    previousBlank = lineBlank;
+                    lineBlank = true;
+                    inLineComment = false;
+                    inTagLine = false;
+                    continue;
+                }
+                if (b <= ' ') {
+                    continue;
+                }
+                boolean lineStart = lineBlank;
+                lineBlank = false;
+                if (inBrace) {
+                    inBrace = b != '}';
+                } else if (inLineComment || inTagLine) {
+                    continue;
+                } else if (b == '}') {
+                    seenMovetext = false;
+                } else if (lineStart && b == '[') {
+                    if (seenMovetext && previousBlank) {
+                        candidate = position + i;
+                        tagState = TAG_NAME_START;
+                        lastTwo = '[';
+                    }
+                    inTagLine = true;
+                } else {
+                    inBrace = b == '{';
+                    inLineComment = b == ';';
+                    seenMovetext = true;
+                }
+            }
+            position += read;
+        }
+        return size;
+    }
+
+    private static boolean isTagNameByte(byte b) {
+        return b >= 'A' && b <= 'Z' || b >= 'a' && b <= 'z' || b >= '0' && b <= '9' || b == '_';
+    }
+
+    private void replay(MappedByteBuffer buffer, long chunkOffset, BlockingQueue<GameReport> reports,
+                        AtomicBoolean stopped, LongAdder replayNanos, LongAdder blockedNanos, LongAdder moves) {
+        var game = workerGames.get();
+        var legalMoves = new int[ChessGame.MAX_MOVES];
+        var fen = new StringBuilder(90);
+        var reader = new PgnReader(new BufferChannel(buffer), game);
+        long busy = 0;
+        long blocked = 0;
+        try {
+            long started = System.nanoTime();
+            while (!stopped.get() && reader.next()) {
+                var state = reader.getError() != null ? State.ILLEGAL
+                        : game.generateMoves(legalMoves) > 0 ? State.PLAYABLE
+                        : game.isInCheck(game.getTeamTurn()) ? State.CHECKMATE : State.STALEMATE;
+                fen.setLength(0);
+                var report = new GameReport(chunkOffset + reader.getOffset(), reader.getMoveCount(),
+                        reader.getResult(), state, reader.getError(), Fen.append(game, fen).toString());
+                moves.add(reader.getMoveCount());
+                long ready = System.nanoTime();
+                busy += ready - started;
+                while (!reports.offer(report, 10, TimeUnit.MILLISECONDS)) {
+                    if (stopped.get()) {
+                        return;
+                    }
+                }
+                started = System.nanoTime();
+                blocked += started - ready;
+            }
+            busy += System.nanoTime() - started;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            replayNanos.add(busy);
+            blockedNanos.add(blocked);
+        }
+    }
+
+    private static int countDone(List<Future<?>> tasks) {
+        int done = 0;
+        for (var task : tasks) {
+            if (task.isDone()) {
+                done++;
+            }
+        }
+        return done;
+    }
+
+    /**
+     * Usage: ArchiveValidator archive.pgn [--chunk-mb n] [--threads n] [--queue n]. Prints
+     * the games that do not replay, then the metrics.
+     */
+    public static void main(String[] args) throws IOException {
+        int chunkBytes = DEFAULT_CHUNK_BYTES;
+        int threads = Runtime.getRuntime().availableProcessors();
+        int queueCapacity = DEFAULT_QUEUE_CAPACITY;
+        for (int i = 1; i < args.length; i++) {
+            switch (args[i]) {
+                case "--chunk-mb" -> chunkBytes = Integer.parseInt(args[++i]) << 20;
+                case "--threads" -> threads = Integer.parseInt(args[++i]);
+                case "--queue" -> queueCapacity = Integer.parseInt(args[++i]);
+                default -> throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+        var pool = new ForkJoinPool(threads);
+        try {
+            var metrics = new ArchiveValidator(pool, chunkBytes, queueCapacity).validate(Path.of(args[0]), report -> {
+                if (report.state() == State.ILLEGAL) {
+                    System.out.printf("game at byte %d, ply %d: %s%n", report.offset(), report.plies() + 1,
+                            report.error());
+                }
+            });
+            System.out.println(metrics);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Reads a mapped chunk of the archive as a channel
+     */
+    private static class BufferChannel implements ReadableByteChannel {
+        private final ByteBuffer buffer;
+
+        BufferChannel(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read(ByteBuffer destination) {
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int count = Math.min(destination.remaining(), buffer.remaining());
+            destination.put(destination.position(), buffer, buffer.position(), count);
+            destination.position(destination.position() + count);
+            buffer.position(buffer.position() + count);
+            return count;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return true;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,624 @@
+package chess.archive;
+
+import chess.ChessGame;
+import chess.PgnReader;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * An inverted index from position to the games that reached it, for "show me games
+ * that reached this position". Games are added as they finish; each position after
+ * each of their moves becomes a posting of game id and ply under the position's
+ * {@link ChessGame#getHash()}.
+ * <p>
+ * New postings collect in memory until there are enough to flush as a segment file.
+ * Segments are never changed once written, and {@link #compact()} merges them into
+ * one. Each flush is numbered, and a segment's file name holds the range of flushes
+ * it covers, so a merged segment found next to its inputs after a crash tells
+ * {@link #open(Path, int)} which files to delete. Queries read a published list of
+ * segments, so they go on while a compaction writes its merged segment.
+ * <p>
+ * A segment file is little-endian: magic and version as ints, then key count, posting
+ * count and directory offset as longs. The postings of each key follow, sorted by game
+ * and ply, each as a varint of the difference from the previous game id and a varint
+ * of the ply. Last is the directory of 24-byte entries of key, data offset and posting
+ * count (longs) sorted by key. Segments are written a chunk at a time and read through
+ * memory maps of at most a gigabyte each, so neither has to fit in one buffer.
+ */
+public class PositionIndex implements Closeable {
+    public static final int DEFAULT_FLUSH_POSTINGS = 1 << 20;
+
+    private static final int MAGIC = 0x54534F50;
+    private static final int VERSION = 2;
+    private static final int HEADER_BYTES = 2 * Integer.BYTES + 3 * Long.BYTES;
+    private static final int ENTRY_BYTES = 3 * Long.BYTES;
+    private static final int WINDOW_BITS = 30;
+    private static final long WINDOW_MASK = (1L << WINDOW_BITS) - 1;
+    private static final int CHUNK_BYTES = 1 << 16;
+    private static final String SEGMENT_PREFIX = "postings-";
+    private static final String SEGMENT_SUFFIX = ".seg";
+
+    private final Path directory;
+    private final int flushPostings;
+    private final Object compactionLock = new Object();
+    /** Replaced, never changed, so a query can keep reading the list it started with */
+    private volatile List<Segment> segments = List.of();
+    private int nextSegment;
+
+    private long[] keys = new long[1024];
+    private int[] games = new int[1024];
+    private int[] plies = new int[1024];
+    private int buffered;
+
+    /**
+     * A game that reached a position, and the ply it reached it after
+     */
+    public record Posting(int gameId, int ply) {
+    }
+
+    private PositionIndex(Path directory, int flushPostings) {
+        this.directory = directory;
+        this.flushPostings = flushPostings;
+    }
+
+    /**
+     * Opens the index kept in a directory, creating the directory if needed. Segments
+     * left behind by a compaction that did not finish deleting its inputs are deleted.
+     *
+     * @param flushPostings how many postings to hold in memory before writing a segment
+     * @throws IOException if a segment cannot be read or is not a segment of a supported version
+     */
+    public static PositionIndex open(Path directory, int flushPostings) throws IOException {
+        Files.createDirectories(directory);
+        var index = new PositionIndex(directory, flushPostings);
+        var found = new ArrayList<Segment>();
+        try (var files = Files.list(directory)) {
+            var paths = files.filter(path -> path.getFileName().toString().startsWith(SEGMENT_PREFIX)
+                    && path.getFileName().toString().endsWith(SEGMENT_SUFFIX)).sorted().toList();
+            for (var path : paths) {
+                found.add(openSegment(path));
+            }
+        }
+        var superseded = found.stream()
+                .filter(segment -> found.stream().anyMatch(other -> other.covers(segment))).toList();
+        for (var segment : superseded) {
+            Files.delete(segment.path);
+        }
+        found.removeAll(superseded);
+        for (var segment : found) {
+            index.nextSegment = Math.max(index.nextSegment, segment.last + 1);
+        }
+        index.segments = List.copyOf(found);
+        return index;
+    }
+
+    /**
+     * Adds the positions a finished game reached, after each of its moves
+     *
+     * @param game  the position the moves start from, left unchanged
+     * @param moves the packed moves, which must be legal; only the first count are added
+     * @throws IOException if a full buffer cannot be flushed
+     */
+    public synchronized void addGame(int gameId, ChessGame game, int[] moves, int count) throws IOException {
+        for (int ply = 0; ply < count; ply++) {
+            game.doMove(moves[ply]);
+            add(game.getHash(), gameId, ply + 1);
+        }
+        for (int ply = 0; ply < count; ply++) {
+            game.undoMove();
+        }
+        if (buffered >= flushPostings) {
+            flush();
+        }
+    }
+
+    /**
+     * @return every game that reached the position, sorted by game id and ply
+     */
+    public List<Posting> find(long key) {
+        var postings = new ArrayList<Posting>();
+        List<Segment> searched;
+        synchronized (this) {
+            searched = segments;
+            for (int i = 0; i < buffered; i++) {
+                if (keys[i] == key) {
+                    postings.add(new Posting(games[i], plies[i]));
+                }
+            }
+        }
+        boolean unordered = searched.size() > 1 || !postings.isEmpty();
+        for (var segment : searched) {
+            long entry = findEntry(segment, key);
+            if (entry >= 0) {
+                var cursor = new PostingCursor(segment, entry);
+                while (cursor.next()) {
+                    postings.add(new Posting(cursor.gameId, cursor.ply));
+                }
+            }
+        }
+        if (unordered) {
+            postings.sort(Comparator.comparingInt(Posting::gameId).thenComparingInt(Posting::ply));
+        }
+        return postings;
+    }
+
+    /**
+     * @return the number of postings for the position, without decoding them
+     */
+    public long count(long key) {
+        long count = 0;
+        List<Segment> searched;
+        synchronized (this) {
+            searched = segments;
+            for (int i = 0; i < buffered; i++) {
+                if (keys[i] == key) {
+                    count++;
+                }
+            }
+        }
+        for (var segment : searched) {
+            long entry = findEntry(segment, key);
+            if (entry >= 0) {
+                count += segment.getLong(entry + 2 * Long.BYTES);
+            }
+        }
+        return count;
+    }
+
+    public int getSegmentCount() {
+        return segments.size();
+    }
+
+    /**
+     * Writes the postings held in memory as a new segment
+     *
+     * @throws IOException if the segment cannot be written
+     */
+    public synchronized void flush() throws IOException {
+        if (buffered == 0) {
+            return;
+        }
+        int[] order = IntStream.range(0, buffered).boxed()
+                .sorted(Comparator.<Integer>comparingLong(i -> keys[i]).thenComparingInt(i -> games[i])
+                        .thenComparingInt(i -> plies[i]))
+                .mapToInt(Integer::intValue).toArray();
+        Segment segment;
+        try (var writer = new SegmentWriter(segmentPath(nextSegment, nextSegment))) {
+            for (int i = 0; i < buffered; ) {
+                long key = keys[order[i]];
+                int end = i;
+                while (end < buffered && keys[order[end]] == key) {
+                    end++;
+                }
+                writer.startKey(key, end - i);
+                for (; i < end; i++) {
+                    writer.addPosting(games[order[i]], plies[order[i]]);
+                }
+            }
+            segment = writer.finish();
+        }
+        var published = new ArrayList<>(segments);
+        published.add(segment);
+        segments = List.copyOf(published);
+        nextSegment++;
+        buffered = 0;
+    }
+
+    /**
+     * Merges every segment into one, so queries read one directory instead of many.
+     * Queries and new games go on while the merged segment is written; games added
+     * meanwhile land in segments of their own.
+     *
+     * @throws IOException if the merged segment cannot be written
+     */
+    public void compact() throws IOException {
+        synchronized (compactionLock) {
+            List<Segment> inputs;
+            synchronized (this) {
+                flush();
+                inputs = segments;
+            }
+            if (inputs.size() < 2) {
+                return;
+            }
+            int first = Integer.MAX_VALUE;
+            int last = 0;
+            for (var segment : inputs) {
+                first = Math.min(first, segment.first);
+                last = Math.max(last, segment.last);
+            }
+            Segment merged;
+            try (var writer = new SegmentWriter(segmentPath(first, last))) {
+                merge(inputs, writer);
+                merged = writer.finish();
+            }
+            // once the merged segment is in place, open() deletes any inputs a crash leaves behind
+            synchronized (this) {
+                var published = new ArrayList<Segment>();
+                published.add(merged);
+                for (var segment : segments) {
+                    if (!inputs.contains(segment)) {
+                        published.add(segment);
+                    }
+                }
+                segments = List.copyOf(published);
+            }
+            for (var segment : inputs) {
+                Files.delete(segment.path);
+            }
+        }
+    }
+
+    /**
+     * Flushes the postings held in memory
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        flush();
+    }
+
+    /**
+     * Usage: PositionIndex directory archive.pgn. Adds every game of the archive, using
+     * its number in the archive as its id, as {@link ArchiveIndex} counts them.
+     */
+    public static void main(String[] args) throws IOException {
+        long start = System.nanoTime();
+        int gameId = 0;
+        try (var index = open(Path.of(args[0]), DEFAULT_FLUSH_POSTINGS);
+             var reader = new PgnReader(FileChannel.open(Path.of(args[1]), StandardOpenOption.READ))) {
+            while (reader.next()) {
+                var replayed = reader.getGame();
+                int count = reader.getMoveCount();
+                for (int i = 0; i < count; i++) {
+                    replayed.undoMove();
+                }
+                index.addGame(gameId++, replayed, reader.getMoves(), count);
+            }
+            index.compact();
+        }
+        System.out.printf("%d games indexed in %.1f s%n", gameId, (System.nanoTime() - start) / 1e9);
+    }
+
+    private void add(long key, int gameId, int ply) {
+        if (buffered == keys.length) {
+            keys = Arrays.copyOf(keys, buffered * 2);
+            games = Arrays.copyOf(games, buffered * 2);
+            plies = Arrays.copyOf(plies, buffered * 2);
+        }
+        keys[buffered] = key;
+        games[buffered] = gameId;
+        plies[buffered] = ply;
+        buffered++;
+    }
+
+    /**
+     * @return the path of a segment covering a range of flushes, named by the one flush
+     * if there is only one
+     */
+    private Path segmentPath(int first, int last) {
+        var range = first == last ? String.format("%06d", first) : String.format("%06d-%06d", first, last);
+        return directory.resolve(SEGMENT_PREFIX + range + SEGMENT_SUFFIX);
+    }
+
+    /**
+     * Writes the postings of every input, key by key, merging each key's postings
+     * from one cursor per segment so no more than a posting per segment is in memory
+     */
+    private static void merge(List<Segment> inputs, SegmentWriter writer) throws IOException {
+        var entries = new long[inputs.size()];
+        var cursors = new PostingCursor[inputs.size()];
+        while (true) {
+            long key = Long.MAX_VALUE;
+            boolean any = false;
+            for (int s = 0; s < inputs.size(); s++) {
+                if (entries[s] < inputs.get(s).keyCount) {
+                    long candidate = inputs.get(s).getLong(inputs.get(s).entry(entries[s]));
+                    if (!any || candidate < key) {
+                        key = candidate;
+                        any = true;
+                    }
+                }
+            }
+            if (!any) {
+                break;
+            }
+            long count = 0;
+            int live = 0;
+            for (int s = 0; s < inputs.size(); s++) {
+                var segment = inputs.get(s);
+                cursors[s] = null;
+                if (entries[s] < segment.keyCount && segment.getLong(segment.entry(entries[s])) == key) {
+                    var cursor = new PostingCursor(segment, segment.entry(entries[s]++));
+                    count += cursor.remaining;
+                    if (cursor.next()) {
+                        cursors[s] = cursor;
+                        live++;
+                    }
+                }
+            }
+            writer.startKey(key, count);
+            while (live > 0) {
+                PostingCursor lowest = null;
+                int lowestIndex = -1;
+                for (int s = 0; s < cursors.length; s++) {
+                    var cursor = cursors[s];
+                    if (cursor != null && (lowest == null || cursor.gameId < lowest.gameId
+                            || cursor.gameId == lowest.gameId && cursor.ply < lowest.ply)) {
+                        lowest = cursor;
+                        lowestIndex = s;
+                    }
+                }
+                writer.addPosting(lowest.gameId, lowest.ply);
+                if (!lowest.next()) {
+                    cursors[lowestIndex] = null;
+                    live--;
+                }
+            }
+        }
+    }
+
+    private static Segment openSegment(Path path) throws IOException {
+        var name = path.getFileName().toString();
+        var range = name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()).split("-");
+        int first;
+        int last;
+        try {
+            first = Integer.parseInt(range[0]);
+            last = range.length > 1 ? Integer.parseInt(range[1]) : first;
+        } catch (NumberFormatException e) {
+            throw new IOException(path + " is not named as a postings segment", e);
+        }
+        try (var channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_BYTES) {
+                throw new IOException(path + " is not a postings segment");
+            }
+            var windows = new MappedByteBuffer[(int) ((size + WINDOW_MASK) >>> WINDOW_BITS)];
+            for (int i = 0; i < windows.length; i++) {
+                long start = (long) i << WINDOW_BITS;
+                windows[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(WINDOW_MASK + 1, size - start));
+                windows[i].order(ByteOrder.LITTLE_ENDIAN);
+            }
+            var header = windows[0];
+            if (header.getInt(0) != MAGIC) {
+                throw new IOException(path + " is not a postings segment");
+            }
+            if (header.getInt(4) != VERSION) {
+                throw new IOException("Unsupported postings segment version " + header.getInt(4));
+            }
+            long keyCount = header.getLong(8);
+            long directoryOffset = header.getLong(24);
+            if (keyCount < 0 || directoryOffset < HEADER_BYTES || directoryOffset > size
+                    || keyCount > (size - directoryOffset) / ENTRY_BYTES) {
+                throw new IOException(path + " is too short for " + keyCount + " keys");
+            }
+            return new Segment(path, first, last, windows, keyCount, directoryOffset);
+        }
+    }
+
+    /**
+     * @return the offset of the directory entry for the key, or -1 if the segment does
+     * not have it
+     */
+    private static long findEntry(Segment segment, long key) {
+        long low = 0;
+        long high = segment.keyCount;
+        while (low < high) {
+            long middle = (low + high) >>> 1;
+            if (segment.getLong(segment.entry(middle)) < key) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low < segment.keyCount && segment.getLong(segment.entry(low)) == key ? segment.entry(low) : -1;
+    }
+
+    /**
+     * A segment file mapped a window at a time
+     */
+    private static final class Segment {
+        private final Path path;
+        /** The number of the first flush the segment covers */
+        private final int first;
+        /** The number of the last flush the segment covers */
+        private final int last;
+        private final MappedByteBuffer[] windows;
+        private final long keyCount;
+        private final long directoryOffset;
+
+        Segment(Path path, int first, int last, MappedByteBuffer[] windows, long keyCount, long directoryOffset) {
+            this.path = path;
+            this.first = first;
+            this.last = last;
+            this.windows = windows;
+            this.keyCount = keyCount;
+            this.directoryOffset = directoryOffset;
+        }
+
+        boolean covers(Segment other) {
+            return other != this && first <= other.first && other.last <= last;
+        }
+
+        /**
+         * @return the file offset of the nth directory entry
+         */
+        long entry(long n) {
+            return directoryOffset + n * ENTRY_BYTES;
+        }
+
+        byte get(long position) {
+            return windows[(int) (position >>> WINDOW_BITS)].get((int) (position & WINDOW_MASK));
+        }
+
+        long getLong(long position) {
+            var window = windows[(int) (position >>> WINDOW_BITS)];
+            int offset = (int) (position & WINDOW_MASK);
+            if (offset + Long.BYTES <= window.limit()) {
+                return window.getLong(offset);
+            }
+            // the long straddles two windows
+            long value = 0;
+            for (int i = Long.BYTES - 1; i >= 0; i--) {
+                value = value << 8 | (get(position + i) & 0xFF);
+            }
+            return value;
+        }
+    }
+
+    /**
+     * Decodes the postings of one directory entry in order
+     */
+    private static final class PostingCursor {
+        private final Segment segment;
+        private long position;
+        private long remaining;
+        private int gameId;
+        private int ply;
+
+        PostingCursor(Segment segment, long entry) {
+            this.segment = segment;
+            position = segment.getLong(entry + Long.BYTES);
+            remaining = segment.getLong(entry + 2 * Long.BYTES);
+        }
+
+        /**
+         * @return whether there was another posting, which is then in gameId and ply
+         */
+        boolean next() {
+            if (remaining == 0) {
+                return false;
+            }
+            remaining--;
+            gameId += readVarint();
+            ply = readVarint();
+            return true;
+        }
+
+        private int readVarint() {
+            int value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = segment.get(position++);
+                value |= (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            return value;
+        }
+    }
+
+    /**
+     * Streams a segment to a temporary file from keys given in order, each followed by
+     * its postings in order, holding only a chunk of each section in memory. The
+     * directory goes to a second temporary file until the postings are done, and is
+     * then copied after them.
+     */
+    private static class SegmentWriter implements Closeable {
+        private final Path path;
+        private final Path temporary;
+        private final FileChannel channel;
+        private final FileChannel directoryChannel;
+        private final ByteBuffer data = ByteBuffer.allocate(CHUNK_BYTES);
+        private final ByteBuffer directory = ByteBuffer.allocate(CHUNK_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        /** The file offset data's first byte goes to */
+        private long dataOffset = HEADER_BYTES;
+        private long keyCount;
+        private long postingCount;
+        private int previousGame;
+
+        SegmentWriter(Path path) throws IOException {
+            this.path = path;
+            temporary = path.resolveSibling(path.getFileName() + ".tmp");
+            channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+            directoryChannel = FileChannel.open(path.resolveSibling(path.getFileName() + ".dir.tmp"),
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.DELETE_ON_CLOSE);
+            channel.position(HEADER_BYTES);
+        }
+
+        void startKey(long key, long count) throws IOException {
+            if (directory.remaining() < ENTRY_BYTES) {
+                drain(directory, directoryChannel);
+            }
+            directory.putLong(key).putLong(dataOffset + data.position()).putLong(count);
+            keyCount++;
+            previousGame = 0;
+        }
+
+        void addPosting(int gameId, int ply) throws IOException {
+            if (data.remaining() < 10) {
+                dataOffset += data.position();
+                drain(data, channel);
+            }
+            putVarint(gameId - previousGame);
+            putVarint(ply);
+            previousGame = gameId;
+            postingCount++;
+        }
+
+        private void putVarint(int value) {
+            while ((value & ~0x7F) != 0) {
+                data.put((byte) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            data.put((byte) value);
+        }
+
+        /**
+         * Writes what is left, the directory and the header, and moves the file into place
+         */
+        Segment finish() throws IOException {
+            dataOffset += data.position();
+            drain(data, channel);
+            drain(directory, directoryChannel);
+            long directoryBytes = directoryChannel.position();
+            for (long copied = 0; copied < directoryBytes; ) {
+                copied += channel.transferFrom(directoryChannel.position(copied), dataOffset + copied,
+                        directoryBytes - copied);
+            }
+            var header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN)
+                    .putInt(MAGIC).putInt(VERSION).putLong(keyCount).putLong(postingCount).putLong(dataOffset).flip();
+            while (header.hasRemaining()) {
+                channel.write(header, header.position());
+            }
+            channel.close();
+            directoryChannel.close();
+            Files.move(temporary, path, StandardCopyOption.ATOMIC_MOVE);
+            return openSegment(path);
+        }
+
+        private static void drain(ByteBuffer buffer, FileChannel channel) throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+
+        /**
+         * Closes the temporary files, deleting them unless {@link #finish()} moved the segment into place
+         */
+        @Override
+        public void close() throws IOException {
+            try (channel; directoryChannel) {
+                Files.deleteIfExists(temporary);
+            }
+        }
+    }
+}
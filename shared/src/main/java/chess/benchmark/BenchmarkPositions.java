@@ -0,0 +1,50 @@
+package chess.benchmark;
+
+import chess.ChessGame;
+import chess.PackedMove;
+
+/**
+ * Fixed positions shared by the search benchmarks, written as the coordinate
+ * notation moves that reach them from the starting position
+ */
+final class BenchmarkPositions {
+    /**
+     * Quiet middlegame positions from common openings
+     */
+    static final String[][] OPENINGS = {
+            {},
+            {"e2e4", "e7e5", "g1f3", "b8c6", "f1b5", "a7a6", "b5a4", "g8f6", "e1g1", "f8e7"},
+            {"e2e4", "e7e5", "g1f3", "b8c6", "f1c4", "f8c5", "c2c3", "g8f6", "d2d4", "e5d4", "c3d4", "c5b4"},
+            {"d2d4", "d7d5", "c2c4", "e7e6", "b1c3", "g8f6", "c1g5", "f8e7", "e2e3", "e8g8", "g1f3", "b8d7"},
+            {"e2e4", "c7c5", "g1f3", "d7d6", "d2d4", "c5d4", "f3d4", "g8f6", "b1c3", "a7a6", "c1e3", "e7e5"},
+            {"e2e4", "e7e5", "g1f3", "b8c6", "f1c4", "g8f6", "f3g5", "d7d5", "e4d5", "c6a5"},
+    };
+
+    /**
+     * Opening traps with a single best move, given as the last entry of each line
+     */
+    static final String[][] TACTICS = {
+            {"f2f3", "e7e5", "g2g4", "d8h4"},
+            {"e2e4", "e7e5", "d1h5", "b8c6", "f1c4", "g8f6", "h5f7"},
+            {"e2e4", "e7e5", "f1c4", "f8c5", "d1f3", "d7d6", "f3f7"},
+            {"e2e4", "e7e5", "g1f3", "d7d6", "f1c4", "c8g4", "b1c3", "g7g6", "f3e5", "g4d1", "c4f7"},
+            {"d2d4", "d7d5", "c2c4", "e7e6", "b1c3", "g8f6", "c1g5", "b8d7", "c4d5", "e6d5", "c3d5", "f6d5"},
+            {"e2e4", "c7c5", "d2d4", "c5d4", "c2c3", "d4c3", "b1c3", "b8c6", "g1f3", "e7e6", "f1c4", "d8c7",
+                    "e1g1", "g8f6", "d1e2", "f6g4", "h2h3", "c6d4"},
+    };
+
+    private BenchmarkPositions() {
+    }
+
+    static ChessGame play(String[] moves) {
+        return play(moves, moves.length);
+    }
+
+    static ChessGame play(String[] moves, int count) {
+        var game = new ChessGame();
+        for (int i = 0; i < count; i++) {
+            game.doMove(PackedMove.parse(moves[i]));
+        }
+        return game;
+    }
+}
@@ -0,0 +1,200 @@
+package chess.benchmark;
+
+import chess.Epd;
+import chess.PackedMove;
+import chess.engine.AlphaBetaSearch;
+import chess.engine.MaterialEvaluator;
+import chess.engine.SearchMonitor;
+import com.google.gson.GsonBuilder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Runs an EPD test suite through the reference search, material evaluation with the
+ * default move ordering and selective techniques, and prints the results as JSON so
+ * runs on different builds can be diffed.
+ * <p>
+ * A position is solved when the search's move is one of its {@code bm} moves and none
+ * of its {@code am} moves. Besides the solve rate the report gives nodes per second,
+ * the time at which each depth was completed, and the effective branching factor:
+ * the geometric mean of how many times more nodes each iteration took than the one
+ * before it.
+ * <p>
+ * Usage: EpdSuiteRunner suite.epd [depth N | movetime MILLIS]. The default is depth 5.
+ */
+public class EpdSuiteRunner {
+    private static final int POLL_INTERVAL = 256;
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+    /**
+     * The search result for one position
+     *
+     * @param timeToDepthMillis the elapsed time when each depth, from 1, was completed
+     */
+    record PositionResult(String id, boolean solved, String move, List<String> bestMoves, List<String> avoidMoves,
+                          int score, int depth, long nodes, double millis, double[] timeToDepthMillis,
+                          double branchingFactor) {
+    }
+
+    /**
+     * @param timeToDepthMillis for each depth, the mean time to complete it over the
+     *                          positions that completed it
+     */
+    record SuiteResult(String suite, Integer depthLimit, Long movetimeLimitMillis, int positions, int solved,
+                       double solveRate, long nodes, double millis, long nodesPerSecond, double[] timeToDepthMillis,
+                       double branchingFactor, List<PositionResult> results) {
+    }
+
+    private final AlphaBetaSearch search = new AlphaBetaSearch(new MaterialEvaluator());
+    private final int depthLimit;
+    private final long movetimeNanos;
+
+    // the position being searched, filled in by the monitor
+    private final long[] depthNanos = new long[AlphaBetaSearch.MAX_PLY + 1];
+    private final long[] depthNodes = new long[AlphaBetaSearch.MAX_PLY + 1];
+    private long startNanos;
+
+    /**
+     * @param depthLimit     the depth to search every position to, or 0 to search on time
+     * @param movetimeMillis the time to search each position for when there is no depth limit
+     */
+    public EpdSuiteRunner(int depthLimit, long movetimeMillis) {
+        if (depthLimit < 0 || (depthLimit == 0 && movetimeMillis <= 0)) {
+            throw new IllegalArgumentException("Need a depth or a move time");
+        }
+        this.depthLimit = depthLimit;
+        this.movetimeNanos = movetimeMillis * 1_000_000;
+        search.setMonitor(new SearchMonitor() {
+            @Override
+            public boolean shouldStop(long nodes) {
+                return depthLimit == 0 && System.nanoTime() - startNanos >= movetimeNanos;
+            }
+
+            @Override
+            public boolean iterationComplete(int depth, int score, int bestMove, long nodes) {
+                depthNanos[depth] = System.nanoTime() - startNanos;
+                depthNodes[depth] = nodes;
+                return true;
+            }
+        }, POLL_INTERVAL);
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1 && args.length != 3) {
+            System.err.println("Usage: EpdSuiteRunner suite.epd [depth N | movetime MILLIS]");
+            System.exit(2);
+        }
+        int depth = 5;
+        long movetime = 0;
+        if (args.length == 3) {
+            switch (args[1]) {
+                case "depth" -> depth = Integer.parseInt(args[2]);
+                case "movetime" -> {
+                    depth = 0;
+                    movetime = Long.parseLong(args[2]);
+                }
+                default -> throw new IllegalArgumentException("Unknown limit: " + args[1]);
+            }
+        }
+        var file = Path.of(args[0]);
+        var result = new EpdSuiteRunner(depth, movetime).run(file.getFileName().toString(), Files.readAllLines(file));
+        System.out.println(toJson(result));
+    }
+
+    /**
+     * @return the report as printed, with limits that do not apply left out
+     */
+    static String toJson(SuiteResult result) {
+        return new GsonBuilder().setPrettyPrinting().create().toJson(result);
+    }
+
+    /**
+     * Searches every record in the suite; blank lines and lines starting with # are skipped
+     */
+    SuiteResult run(String suiteName, List<String> lines) {
+        var results = new ArrayList<PositionResult>();
+        for (var line : lines) {
+            if (!line.isBlank() && !line.startsWith("#")) {
+                results.add(searchPosition(Epd.parse(line), results.size() + 1));
+            }
+        }
+
+        int solved = 0;
+        long nodes = 0;
+        double millis = 0;
+        double logBranching = 0;
+        int branchingCount = 0;
+        var depthTotals = new double[AlphaBetaSearch.MAX_PLY + 1];
+        var depthCounts = new int[AlphaBetaSearch.MAX_PLY + 1];
+        int deepest = 0;
+        for (var result : results) {
+            solved += result.solved() ? 1 : 0;
+            nodes += result.nodes();
+            millis += result.millis();
+            if (result.branchingFactor() > 0) {
+                logBranching += Math.log(result.branchingFactor());
+                branchingCount++;
+            }
+            for (int depth = 0; depth < result.timeToDepthMillis().length; depth++) {
+                depthTotals[depth] += result.timeToDepthMillis()[depth];
+                depthCounts[depth]++;
+            }
+            deepest = Math.max(deepest, result.timeToDepthMillis().length);
+        }
+        var timeToDepth = new double[deepest];
+        for (int depth = 0; depth < deepest; depth++) {
+            timeToDepth[depth] = round(depthTotals[depth] / depthCounts[depth]);
+        }
+        return new SuiteResult(suiteName, depthLimit > 0 ? depthLimit : null,
+                depthLimit > 0 ? null : movetimeNanos / 1_000_000, results.size(), solved,
+                results.isEmpty() ? 0 : round((double) solved / results.size()), nodes, round(millis),
+                millis > 0 ? (long) (nodes / (millis / 1000)) : 0, timeToDepth,
+                branchingCount > 0 ? round(Math.exp(logBranching / branchingCount)) : 0, results);
+    }
+
+    private PositionResult searchPosition(Epd epd, int number) {
+        var game = epd.getGame();
+        var bestMoves = epd.getMoves("bm");
+        var avoidMoves = epd.getMoves("am");
+
+        startNanos = System.nanoTime();
+        int score = search.search(game, depthLimit > 0 ? depthLimit : AlphaBetaSearch.MAX_PLY);
+        long elapsed = System.nanoTime() - startNanos;
+        int move = search.getBestMove();
+        int depth = search.getCompletedDepth();
+
+        var timeToDepth = new double[depth];
+        double logBranching = 0;
+        for (int d = 1; d <= depth; d++) {
+            timeToDepth[d - 1] = round(depthNanos[d] / NANOS_PER_MILLI);
+            if (d > 1) {
+                long iterationNodes = depthNodes[d] - depthNodes[d - 1];
+                long previousNodes = d > 2 ? depthNodes[d - 1] - depthNodes[d - 2] : depthNodes[1];
+                logBranching += Math.log((double) iterationNodes / previousNodes);
+            }
+        }
+        boolean solved = (bestMoves.length > 0 || avoidMoves.length > 0)
+                && (bestMoves.length == 0 || contains(bestMoves, move)) && !contains(avoidMoves, move);
+        var id = epd.getId() != null ? epd.getId() : String.valueOf(number);
+        return new PositionResult(id, solved, PackedMove.toString(move), toStrings(bestMoves), toStrings(avoidMoves),
+                score, depth, search.getNodes(), round(elapsed / NANOS_PER_MILLI), timeToDepth,
+                depth > 1 ? round(Math.exp(logBranching / (depth - 1))) : 0);
+    }
+
+    private static boolean contains(int[] moves, int move) {
+        return Arrays.stream(moves).anyMatch(candidate -> candidate == move);
+    }
+
+    private static List<String> toStrings(int[] moves) {
+        return Arrays.stream(moves).mapToObj(PackedMove::toString).toList();
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 1000) / 1000.0;
+    }
+}
@@ -0,0 +1,99 @@
+package chess.benchmark;
+
+import chess.ChessGame;
+import chess.Fen;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Measures bulk FEN throughput: parsing from strings and from one buffer holding a
+ * record per line, each into a single reused game, and writing into one reused
+ * builder compared with a new string per position.
+ * <p>
+ * Usage: FenBenchmark [positions]. The default is 50000 positions from random games.
+ */
+public class FenBenchmark {
+    private static final int ROUNDS = 10;
+    private static final int MAX_PLIES = 80;
+
+    public static void main(String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 50_000;
+        var games = randomPositions(count, new Random(240));
+        var fens = new ArrayList<String>(count);
+        for (var game : games) {
+            fens.add(Fen.toString(game));
+        }
+        var text = String.join("\n", fens).getBytes(StandardCharsets.US_ASCII);
+        var buffer = ByteBuffer.allocateDirect(text.length).put(text).flip();
+        double megabytes = text.length / 1e6;
+
+        var game = new ChessGame();
+        var builder = new StringBuilder(90);
+        long checksum = 0;
+        double fromStrings = 0;
+        double fromBuffer = 0;
+        double reusedBuilder = 0;
+        double newStrings = 0;
+        // the first round warms up the JIT
+        for (int round = 0; round <= ROUNDS; round++) {
+            long start = System.nanoTime();
+            for (var fen : fens) {
+                Fen.load(game, fen);
+                checksum += game.getHash();
+            }
+            long parsedStrings = System.nanoTime();
+            buffer.rewind();
+            while (buffer.hasRemaining()) {
+                Fen.load(game, buffer);
+                checksum += game.getHash();
+            }
+            long parsedBuffer = System.nanoTime();
+            for (var position : games) {
+                builder.setLength(0);
+                checksum += Fen.append(position, builder).length();
+            }
+            long appended = System.nanoTime();
+            for (var position : games) {
+                checksum += position.toFen().length();
+            }
+            long stringified = System.nanoTime();
+            if (round > 0) {
+                fromStrings += parsedStrings - start;
+                fromBuffer += parsedBuffer - parsedStrings;
+                reusedBuilder += appended - parsedBuffer;
+                newStrings += stringified - appended;
+            }
+        }
+
+        System.out.printf("positions: %d, %.1f MB of FEN (checksum %d)%n", count, megabytes, checksum);
+        print("parse from strings", fromStrings, count, megabytes);
+        print("parse from buffer", fromBuffer, count, megabytes);
+        print("write reused builder", reusedBuilder, count, megabytes);
+        print("write new strings", newStrings, count, megabytes);
+    }
+
+    private static void print(String name, double totalNanos, int count, double megabytes) {
+        double seconds = totalNanos / 1e9 / ROUNDS;
+        System.out.printf("%-22s %10.0f positions/s %8.1f MB/s%n", name, count / seconds, megabytes / seconds);
+    }
+
+    private static List<ChessGame> randomPositions(int count, Random random) {
+        var positions = new ArrayList<ChessGame>(count);
+        var moves = new int[ChessGame.MAX_MOVES];
+        var game = new ChessGame();
+        while (positions.size() < count) {
+            int moveCount = game.generateMoves(moves);
+            if (moveCount == 0 || game.getHistorySize() >= MAX_PLIES) {
+                game = new ChessGame();
+                continue;
+            }
+            game.doMove(moves[random.nextInt(moveCount)]);
+            positions.add(new ChessGame(game));
+        }
+        return positions;
+    }
+}
@@ -0,0 +1,88 @@
+package chess.benchmark;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.PackedMove;
+import chess.json.ChessTypeAdapterFactory;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Compares the payload size and serialization time of games and moves between Gson's
+ * reflective default and the streaming adapters of {@link ChessTypeAdapterFactory}.
+ * <p>
+ * Usage: GsonBenchmark [positions]. The default is 20000 positions from random games,
+ * with one move from each.
+ */
+public class GsonBenchmark {
+    private static final int ROUNDS = 10;
+    private static final int MAX_PLIES = 80;
+
+    public static void main(String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+        var random = new Random(246);
+        var games = new ArrayList<ChessGame>(count);
+        var moves = new ArrayList<ChessMove>(count);
+        randomPositions(count, random, games, moves);
+
+        var reflective = new Gson();
+        var adapted = ChessTypeAdapterFactory.register(new GsonBuilder()).create();
+        run("games, reflective", reflective, games, ChessGame.class);
+        run("games, adapters", adapted, games, ChessGame.class);
+        run("moves, reflective", reflective, moves, ChessMove.class);
+        run("moves, adapters", adapted, moves, ChessMove.class);
+    }
+
+    private static <T> void run(String name, Gson gson, List<T> values, Class<T> type) {
+        var json = new ArrayList<String>(values.size());
+        long bytes = 0;
+        for (var value : values) {
+            var text = gson.toJson(value);
+            json.add(text);
+            bytes += text.length();
+        }
+        long checksum = 0;
+        double writeNanos = 0;
+        double readNanos = 0;
+        // the first round warms up the JIT
+        for (int round = 0; round <= ROUNDS; round++) {
+            long start = System.nanoTime();
+            for (var value : values) {
+                checksum += gson.toJson(value).length();
+            }
+            long written = System.nanoTime();
+            for (var text : json) {
+                checksum += gson.fromJson(text, type).hashCode();
+            }
+            long read = System.nanoTime();
+            if (round > 0) {
+                writeNanos += written - start;
+                readNanos += read - written;
+            }
+        }
+        double writeSeconds = writeNanos / 1e9 / ROUNDS;
+        double readSeconds = readNanos / 1e9 / ROUNDS;
+        System.out.printf("%-18s %6.0f bytes each %10.0f writes/s %10.0f reads/s (checksum %d)%n", name,
+                (double) bytes / values.size(), values.size() / writeSeconds, values.size() / readSeconds, checksum);
+    }
+
+    private static void randomPositions(int count, Random random, List<ChessGame> games, List<ChessMove> moves) {
+        var legalMoves = new int[ChessGame.MAX_MOVES];
+        var game = new ChessGame();
+        while (games.size() < count) {
+            int moveCount = game.generateMoves(legalMoves);
+            if (moveCount == 0 || game.getHistorySize() >= MAX_PLIES) {
+                game = new ChessGame();
+                continue;
+            }
+            int move = legalMoves[random.nextInt(moveCount)];
+            moves.add(PackedMove.unpack(move));
+            game.doMove(move);
+            games.add(new ChessGame(game));
+        }
+    }
+}
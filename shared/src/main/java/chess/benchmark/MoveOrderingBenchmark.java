@@ -0,0 +1,41 @@
+package chess.benchmark;
+
+import chess.engine.AlphaBetaSearch;
+import chess.engine.MaterialEvaluator;
+import chess.engine.MoveOrderer;
+import chess.engine.SearchOptions;
+
+/**
+ * Measures how many nodes the alpha-beta search needs to reach a fixed depth with
+ * moves in generation order against moves sorted by {@link MoveOrderer}.
+ * <p>
+ * Usage: MoveOrderingBenchmark [depth]. The default depth is 3; without ordering
+ * the quiescence search makes deeper runs take minutes.
+ */
+public class MoveOrderingBenchmark {
+    public static void main(String[] args) {
+        int depth = args.length > 0 ? Integer.parseInt(args[0]) : 3;
+        var evaluator = new MaterialEvaluator();
+        var unordered = new AlphaBetaSearch(evaluator, null, SearchOptions.NONE);
+        var ordered = new AlphaBetaSearch(evaluator, new MoveOrderer(AlphaBetaSearch.MAX_PLY + 1), SearchOptions.NONE);
+
+        long unorderedTotal = 0;
+        long orderedTotal = 0;
+        System.out.printf("%-9s %14s %14s %10s%n", "position", "unordered", "ordered", "reduction");
+        for (int i = 0; i < BenchmarkPositions.OPENINGS.length; i++) {
+            var game = BenchmarkPositions.play(BenchmarkPositions.OPENINGS[i]);
+            unordered.search(game, depth);
+            ordered.search(game, depth);
+            unorderedTotal += unordered.getNodes();
+            orderedTotal += ordered.getNodes();
+            System.out.printf("%-9d %14d %14d %9.1f%%%n", i + 1, unordered.getNodes(), ordered.getNodes(),
+                    reduction(unordered.getNodes(), ordered.getNodes()));
+        }
+        System.out.printf("%-9s %14d %14d %9.1f%%%n", "total", unorderedTotal, orderedTotal,
+                reduction(unorderedTotal, orderedTotal));
+    }
+
+    private static double reduction(long before, long after) {
+        return 100.0 * (before - after) / before;
+    }
+}
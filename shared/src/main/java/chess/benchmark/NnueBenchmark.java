@@ -0,0 +1,125 @@
+package chess.benchmark;
+
+import chess.BoardListener;
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessPiece;
+import chess.ChessPosition;
+import chess.InvalidMoveException;
+import chess.PackedMove;
+import chess.engine.NnueEvaluator;
+import chess.engine.NnueWeights;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compares keeping the NNUE accumulators current incrementally against rebuilding
+ * them with a full board scan at every position of a short game.
+ * <p>
+ * Usage: NnueBenchmark [weights file]. Random weights are used when no file is given.
+ */
+public class NnueBenchmark {
+    private static final String[] GAME = {
+            "e2e4", "e7e5", "g1f3", "b8c6", "f1b5", "a7a6", "b5a4", "g8f6", "e1g1", "f8e7",
+            "f1e1", "b7b5", "a4b3", "d7d6", "c2c3", "e8g8", "h2h3", "c6a5", "b3c2", "c7c5",
+            "d2d4", "d8c7", "b1d2", "c5d4", "c3d4", "a5c6", "d2b3", "a6a5", "c1e3", "a5a4",
+    };
+    private static final int ROUNDS = 20_000;
+
+    public static void main(String[] args) throws IOException, InvalidMoveException {
+        var weights = args.length > 0 ? NnueWeights.load(Path.of(args[0])) : NnueWeights.random(1, 256, 32);
+        var recorder = new RecordingListener();
+        var positions = new ArrayList<ChessBoard>();
+
+        var game = new ChessGame();
+        game.setBoardListener(recorder);
+        for (var move : GAME) {
+            game.makeMove(PackedMove.unpack(PackedMove.parse(move)));
+            positions.add(copy(game.getBoard()));
+        }
+        while (game.getHistorySize() > 0) {
+            game.undoMove();
+            positions.add(copy(game.getBoard()));
+        }
+
+        var evaluator = new NnueEvaluator(weights);
+        evaluator.refresh(new ChessGame().getBoard());
+        double incremental = 0;
+        double refresh = 0;
+        for (int warmup = 0; warmup < 2; warmup++) {
+            incremental = timeIncremental(evaluator, recorder) / positions.size();
+            refresh = timeRefresh(evaluator, positions) / positions.size();
+        }
+        System.out.printf("positions: %d, hidden size: %d%n", positions.size(), weights.getHiddenSize());
+        System.out.printf("incremental update: %.1f ns/position%n", incremental);
+        System.out.printf("full refresh:       %.1f ns/position%n", refresh);
+    }
+
+    private static double timeIncremental(NnueEvaluator evaluator, RecordingListener recorder) {
+        long start = System.nanoTime();
+        for (int round = 0; round < ROUNDS; round++) {
+            recorder.replay(evaluator);
+        }
+        return (double) (System.nanoTime() - start) / ROUNDS;
+    }
+
+    private static double timeRefresh(NnueEvaluator evaluator, List<ChessBoard> positions) {
+        long start = System.nanoTime();
+        for (int round = 0; round < ROUNDS; round++) {
+            for (var board : positions) {
+                evaluator.refresh(board);
+            }
+        }
+        return (double) (System.nanoTime() - start) / ROUNDS;
+    }
+
+    private static ChessBoard copy(ChessBoard board) {
+        var copy = new ChessBoard();
+        for (int square = 0; square < 64; square++) {
+            var piece = board.getPiece(square);
+            if (piece != null) {
+                copy.addPiece(ChessPosition.fromSquare(square), piece);
+            }
+        }
+        return copy;
+    }
+
+    private static class RecordingListener implements BoardListener {
+        private final List<ChessPiece> pieces = new ArrayList<>();
+        private final List<Integer> squares = new ArrayList<>();
+        private final List<Boolean> added = new ArrayList<>();
+
+        @Override
+        public void pieceAdded(ChessPiece piece, int square) {
+            record(piece, square, true);
+        }
+
+        @Override
+        public void pieceRemoved(ChessPiece piece, int square) {
+            record(piece, square, false);
+        }
+
+        @Override
+        public void boardReset(ChessBoard board) {
+        }
+
+        private void record(ChessPiece piece, int square, boolean isAdd) {
+            pieces.add(piece);
+            squares.add(square);
+            added.add(isAdd);
+        }
+
+        void replay(BoardListener listener) {
+            for (int i = 0; i < pieces.size(); i++) {
+                if (added.get(i)) {
+                    listener.pieceAdded(pieces.get(i), squares.get(i));
+                } else {
+                    listener.pieceRemoved(pieces.get(i), squares.get(i));
+                }
+            }
+        }
+    }
+}
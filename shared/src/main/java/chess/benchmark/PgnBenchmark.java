@@ -0,0 +1,86 @@
+package chess.benchmark;
+
+import chess.ChessGame;
+import chess.PgnReader;
+import chess.PgnWriter;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Measures streaming PGN throughput: writing random games to a file with one
+ * {@link PgnWriter}, then reading and replaying them back with one {@link PgnReader}.
+ * <p>
+ * Usage: PgnBenchmark [games] [plies]. The defaults are 20000 games of up to 80 plies.
+ */
+public class PgnBenchmark {
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) throws IOException {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+        int plies = args.length > 1 ? Integer.parseInt(args[1]) : 80;
+        var games = randomGames(count, plies, new Random(400));
+        var path = Files.createTempFile("games", ".pgn");
+        try {
+            double writeNanos = 0;
+            double readNanos = 0;
+            long moves = 0;
+            // the first round warms up the JIT
+            for (int round = 0; round <= ROUNDS; round++) {
+                long start = System.nanoTime();
+                try (var writer = new PgnWriter(FileChannel.open(path, StandardOpenOption.WRITE,
+                        StandardOpenOption.TRUNCATE_EXISTING))) {
+                    for (var game : games) {
+                        writer.write(Map.of("Result", "*"), new ChessGame(), game, game.length);
+                    }
+                }
+                long written = System.nanoTime();
+                moves = 0;
+                try (var reader = new PgnReader(FileChannel.open(path, StandardOpenOption.READ))) {
+                    while (reader.next()) {
+                        moves += reader.getMoveCount();
+                    }
+                }
+                long read = System.nanoTime();
+                if (round > 0) {
+                    writeNanos += written - start;
+                    readNanos += read - written;
+                }
+            }
+            double megabytes = Files.size(path) / 1e6;
+            System.out.printf("games: %d, %d moves, %.1f MB of PGN%n", count, moves, megabytes);
+            print("write", writeNanos, count, moves, megabytes);
+            print("read and replay", readNanos, count, moves, megabytes);
+        } finally {
+            Files.delete(path);
+        }
+    }
+
+    private static void print(String name, double totalNanos, int count, long moves, double megabytes) {
+        double seconds = totalNanos / 1e9 / ROUNDS;
+        System.out.printf("%-16s %9.0f games/s %11.0f moves/s %7.1f MB/s%n", name, count / seconds,
+                moves / seconds, megabytes / seconds);
+    }
+
+    private static int[][] randomGames(int count, int plies, Random random) {
+        var games = new int[count][];
+        var legal = new int[ChessGame.MAX_MOVES];
+        for (int i = 0; i < count; i++) {
+            var game = new ChessGame();
+            var line = new int[plies];
+            int length = 0;
+            int legalCount;
+            while (length < plies && (legalCount = game.generateMoves(legal)) > 0) {
+                line[length] = legal[random.nextInt(legalCount)];
+                game.doMove(line[length++]);
+            }
+            games[i] = Arrays.copyOf(line, length);
+        }
+        return games;
+    }
+}
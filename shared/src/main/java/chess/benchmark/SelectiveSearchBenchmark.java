@@ -0,0 +1,53 @@
+package chess.benchmark;
+
+import chess.PackedMove;
+import chess.engine.AlphaBetaSearch;
+import chess.engine.MaterialEvaluator;
+import chess.engine.MoveOrderer;
+import chess.engine.SearchOptions;
+
+import java.util.LinkedHashMap;
+
+/**
+ * Measures each selective search technique on its own and all together: the time
+ * and nodes needed to reach a fixed depth on the opening positions, and how many of
+ * the tactics positions still have their best move found at that depth.
+ * <p>
+ * Usage: SelectiveSearchBenchmark [depth]. The default depth is 5.
+ */
+public class SelectiveSearchBenchmark {
+    public static void main(String[] args) {
+        int depth = args.length > 0 ? Integer.parseInt(args[0]) : 5;
+        var configurations = new LinkedHashMap<String, SearchOptions>();
+        configurations.put("full width", SearchOptions.NONE);
+        configurations.put("null move", new SearchOptions(true, false, false, false));
+        configurations.put("late move reductions", new SearchOptions(false, true, false, false));
+        configurations.put("futility", new SearchOptions(false, false, true, false));
+        configurations.put("razoring", new SearchOptions(false, false, false, true));
+        configurations.put("all", SearchOptions.ALL);
+
+        System.out.printf("depth %d%n", depth);
+        System.out.printf("%-22s %12s %12s %8s%n", "configuration", "nodes", "time (ms)", "solved");
+        for (var configuration : configurations.entrySet()) {
+            var search = new AlphaBetaSearch(new MaterialEvaluator(),
+                    new MoveOrderer(AlphaBetaSearch.MAX_PLY + 1), configuration.getValue());
+            long nodes = 0;
+            long start = System.nanoTime();
+            for (var line : BenchmarkPositions.OPENINGS) {
+                search.search(BenchmarkPositions.play(line), depth);
+                nodes += search.getNodes();
+            }
+            long millis = (System.nanoTime() - start) / 1_000_000;
+
+            int solved = 0;
+            for (var line : BenchmarkPositions.TACTICS) {
+                search.search(BenchmarkPositions.play(line, line.length - 1), depth);
+                if (search.getBestMove() == PackedMove.parse(line[line.length - 1])) {
+                    solved++;
+                }
+            }
+            System.out.printf("%-22s %12d %12d %5d/%d%n", configuration.getKey(), nodes, millis, solved,
+                    BenchmarkPositions.TACTICS.length);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package chess.benchmark;
+
+import chess.engine.AlphaBetaSearch;
+import chess.engine.MaterialEvaluator;
+import chess.engine.TimedSearch;
+
+/**
+ * Plays one move from each benchmark position under several clocks and reports how
+ * often the time actually taken went past the hard limit (an overrun, which on a real
+ * clock could lose the game) or past the soft limit, along with the depth reached.
+ * <p>
+ * Usage: TimeManagementBenchmark [repetitions]. The default is 3 repetitions.
+ */
+public class TimeManagementBenchmark {
+    private static final long[][] CLOCKS = {
+            {1_000, 0},
+            {3_000, 20},
+            {10_000, 100},
+    };
+
+    public static void main(String[] args) {
+        int repetitions = args.length > 0 ? Integer.parseInt(args[0]) : 3;
+        var search = new AlphaBetaSearch(new MaterialEvaluator());
+        var timedSearch = new TimedSearch(search);
+        // let the JIT compile the search first; interpreted nodes are slow enough to overrun on their own
+        for (var line : BenchmarkPositions.OPENINGS) {
+            timedSearch.chooseMove(BenchmarkPositions.play(line), 3_000, 0);
+        }
+
+        System.out.printf("%-14s %8s %10s %10s %10s %14s%n",
+                "clock (ms)", "searches", "overrun %", "> soft %", "mean depth", "worst / hard %");
+        for (var clock : CLOCKS) {
+            int searches = 0;
+            int overruns = 0;
+            int overSoft = 0;
+            long depths = 0;
+            double worstRatio = 0;
+            for (int repetition = 0; repetition < repetitions; repetition++) {
+                for (var positions : new String[][][]{BenchmarkPositions.OPENINGS, BenchmarkPositions.TACTICS}) {
+                    for (var line : positions) {
+                        var game = BenchmarkPositions.play(line);
+                        long start = System.nanoTime();
+                        timedSearch.chooseMove(game, clock[0], clock[1]);
+                        long elapsed = System.nanoTime() - start;
+
+                        searches++;
+                        depths += search.getCompletedDepth();
+                        if (elapsed > timedSearch.getHardLimitNanos()) {
+                            overruns++;
+                        }
+                        if (elapsed > timedSearch.getSoftLimitNanos()) {
+                            overSoft++;
+                        }
+                        worstRatio = Math.max(worstRatio, (double) elapsed / timedSearch.getHardLimitNanos());
+                    }
+                }
+            }
+            System.out.printf("%-14s %8d %10.1f %10.1f %10.1f %14.1f%n", clock[0] + "+" + clock[1], searches,
+                    100.0 * overruns / searches, 100.0 * overSoft / searches, (double) depths / searches,
+                    100 * worstRatio);
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package chess.book;
+
+import chess.ChessGame;
+import chess.PackedMove;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Comparator;
+import java.util.random.RandomGenerator;
+import java.util.stream.IntStream;
+
+/**
+ * An opening book read through a memory map. Lookups binary search the mapped file
+ * directly, so probing allocates nothing and only touches the pages it needs.
+ * <p>
+ * The file is little-endian: magic, version and entry count as ints and one unused
+ * int, then 16-byte entries of position hash (long), packed move (int) and weight
+ * (int), sorted by hash and then move. Hashes are {@link ChessGame#getHash()}.
+ */
+public class OpeningBook {
+    private static final int MAGIC = 0x4B4F4F42;
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 4 * Integer.BYTES;
+    private static final int ENTRY_BYTES = Long.BYTES + 2 * Integer.BYTES;
+
+    private final MappedByteBuffer buffer;
+    private final int size;
+
+    private OpeningBook(MappedByteBuffer buffer, int size) {
+        this.buffer = buffer;
+        this.size = size;
+    }
+
+    /**
+     * @throws IOException if the file cannot be read or is not a book of a supported version
+     */
+    public static OpeningBook open(Path path) throws IOException {
+        try (var channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_BYTES || channel.size() > Integer.MAX_VALUE) {
+                throw new IOException(path + " is not an opening book");
+            }
+            var buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            if (buffer.getInt(0) != MAGIC) {
+                throw new IOException(path + " is not an opening book");
+            }
+            if (buffer.getInt(4) != VERSION) {
+                throw new IOException("Unsupported opening book version " + buffer.getInt(4));
+            }
+            int size = buffer.getInt(8);
+            if (channel.size() != HEADER_BYTES + (long) size * ENTRY_BYTES) {
+                throw new IOException(path + " has the wrong size for " + size + " entries");
+            }
+            return new OpeningBook(buffer, size);
+        }
+    }
+
+    /**
+     * Writes a book file from entries in any order; they are sorted as they are written
+     *
+     * @param keys    the position hash of each entry
+     * @param moves   the packed move of each entry
+     * @param weights the weight of each entry
+     * @param count   the number of entries to take from the arrays
+     */
+    public static void write(Path path, long[] keys, int[] moves, int[] weights, int count) throws IOException {
+        int[] order = IntStream.range(0, count).boxed()
+                .sorted(Comparator.<Integer>comparingLong(i -> keys[i]).thenComparingInt(i -> moves[i]))
+                .mapToInt(Integer::intValue).toArray();
+        var buffer = ByteBuffer.allocate(HEADER_BYTES + count * ENTRY_BYTES).order(ByteOrder.LITTLE_ENDIAN)
+                .putInt(MAGIC).putInt(VERSION).putInt(count).putInt(0);
+        for (int i : order) {
+            buffer.putLong(keys[i]).putInt(moves[i]).putInt(weights[i]);
+        }
+        buffer.flip();
+        try (var channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+
+    /**
+     * @return the number of entries, one per position and move
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return the first entry for the position hash, or -1 if the position is not in the book
+     */
+    public int find(long key) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (getKey(middle) < key) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low < size && getKey(low) == key ? low : -1;
+    }
+
+    public long getKey(int entry) {
+        return buffer.getLong(offset(entry));
+    }
+
+    public int getMove(int entry) {
+        return buffer.getInt(offset(entry) + Long.BYTES);
+    }
+
+    public int getWeight(int entry) {
+        return buffer.getInt(offset(entry) + Long.BYTES + Integer.BYTES);
+    }
+
+    /**
+     * Copies the book moves for the game's position into the buffers
+     *
+     * @return the number of moves written, at most the length of the buffers
+     */
+    public int probe(ChessGame game, int[] moves, int[] weights) {
+        long key = game.getHash();
+        int entry = find(key);
+        if (entry < 0) {
+            return 0;
+        }
+        int count = 0;
+        for (; entry < size && count < moves.length && getKey(entry) == key; entry++) {
+            moves[count] = getMove(entry);
+            weights[count] = getWeight(entry);
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Picks a book move for the game's position at random, in proportion to the weights
+     *
+     * @return the packed move, or {@link PackedMove#NONE} if the position is not in the book
+     */
+    public int chooseMove(ChessGame game, RandomGenerator random) {
+        long key = game.getHash();
+        int first = find(key);
+        if (first < 0) {
+            return PackedMove.NONE;
+        }
+        long total = 0;
+        int end = first;
+        for (; end < size && getKey(end) == key; end++) {
+            total += getWeight(end);
+        }
+        if (total <= 0) {
+            return getMove(first);
+        }
+        long pick = random.nextLong(total);
+        for (int entry = first; entry < end; entry++) {
+            pick -= getWeight(entry);
+            if (pick < 0) {
+                return getMove(entry);
+            }
+        }
+        return getMove(end - 1);
+    }
+
+    private static int offset(int entry) {
+        return HEADER_BYTES + entry * ENTRY_BYTES;
+    }
+}
@@ -0,0 +1,159 @@
+package chess.book;
+
+import chess.ChessGame;
+import chess.Fen;
+import chess.PgnReader;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Builds an {@link OpeningBook} by counting the moves played from each position in the
+ * first plies of a collection of games. A move's weight is the number of games that
+ * played it, so positions reached by different move orders share their statistics.
+ */
+public class OpeningBookBuilder {
+    private final int maxPly;
+    private final Map<BookMove, Integer> weights = new HashMap<>();
+    private final ChessGame game = new ChessGame();
+    private int games;
+    private int rejectedGames;
+    private boolean setUp;
+
+    private record BookMove(long key, int move) {
+    }
+
+    /**
+     * @param maxPly how many plies of each game to add
+     */
+    public OpeningBookBuilder(int maxPly) {
+        this.maxPly = maxPly;
+    }
+
+    /**
+     * Adds the opening of a game played from the starting position
+     *
+     * @param moves the packed moves of the game, which must be legal
+     */
+    public void addGame(int[] moves, int count) {
+        resetGame();
+        for (int ply = 0; ply < Math.min(count, maxPly); ply++) {
+            addMove(moves[ply]);
+        }
+        games++;
+    }
+
+    /**
+     * Adds every game in a PGN file, streaming it through a {@link PgnReader}. Games
+     * with a FEN tag are added from that position. A game with a move that cannot be
+     * read is only added up to that move.
+     *
+     * @return the number of games added
+     */
+    public int addPgn(Path path) throws IOException {
+        int added = 0;
+        try (var reader = new PgnReader(FileChannel.open(path, StandardOpenOption.READ))) {
+            while (reader.next()) {
+                if (reader.getMoveCount() > 0) {
+                    var fen = reader.getTag("FEN");
+                    if (fen == null) {
+                        resetGame();
+                    } else {
+                        Fen.load(game, fen);
+                        setUp = true;
+                    }
+                    for (int ply = 0; ply < Math.min(reader.getMoveCount(), maxPly); ply++) {
+                        addMove(reader.getMoves()[ply]);
+                    }
+                } else if (reader.getError() == null) {
+                    continue;
+                }
+                games++;
+                if (reader.getError() != null) {
+                    rejectedGames++;
+                }
+                added++;
+            }
+        }
+        return added;
+    }
+
+    /**
+     * @return the number of games added so far
+     */
+    public int getGames() {
+        return games;
+    }
+
+    /**
+     * @return the number of games that had a move that could not be read
+     */
+    public int getRejectedGames() {
+        return rejectedGames;
+    }
+
+    /**
+     * Writes the book, leaving out moves with a weight below the minimum
+     *
+     * @return the number of entries written
+     */
+    public int write(Path path, int minimumWeight) throws IOException {
+        var keys = new long[weights.size()];
+        var moves = new int[weights.size()];
+        var counts = new int[weights.size()];
+        int count = 0;
+        for (var entry : weights.entrySet()) {
+            if (entry.getValue() >= minimumWeight) {
+                keys[count] = entry.getKey().key();
+                moves[count] = entry.getKey().move();
+                counts[count] = entry.getValue();
+                count++;
+            }
+        }
+        OpeningBook.write(path, keys, moves, counts, count);
+        return count;
+    }
+
+    /**
+     * Usage: OpeningBookBuilder book pgn... [--plies n] [--min-weight n]
+     */
+    public static void main(String[] args) throws IOException {
+        int plies = 20;
+        int minimumWeight = 1;
+        var pgnFiles = new ArrayList<Path>();
+        for (int i = 1; i < args.length; i++) {
+            switch (args[i]) {
+                case "--plies" -> plies = Integer.parseInt(args[++i]);
+                case "--min-weight" -> minimumWeight = Integer.parseInt(args[++i]);
+                default -> pgnFiles.add(Path.of(args[i]));
+            }
+        }
+        var builder = new OpeningBookBuilder(plies);
+        for (var pgn : pgnFiles) {
+            builder.addPgn(pgn);
+        }
+        int entries = builder.write(Path.of(args[0]), minimumWeight);
+        System.out.printf("%d games (%d with unreadable moves), %d entries%n", builder.getGames(),
+                builder.getRejectedGames(), entries);
+    }
+
+    private void addMove(int move) {
+        weights.merge(new BookMove(game.getHash(), move), 1, Integer::sum);
+        game.doMove(move);
+    }
+
+    private void resetGame() {
+        if (setUp) {
+            Fen.load(game, Fen.START);
+            setUp = false;
+        }
+        while (game.getHistorySize() > 0) {
+            game.undoMove();
+        }
+    }
+}
@@ -0,0 +1,447 @@
+package chess.engine;
+
+import chess.ChessGame;
+import chess.ChessPiece;
+import chess.PackedMove;
+
+import java.util.Arrays;
+
+/**
+ * An iterative deepening alpha-beta search over a ChessGame, with a captures-only
+ * quiescence search at the leaves. Moves are made and taken back on the game itself,
+ * which is left as it was found when a search returns.
+ * <p>
+ * The selective techniques in {@link SearchOptions} trade a small risk of missing a
+ * move for a much smaller tree:
+ * <ul>
+ *     <li>Null-move pruning passes the turn and searches shallower; if the opponent
+ *     still cannot get below beta, the node is cut. It is skipped when in check, right
+ *     after another null move, and when the side to move has only pawns, since those
+ *     are the zugzwang positions where passing would be better than any real move.</li>
+ *     <li>Late move reductions search quiet moves late in the ordering one or two
+ *     plies shallower with a null window, and re-search at full depth only if they
+ *     unexpectedly beat alpha.</li>
+ *     <li>Futility pruning skips quiet moves in the last two plies when the static
+ *     evaluation plus a margin is still below alpha.</li>
+ *     <li>Razoring drops into quiescence at those nodes when even a larger margin
+ *     cannot reach alpha, and returns if quiescence agrees.</li>
+ * </ul>
+ * A {@link SearchMonitor} can end the search early. An interrupted iteration is thrown
+ * away, except that a root move searched completely before the stop is still used if
+ * it beat the previous iteration's choice.
+ * <p>
+ * The principal variation is collected in a triangular table as the search returns.
+ * With multi-PV set above one, each iteration searches the root once per line, leaving
+ * out the moves already chosen, so the best few moves all get exact scores.
+ */
+public class AlphaBetaSearch {
+    public static final int MATE_SCORE = 32000;
+    public static final int INFINITY = 32001;
+    public static final int MAX_PLY = 64;
+
+    private static final int MATE_BOUND = MATE_SCORE - MAX_PLY;
+    private static final int[] FUTILITY_MARGINS = {0, 200, 450};
+    private static final int[] RAZOR_MARGINS = {0, 300, 550};
+
+    private final Evaluator evaluator;
+    private final MoveOrderer orderer;
+    private final SearchOptions options;
+    private final int[][] moveBuffers = new int[MAX_PLY + 1][ChessGame.MAX_MOVES];
+    // triangular table: pvMoves[ply] holds the best line found from that ply on
+    private final int[][] pvMoves = new int[MAX_PLY + 2][MAX_PLY + 1];
+    private final int[] pvLengths = new int[MAX_PLY + 2];
+
+    private int multiPv = 1;
+    private int[][] lineMoves;
+    private int[] lineLengths;
+    private int[] lineScores;
+    private int lineCount;
+    private int[][] pendingLineMoves;
+    private int[] pendingLineLengths;
+    private int[] pendingLineScores;
+
+    private SearchMonitor monitor;
+    private int pollInterval = 1;
+    private int pollCountdown;
+    private boolean stopped;
+    private long nodes;
+    private int bestMove;
+    private int completedDepth;
+
+    /**
+     * Creates a search with move ordering and every selective technique enabled
+     */
+    public AlphaBetaSearch(Evaluator evaluator) {
+        this(evaluator, new MoveOrderer(MAX_PLY + 1), SearchOptions.ALL);
+    }
+
+    /**
+     * @param orderer the move orderer to use, or null to search moves in generation order
+     */
+    public AlphaBetaSearch(Evaluator evaluator, MoveOrderer orderer, SearchOptions options) {
+        this.evaluator = evaluator;
+        this.orderer = orderer;
+        this.options = options;
+        allocateLines(1);
+    }
+
+    /**
+     * Sets how many of the best root moves get an exact score and line; each extra
+     * line costs roughly another root search per iteration
+     */
+    public void setMultiPv(int lines) {
+        if (lines < 1) {
+            throw new IllegalArgumentException("Need at least one line: " + lines);
+        }
+        allocateLines(lines);
+    }
+
+    private void allocateLines(int lines) {
+        multiPv = lines;
+        lineMoves = new int[lines][MAX_PLY + 1];
+        lineLengths = new int[lines];
+        lineScores = new int[lines];
+        pendingLineMoves = new int[lines][MAX_PLY + 1];
+        pendingLineLengths = new int[lines];
+        pendingLineScores = new int[lines];
+        lineCount = 0;
+    }
+
+    /**
+     * Has the search poll a monitor every {@code pollInterval} nodes
+     *
+     * @param monitor the monitor, or null to always search to the requested depth
+     */
+    public void setMonitor(SearchMonitor monitor, int pollInterval) {
+        if (pollInterval < 1) {
+            throw new IllegalArgumentException("Poll interval must be positive: " + pollInterval);
+        }
+        this.monitor = monitor;
+        this.pollInterval = pollInterval;
+    }
+
+    /**
+     * Searches the position one ply deeper at a time up to the given depth, or until
+     * the monitor stops it
+     *
+     * @return the score in centipawns for the team whose turn it is
+     */
+    public int search(ChessGame game, int depth) {
+        nodes = 0;
+        bestMove = PackedMove.NONE;
+        completedDepth = 0;
+        lineCount = 0;
+        stopped = false;
+        pollCountdown = pollInterval;
+        if (orderer != null) {
+            orderer.clear();
+        }
+        int score = 0;
+        for (int iteration = 1; iteration <= depth; iteration++) {
+            int iterationScore = searchRoot(game, iteration, score);
+            if (stopped) {
+                return iterationScore;
+            }
+            score = iterationScore;
+            completedDepth = iteration;
+            if (monitor != null && !monitor.iterationComplete(iteration, score, bestMove, nodes)) {
+                break;
+            }
+        }
+        return score;
+    }
+
+    /**
+     * @return the best move found by the last search, or {@link PackedMove#NONE} if
+     * the position had no legal moves
+     */
+    public int getBestMove() {
+        return bestMove;
+    }
+
+    /**
+     * @return the number of positions visited by the last search
+     */
+    public long getNodes() {
+        return nodes;
+    }
+
+    /**
+     * @return the deepest iteration the last search completed
+     */
+    public int getCompletedDepth() {
+        return completedDepth;
+    }
+
+    /**
+     * @return the number of lines from the last completed iteration, which is the
+     * multi-PV setting unless the position had fewer legal moves
+     */
+    public int getLineCount() {
+        return lineCount;
+    }
+
+    /**
+     * @param line 0 for the best line, 1 for the second best and so on
+     * @return the score of the line in centipawns for the team whose turn it is
+     */
+    public int getLineScore(int line) {
+        checkLine(line);
+        return lineScores[line];
+    }
+
+    /**
+     * @param line 0 for the best line, 1 for the second best and so on
+     * @return the packed moves of the line, starting with the root move
+     */
+    public int[] getLine(int line) {
+        checkLine(line);
+        return Arrays.copyOf(lineMoves[line], lineLengths[line]);
+    }
+
+    private void checkLine(int line) {
+        if (line < 0 || line >= lineCount) {
+            throw new IndexOutOfBoundsException("No line " + line + " of " + lineCount);
+        }
+    }
+
+    /**
+     * @param previousScore the score of the last completed iteration, returned if this
+     *                      one is stopped before any root move is searched
+     */
+    private int searchRoot(ChessGame game, int depth, int previousScore) {
+        nodes++;
+        var moves = moveBuffers[0];
+        int count = game.generateMoves(moves);
+        if (count == 0) {
+            lineCount = 0;
+            return game.isInCheck(game.getTeamTurn()) ? -MATE_SCORE : 0;
+        }
+        order(game, moves, count, 0, bestMove);
+
+        // each line searches the root moves the earlier lines did not choose, which are
+        // kept after the chosen ones at the front of the list
+        int lines = Math.min(multiPv, count);
+        for (int line = 0; line < lines; line++) {
+            int alpha = -INFINITY;
+            int best = -1;
+            for (int i = line; i < count; i++) {
+                game.doMove(moves[i]);
+                int score = -alphaBeta(game, depth - 1, -INFINITY, -alpha, 1, true);
+                game.undoMove();
+                if (stopped) {
+                    break;
+                }
+                if (score > alpha) {
+                    alpha = score;
+                    best = i;
+                    pendingLineMoves[line][0] = moves[i];
+                    System.arraycopy(pvMoves[1], 0, pendingLineMoves[line], 1, pvLengths[1]);
+                    pendingLineLengths[line] = pvLengths[1] + 1;
+                }
+            }
+            if (stopped) {
+                if (line > 0 || best < 0) {
+                    // nothing new for the best move; fall back on the first ordered move
+                    // if there is no earlier iteration to take the move from
+                    if (bestMove == PackedMove.NONE) {
+                        bestMove = moves[0];
+                    }
+                    return previousScore;
+                }
+                // the previous best move is searched first, so anything completed that
+                // beat it is at least as good
+                bestMove = moves[best];
+                return alpha;
+            }
+            pendingLineScores[line] = alpha;
+            int chosen = moves[best];
+            System.arraycopy(moves, line, moves, line + 1, best - line);
+            moves[line] = chosen;
+        }
+
+        for (int line = 0; line < lines; line++) {
+            System.arraycopy(pendingLineMoves[line], 0, lineMoves[line], 0, pendingLineLengths[line]);
+            lineLengths[line] = pendingLineLengths[line];
+            lineScores[line] = pendingLineScores[line];
+        }
+        lineCount = lines;
+        bestMove = moves[0];
+        return lineScores[0];
+    }
+
+    private void updatePrincipalVariation(int ply, int move) {
+        pvMoves[ply][0] = move;
+        System.arraycopy(pvMoves[ply + 1], 0, pvMoves[ply], 1, pvLengths[ply + 1]);
+        pvLengths[ply] = pvLengths[ply + 1] + 1;
+    }
+
+    private int alphaBeta(ChessGame game, int depth, int alpha, int beta, int ply, boolean nullMoveAllowed) {
+        pvLengths[ply] = 0;
+        if (depth <= 0 || ply >= MAX_PLY) {
+            return quiescence(game, alpha, beta, ply);
+        }
+        if (visit()) {
+            return 0;
+        }
+        var side = game.getTeamTurn();
+        boolean inCheck = game.isInCheck(side);
+        int staticEval = inCheck ? -INFINITY : evaluator.evaluate(game);
+
+        if (options.razoring() && !inCheck && depth < RAZOR_MARGINS.length
+                && staticEval + RAZOR_MARGINS[depth] <= alpha) {
+            int score = quiescence(game, alpha, alpha + 1, ply);
+            if (score <= alpha) {
+                return score;
+            }
+        }
+
+        if (options.nullMovePruning() && nullMoveAllowed && !inCheck && depth >= 3 && staticEval >= beta
+                && hasPiecesBesidesPawns(game, side)) {
+            int reduction = depth >= 6 ? 3 : 2;
+            game.doNullMove();
+            int score = -alphaBeta(game, depth - 1 - reduction, -beta, -beta + 1, ply + 1, false);
+            game.undoMove();
+            if (stopped) {
+                return 0;
+            }
+            if (score >= beta) {
+                return score >= MATE_BOUND ? beta : score;
+            }
+        }
+
+        var moves = moveBuffers[ply];
+        int count = game.generateMoves(moves);
+        if (count == 0) {
+            return inCheck ? -MATE_SCORE + ply : 0;
+        }
+        order(game, moves, count, ply, PackedMove.NONE);
+
+        boolean futile = options.futilityPruning() && depth < FUTILITY_MARGINS.length && !inCheck
+                && Math.abs(alpha) < MATE_BOUND && staticEval + FUTILITY_MARGINS[depth] <= alpha;
+        int bestScore = -INFINITY;
+        int searched = 0;
+        for (int i = 0; i < count; i++) {
+            int move = moves[i];
+            boolean quiet = !game.isCapture(move) && !PackedMove.isPromotion(move);
+            game.doMove(move);
+            boolean givesCheck = game.isInCheck(game.getTeamTurn());
+
+            if (futile && quiet && !givesCheck && searched > 0) {
+                game.undoMove();
+                continue;
+            }
+
+            int score;
+            if (options.lateMoveReductions() && depth >= 3 && searched >= 3 && quiet && !inCheck && !givesCheck
+                    && (orderer == null || !orderer.isKiller(move, ply))) {
+                int reduction = searched >= 8 ? 2 : 1;
+                score = -alphaBeta(game, depth - 1 - reduction, -alpha - 1, -alpha, ply + 1, true);
+                if (score > alpha) {
+                    score = -alphaBeta(game, depth - 1, -beta, -alpha, ply + 1, true);
+                }
+            } else {
+                score = -alphaBeta(game, depth - 1, -beta, -alpha, ply + 1, true);
+            }
+            game.undoMove();
+            if (stopped) {
+                return 0;
+            }
+            searched++;
+
+            if (score > bestScore) {
+                bestScore = score;
+                if (score > alpha) {
+                    alpha = score;
+                    updatePrincipalVariation(ply, move);
+                }
+                if (score >= beta) {
+                    if (orderer != null) {
+                        orderer.recordCutoff(game, move, ply, depth);
+                    }
+                    break;
+                }
+            }
+        }
+        return bestScore;
+    }
+
+    private int quiescence(ChessGame game, int alpha, int beta, int ply) {
+        pvLengths[ply] = 0;
+        if (visit()) {
+            return 0;
+        }
+        int standPat = evaluator.evaluate(game);
+        if (standPat >= beta || ply >= MAX_PLY) {
+            return standPat;
+        }
+        if (standPat > alpha) {
+            alpha = standPat;
+        }
+
+        var moves = moveBuffers[ply];
+        int count = game.generateMoves(moves);
+        int captures = 0;
+        for (int i = 0; i < count; i++) {
+            if (game.isCapture(moves[i]) || PackedMove.isPromotion(moves[i])) {
+                moves[captures++] = moves[i];
+            }
+        }
+        order(game, moves, captures, ply, PackedMove.NONE);
+
+        int bestScore = standPat;
+        for (int i = 0; i < captures; i++) {
+            game.doMove(moves[i]);
+            int score = -quiescence(game, -beta, -alpha, ply + 1);
+            game.undoMove();
+            if (stopped) {
+                return 0;
+            }
+            if (score > bestScore) {
+                bestScore = score;
+                if (score > alpha) {
+                    alpha = score;
+                    updatePrincipalVariation(ply, moves[i]);
+                }
+                if (score >= beta) {
+                    break;
+                }
+            }
+        }
+        return bestScore;
+    }
+
+    /**
+     * Counts a node and polls the monitor when its interval comes around
+     *
+     * @return true if the search has been stopped
+     */
+    private boolean visit() {
+        nodes++;
+        if (--pollCountdown == 0) {
+            pollCountdown = pollInterval;
+            if (monitor != null && monitor.shouldStop(nodes)) {
+                stopped = true;
+            }
+        }
+        return stopped;
+    }
+
+    private void order(ChessGame game, int[] moves, int count, int ply, int best) {
+        if (orderer != null) {
+            orderer.orderMoves(game, moves, count, ply, best);
+        }
+    }
+
+    private static boolean hasPiecesBesidesPawns(ChessGame game, ChessGame.TeamColor side) {
+        var board = game.getBoard();
+        for (int square = 0; square < 64; square++) {
+            var piece = board.getPiece(square);
+            if (piece != null && piece.getTeamColor() == side && piece.getPieceType() != ChessPiece.PieceType.PAWN
+                    && piece.getPieceType() != ChessPiece.PieceType.KING) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,23 @@
+package chess.engine;
+
+import chess.ChessMove;
+
+import java.util.List;
+
+/**
+ * The result of one completed depth of a {@link MultiPvAnalysis}
+ *
+ * @param depth          the depth searched
+ * @param lines          the best lines found, best first
+ * @param nodes          the positions visited so far by the whole analysis
+ * @param elapsedMillis  the time since the analysis started
+ * @param nodesPerSecond the search speed so far
+ */
+public record AnalysisUpdate(int depth, List<Line> lines, long nodes, long elapsedMillis, long nodesPerSecond) {
+    /**
+     * @param score the score in centipawns for the team whose turn it is at the root
+     * @param moves the principal variation, starting with the root move
+     */
+    public record Line(int score, List<ChessMove> moves) {
+    }
+}
@@ -0,0 +1,13 @@
+package chess.engine;
+
+import chess.ChessGame;
+
+/**
+ * Scores positions for a search
+ */
+public interface Evaluator {
+    /**
+     * @return the evaluation in centipawns from the point of view of the team whose turn it is
+     */
+    int evaluate(ChessGame game);
+}
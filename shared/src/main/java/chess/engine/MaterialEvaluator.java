@@ -0,0 +1,47 @@
+package chess.engine;
+
+import chess.ChessGame;
+import chess.ChessPiece;
+
+/**
+ * A cheap hand-written evaluation: material plus small bonuses for advanced pawns,
+ * centralized minor pieces and rooks on the seventh rank
+ */
+public class MaterialEvaluator implements Evaluator {
+    private static final int[] PIECE_VALUES = {0, 900, 330, 320, 500, 100};
+
+    /**
+     * @return the material value of a piece type in centipawns; kings are worth 0
+     */
+    public static int pieceValue(ChessPiece.PieceType type) {
+        return PIECE_VALUES[type.ordinal()];
+    }
+
+    @Override
+    public int evaluate(ChessGame game) {
+        var board = game.getBoard();
+        int score = 0;
+        for (int square = 0; square < 64; square++) {
+            var piece = board.getPiece(square);
+            if (piece != null) {
+                int value = PIECE_VALUES[piece.getPieceType().ordinal()] + positionalBonus(piece, square);
+                score += piece.getTeamColor() == ChessGame.TeamColor.WHITE ? value : -value;
+            }
+        }
+        return game.getTeamTurn() == ChessGame.TeamColor.WHITE ? score : -score;
+    }
+
+    private static int positionalBonus(ChessPiece piece, int square) {
+        int row = piece.getTeamColor() == ChessGame.TeamColor.WHITE ? square >> 3 : 7 - (square >> 3);
+        int col = square & 7;
+        int centrality = 3 - Math.max(Math.abs(2 * col - 7), Math.abs(2 * row - 7)) / 2;
+        return switch (piece.getPieceType()) {
+            case PAWN -> (row - 1) * 6 + (col == 3 || col == 4 ? row * 4 : 0);
+            case KNIGHT -> centrality * 12 - 15;
+            case BISHOP -> centrality * 6;
+            case ROOK -> row == 6 ? 20 : 0;
+            case QUEEN -> centrality * 2;
+            case KING -> row == 0 ? 15 : -10 * row;
+        };
+    }
+}
@@ -0,0 +1,145 @@
+package chess.engine;
+
+import chess.ChessGame;
+import chess.ChessPiece;
+import chess.PackedMove;
+
+import java.util.Arrays;
+
+/**
+ * Sorts moves so a pruning search looks at the most promising ones first:
+ * <ol>
+ *     <li>the best move from a previous search of the position</li>
+ *     <li>captures that do not lose material by static exchange, most valuable victim
+ *     and then least valuable attacker first (MVV-LVA), and queen promotions</li>
+ *     <li>two killer moves per ply: quiet moves that caused a cutoff at the same ply</li>
+ *     <li>other quiet moves by a butterfly history table of how often each
+ *     from/to pair caused cutoffs</li>
+ *     <li>captures that lose material and underpromotions</li>
+ * </ol>
+ * Scores are kept in per-ply scratch arrays, so ordering never allocates. Instances
+ * are not thread safe; give each search its own.
+ */
+public class MoveOrderer {
+    private static final int BEST_MOVE_SCORE = 1 << 30;
+    private static final int GOOD_CAPTURE_SCORE = 1 << 28;
+    private static final int KILLER_SCORE = 1 << 27;
+    private static final int BAD_CAPTURE_SCORE = -(1 << 28);
+    private static final int HISTORY_LIMIT = 1 << 20;
+
+    private final int[][] killers;
+    private final int[][] history = new int[2][64 * 64];
+    private final int[][] scores;
+    private final StaticExchange exchange = new StaticExchange();
+
+    public MoveOrderer(int maxPly) {
+        killers = new int[maxPly][2];
+        scores = new int[maxPly][ChessGame.MAX_MOVES];
+    }
+
+    /**
+     * Sorts moves in place, most promising first
+     *
+     * @param bestMove a move to try before all others, or {@link PackedMove#NONE}
+     */
+    public void orderMoves(ChessGame game, int[] moves, int count, int ply, int bestMove) {
+        var moveScores = scores[ply];
+        for (int i = 0; i < count; i++) {
+            moveScores[i] = score(game, moves[i], ply, bestMove);
+        }
+        for (int i = 1; i < count; i++) {
+            int move = moves[i];
+            int score = moveScores[i];
+            int j = i - 1;
+            while (j >= 0 && moveScores[j] < score) {
+                moves[j + 1] = moves[j];
+                moveScores[j + 1] = moveScores[j];
+                j--;
+            }
+            moves[j + 1] = move;
+            moveScores[j + 1] = score;
+        }
+    }
+
+    /**
+     * Remembers a move that caused a beta cutoff. Only quiet moves update the killer
+     * and history tables, since captures are already ordered by their exchange value.
+     * Call this with the move taken back, so the game is at the node that was cut off.
+     */
+    public void recordCutoff(ChessGame game, int move, int ply, int depth) {
+        if (game.isCapture(move) || PackedMove.isPromotion(move)) {
+            return;
+        }
+        var plyKillers = killers[ply];
+        if (plyKillers[0] != move) {
+            plyKillers[1] = plyKillers[0];
+            plyKillers[0] = move;
+        }
+        var sideHistory = history[game.getTeamTurn().ordinal()];
+        int index = butterflyIndex(move);
+        sideHistory[index] += depth * depth;
+        if (sideHistory[index] > HISTORY_LIMIT) {
+            for (var table : history) {
+                for (int i = 0; i < table.length; i++) {
+                    table[i] /= 2;
+                }
+            }
+        }
+    }
+
+    /**
+     * @return True if the move is one of the killer moves stored for the ply
+     */
+    public boolean isKiller(int move, int ply) {
+        return killers[ply][0] == move || killers[ply][1] == move;
+    }
+
+    /**
+     * Forgets everything learned, for example before searching an unrelated position
+     */
+    public void clear() {
+        for (var plyKillers : killers) {
+            Arrays.fill(plyKillers, PackedMove.NONE);
+        }
+        for (var table : history) {
+            Arrays.fill(table, 0);
+        }
+    }
+
+    /**
+     * @return the static exchange value of a capture
+     */
+    public int staticExchange(ChessGame game, int move) {
+        return exchange.evaluate(game.getBoard(), move);
+    }
+
+    private int score(ChessGame game, int move, int ply, int bestMove) {
+        if (move == bestMove) {
+            return BEST_MOVE_SCORE;
+        }
+        var promotion = PackedMove.getPromotionPiece(move);
+        if (game.isCapture(move)) {
+            var board = game.getBoard();
+            var victim = board.getPiece(PackedMove.getEndSquare(move));
+            var attacker = board.getPiece(PackedMove.getStartSquare(move));
+            int victimValue = StaticExchange.value(victim == null ? ChessPiece.PieceType.PAWN : victim.getPieceType());
+            int mvvLva = victimValue * 16 - StaticExchange.value(attacker.getPieceType()) / 16;
+            boolean winning = promotion == ChessPiece.PieceType.QUEEN || exchange.evaluate(board, move) >= 0;
+            return (winning ? GOOD_CAPTURE_SCORE : BAD_CAPTURE_SCORE) + mvvLva;
+        }
+        if (promotion != null) {
+            return promotion == ChessPiece.PieceType.QUEEN ? GOOD_CAPTURE_SCORE : BAD_CAPTURE_SCORE;
+        }
+        if (killers[ply][0] == move) {
+            return KILLER_SCORE + 1;
+        }
+        if (killers[ply][1] == move) {
+            return KILLER_SCORE;
+        }
+        return history[game.getTeamTurn().ordinal()][butterflyIndex(move)];
+    }
+
+    private static int butterflyIndex(int move) {
+        return PackedMove.getStartSquare(move) * 64 + PackedMove.getEndSquare(move);
+    }
+}
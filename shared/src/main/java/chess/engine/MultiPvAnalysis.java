@@ -0,0 +1,123 @@
+package chess.engine;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.PackedMove;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Analyzes a position for its best few lines, reporting each depth as soon as it is
+ * complete rather than only the final answer. Results can go to a callback on the
+ * searching thread, or to a {@link Flow.Publisher} that runs the search on an executor.
+ * <p>
+ * The analysis searches the game in place, so the game must not be changed until the
+ * analysis has finished. It becomes the search's monitor when it is created.
+ */
+public final class MultiPvAnalysis implements SearchMonitor {
+    private static final int POLL_INTERVAL = 1024;
+
+    private final AlphaBetaSearch search;
+    private volatile boolean stopRequested;
+    private Consumer<? super AnalysisUpdate> listener;
+    private long startNanos;
+
+    /**
+     * @param lines how many of the best moves to report lines for
+     */
+    public MultiPvAnalysis(AlphaBetaSearch search, int lines) {
+        this.search = search;
+        search.setMultiPv(lines);
+        search.setMonitor(this, POLL_INTERVAL);
+    }
+
+    /**
+     * Analyzes the game on this thread, passing each completed depth to the listener
+     *
+     * @return the last completed depth
+     */
+    public AnalysisUpdate analyze(ChessGame game, int maxDepth, Consumer<? super AnalysisUpdate> listener) {
+        var last = new AnalysisUpdate[1];
+        this.listener = update -> {
+            last[0] = update;
+            listener.accept(update);
+        };
+        stopRequested = false;
+        startNanos = System.nanoTime();
+        try {
+            search.search(game, maxDepth);
+        } finally {
+            this.listener = null;
+        }
+        return last[0];
+    }
+
+    /**
+     * Starts analyzing the game on the executor when the first subscriber subscribes;
+     * updates are delivered from the common pool so a slow subscriber never holds up
+     * the search. A subscriber whose buffer is full misses the depths completed until
+     * it catches up, which is safe since every update carries its lines in full. Later
+     * subscribers only see the depths completed after they join. The analysis stops
+     * early once every subscriber has cancelled.
+     */
+    public Flow.Publisher<AnalysisUpdate> publish(ChessGame game, int maxDepth, Executor executor) {
+        var publisher = new SubmissionPublisher<AnalysisUpdate>();
+        var started = new AtomicBoolean();
+        return subscriber -> {
+            publisher.subscribe(subscriber);
+            if (started.compareAndSet(false, true)) {
+                executor.execute(() -> {
+                    try {
+                        analyze(game, maxDepth, update -> {
+                            publisher.offer(update, (lagging, dropped) -> false);
+                            if (!publisher.hasSubscribers()) {
+                                stop();
+                            }
+                        });
+                        publisher.close();
+                    } catch (RuntimeException e) {
+                        publisher.closeExceptionally(e);
+                    }
+                });
+            }
+        };
+    }
+
+    /**
+     * Asks a running analysis to stop; it finishes with the last completed depth
+     */
+    public void stop() {
+        stopRequested = true;
+    }
+
+    @Override
+    public boolean shouldStop(long nodes) {
+        return stopRequested;
+    }
+
+    @Override
+    public boolean iterationComplete(int depth, int score, int bestMove, long nodes) {
+        if (listener == null) {
+            return true;
+        }
+        long elapsedNanos = Math.max(System.nanoTime() - startNanos, 1);
+        List<AnalysisUpdate.Line> lines = new ArrayList<>(search.getLineCount());
+        for (int i = 0; i < search.getLineCount(); i++) {
+            var packed = search.getLine(i);
+            List<ChessMove> moves = new ArrayList<>(packed.length);
+            for (int move : packed) {
+                moves.add(PackedMove.unpack(move));
+            }
+            lines.add(new AnalysisUpdate.Line(search.getLineScore(i), List.copyOf(moves)));
+        }
+        listener.accept(new AnalysisUpdate(depth, List.copyOf(lines), nodes, elapsedNanos / 1_000_000,
+                nodes * 1_000_000_000 / elapsedNanos));
+        return !stopRequested;
+    }
+}
@@ -0,0 +1,139 @@
+package chess.engine;
+
+import chess.BoardListener;
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessPiece;
+
+/**
+ * Evaluates positions with an efficiently updatable neural network (NNUE).
+ * <p>
+ * The first layer is kept as one accumulator per perspective. Attached to a game, the
+ * evaluator hears every piece added or removed by makeMove and undoMove and adds or
+ * subtracts that feature's weight column, so keeping the accumulators current costs a
+ * few hidden-size loops per move instead of a full board scan, and never allocates.
+ * The dense loops are plain int arithmetic over primitive arrays so the JIT can
+ * vectorize them.
+ */
+public class NnueEvaluator implements BoardListener, Evaluator {
+    private static final int ACTIVATION_MAX = 127;
+    private static final int WEIGHT_SCALE_BITS = 6;
+
+    private final NnueWeights weights;
+    private final short[] whiteAccumulator;
+    private final short[] blackAccumulator;
+    private final int[] hiddenActivations;
+    private ChessGame attached;
+
+    public NnueEvaluator(NnueWeights weights) {
+        this.weights = weights;
+        whiteAccumulator = new short[weights.hiddenSize];
+        blackAccumulator = new short[weights.hiddenSize];
+        hiddenActivations = new int[weights.outputHiddenSize];
+    }
+
+    /**
+     * Starts tracking a game; its current board is scanned once and every later move
+     * updates the accumulators incrementally
+     */
+    public void attach(ChessGame game) {
+        attached = game;
+        game.setBoardListener(this);
+    }
+
+    /**
+     * Rebuilds both accumulators from a full scan of the board
+     */
+    public void refresh(ChessBoard board) {
+        System.arraycopy(weights.featureBiases, 0, whiteAccumulator, 0, weights.hiddenSize);
+        System.arraycopy(weights.featureBiases, 0, blackAccumulator, 0, weights.hiddenSize);
+        for (int square = 0; square < 64; square++) {
+            var piece = board.getPiece(square);
+            if (piece != null) {
+                pieceAdded(piece, square);
+            }
+        }
+    }
+
+    /**
+     * Evaluates the game this evaluator is attached to
+     *
+     * @throws IllegalArgumentException if the evaluator is not attached to the game, so
+     *                                  its accumulators describe some other position
+     */
+    @Override
+    public int evaluate(ChessGame game) {
+        if (game != attached) {
+            throw new IllegalArgumentException("The evaluator is not attached to this game");
+        }
+        return evaluate(game.getTeamTurn());
+    }
+
+    /**
+     * @param sideToMove the team whose turn it is
+     * @return the evaluation in centipawns from the point of view of the side to move
+     */
+    public int evaluate(ChessGame.TeamColor sideToMove) {
+        var us = sideToMove == ChessGame.TeamColor.WHITE ? whiteAccumulator : blackAccumulator;
+        var them = sideToMove == ChessGame.TeamColor.WHITE ? blackAccumulator : whiteAccumulator;
+        int hiddenSize = weights.hiddenSize;
+        var hiddenWeights = weights.hiddenWeights;
+
+        for (int j = 0; j < weights.outputHiddenSize; j++) {
+            int offset = j * 2 * hiddenSize;
+            int sum = weights.hiddenBiases[j];
+            for (int i = 0; i < hiddenSize; i++) {
+                sum += clippedRelu(us[i]) * hiddenWeights[offset + i];
+            }
+            for (int i = 0; i < hiddenSize; i++) {
+                sum += clippedRelu(them[i]) * hiddenWeights[offset + hiddenSize + i];
+            }
+            hiddenActivations[j] = clippedRelu(sum >> WEIGHT_SCALE_BITS);
+        }
+
+        int output = weights.outputBias;
+        for (int j = 0; j < weights.outputHiddenSize; j++) {
+            output += hiddenActivations[j] * weights.outputWeights[j];
+        }
+        return (int) ((long) output * weights.outputScale / (ACTIVATION_MAX << WEIGHT_SCALE_BITS));
+    }
+
+    @Override
+    public void pieceAdded(ChessPiece piece, int square) {
+        update(whiteAccumulator, featureIndex(ChessGame.TeamColor.WHITE, piece, square), 1);
+        update(blackAccumulator, featureIndex(ChessGame.TeamColor.BLACK, piece, square), 1);
+    }
+
+    @Override
+    public void pieceRemoved(ChessPiece piece, int square) {
+        update(whiteAccumulator, featureIndex(ChessGame.TeamColor.WHITE, piece, square), -1);
+        update(blackAccumulator, featureIndex(ChessGame.TeamColor.BLACK, piece, square), -1);
+    }
+
+    @Override
+    public void boardReset(ChessBoard board) {
+        refresh(board);
+    }
+
+    private void update(short[] accumulator, int feature, int sign) {
+        var featureWeights = weights.featureWeights;
+        int offset = feature * weights.hiddenSize;
+        for (int i = 0; i < accumulator.length; i++) {
+            accumulator[i] += (short) (sign * featureWeights[offset + i]);
+        }
+    }
+
+    /**
+     * Each perspective sees its own pieces first, with the board flipped for black
+     * so both perspectives share the same weights
+     */
+    static int featureIndex(ChessGame.TeamColor perspective, ChessPiece piece, int square) {
+        int side = piece.getTeamColor() == perspective ? 0 : 1;
+        int relativeSquare = perspective == ChessGame.TeamColor.WHITE ? square : square ^ 56;
+        return (side * 6 + piece.getPieceType().ordinal()) * 64 + relativeSquare;
+    }
+
+    private static int clippedRelu(int value) {
+        return Math.min(Math.max(value, 0), ACTIVATION_MAX);
+    }
+}
@@ -0,0 +1,146 @@
+package chess.engine;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+/**
+ * Quantized weights for {@link NnueEvaluator}.
+ * <p>
+ * The network is (768 -> hidden) x 2 perspectives -> outputHidden -> 1. The file is
+ * little-endian: magic, version, hidden size, output hidden size and output scale as
+ * ints, followed by the int16 feature weights (feature-major) and biases, the int8
+ * hidden weights with int32 biases, and the int8 output weights with an int32 bias.
+ */
+public class NnueWeights {
+    /**
+     * One input per (own/opponent, piece type, square)
+     */
+    public static final int INPUTS = 2 * 6 * 64;
+
+    private static final int MAGIC = 0x45554E4E;
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 5 * Integer.BYTES;
+
+    final int hiddenSize;
+    final int outputHiddenSize;
+    final int outputScale;
+    final short[] featureWeights;
+    final short[] featureBiases;
+    final byte[] hiddenWeights;
+    final int[] hiddenBiases;
+    final byte[] outputWeights;
+    final int outputBias;
+
+    NnueWeights(int hiddenSize, int outputHiddenSize, int outputScale, short[] featureWeights, short[] featureBiases,
+                byte[] hiddenWeights, int[] hiddenBiases, byte[] outputWeights, int outputBias) {
+        this.hiddenSize = hiddenSize;
+        this.outputHiddenSize = outputHiddenSize;
+        this.outputScale = outputScale;
+        this.featureWeights = featureWeights;
+        this.featureBiases = featureBiases;
+        this.hiddenWeights = hiddenWeights;
+        this.hiddenBiases = hiddenBiases;
+        this.outputWeights = outputWeights;
+        this.outputBias = outputBias;
+    }
+
+    public int getHiddenSize() {
+        return hiddenSize;
+    }
+
+    public int getOutputHiddenSize() {
+        return outputHiddenSize;
+    }
+
+    /**
+     * Loads weights from a local file
+     *
+     * @throws IOException if the file cannot be read or is not a weights file of a supported version
+     */
+    public static NnueWeights load(Path path) throws IOException {
+        var buffer = ByteBuffer.wrap(Files.readAllBytes(path)).order(ByteOrder.LITTLE_ENDIAN);
+        if (buffer.remaining() < HEADER_BYTES || buffer.getInt() != MAGIC) {
+            throw new IOException(path + " is not an NNUE weights file");
+        }
+        int version = buffer.getInt();
+        if (version != VERSION) {
+            throw new IOException("Unsupported NNUE weights version " + version);
+        }
+        int hiddenSize = buffer.getInt();
+        int outputHiddenSize = buffer.getInt();
+        int outputScale = buffer.getInt();
+        if (hiddenSize <= 0 || outputHiddenSize <= 0 || buffer.remaining() != bodyBytes(hiddenSize, outputHiddenSize)) {
+            throw new IOException(path + " has the wrong size for its layer sizes");
+        }
+
+        var featureWeights = new short[INPUTS * hiddenSize];
+        var featureBiases = new short[hiddenSize];
+        var hiddenWeights = new byte[outputHiddenSize * 2 * hiddenSize];
+        var hiddenBiases = new int[outputHiddenSize];
+        var outputWeights = new byte[outputHiddenSize];
+        buffer.asShortBuffer().get(featureWeights).get(featureBiases);
+        buffer.position(buffer.position() + (featureWeights.length + featureBiases.length) * Short.BYTES);
+        buffer.get(hiddenWeights);
+        buffer.asIntBuffer().get(hiddenBiases);
+        buffer.position(buffer.position() + hiddenBiases.length * Integer.BYTES);
+        buffer.get(outputWeights);
+        int outputBias = buffer.getInt();
+        return new NnueWeights(hiddenSize, outputHiddenSize, outputScale, featureWeights, featureBiases,
+                hiddenWeights, hiddenBiases, outputWeights, outputBias);
+    }
+
+    public void save(Path path) throws IOException {
+        var buffer = ByteBuffer.allocate(HEADER_BYTES + bodyBytes(hiddenSize, outputHiddenSize))
+                .order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(MAGIC).putInt(VERSION).putInt(hiddenSize).putInt(outputHiddenSize).putInt(outputScale);
+        for (short weight : featureWeights) {
+            buffer.putShort(weight);
+        }
+        for (short bias : featureBiases) {
+            buffer.putShort(bias);
+        }
+        buffer.put(hiddenWeights);
+        for (int bias : hiddenBiases) {
+            buffer.putInt(bias);
+        }
+        buffer.put(outputWeights);
+        buffer.putInt(outputBias);
+        Files.write(path, buffer.array());
+    }
+
+    /**
+     * Builds small random weights, useful for tests and benchmarks where only the
+     * cost of the network matters and not the quality of its evaluation
+     */
+    public static NnueWeights random(long seed, int hiddenSize, int outputHiddenSize) {
+        var random = new Random(seed);
+        var featureWeights = new short[INPUTS * hiddenSize];
+        var featureBiases = new short[hiddenSize];
+        var hiddenWeights = new byte[outputHiddenSize * 2 * hiddenSize];
+        var hiddenBiases = new int[outputHiddenSize];
+        var outputWeights = new byte[outputHiddenSize];
+        for (int i = 0; i < featureWeights.length; i++) {
+            featureWeights[i] = (short) (random.nextInt(65) - 32);
+        }
+        for (int i = 0; i < featureBiases.length; i++) {
+            featureBiases[i] = (short) random.nextInt(64);
+        }
+        random.nextBytes(hiddenWeights);
+        for (int i = 0; i < hiddenBiases.length; i++) {
+            hiddenBiases[i] = random.nextInt(4096) - 2048;
+        }
+        random.nextBytes(outputWeights);
+        return new NnueWeights(hiddenSize, outputHiddenSize, 400, featureWeights, featureBiases,
+                hiddenWeights, hiddenBiases, outputWeights, random.nextInt(256) - 128);
+    }
+
+    private static int bodyBytes(int hiddenSize, int outputHiddenSize) {
+        return (INPUTS * hiddenSize + hiddenSize) * Short.BYTES
+                + outputHiddenSize * 2 * hiddenSize + outputHiddenSize * Integer.BYTES
+                + outputHiddenSize + Integer.BYTES;
+    }
+}
@@ -0,0 +1,25 @@
+package chess.engine;
+
+/**
+ * Lets the owner of an {@link AlphaBetaSearch} stop it part way through. The search
+ * polls the monitor every few hundred nodes, so a poll should be cheap; a clock read
+ * or a volatile flag check is typical.
+ */
+public interface SearchMonitor {
+    /**
+     * Polled from inside the search
+     *
+     * @param nodes the positions visited so far by the current search
+     * @return true to abandon the search; the last completed iteration is used
+     */
+    boolean shouldStop(long nodes);
+
+    /**
+     * Called after each iteration of the iterative deepening completes
+     *
+     * @return false to finish the search without starting the next iteration
+     */
+    default boolean iterationComplete(int depth, int score, int bestMove, long nodes) {
+        return true;
+    }
+}
@@ -0,0 +1,16 @@
+package chess.engine;
+
+/**
+ * Switches for the selective parts of {@link AlphaBetaSearch}, so the effect of each
+ * on speed and on the moves found can be measured on its own.
+ *
+ * @param nullMovePruning    skip a node when passing the turn still fails high
+ * @param lateMoveReductions search quiet moves late in the move order less deeply
+ * @param futilityPruning    skip quiet moves near the leaves that cannot raise alpha
+ * @param razoring           drop straight into quiescence at frontier nodes far below alpha
+ */
+public record SearchOptions(boolean nullMovePruning, boolean lateMoveReductions,
+                            boolean futilityPruning, boolean razoring) {
+    public static final SearchOptions ALL = new SearchOptions(true, true, true, true);
+    public static final SearchOptions NONE = new SearchOptions(false, false, false, false);
+}
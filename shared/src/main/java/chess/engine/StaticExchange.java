@@ -0,0 +1,138 @@
+package chess.engine;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessPiece;
+import chess.PackedMove;
+import chess.Steps;
+
+/**
+ * Static exchange evaluation (SEE): the material a capture wins or loses once every
+ * recapture on the target square has been played out, least valuable attacker first.
+ * Pieces that have already captured are masked out, so attackers x-raying through
+ * them join the exchange. The exchange stops as soon as neither side can come out
+ * ahead, so the sign of the result is exact but a winning capture may be
+ * under-valued. Instances hold scratch space and are not thread safe.
+ */
+public class StaticExchange {
+    private static final int KING_VALUE = 20000;
+
+    private final int[] gains = new int[32];
+
+    /**
+     * @return the exchange value in centipawns; a negative value means the capture loses material
+     */
+    public int evaluate(ChessBoard board, int move) {
+        int start = PackedMove.getStartSquare(move);
+        int target = PackedMove.getEndSquare(move);
+        var attacker = board.getPiece(start);
+        var victim = board.getPiece(target);
+
+        gains[0] = victim == null ? value(ChessPiece.PieceType.PAWN) : value(victim.getPieceType());
+        long removed = 1L << start;
+        int onSquare = value(attacker.getPieceType());
+        var side = attacker.getTeamColor().opponent();
+        int depth = 0;
+        while (depth < gains.length - 1) {
+            int square = leastValuableAttacker(board, target, side, removed);
+            if (square < 0) {
+                break;
+            }
+            depth++;
+            gains[depth] = onSquare - gains[depth - 1];
+            if (Math.max(-gains[depth - 1], gains[depth]) < 0) {
+                break;
+            }
+            removed |= 1L << square;
+            onSquare = value(board.getPiece(square).getPieceType());
+            side = side.opponent();
+        }
+        while (depth > 0) {
+            gains[depth - 1] = -Math.max(-gains[depth - 1], gains[depth]);
+            depth--;
+        }
+        return gains[0];
+    }
+
+    /**
+     * @return the material value used for exchanges, where the king outweighs everything
+     */
+    public static int value(ChessPiece.PieceType type) {
+        return type == ChessPiece.PieceType.KING ? KING_VALUE : MaterialEvaluator.pieceValue(type);
+    }
+
+    private static int leastValuableAttacker(ChessBoard board, int target, ChessGame.TeamColor color, long removed) {
+        int row = target >> 3;
+        int col = target & 7;
+        int best = -1;
+        int bestValue = Integer.MAX_VALUE;
+
+        int pawnRow = color == ChessGame.TeamColor.WHITE ? row - 1 : row + 1;
+        for (int side = -1; side <= 1; side += 2) {
+            int square = squareAt(pawnRow, col + side);
+            if (isAttacker(board, square, color, removed, ChessPiece.PieceType.PAWN, null)) {
+                return square;
+            }
+        }
+        for (var step : Steps.KNIGHT) {
+            int square = Steps.step(target, step);
+            if (isAttacker(board, square, color, removed, ChessPiece.PieceType.KNIGHT, null)) {
+                return square;
+            }
+        }
+        for (var direction : Steps.BISHOP) {
+            int square = firstPieceAlong(board, row, col, direction, removed);
+            if (isAttacker(board, square, color, removed, ChessPiece.PieceType.BISHOP, ChessPiece.PieceType.QUEEN)
+                    && value(board.getPiece(square).getPieceType()) < bestValue) {
+                best = square;
+                bestValue = value(board.getPiece(square).getPieceType());
+            }
+        }
+        for (var direction : Steps.ROOK) {
+            int square = firstPieceAlong(board, row, col, direction, removed);
+            if (isAttacker(board, square, color, removed, ChessPiece.PieceType.ROOK, ChessPiece.PieceType.QUEEN)
+                    && value(board.getPiece(square).getPieceType()) < bestValue) {
+                best = square;
+                bestValue = value(board.getPiece(square).getPieceType());
+            }
+        }
+        if (best >= 0) {
+            return best;
+        }
+        for (var step : Steps.KING) {
+            int square = Steps.step(target, step);
+            if (isAttacker(board, square, color, removed, ChessPiece.PieceType.KING, null)) {
+                return square;
+            }
+        }
+        return -1;
+    }
+
+    private static int firstPieceAlong(ChessBoard board, int row, int col, int[] direction, long removed) {
+        int r = row + direction[0];
+        int c = col + direction[1];
+        while (r >= 0 && r < 8 && c >= 0 && c < 8) {
+            int square = r * 8 + c;
+            if (board.getPiece(square) != null && (removed & (1L << square)) == 0) {
+                return square;
+            }
+            r += direction[0];
+            c += direction[1];
+        }
+        return -1;
+    }
+
+    private static boolean isAttacker(ChessBoard board, int square, ChessGame.TeamColor color, long removed,
+                                      ChessPiece.PieceType type, ChessPiece.PieceType otherType) {
+        if (square < 0 || (removed & (1L << square)) != 0) {
+            return false;
+        }
+        var piece = board.getPiece(square);
+        return piece != null && piece.getTeamColor() == color
+                && (piece.getPieceType() == type || piece.getPieceType() == otherType);
+    }
+
+    private static int squareAt(int row, int col) {
+        return row >= 0 && row < 8 && col >= 0 && col < 8 ? row * 8 + col : -1;
+    }
+}
@@ -0,0 +1,126 @@
+package chess.engine;
+
+import chess.ChessGame;
+import chess.PackedMove;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Chooses moves for a player on a clock by deepening an {@link AlphaBetaSearch} until
+ * its time is used up.
+ * <p>
+ * Each move gets two limits. The soft limit is the share of the remaining clock the
+ * move should normally take; it is only checked between iterations, and the next
+ * iteration is not started when it probably could not finish in time. The soft limit
+ * is doubled while the best move is still changing from one iteration to the next, and
+ * halved once it has held for several iterations. The hard limit is never exceeded by
+ * more than one poll interval: the clock is read every few hundred nodes from inside
+ * the search, and the search is abandoned when it has passed.
+ * <p>
+ * It becomes the search's monitor when it is created. A caller that needs more reasons
+ * to stop can set its own monitor afterwards and ask this one from it.
+ */
+public final class TimedSearch implements SearchMonitor {
+    public static final int DEFAULT_POLL_INTERVAL = 256;
+
+    private static final int MOVES_TO_GO = 30;
+    private static final int HARD_LIMIT_FACTOR = 4;
+    private static final int STABLE_ITERATIONS = 4;
+    private static final long MOVE_OVERHEAD_MILLIS = 10;
+    private static final long NANOS_PER_MILLI = 1_000_000;
+
+    private final AlphaBetaSearch search;
+    private final LongSupplier nanoClock;
+
+    private long startNanos;
+    private long softLimitNanos;
+    private long hardLimitNanos;
+    private int previousBestMove;
+    private int stableIterations;
+
+    public TimedSearch(AlphaBetaSearch search) {
+        this(search, System::nanoTime, DEFAULT_POLL_INTERVAL);
+    }
+
+    /**
+     * @param nanoClock    the clock to read, in nanoseconds
+     * @param pollInterval how many nodes the search visits between clock reads
+     */
+    public TimedSearch(AlphaBetaSearch search, LongSupplier nanoClock, int pollInterval) {
+        this.search = search;
+        this.nanoClock = nanoClock;
+        search.setMonitor(this, pollInterval);
+    }
+
+    /**
+     * Chooses a move for the team whose turn it is, budgeting from its clock
+     *
+     * @param remainingMillis the time left on the team's clock
+     * @param incrementMillis the time added to the clock after each move
+     * @return the chosen move, or {@link PackedMove#NONE} if there are no legal moves
+     */
+    public int chooseMove(ChessGame game, long remainingMillis, long incrementMillis) {
+        long soft = remainingMillis / MOVES_TO_GO + incrementMillis * 3 / 4;
+        // keep a little back for the time between the search stopping and the move reaching the clock
+        long hard = Math.min(soft * HARD_LIMIT_FACTOR, remainingMillis / 3 + incrementMillis / 2)
+                - MOVE_OVERHEAD_MILLIS;
+        return searchWithin(game, Math.min(soft, hard), hard);
+    }
+
+    /**
+     * Chooses a move with explicit limits
+     *
+     * @param softLimitMillis the time the move should normally take
+     * @param hardLimitMillis the time the move must not take longer than
+     * @return the chosen move, or {@link PackedMove#NONE} if there are no legal moves
+     */
+    public int searchWithin(ChessGame game, long softLimitMillis, long hardLimitMillis) {
+        startNanos = nanoClock.getAsLong();
+        hardLimitNanos = Math.max(hardLimitMillis, 1) * NANOS_PER_MILLI;
+        softLimitNanos = Math.min(Math.max(softLimitMillis, 1) * NANOS_PER_MILLI, hardLimitNanos);
+        previousBestMove = PackedMove.NONE;
+        stableIterations = 0;
+        search.search(game, AlphaBetaSearch.MAX_PLY);
+        return search.getBestMove();
+    }
+
+    /**
+     * @return the hard limit of the last move chosen, in nanoseconds
+     */
+    public long getHardLimitNanos() {
+        return hardLimitNanos;
+    }
+
+    /**
+     * @return the soft limit of the last move chosen, in nanoseconds
+     */
+    public long getSoftLimitNanos() {
+        return softLimitNanos;
+    }
+
+    @Override
+    public boolean shouldStop(long nodes) {
+        return nanoClock.getAsLong() - startNanos >= hardLimitNanos;
+    }
+
+    @Override
+    public boolean iterationComplete(int depth, int score, int bestMove, long nodes) {
+        if (Math.abs(score) >= AlphaBetaSearch.MATE_SCORE - depth) {
+            // a forced mate inside the horizon will not change with more depth
+            return false;
+        }
+        stableIterations = bestMove == previousBestMove ? stableIterations + 1 : 0;
+        previousBestMove = bestMove;
+
+        long budget = softLimitNanos;
+        if (stableIterations == 0) {
+            budget *= 2;
+        } else if (stableIterations >= STABLE_ITERATIONS) {
+            budget /= 2;
+        }
+        budget = Math.min(budget, hardLimitNanos);
+        // each iteration usually takes longer than all the ones before it together,
+        // so one started after half the budget would most likely not finish
+        return nanoClock.getAsLong() - startNanos < budget / 2;
+    }
+}
@@ -0,0 +1,183 @@
+package chess.json;
+
+import chess.ChessBoard;
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.ChessPosition;
+import chess.Fen;
+import chess.PackedMove;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+
+/**
+ * Hand-written streaming Gson adapters for the chess types, in place of reflection:
+ * a {@link ChessBoard} is written as the piece placement field of FEN, such as
+ * "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR", a {@link ChessPosition} as its square
+ * name, such as "e4", and a {@link ChessMove} as an object of those square names and
+ * any promotion piece. Anything holding these types, such as a ChessGame, picks them
+ * up when the factory is registered.
+ * <p>
+ * Reading also accepts the reflective forms, so JSON written before the adapters were
+ * registered can still be read.
+ */
+public class ChessTypeAdapterFactory implements TypeAdapterFactory {
+    /**
+     * @return the builder, with the chess adapters registered
+     */
+    public static GsonBuilder register(GsonBuilder builder) {
+        return builder.registerTypeAdapterFactory(new ChessTypeAdapterFactory());
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+        var raw = type.getRawType();
+        if (raw == ChessPosition.class) {
+            return (TypeAdapter<T>) new PositionAdapter().nullSafe();
+        }
+        if (raw == ChessMove.class) {
+            return (TypeAdapter<T>) new MoveAdapter().nullSafe();
+        }
+        if (raw == ChessBoard.class) {
+            return (TypeAdapter<T>) new BoardAdapter(gson.getDelegateAdapter(this, TypeToken.get(ChessBoard.class)))
+                    .nullSafe();
+        }
+        return null;
+    }
+
+    /*
+     * A Gson instance shares its adapters between threads, so they hold no scratch state
+     */
+    private static class PositionAdapter extends TypeAdapter<ChessPosition> {
+        @Override
+        public void write(JsonWriter out, ChessPosition position) throws IOException {
+            out.value(name(position));
+        }
+
+        @Override
+        public ChessPosition read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.BEGIN_OBJECT) {
+                return readObject(in);
+            }
+            var text = in.nextString();
+            try {
+                if (text.length() != 2) {
+                    throw new IllegalArgumentException("Not a square: " + text);
+                }
+                return ChessPosition.fromSquare(PackedMove.parseSquare(text, 0));
+            } catch (IllegalArgumentException e) {
+                throw new JsonParseException(e.getMessage() + " at " + in.getPath(), e);
+            }
+        }
+
+        private static String name(ChessPosition position) {
+            var square = new StringBuilder(2);
+            PackedMove.appendSquare(square, position.toSquare());
+            return square.toString();
+        }
+
+        /**
+         * Reads the reflective form, {"row":2,"col":5}
+         */
+        private static ChessPosition readObject(JsonReader in) throws IOException {
+            int row = 0;
+            int col = 0;
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "row" -> row = in.nextInt();
+                    case "col" -> col = in.nextInt();
+                    default -> in.skipValue();
+                }
+            }
+            in.endObject();
+            return new ChessPosition(row, col);
+        }
+    }
+
+    private static class MoveAdapter extends TypeAdapter<ChessMove> {
+        private final PositionAdapter positions = new PositionAdapter();
+
+        @Override
+        public void write(JsonWriter out, ChessMove move) throws IOException {
+            out.beginObject();
+            out.name("startPosition");
+            positions.write(out, move.getStartPosition());
+            out.name("endPosition");
+            positions.write(out, move.getEndPosition());
+            if (move.getPromotionPiece() != null) {
+                out.name("promotionPiece").value(move.getPromotionPiece().name());
+            }
+            out.endObject();
+        }
+
+        @Override
+        public ChessMove read(JsonReader in) throws IOException {
+            ChessPosition start = null;
+            ChessPosition end = null;
+            ChessPiece.PieceType promotion = null;
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "startPosition" -> start = positions.read(in);
+                    case "endPosition" -> end = positions.read(in);
+                    case "promotionPiece" -> promotion = readPieceType(in);
+                    default -> in.skipValue();
+                }
+            }
+            in.endObject();
+            if (start == null || end == null) {
+                throw new JsonParseException("A move needs a start and end position at " + in.getPath());
+            }
+            return new ChessMove(start, end, promotion);
+        }
+
+        private static ChessPiece.PieceType readPieceType(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            var name = in.nextString();
+            try {
+                return ChessPiece.PieceType.valueOf(name);
+            } catch (IllegalArgumentException e) {
+                throw new JsonParseException("Not a piece type: " + name + " at " + in.getPath(), e);
+            }
+        }
+    }
+
+    private static class BoardAdapter extends TypeAdapter<ChessBoard> {
+        private final TypeAdapter<ChessBoard> reflective;
+
+        BoardAdapter(TypeAdapter<ChessBoard> reflective) {
+            this.reflective = reflective;
+        }
+
+        @Override
+        public void write(JsonWriter out, ChessBoard board) throws IOException {
+            out.value(Fen.appendPlacement(board, new StringBuilder(72)).toString());
+        }
+
+        @Override
+        public ChessBoard read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.BEGIN_OBJECT) {
+                return reflective.read(in);
+            }
+            var text = in.nextString();
+            try {
+                return Fen.parsePlacement(text);
+            } catch (IllegalArgumentException e) {
+                throw new JsonParseException(e.getMessage() + " at " + in.getPath(), e);
+            }
+        }
+    }
+}
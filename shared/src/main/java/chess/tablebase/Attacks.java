@@ -0,0 +1,114 @@
+package chess.tablebase;
+
+import chess.ChessPiece;
+import chess.Steps;
+
+/**
+ * Square geometry for the handful of pieces in a tablebase position, working on 0-63
+ * square indexes and a bitboard of occupied squares rather than a ChessBoard
+ */
+final class Attacks {
+    private Attacks() {
+    }
+
+    /**
+     * Whether a white piece of the given type on {@code from} attacks {@code target}
+     *
+     * @param occupied the occupied squares, which block sliding pieces
+     */
+    static boolean attacks(ChessPiece.PieceType type, int from, int target, long occupied) {
+        int fileDistance = (target & 7) - (from & 7);
+        int rankDistance = (target >> 3) - (from >> 3);
+        return switch (type) {
+            case KING -> from != target && Math.abs(fileDistance) <= 1 && Math.abs(rankDistance) <= 1;
+            case KNIGHT -> Math.abs(fileDistance * rankDistance) == 2;
+            case PAWN -> rankDistance == 1 && Math.abs(fileDistance) == 1;
+            case ROOK -> (fileDistance == 0) != (rankDistance == 0) && clearPath(from, target, occupied);
+            case BISHOP -> fileDistance != 0 && Math.abs(fileDistance) == Math.abs(rankDistance)
+                    && clearPath(from, target, occupied);
+            case QUEEN -> attacks(ChessPiece.PieceType.ROOK, from, target, occupied)
+                    || attacks(ChessPiece.PieceType.BISHOP, from, target, occupied);
+        };
+    }
+
+    /**
+     * Lists the empty squares a white piece of the given type could have moved from to
+     * reach {@code square}. Only non-captures are listed, since a capture would have
+     * come from a table with more material.
+     *
+     * @return the number of squares written to {@code sources}
+     */
+    static int reverseMoves(ChessPiece.PieceType type, int square, long occupied, int[] sources) {
+        return switch (type) {
+            case KING -> steps(Steps.KING, square, occupied, sources, false);
+            case KNIGHT -> steps(Steps.KNIGHT, square, occupied, sources, false);
+            case ROOK -> steps(Steps.ROOK, square, occupied, sources, true);
+            case BISHOP -> steps(Steps.BISHOP, square, occupied, sources, true);
+            case QUEEN -> {
+                int count = steps(Steps.ROOK, square, occupied, sources, true);
+                yield count + steps(Steps.BISHOP, square, occupied, sources, true, count);
+            }
+            case PAWN -> {
+                int count = 0;
+                int rank = square >> 3;
+                if (rank >= 2 && isEmpty(occupied, square - 8)) {
+                    sources[count++] = square - 8;
+                    if (rank == 3 && isEmpty(occupied, square - 16)) {
+                        sources[count++] = square - 16;
+                    }
+                }
+                yield count;
+            }
+        };
+    }
+
+    /**
+     * Lists the squares next to {@code square}
+     *
+     * @return the number of squares written to {@code neighbors}
+     */
+    static int kingSteps(int square, int[] neighbors) {
+        return kingSteps(square, neighbors, 0);
+    }
+
+    static int kingSteps(int square, int[] neighbors, int offset) {
+        return steps(Steps.KING, square, 0, neighbors, false, offset);
+    }
+
+    static boolean isEmpty(long occupied, int square) {
+        return (occupied & (1L << square)) == 0;
+    }
+
+    private static int steps(int[][] directions, int square, long occupied, int[] out, boolean slide) {
+        return steps(directions, square, occupied, out, slide, 0);
+    }
+
+    private static int steps(int[][] directions, int square, long occupied, int[] out, boolean slide, int offset) {
+        int count = 0;
+        for (var direction : directions) {
+            int file = square & 7;
+            int rank = square >> 3;
+            do {
+                rank += direction[0];
+                file += direction[1];
+                if (file < 0 || file > 7 || rank < 0 || rank > 7 || !isEmpty(occupied, rank * 8 + file)) {
+                    break;
+                }
+                out[offset + count++] = rank * 8 + file;
+            } while (slide);
+        }
+        return count;
+    }
+
+    private static boolean clearPath(int from, int target, long occupied) {
+        int fileStep = Integer.signum((target & 7) - (from & 7));
+        int rankStep = Integer.signum((target >> 3) - (from >> 3));
+        int step = rankStep * 8 + fileStep;
+        for (int square = from + step; square != target; square += step) {
+            if (!isEmpty(occupied, square)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
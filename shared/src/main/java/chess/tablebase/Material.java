@@ -0,0 +1,89 @@
+package chess.tablebase;
+
+import chess.ChessPiece;
+
+/**
+ * The material sets with tablebases: a lone king against a king and one or two
+ * pieces. Positions are indexed from the point of view of the stronger side.
+ */
+public enum Material {
+    KQK(ChessPiece.PieceType.QUEEN),
+    KRK(ChessPiece.PieceType.ROOK),
+    KPK(ChessPiece.PieceType.PAWN),
+    KBNK(ChessPiece.PieceType.BISHOP, ChessPiece.PieceType.KNIGHT);
+
+    /**
+     * Index of the stronger side's king in a position's squares
+     */
+    static final int STRONG_KING = 0;
+    /**
+     * Index of the lone king in a position's squares
+     */
+    static final int WEAK_KING = 1;
+
+    private final ChessPiece.PieceType[] pieces;
+
+    Material(ChessPiece.PieceType... pieces) {
+        this.pieces = pieces;
+    }
+
+    /**
+     * @return the stronger side's pieces besides its king
+     */
+    public ChessPiece.PieceType[] getPieces() {
+        return pieces.clone();
+    }
+
+    ChessPiece.PieceType pieceType(int piece) {
+        return switch (piece) {
+            case STRONG_KING, WEAK_KING -> ChessPiece.PieceType.KING;
+            default -> pieces[piece - 2];
+        };
+    }
+
+    /**
+     * @return the number of pieces on the board, kings included
+     */
+    int pieceCount() {
+        return pieces.length + 2;
+    }
+
+    /**
+     * @return the number of entries: every placement of every piece, for either side to move
+     */
+    public int size() {
+        return 2 << (6 * pieceCount());
+    }
+
+    /**
+     * Positions are numbered side to move first, then the square of each piece in order,
+     * so the stronger side to move fills the first half of the table
+     *
+     * @param strongToMove whether the stronger side is to move
+     * @param squares      the square of each piece: strong king, weak king, then the other pieces in order
+     */
+    int index(boolean strongToMove, int[] squares) {
+        int index = strongToMove ? 0 : 1;
+        for (int i = 0; i < pieceCount(); i++) {
+            index = (index << 6) | squares[i];
+        }
+        return index;
+    }
+
+    /**
+     * Fills in the squares of the position at an index
+     *
+     * @return whether the stronger side is to move
+     */
+    boolean decode(int index, int[] squares) {
+        for (int i = pieceCount() - 1; i >= 0; i--) {
+            squares[i] = index & 63;
+            index >>>= 6;
+        }
+        return index == 0;
+    }
+
+    String fileName() {
+        return name() + ".tb";
+    }
+}
@@ -0,0 +1,220 @@
+package chess.tablebase;
+
+import chess.ChessGame;
+import chess.ChessPiece;
+import chess.engine.AlphaBetaSearch;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Probes tablebase files through memory maps, so a lookup costs a page access rather
+ * than a search, and the operating system shares the pages between processes.
+ * <p>
+ * A file is little-endian: magic, version, material ordinal and entry count as ints,
+ * then one byte per position at the index given by {@link Material}. An entry is 0
+ * for a draw, n from 1 to 126 for a win for the side to move with mate in n plies,
+ * -(n + 1) for a loss with mate in n plies, and -128 for a position that cannot arise.
+ * Castling rights are not part of the index, so a probe answers as if there were none.
+ */
+public class Tablebase {
+    /**
+     * Returned by {@link #probe} for positions no open table covers
+     */
+    public static final int NOT_FOUND = Integer.MIN_VALUE;
+
+    static final byte DRAW = 0;
+    static final byte ILLEGAL = Byte.MIN_VALUE;
+
+    private static final int MAGIC = 0x4C425442;
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 4 * Integer.BYTES;
+
+    private final Map<Material, MappedByteBuffer> tables;
+
+    private Tablebase(Map<Material, MappedByteBuffer> tables) {
+        this.tables = tables;
+    }
+
+    /**
+     * Maps every table file found in the directory; material sets without a file are
+     * simply not covered
+     *
+     * @throws IOException if a table file cannot be read or is not a table of a supported version
+     */
+    public static Tablebase open(Path directory) throws IOException {
+        Map<Material, MappedByteBuffer> tables = new EnumMap<>(Material.class);
+        for (var material : Material.values()) {
+            var path = directory.resolve(material.fileName());
+            if (!Files.exists(path)) {
+                continue;
+            }
+            try (var channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                if (channel.size() != HEADER_BYTES + (long) material.size()) {
+                    throw new IOException(path + " has the wrong size for " + material);
+                }
+                var buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                buffer.order(ByteOrder.LITTLE_ENDIAN);
+                if (buffer.getInt(0) != MAGIC || buffer.getInt(8) != material.ordinal()) {
+                    throw new IOException(path + " is not a " + material + " tablebase");
+                }
+                if (buffer.getInt(4) != VERSION) {
+                    throw new IOException("Unsupported tablebase version " + buffer.getInt(4));
+                }
+                tables.put(material, buffer);
+            }
+        }
+        return new Tablebase(tables);
+    }
+
+    static void write(Path path, Material material, byte[] entries) throws IOException {
+        var header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN)
+                .putInt(MAGIC).putInt(VERSION).putInt(material.ordinal()).putInt(entries.length).flip();
+        try (var channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            var body = ByteBuffer.wrap(entries);
+            while (header.hasRemaining() || body.hasRemaining()) {
+                channel.write(header.hasRemaining() ? header : body);
+            }
+        }
+    }
+
+    public boolean covers(Material material) {
+        return tables.containsKey(material);
+    }
+
+    /**
+     * Looks the game's position up without allocating
+     *
+     * @return the score for the side to move in {@link AlphaBetaSearch} units: 0 for a
+     * draw, {@code MATE_SCORE - n} when it mates in n plies, {@code -MATE_SCORE + n}
+     * when it is mated in n plies, or {@link #NOT_FOUND}
+     */
+    public int probe(ChessGame game) {
+        var board = game.getBoard();
+        int whitePieces = 0;
+        int blackPieces = 0;
+        for (int square = 0; square < 64; square++) {
+            var piece = board.getPiece(square);
+            if (piece != null) {
+                if (piece.getTeamColor() == ChessGame.TeamColor.WHITE) {
+                    whitePieces++;
+                } else {
+                    blackPieces++;
+                }
+            }
+        }
+        if (Math.min(whitePieces, blackPieces) != 1 || whitePieces + blackPieces > 4
+                || whitePieces + blackPieces < 3) {
+            return NOT_FOUND;
+        }
+
+        var strong = whitePieces > 1 ? ChessGame.TeamColor.WHITE : ChessGame.TeamColor.BLACK;
+        // the stronger side is always white in the tables, so flip the board for black
+        int flip = strong == ChessGame.TeamColor.WHITE ? 0 : 56;
+        int strongKing = -1;
+        int weakKing = -1;
+        int first = -1;
+        int second = -1;
+        ChessPiece.PieceType firstType = null;
+        ChessPiece.PieceType secondType = null;
+        for (int square = 0; square < 64; square++) {
+            var piece = board.getPiece(square);
+            if (piece == null) {
+                continue;
+            }
+            if (piece.getPieceType() == ChessPiece.PieceType.KING) {
+                if (piece.getTeamColor() == strong) {
+                    strongKing = square ^ flip;
+                } else {
+                    weakKing = square ^ flip;
+                }
+            } else if (piece.getTeamColor() != strong) {
+                return NOT_FOUND;
+            } else if (first < 0) {
+                first = square ^ flip;
+                firstType = piece.getPieceType();
+            } else {
+                second = square ^ flip;
+                secondType = piece.getPieceType();
+            }
+        }
+        if (strongKing < 0 || weakKing < 0) {
+            return NOT_FOUND;
+        }
+
+        Material material;
+        if (second < 0) {
+            material = switch (firstType) {
+                case QUEEN -> Material.KQK;
+                case ROOK -> Material.KRK;
+                case PAWN -> Material.KPK;
+                default -> null;
+            };
+        } else if (firstType == ChessPiece.PieceType.BISHOP && secondType == ChessPiece.PieceType.KNIGHT) {
+            material = Material.KBNK;
+        } else if (firstType == ChessPiece.PieceType.KNIGHT && secondType == ChessPiece.PieceType.BISHOP) {
+            material = Material.KBNK;
+            int knight = first;
+            first = second;
+            second = knight;
+        } else {
+            material = null;
+        }
+        var table = material == null ? null : tables.get(material);
+        if (table == null) {
+            return NOT_FOUND;
+        }
+
+        int index = game.getTeamTurn() == strong ? 0 : 1;
+        index = (((index << 6 | strongKing) << 6 | weakKing) << 6) | first;
+        if (second >= 0) {
+            index = index << 6 | second;
+        }
+        return score(table.get(HEADER_BYTES + index));
+    }
+
+    /**
+     * @return the entry as a score, or {@link #NOT_FOUND} for an illegal position
+     */
+    static int score(byte entry) {
+        if (entry == ILLEGAL) {
+            return NOT_FOUND;
+        }
+        if (isWin(entry)) {
+            return AlphaBetaSearch.MATE_SCORE - plies(entry);
+        }
+        return isLoss(entry) ? -AlphaBetaSearch.MATE_SCORE + plies(entry) : 0;
+    }
+
+    static byte win(int plies) {
+        return (byte) plies;
+    }
+
+    static byte loss(int plies) {
+        return (byte) -(plies + 1);
+    }
+
+    static boolean isWin(byte entry) {
+        return entry > 0;
+    }
+
+    static boolean isLoss(byte entry) {
+        return entry < 0 && entry != ILLEGAL;
+    }
+
+    /**
+     * @return the plies to mate of a win or loss entry
+     */
+    static int plies(byte entry) {
+        return entry > 0 ? entry : -entry - 1;
+    }
+}
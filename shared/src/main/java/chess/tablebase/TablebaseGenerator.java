@@ -0,0 +1,344 @@
+package chess.tablebase;
+
+import chess.ChessPiece;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.IntStream;
+
+/**
+ * Builds tablebases by retrograde analysis.
+ * <p>
+ * Every legal position starts out unresolved. Positions where the lone king is
+ * checkmated are lost in 0 plies. Then, one ply at a time, every position the
+ * stronger side can move into a loss in n plies from is a win in n + 1, and every
+ * position whose lone king has only moves into wins of at most n plies is a loss in
+ * n + 1. Whatever is still unresolved when a ply finds nothing new is a draw. A
+ * position resolved at ply n is only ever read at ply n, so each ply is a parallel
+ * scan of the table with no locking.
+ * <p>
+ * Only the stronger side can win, and it has no captures, so the tables of other
+ * material are only needed for pawn promotions, which are generated first.
+ */
+public class TablebaseGenerator {
+    private static final int CHUNK = 1 << 14;
+    private static final int NEIGHBORS = 28;
+
+    private final Map<Material, byte[]> tables = new EnumMap<>(Material.class);
+
+    /**
+     * Generates the table for a material set, and any it depends on, once
+     *
+     * @return the entries, in the format described by {@link Tablebase}
+     */
+    public byte[] generate(Material material) {
+        var table = tables.get(material);
+        if (table == null) {
+            table = new Generation(material).run();
+            tables.put(material, table);
+        }
+        return table;
+    }
+
+    /**
+     * Generates each material set and writes it to the directory
+     */
+    public void write(Path directory, Material... materials) throws IOException {
+        Files.createDirectories(directory);
+        for (var material : materials) {
+            Tablebase.write(directory.resolve(material.fileName()), material, generate(material));
+        }
+    }
+
+    /**
+     * Usage: TablebaseGenerator directory [material...]. All material sets are
+     * generated when none are named.
+     */
+    public static void main(String[] args) throws IOException {
+        var materials = Material.values();
+        if (args.length > 1) {
+            materials = new Material[args.length - 1];
+            for (int i = 1; i < args.length; i++) {
+                materials[i - 1] = Material.valueOf(args[i]);
+            }
+        }
+        var generator = new TablebaseGenerator();
+        for (var material : materials) {
+            long start = System.nanoTime();
+            var table = generator.generate(material);
+            int longest = 0;
+            for (byte entry : table) {
+                if (entry > longest) {
+                    longest = entry;
+                }
+            }
+            System.out.printf("%s: %d entries, longest win %d plies, %d ms%n", material, table.length, longest,
+                    (System.nanoTime() - start) / 1_000_000);
+        }
+        generator.write(Path.of(args[0]), materials);
+    }
+
+    private class Generation {
+        private final Material material;
+        private final byte[] table;
+        private final int half;
+        private final byte[] queenTable;
+        private final byte[] rookTable;
+
+        Generation(Material material) {
+            this.material = material;
+            table = new byte[material.size()];
+            half = table.length / 2;
+            boolean pawns = material == Material.KPK;
+            queenTable = pawns ? generate(Material.KQK) : null;
+            rookTable = pawns ? generate(Material.KRK) : null;
+        }
+
+        byte[] run() {
+            var seeded = new int[1];
+            forEachChunk((start, end, squares, scratch) -> {
+                int latest = 0;
+                for (int index = start; index < end; index++) {
+                    latest = Math.max(latest, initialize(index, squares, scratch));
+                }
+                synchronized (seeded) {
+                    seeded[0] = Math.max(seeded[0], latest);
+                }
+            });
+
+            for (int ply = 0; ; ply++) {
+                if (ply + 1 >= Byte.MAX_VALUE) {
+                    throw new IllegalStateException(material + " has mates longer than a table entry can hold");
+                }
+                var found = new AtomicBoolean();
+                int n = ply;
+                if (ply % 2 == 0) {
+                    forEachChunk((start, end, squares, scratch) -> {
+                        boolean any = false;
+                        for (int index = Math.max(start, half); index < end; index++) {
+                            if (table[index] == Tablebase.loss(n)) {
+                                any = true;
+                                markWinningPredecessors(index, n, squares, scratch);
+                            }
+                        }
+                        if (any) {
+                            found.set(true);
+                        }
+                    });
+                } else {
+                    forEachChunk((start, end, squares, scratch) -> {
+                        boolean any = false;
+                        for (int index = start; index < Math.min(end, half); index++) {
+                            if (table[index] == Tablebase.win(n)) {
+                                any = true;
+                                markLosingPredecessors(index, n, squares, scratch);
+                            }
+                        }
+                        if (any) {
+                            found.set(true);
+                        }
+                    });
+                }
+                if (!found.get() && ply >= seeded[0]) {
+                    return table;
+                }
+            }
+        }
+
+        /**
+         * Marks illegal positions and checkmates, and seeds pawn promotions that win
+         *
+         * @return the plies to mate of the seeded win, or 0
+         */
+        private int initialize(int index, int[] squares, int[] scratch) {
+            boolean strongToMove = material.decode(index, squares);
+            if (!isLegal(strongToMove, squares)) {
+                table[index] = Tablebase.ILLEGAL;
+                return 0;
+            }
+            if (!strongToMove) {
+                if (!weakKingCanMove(squares, scratch)) {
+                    table[index] = isWeakKingAttacked(squares, squares[Material.WEAK_KING], -1)
+                            ? Tablebase.loss(0) : Tablebase.DRAW;
+                }
+                return 0;
+            }
+            if (queenTable != null && squares[2] >> 3 == 6
+                    && Attacks.isEmpty(occupied(squares), squares[2] + 8)) {
+                int best = Math.min(promotionWin(queenTable, squares), promotionWin(rookTable, squares));
+                if (best < Integer.MAX_VALUE) {
+                    table[index] = Tablebase.win(best);
+                    return best;
+                }
+            }
+            return 0;
+        }
+
+        /**
+         * @return the plies to mate after promoting the pawn using the given table, or
+         * {@link Integer#MAX_VALUE} if the promotion does not win
+         */
+        private int promotionWin(byte[] promotedTable, int[] squares) {
+            int pawn = squares[2];
+            squares[2] = pawn + 8;
+            byte entry = promotedTable[Material.KQK.index(false, squares)];
+            squares[2] = pawn;
+            return Tablebase.isLoss(entry) ? Tablebase.plies(entry) + 1 : Integer.MAX_VALUE;
+        }
+
+        /**
+         * Every legal position the stronger side could have moved into this loss from is a win
+         */
+        private void markWinningPredecessors(int index, int ply, int[] squares, int[] scratch) {
+            material.decode(index, squares);
+            long occupied = occupied(squares);
+            for (int piece = 0; piece < material.pieceCount(); piece++) {
+                if (piece == Material.WEAK_KING) {
+                    continue;
+                }
+                int square = squares[piece];
+                int count = Attacks.reverseMoves(material.pieceType(piece), square, occupied, scratch);
+                for (int i = 0; i < count; i++) {
+                    squares[piece] = scratch[i];
+                    int predecessor = material.index(true, squares);
+                    byte entry = table[predecessor];
+                    // a seeded promotion may be beaten by a quicker mate
+                    if (entry == Tablebase.DRAW || (Tablebase.isWin(entry) && Tablebase.plies(entry) > ply + 1)) {
+                        table[predecessor] = Tablebase.win(ply + 1);
+                    }
+                }
+                squares[piece] = square;
+            }
+        }
+
+        /**
+         * Every position the lone king could have moved into this win from is a loss
+         * if every other move it has is also into a win already found
+         */
+        private void markLosingPredecessors(int index, int ply, int[] squares, int[] scratch) {
+            material.decode(index, squares);
+            int square = squares[Material.WEAK_KING];
+            // the first half of the scratch space is left for allMovesLose
+            int count = Attacks.kingSteps(square, scratch, NEIGHBORS);
+            for (int i = NEIGHBORS; i < NEIGHBORS + count; i++) {
+                if (occupiedBy(squares, scratch[i]) >= 0) {
+                    continue;
+                }
+                squares[Material.WEAK_KING] = scratch[i];
+                int predecessor = material.index(false, squares);
+                if (table[predecessor] == Tablebase.DRAW && allMovesLose(squares, ply, scratch)) {
+                    table[predecessor] = Tablebase.loss(ply + 1);
+                }
+            }
+            squares[Material.WEAK_KING] = square;
+        }
+
+        private boolean allMovesLose(int[] squares, int ply, int[] scratch) {
+            int from = squares[Material.WEAK_KING];
+            int count = Attacks.kingSteps(from, scratch);
+            for (int i = 0; i < count; i++) {
+                int target = scratch[i];
+                int captured = occupiedBy(squares, target);
+                if (captured >= 0) {
+                    if (captured != Material.STRONG_KING && !isWeakKingAttacked(squares, target, captured)) {
+                        return false;
+                    }
+                    continue;
+                }
+                squares[Material.WEAK_KING] = target;
+                byte entry = table[material.index(true, squares)];
+                squares[Material.WEAK_KING] = from;
+                if (entry != Tablebase.ILLEGAL && !(Tablebase.isWin(entry) && Tablebase.plies(entry) <= ply)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private boolean weakKingCanMove(int[] squares, int[] scratch) {
+            int from = squares[Material.WEAK_KING];
+            int count = Attacks.kingSteps(from, scratch);
+            boolean canMove = false;
+            for (int i = 0; i < count && !canMove; i++) {
+                int captured = occupiedBy(squares, scratch[i]);
+                if (captured != Material.STRONG_KING) {
+                    squares[Material.WEAK_KING] = scratch[i];
+                    canMove = !isWeakKingAttacked(squares, scratch[i], captured);
+                    squares[Material.WEAK_KING] = from;
+                }
+            }
+            return canMove;
+        }
+
+        private boolean isLegal(boolean strongToMove, int[] squares) {
+            long occupied = 0;
+            for (int piece = 0; piece < material.pieceCount(); piece++) {
+                occupied |= 1L << squares[piece];
+                if (material.pieceType(piece) == ChessPiece.PieceType.PAWN
+                        && (squares[piece] < 8 || squares[piece] >= 56)) {
+                    return false;
+                }
+            }
+            if (Long.bitCount(occupied) != material.pieceCount()) {
+                return false;
+            }
+            if (Attacks.attacks(ChessPiece.PieceType.KING, squares[Material.STRONG_KING], squares[Material.WEAK_KING], 0)) {
+                return false;
+            }
+            // the side that just moved cannot have left its king in check
+            return !strongToMove || !isWeakKingAttacked(squares, squares[Material.WEAK_KING], -1);
+        }
+
+        /**
+         * @param captured the piece the lone king is capturing on that square, or -1
+         */
+        private boolean isWeakKingAttacked(int[] squares, int kingSquare, int captured) {
+            long occupied = 0;
+            for (int piece = 0; piece < material.pieceCount(); piece++) {
+                if (piece != Material.WEAK_KING && piece != captured) {
+                    occupied |= 1L << squares[piece];
+                }
+            }
+            for (int piece = 0; piece < material.pieceCount(); piece++) {
+                if (piece != Material.WEAK_KING && piece != captured
+                        && Attacks.attacks(material.pieceType(piece), squares[piece], kingSquare, occupied)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private int occupiedBy(int[] squares, int square) {
+            for (int piece = 0; piece < material.pieceCount(); piece++) {
+                if (squares[piece] == square && piece != Material.WEAK_KING) {
+                    return piece;
+                }
+            }
+            return -1;
+        }
+
+        private long occupied(int[] squares) {
+            long occupied = 0;
+            for (int piece = 0; piece < material.pieceCount(); piece++) {
+                occupied |= 1L << squares[piece];
+            }
+            return occupied;
+        }
+
+        private void forEachChunk(ChunkTask task) {
+            IntStream.range(0, (table.length + CHUNK - 1) / CHUNK).parallel().forEach(chunk -> {
+                int start = chunk * CHUNK;
+                task.run(start, Math.min(start + CHUNK, table.length), new int[material.pieceCount()],
+                        new int[NEIGHBORS + 8]);
+            });
+        }
+    }
+
+    private interface ChunkTask {
+        void run(int start, int end, int[] squares, int[] scratch);
+    }
+}
@@ -0,0 +1,339 @@
+package chess.uci;
+
+import chess.ChessGame;
+import chess.Fen;
+import chess.PackedMove;
+import chess.engine.AlphaBetaSearch;
+import chess.engine.MaterialEvaluator;
+import chess.engine.SearchMonitor;
+import chess.engine.TimedSearch;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.util.Arrays;
+
+/**
+ * Speaks the Universal Chess Interface on standard input and output, so the engine can
+ * be driven by GUIs, match runners and profilers.
+ * <p>
+ * Supported commands: {@code uci}, {@code isready}, {@code ucinewgame},
+ * {@code setoption}, {@code position [startpos | fen F] [moves M...]}, {@code go}
+ * with {@code depth}, {@code movetime}, {@code wtime}/{@code btime}/{@code winc}/{@code binc}
+ * or {@code infinite}, {@code stop}, {@code quit}, and {@code bench [depth]}, which
+ * searches a fixed set of positions to a fixed depth and prints the total node count,
+ * the same on every run of the same build.
+ * <p>
+ * The search runs on its own thread so {@code stop} and {@code isready} are answered
+ * while it thinks. The Hash and Threads options are accepted for tooling that always
+ * sends them, but the search has no transposition table and runs on one thread, so
+ * they do not change anything yet.
+ */
+public class Uci {
+    public static final int DEFAULT_BENCH_DEPTH = 5;
+
+    private static final int POLL_INTERVAL = 1024;
+    private static final String[] BENCH_POSITIONS = {
+            "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq -",
+            "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq -",
+            "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - -",
+            "r1bqkb1r/pppp1ppp/2n2n2/4p2Q/2B1P3/8/PPPP1PPP/RNB1K1NR w KQkq -",
+            "r2q1rk1/pp2bppp/2n1pn2/3p4/2PP4/2N1PN2/PP3PPP/R2QKB1R w KQ -",
+            "6k1/5ppp/8/8/8/8/5PPP/3R2K1 w - -",
+            "r1bq1rk1/ppp2ppp/2np1n2/2b1p3/2B1P3/2NP1N2/PPP2PPP/R1BQ1RK1 w - -",
+            "8/8/4k3/3p4/3P4/4K3/8/8 w - -",
+    };
+
+    private final BufferedReader in;
+    private final PrintStream out;
+    private final AlphaBetaSearch search = new AlphaBetaSearch(new MaterialEvaluator());
+    private final TimedSearch timedSearch = new TimedSearch(search);
+    private final int[] legalMoves = new int[ChessGame.MAX_MOVES];
+
+    private ChessGame game = new ChessGame();
+    private final Object stopLock = new Object();
+    private Thread searchThread;
+    private volatile boolean stopRequested;
+    private boolean onClock;
+    private long deadlineNanos;
+    private long startNanos;
+
+    public Uci(BufferedReader in, PrintStream out) {
+        this.in = in;
+        this.out = out;
+        // sits in front of the time management to add stop, move time and progress reports
+        search.setMonitor(new SearchMonitor() {
+            @Override
+            public boolean shouldStop(long nodes) {
+                return stopRequested || (deadlineNanos != 0 && System.nanoTime() >= deadlineNanos)
+                        || (onClock && timedSearch.shouldStop(nodes));
+            }
+
+            @Override
+            public boolean iterationComplete(int depth, int score, int bestMove, long nodes) {
+                printInfo(depth, score, nodes);
+                if (bestMove == PackedMove.NONE) {
+                    // no legal moves, so deeper iterations would say the same
+                    return false;
+                }
+                return !onClock || timedSearch.iterationComplete(depth, score, bestMove, nodes);
+            }
+        }, POLL_INTERVAL);
+    }
+
+    public static void main(String[] args) throws IOException {
+        var uci = new Uci(new BufferedReader(new InputStreamReader(System.in)), System.out);
+        if (args.length > 0 && args[0].equals("bench")) {
+            uci.bench(args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_BENCH_DEPTH);
+            return;
+        }
+        uci.run();
+    }
+
+    /**
+     * Reads and answers commands until {@code quit} or the end of the input
+     */
+    public void run() throws IOException {
+        String line;
+        while ((line = in.readLine()) != null) {
+            if (!execute(line)) {
+                break;
+            }
+        }
+        stopSearch();
+    }
+
+    /**
+     * Answers one command
+     *
+     * @return false once the engine should exit
+     */
+    boolean execute(String command) {
+        var tokens = command.trim().split("\\s+");
+        switch (tokens[0]) {
+            case "uci" -> {
+                out.println("id name 240 Chess");
+                out.println("id author CS 240");
+                out.println("option name Hash type spin default 16 min 1 max 4096");
+                out.println("option name Threads type spin default 1 min 1 max 1");
+                out.println("uciok");
+            }
+            case "isready" -> out.println("readyok");
+            case "ucinewgame" -> {
+                stopSearch();
+                game = new ChessGame();
+            }
+            case "setoption" -> setOption(tokens);
+            case "position" -> {
+                stopSearch();
+                position(tokens);
+            }
+            case "go" -> go(tokens);
+            case "stop" -> stopSearch();
+            case "bench" -> {
+                stopSearch();
+                bench(tokens.length > 1 ? Integer.parseInt(tokens[1]) : DEFAULT_BENCH_DEPTH);
+            }
+            case "quit" -> {
+                return false;
+            }
+            case "" -> {
+            }
+            default -> out.println("info string unknown command " + tokens[0]);
+        }
+        return true;
+    }
+
+    /**
+     * Handles {@code setoption name <name> value <value>}
+     */
+    private void setOption(String[] tokens) {
+        int nameIndex = indexOf(tokens, "name");
+        int valueIndex = indexOf(tokens, "value");
+        if (nameIndex < 0 || valueIndex < 0 || valueIndex + 1 >= tokens.length) {
+            out.println("info string expected setoption name <name> value <value>");
+            return;
+        }
+        var name = String.join(" ", Arrays.copyOfRange(tokens, nameIndex + 1, valueIndex));
+        switch (name.toLowerCase()) {
+            case "hash", "threads" -> {
+                // accepted so standard tooling can configure us; see the class comment
+            }
+            default -> out.println("info string unknown option " + name);
+        }
+    }
+
+    /**
+     * Handles {@code position startpos [moves ...]} and {@code position fen <fen> [moves ...]}.
+     * The halfmove and fullmove counters of the FEN are not used.
+     */
+    private void position(String[] tokens) {
+        int movesIndex = indexOf(tokens, "moves");
+        int end = movesIndex < 0 ? tokens.length : movesIndex;
+        try {
+            if (tokens.length > 1 && tokens[1].equals("fen")) {
+                game = Fen.parse(String.join(" ", Arrays.copyOfRange(tokens, 2, end)));
+            } else {
+                game = new ChessGame();
+            }
+        } catch (IllegalArgumentException e) {
+            out.println("info string " + e.getMessage());
+            game = new ChessGame();
+            return;
+        }
+        for (int i = movesIndex + 1; movesIndex >= 0 && i < tokens.length; i++) {
+            int move = parseLegalMove(tokens[i]);
+            if (move == PackedMove.NONE) {
+                out.println("info string illegal move " + tokens[i]);
+                return;
+            }
+            game.doMove(move);
+        }
+    }
+
+    /**
+     * Starts a search on its own thread; bestmove is printed when it finishes, or in
+     * infinite mode not before {@code stop}, as the protocol requires
+     */
+    private void go(String[] tokens) {
+        stopSearch();
+        int depth = AlphaBetaSearch.MAX_PLY;
+        long movetime = 0;
+        long remaining = -1;
+        long increment = 0;
+        var white = game.getTeamTurn() == ChessGame.TeamColor.WHITE;
+        for (int i = 1; i + 1 < tokens.length; i++) {
+            switch (tokens[i]) {
+                case "depth" -> depth = Math.min(Integer.parseInt(tokens[++i]), AlphaBetaSearch.MAX_PLY);
+                case "movetime" -> movetime = Long.parseLong(tokens[++i]);
+                case "wtime" -> remaining = white ? Long.parseLong(tokens[++i]) : remaining;
+                case "btime" -> remaining = white ? remaining : Long.parseLong(tokens[++i]);
+                case "winc" -> increment = white ? Long.parseLong(tokens[++i]) : increment;
+                case "binc" -> increment = white ? increment : Long.parseLong(tokens[++i]);
+                default -> {
+                }
+            }
+        }
+
+        boolean infinite = Arrays.asList(tokens).contains("infinite");
+        var position = new ChessGame(game);
+        int searchDepth = depth;
+        long clock = remaining;
+        long clockIncrement = increment;
+        stopRequested = false;
+        onClock = clock >= 0;
+        startNanos = System.nanoTime();
+        deadlineNanos = movetime > 0 ? startNanos + movetime * 1_000_000 : 0;
+        searchThread = new Thread(() -> {
+            int move;
+            if (onClock) {
+                move = timedSearch.chooseMove(position, clock, clockIncrement);
+            } else {
+                search.search(position, searchDepth);
+                move = search.getBestMove();
+            }
+            if (infinite) {
+                awaitStop();
+            }
+            out.println("bestmove " + (move == PackedMove.NONE ? "0000" : PackedMove.toString(move)));
+        }, "uci-search");
+        searchThread.start();
+    }
+
+    /**
+     * Searches each bench position to the given depth and prints the total nodes and speed
+     */
+    void bench(int depth) {
+        var benchSearch = new AlphaBetaSearch(new MaterialEvaluator());
+        long nodes = 0;
+        long start = System.nanoTime();
+        for (var position : BENCH_POSITIONS) {
+            benchSearch.search(Fen.parse(position), depth);
+            nodes += benchSearch.getNodes();
+        }
+        long elapsedMillis = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+        out.printf("%d nodes %d nps%n", nodes, nodes * 1000 / elapsedMillis);
+    }
+
+    private void stopSearch() {
+        if (searchThread == null) {
+            return;
+        }
+        synchronized (stopLock) {
+            stopRequested = true;
+            stopLock.notifyAll();
+        }
+        try {
+            searchThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        searchThread = null;
+    }
+
+    /**
+     * Holds the search thread until a stop is requested
+     */
+    private void awaitStop() {
+        synchronized (stopLock) {
+            while (!stopRequested) {
+                try {
+                    stopLock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private void printInfo(int depth, int score, long nodes) {
+        long elapsedMillis = (System.nanoTime() - startNanos) / 1_000_000;
+        var info = new StringBuilder("info depth ").append(depth);
+        if (Math.abs(score) >= AlphaBetaSearch.MATE_SCORE - AlphaBetaSearch.MAX_PLY) {
+            int plies = AlphaBetaSearch.MATE_SCORE - Math.abs(score);
+            info.append(" score mate ").append(score > 0 ? (plies + 1) / 2 : -(plies / 2));
+        } else {
+            info.append(" score cp ").append(score);
+        }
+        info.append(" nodes ").append(nodes)
+                .append(" nps ").append(nodes * 1000 / Math.max(1, elapsedMillis))
+                .append(" time ").append(elapsedMillis);
+        if (search.getLineCount() > 0) {
+            info.append(" pv");
+            for (int move : search.getLine(0)) {
+                info.append(' ').append(PackedMove.toString(move));
+            }
+        }
+        out.println(info);
+    }
+
+    /**
+     * @return the legal move in coordinate notation, or {@link PackedMove#NONE} if it is not legal
+     */
+    private int parseLegalMove(String text) {
+        int move;
+        try {
+            move = PackedMove.parse(text);
+        } catch (IllegalArgumentException e) {
+            return PackedMove.NONE;
+        }
+        int count = game.generateMoves(legalMoves);
+        for (int i = 0; i < count; i++) {
+            if (legalMoves[i] == move) {
+                return move;
+            }
+        }
+        return PackedMove.NONE;
+    }
+
+    private static int indexOf(String[] tokens, String token) {
+        for (int i = 0; i < tokens.length; i++) {
+            if (tokens[i].equals(token)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
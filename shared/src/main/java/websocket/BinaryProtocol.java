@@ -0,0 +1,295 @@
+package websocket;
+
+import chess.BinaryCodec;
+import chess.ChessGame;
+import chess.ChessPiece;
+import chess.PackedMove;
+import websocket.commands.ConnectCommand;
+import websocket.commands.MakeMoveCommand;
+import websocket.commands.UserGameCommand;
+import websocket.messages.ErrorMessage;
+import websocket.messages.LoadGameMessage;
+import websocket.messages.MoveMessage;
+import websocket.messages.NotificationMessage;
+import websocket.messages.ServerMessage;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Binary websocket frames for the commands and server messages, for clients that offer
+ * the {@link #NAME} sub-protocol when they connect. Anything else gets JSON text frames.
+ * <p>
+ * Every frame starts with a type byte. The high nibble is 0 for a command and 1 for a
+ * server message. The low three bits hold the command or message type's ordinal. For
+ * a command, bit 3 is set when the auth token is a UUID. The rest of the frame is
+ * little-endian, and optional numbers are stored plus one, so 0 means null.
+ * <ul>
+ * <li>Command: varint game id, then the auth token as 16 UUID bytes or as a varint
+ * length and UTF-8. MAKE_MOVE adds the packed move as two bytes, and CONNECT adds a
+ * flags byte where bit 0 asks for move updates.</li>
+ * <li>LOAD_GAME: varint sequence, then the game in {@link BinaryCodec} form.</li>
+ * <li>MOVE: the packed move as two bytes, the hash as eight, then varint sequence.</li>
+ * <li>ERROR and NOTIFICATION: varint length and UTF-8 text.</li>
+ * </ul>
+ * A MAKE_MOVE command with a UUID token is 20 bytes and a move update at most 16, where
+ * the JSON is over a hundred.
+ */
+public final class BinaryProtocol {
+    /**
+     * The Sec-WebSocket-Protocol value a client offers to get binary frames
+     */
+    public static final String NAME = "chess-binary.v1";
+    /**
+     * Enough room for any frame except one with long text
+     */
+    public static final int MAX_FIXED_BYTES = 64;
+
+    private static final int COMMAND = 0x00;
+    private static final int MESSAGE = 0x10;
+    private static final int UUID_TOKEN = 0x08;
+    private static final UserGameCommand.CommandType[] COMMAND_TYPES = UserGameCommand.CommandType.values();
+    private static final ServerMessage.ServerMessageType[] MESSAGE_TYPES = ServerMessage.ServerMessageType.values();
+
+    private BinaryProtocol() {
+    }
+
+    /**
+     * @param offered the Sec-WebSocket-Protocol header of an upgrade request, which may be null
+     * @return whether the client offered the binary protocol
+     */
+    public static boolean isOffered(String offered) {
+        if (offered == null) {
+            return false;
+        }
+        for (var protocol : offered.split(",")) {
+            if (protocol.strip().equals(NAME)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @param offered the Sec-WebSocket-Protocol headers of an upgrade request
+     * @return whether the client offered the binary protocol
+     */
+    public static boolean isOffered(List<String> offered) {
+        return offered != null && offered.stream().anyMatch(BinaryProtocol::isOffered);
+    }
+
+    public static ByteBuffer encode(UserGameCommand command) {
+        var token = command.getAuthToken() == null ? null : command.getAuthToken().getBytes(StandardCharsets.UTF_8);
+        var uuid = parseUuid(command.getAuthToken());
+        var out = allocate(token == null || uuid != null ? 0 : token.length);
+        out.put((byte) (COMMAND | (uuid != null ? UUID_TOKEN : 0) | command.getCommandType().ordinal()));
+        putVarint(out, command.getGameID() == null ? 0 : command.getGameID() + 1L);
+        if (uuid != null) {
+            out.putLong(uuid.getMostSignificantBits()).putLong(uuid.getLeastSignificantBits());
+        } else {
+            putBytes(out, token);
+        }
+        if (command instanceof MakeMoveCommand move) {
+            out.putShort((short) (move.getMove() == null ? PackedMove.NONE : PackedMove.pack(move.getMove())));
+        } else if (command.getCommandType() == UserGameCommand.CommandType.MAKE_MOVE) {
+            out.putShort((short) PackedMove.NONE);
+        } else if (command.getCommandType() == UserGameCommand.CommandType.CONNECT) {
+            out.put((byte) (command instanceof ConnectCommand connect && connect.wantsMoveUpdates() ? 1 : 0));
+        }
+        return out.flip();
+    }
+
+    public static ByteBuffer encode(ServerMessage message) {
+        var text = switch (message.getServerMessageType()) {
+            case ERROR -> utf8(((ErrorMessage) message).getErrorMessage());
+            case NOTIFICATION -> utf8(((NotificationMessage) message).getMessage());
+            default -> null;
+        };
+        var out = allocate(text == null ? 0 : text.length);
+        out.put((byte) (MESSAGE | message.getServerMessageType().ordinal()));
+        switch (message.getServerMessageType()) {
+            case LOAD_GAME -> {
+                var load = (LoadGameMessage) message;
+                putVarint(out, load.getSequence() == null ? 0 : load.getSequence() + 1L);
+                BinaryCodec.encode(load.getGame(), out);
+            }
+            case MOVE -> {
+                var move = (MoveMessage) message;
+                out.putShort((short) PackedMove.pack(move.getMove()));
+                out.putLong(move.getHash());
+                putVarint(out, move.getSequence());
+            }
+            default -> putBytes(out, text);
+        }
+        return out.flip();
+    }
+
+    /**
+     * Reads a command frame from the buffer's position to its limit
+     *
+     * @throws IllegalArgumentException if the frame is not a command
+     */
+    public static UserGameCommand decodeCommand(ByteBuffer frame) {
+        var in = frame.slice().order(ByteOrder.LITTLE_ENDIAN);
+        try {
+            int type = in.get() & 0xFF;
+            if ((type & 0xF0) != COMMAND || (type & 7) >= COMMAND_TYPES.length) {
+                throw new IllegalArgumentException("Not a command frame: type " + type);
+            }
+            var commandType = COMMAND_TYPES[type & 7];
+            var gameID = optionalInt(getVarint(in));
+            String token;
+            if ((type & UUID_TOKEN) != 0) {
+                token = new UUID(in.getLong(), in.getLong()).toString();
+            } else {
+                var bytes = getBytes(in);
+                token = bytes == null ? null : new String(bytes, StandardCharsets.UTF_8);
+            }
+            var command = switch (commandType) {
+                case MAKE_MOVE -> {
+                    int move = getMove(in);
+                    yield new MakeMoveCommand(token, gameID, move == PackedMove.NONE ? null : PackedMove.unpack(move));
+                }
+                case CONNECT -> (in.get() & 1) != 0 ? new ConnectCommand(token, gameID, true)
+                        : new UserGameCommand(commandType, token, gameID);
+                default -> new UserGameCommand(commandType, token, gameID);
+            };
+            checkEnd(in);
+            return command;
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Command frame is truncated", e);
+        }
+    }
+
+    /**
+     * Reads a server message frame from the buffer's position to its limit
+     *
+     * @throws IllegalArgumentException if the frame is not a server message
+     */
+    public static ServerMessage decodeMessage(ByteBuffer frame) {
+        var in = frame.slice().order(ByteOrder.LITTLE_ENDIAN);
+        try {
+            int type = in.get() & 0xFF;
+            if ((type & 0xF0) != MESSAGE || (type & 0xF) >= MESSAGE_TYPES.length) {
+                throw new IllegalArgumentException("Not a server message frame: type " + type);
+            }
+            ServerMessage message = switch (MESSAGE_TYPES[type & 0xF]) {
+                case LOAD_GAME -> {
+                    var sequence = optionalInt(getVarint(in));
+                    var game = new ChessGame();
+                    BinaryCodec.decode(in, game);
+                    yield new LoadGameMessage(game, sequence);
+                }
+                case MOVE -> {
+                    int move = getMove(in);
+                    long hash = in.getLong();
+                    yield new MoveMessage(PackedMove.unpack(move), hash, toInt(getVarint(in)));
+                }
+                case ERROR -> new ErrorMessage(getText(in));
+                case NOTIFICATION -> new NotificationMessage(getText(in));
+            };
+            checkEnd(in);
+            return message;
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Server message frame is truncated", e);
+        }
+    }
+
+    private static ByteBuffer allocate(int textBytes) {
+        return ByteBuffer.allocate(MAX_FIXED_BYTES + textBytes).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private static UUID parseUuid(String token) {
+        if (token == null || token.length() != 36) {
+            return null;
+        }
+        try {
+            var uuid = UUID.fromString(token);
+            // only when it reads back the same, so the token arrives unchanged
+            return uuid.toString().equals(token) ? uuid : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static byte[] utf8(String text) {
+        return text == null ? null : text.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static void putBytes(ByteBuffer out, byte[] bytes) {
+        if (bytes == null) {
+            putVarint(out, 0);
+            return;
+        }
+        putVarint(out, bytes.length + 1L);
+        out.put(bytes);
+    }
+
+    private static byte[] getBytes(ByteBuffer in) {
+        long length = getVarint(in);
+        if (length == 0) {
+            return null;
+        }
+        if (length - 1 > in.remaining()) {
+            throw new BufferUnderflowException();
+        }
+        var bytes = new byte[(int) (length - 1)];
+        in.get(bytes);
+        return bytes;
+    }
+
+    private static String getText(ByteBuffer in) {
+        var bytes = getBytes(in);
+        return bytes == null ? null : new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static int getMove(ByteBuffer in) {
+        int move = in.getShort() & 0xFFFF;
+        // bits 12-15 are the promotion piece's ordinal plus one, or 0
+        if ((move >>> 12) > ChessPiece.PieceType.values().length) {
+            throw new IllegalArgumentException("Move " + move + " has no such promotion piece");
+        }
+        return move;
+    }
+
+    private static void putVarint(ByteBuffer out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.put((byte) (value & 0x7F | 0x80));
+            value >>>= 7;
+        }
+        out.put((byte) value);
+    }
+
+    private static long getVarint(ByteBuffer in) {
+        long value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            int b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Varint is too long");
+    }
+
+    private static Integer optionalInt(long value) {
+        return value == 0 ? null : toInt(value - 1);
+    }
+
+    private static int toInt(long value) {
+        if (value > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Number is out of range: " + value);
+        }
+        return (int) value;
+    }
+
+    private static void checkEnd(ByteBuffer in) {
+        if (in.hasRemaining()) {
+            throw new IllegalArgumentException(in.remaining() + " bytes after the end of the frame");
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package websocket;
+
+import chess.ChessGame;
+import chess.PackedMove;
+import websocket.messages.LoadGameMessage;
+import websocket.messages.MoveMessage;
+import websocket.messages.ServerMessage;
+
+/**
+ * A client's copy of a game kept up to date from the server's messages: a
+ * {@link LoadGameMessage} replaces it, and a {@link MoveMessage} is applied to it as a
+ * move, which is far less to send and read than the whole game. A move that does not
+ * follow the last one seen, is not legal, or leaves a different position than the
+ * server's leaves the copy out of sync until the next snapshot.
+ */
+public class GameSync {
+    private final int[] legalMoves = new int[ChessGame.MAX_MOVES];
+    private ChessGame game;
+    private int sequence;
+    private boolean synced;
+
+    /**
+     * Applies a game update; other messages are ignored
+     *
+     * @return false if the copy is out of sync, in which case the client should connect
+     * again to be sent a fresh snapshot
+     */
+    public boolean apply(ServerMessage message) {
+        if (message instanceof LoadGameMessage load) {
+            load(load);
+        } else if (message instanceof MoveMessage move) {
+            synced = synced && move(move);
+        }
+        return synced;
+    }
+
+    /**
+     * @return the current game, or null before the first snapshot
+     */
+    public ChessGame getGame() {
+        return game;
+    }
+
+    /**
+     * @return the sequence number of the last update applied
+     */
+    public int getSequence() {
+        return sequence;
+    }
+
+    public boolean isSynced() {
+        return synced;
+    }
+
+    private void load(LoadGameMessage message) {
+        game = new ChessGame(message.getGame());
+        synced = message.getSequence() != null;
+        sequence = synced ? message.getSequence() : 0;
+    }
+
+    private boolean move(MoveMessage message) {
+        if (message.getSequence() != sequence + 1) {
+            return false;
+        }
+        int move = PackedMove.pack(message.getMove());
+        if (!isLegal(move)) {
+            return false;
+        }
+        game.doMove(move);
+        sequence++;
+        return game.getHash() == message.getHash();
+    }
+
+    private boolean isLegal(int move) {
+        int count = game.generateMoves(legalMoves);
+        for (int i = 0; i < count; i++) {
+            if (legalMoves[i] == move) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
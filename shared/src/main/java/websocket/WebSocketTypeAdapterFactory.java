@@ -0,0 +1,191 @@
+package websocket;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import websocket.commands.ConnectCommand;
+import websocket.commands.MakeMoveCommand;
+import websocket.commands.UserGameCommand;
+import websocket.messages.ErrorMessage;
+import websocket.messages.LoadGameMessage;
+import websocket.messages.MoveMessage;
+import websocket.messages.NotificationMessage;
+import websocket.messages.ServerMessage;
+
+import java.io.IOException;
+
+/**
+ * Reads a {@link UserGameCommand} or {@link ServerMessage} straight into the subtype its
+ * discriminator names, such as a {@link MakeMoveCommand} for MAKE_MOVE, in one pass over
+ * the JSON: there is no first parse to find the type and no {@link com.google.gson.JsonElement}
+ * tree to parse again.
+ * <p>
+ * Gson writes a subclass's fields before its superclass's, so the discriminator can come
+ * after the fields it decides between. The adapters read every field any subtype has
+ * as they meet it, and choose the subtype at the end of the object. Writing is Gson's
+ * usual reflective form of the runtime type.
+ */
+public class WebSocketTypeAdapterFactory implements TypeAdapterFactory {
+    /**
+     * @return the builder, with the command and message adapters registered
+     */
+    public static GsonBuilder register(GsonBuilder builder) {
+        return builder.registerTypeAdapterFactory(new WebSocketTypeAdapterFactory());
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+        if (type.getRawType() == UserGameCommand.class) {
+            return (TypeAdapter<T>) new CommandAdapter(gson, this).nullSafe();
+        }
+        if (type.getRawType() == ServerMessage.class) {
+            return (TypeAdapter<T>) new MessageAdapter(gson, this).nullSafe();
+        }
+        return null;
+    }
+
+    private static class CommandAdapter extends TypeAdapter<UserGameCommand> {
+        private final Gson gson;
+        private final TypeAdapter<UserGameCommand> base;
+        private final TypeAdapter<UserGameCommand.CommandType> commandTypes;
+        private final TypeAdapter<ChessMove> moves;
+
+        CommandAdapter(Gson gson, TypeAdapterFactory skipPast) {
+            this.gson = gson;
+            base = gson.getDelegateAdapter(skipPast, TypeToken.get(UserGameCommand.class));
+            commandTypes = gson.getAdapter(UserGameCommand.CommandType.class);
+            moves = gson.getAdapter(ChessMove.class);
+        }
+
+        @Override
+        public void write(JsonWriter out, UserGameCommand command) throws IOException {
+            writeRuntimeType(gson, base, UserGameCommand.class, out, command);
+        }
+
+        @Override
+        public UserGameCommand read(JsonReader in) throws IOException {
+            UserGameCommand.CommandType commandType = null;
+            String authToken = null;
+            Integer gameID = null;
+            ChessMove move = null;
+            boolean moveUpdates = false;
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "commandType" -> commandType = commandTypes.read(in);
+                    case "authToken" -> authToken = readString(in);
+                    case "gameID" -> gameID = readInteger(in);
+                    case "move" -> move = moves.read(in);
+                    case "moveUpdates" -> moveUpdates = in.nextBoolean();
+                    default -> in.skipValue();
+                }
+            }
+            in.endObject();
+            if (commandType == null) {
+                throw new JsonParseException("A command needs a commandType at " + in.getPath());
+            }
+            if (commandType == UserGameCommand.CommandType.MAKE_MOVE) {
+                return new MakeMoveCommand(authToken, gameID, move);
+            }
+            if (commandType == UserGameCommand.CommandType.CONNECT && moveUpdates) {
+                return new ConnectCommand(authToken, gameID, true);
+            }
+            return new UserGameCommand(commandType, authToken, gameID);
+        }
+    }
+
+    private static class MessageAdapter extends TypeAdapter<ServerMessage> {
+        private final Gson gson;
+        private final TypeAdapter<ServerMessage> base;
+        private final TypeAdapter<ServerMessage.ServerMessageType> messageTypes;
+        private final TypeAdapter<ChessGame> games;
+        private final TypeAdapter<ChessMove> moves;
+
+        MessageAdapter(Gson gson, TypeAdapterFactory skipPast) {
+            this.gson = gson;
+            base = gson.getDelegateAdapter(skipPast, TypeToken.get(ServerMessage.class));
+            messageTypes = gson.getAdapter(ServerMessage.ServerMessageType.class);
+            games = gson.getAdapter(ChessGame.class);
+            moves = gson.getAdapter(ChessMove.class);
+        }
+
+        @Override
+        public void write(JsonWriter out, ServerMessage message) throws IOException {
+            writeRuntimeType(gson, base, ServerMessage.class, out, message);
+        }
+
+        @Override
+        public ServerMessage read(JsonReader in) throws IOException {
+            ServerMessage.ServerMessageType messageType = null;
+            ChessGame game = null;
+            String errorMessage = null;
+            String message = null;
+            ChessMove move = null;
+            long hash = 0;
+            Integer sequence = null;
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "serverMessageType" -> messageType = messageTypes.read(in);
+                    case "game" -> game = games.read(in);
+                    case "errorMessage" -> errorMessage = readString(in);
+                    case "message" -> message = readString(in);
+                    case "move" -> move = moves.read(in);
+                    case "hash" -> hash = in.nextLong();
+                    case "sequence" -> sequence = readInteger(in);
+                    default -> in.skipValue();
+                }
+            }
+            in.endObject();
+            if (messageType == null) {
+                throw new JsonParseException("A server message needs a serverMessageType at " + in.getPath());
+            }
+            return switch (messageType) {
+                case LOAD_GAME -> new LoadGameMessage(game, sequence);
+                case ERROR -> new ErrorMessage(errorMessage);
+                case NOTIFICATION -> new NotificationMessage(message);
+                case MOVE -> {
+                    if (move == null || sequence == null) {
+                        throw new JsonParseException("A move message needs a move and sequence at " + in.getPath());
+                    }
+                    yield new MoveMessage(move, hash, sequence);
+                }
+            };
+        }
+    }
+
+    /**
+     * Writes a value with the reflective adapter of its runtime type
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> void writeRuntimeType(Gson gson, TypeAdapter<T> base, Class<T> baseType, JsonWriter out,
+                                             T value) throws IOException {
+        var adapter = value.getClass() == baseType ? base : (TypeAdapter<T>) gson.getAdapter(value.getClass());
+        adapter.write(out, value);
+    }
+
+    private static String readString(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        return in.nextString();
+    }
+
+    private static Integer readInteger(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        return in.nextInt();
+    }
+}
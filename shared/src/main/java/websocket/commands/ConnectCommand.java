@@ -0,0 +1,34 @@
+package websocket.commands;
+
+import java.util.Objects;
+
+/**
+ * Joins a game as a player or observer, asking for a {@link websocket.messages.MoveMessage}
+ * after each move instead of the whole game. The server still sends the whole game on
+ * connecting, and again whenever the client connects to catch up.
+ */
+public class ConnectCommand extends UserGameCommand {
+    private final boolean moveUpdates;
+
+    public ConnectCommand(String authToken, Integer gameID, boolean moveUpdates) {
+        super(CommandType.CONNECT, authToken, gameID);
+        this.moveUpdates = moveUpdates;
+    }
+
+    public boolean wantsMoveUpdates() {
+        return moveUpdates;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof ConnectCommand that)) {
+            return false;
+        }
+        return super.equals(o) && moveUpdates == that.moveUpdates;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(super.hashCode(), moveUpdates);
+    }
+}
@@ -0,0 +1,32 @@
+package websocket.messages;
+
+import java.util.Objects;
+
+/**
+ * Tells the sender of a command why it failed
+ */
+public class ErrorMessage extends ServerMessage {
+    private final String errorMessage;
+
+    public ErrorMessage(String errorMessage) {
+        super(ServerMessageType.ERROR);
+        this.errorMessage = errorMessage;
+    }
+
+    public String getErrorMessage() {
+        return errorMessage;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof ErrorMessage that)) {
+            return false;
+        }
+        return super.equals(o) && Objects.equals(errorMessage, that.errorMessage);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(super.hashCode(), errorMessage);
+    }
+}
@@ -0,0 +1,50 @@
+package websocket.messages;
+
+import chess.ChessGame;
+
+import java.util.Objects;
+
+/**
+ * Sends the game to show, after connecting or after a move. For a client that asked
+ * for move updates it also carries the sequence number of the last move in the game,
+ * which the next {@link MoveMessage} follows.
+ */
+public class LoadGameMessage extends ServerMessage {
+    private final ChessGame game;
+    private final Integer sequence;
+
+    public LoadGameMessage(ChessGame game) {
+        this(game, null);
+    }
+
+    public LoadGameMessage(ChessGame game, Integer sequence) {
+        super(ServerMessageType.LOAD_GAME);
+        this.game = game;
+        this.sequence = sequence;
+    }
+
+    public ChessGame getGame() {
+        return game;
+    }
+
+    /**
+     * @return the number of moves made in the game, or null if the client did not ask
+     * for move updates
+     */
+    public Integer getSequence() {
+        return sequence;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof LoadGameMessage that)) {
+            return false;
+        }
+        return super.equals(o) && Objects.equals(game, that.game) && Objects.equals(sequence, that.sequence);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(super.hashCode(), game, sequence);
+    }
+}
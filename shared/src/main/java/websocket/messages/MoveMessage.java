@@ -0,0 +1,54 @@
+package websocket.messages;
+
+import chess.ChessMove;
+
+import java.util.Objects;
+
+/**
+ * A move made in a game, sent instead of a full {@link LoadGameMessage} to clients that
+ * asked for move updates. The client applies the move to its copy of the game, then
+ * checks it has the same position by comparing the hash, and that it missed nothing by
+ * comparing the sequence number. Either check failing means the client should connect
+ * again for a fresh snapshot.
+ */
+public class MoveMessage extends ServerMessage {
+    private final ChessMove move;
+    private final long hash;
+    private final int sequence;
+
+    /**
+     * @param hash     the {@link chess.ChessGame#getHash()} of the game after the move
+     * @param sequence the number of moves made in the game, counting this one
+     */
+    public MoveMessage(ChessMove move, long hash, int sequence) {
+        super(ServerMessageType.MOVE);
+        this.move = move;
+        this.hash = hash;
+        this.sequence = sequence;
+    }
+
+    public ChessMove getMove() {
+        return move;
+    }
+
+    public long getHash() {
+        return hash;
+    }
+
+    public int getSequence() {
+        return sequence;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof MoveMessage that)) {
+            return false;
+        }
+        return super.equals(o) && Objects.equals(move, that.move) && hash == that.hash && sequence == that.sequence;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(super.hashCode(), move, hash, sequence);
+    }
+}
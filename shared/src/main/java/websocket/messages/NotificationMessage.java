@@ -0,0 +1,32 @@
+package websocket.messages;
+
+import java.util.Objects;
+
+/**
+ * Tells a player or observer what another one did
+ */
+public class NotificationMessage extends ServerMessage {
+    private final String message;
+
+    public NotificationMessage(String message) {
+        super(ServerMessageType.NOTIFICATION);
+        this.message = message;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof NotificationMessage that)) {
+            return false;
+        }
+        return super.equals(o) && Objects.equals(message, that.message);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(super.hashCode(), message);
+    }
+}
@@ -0,0 +1,87 @@
+package chess;
+
+import com.google.gson.Gson;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Random;
+
+public class BinaryCodecTests {
+    private final Gson gson = new Gson();
+
+    @Test
+    @DisplayName("Round Trips The Gson Form Of Boards And Games")
+    public void matchesGson() {
+        var game = new ChessGame();
+        var json = gson.toJson(game);
+        var fromJson = gson.fromJson(json, ChessGame.class);
+        var bytes = BinaryCodec.encode(fromJson);
+        Assertions.assertEquals(BinaryCodec.MAX_GAME_BYTES, bytes.length);
+        Assertions.assertEquals(fromJson, BinaryCodec.decodeGame(bytes));
+        Assertions.assertEquals(json, gson.toJson(BinaryCodec.decodeGame(bytes)));
+        Assertions.assertTrue(bytes.length * 10 < json.length(), json.length() + " bytes of JSON");
+
+        var board = game.getBoard();
+        var boardBytes = BinaryCodec.encode(board);
+        Assertions.assertEquals(BinaryCodec.MAX_BOARD_BYTES, boardBytes.length);
+        Assertions.assertEquals(gson.toJson(board), gson.toJson(BinaryCodec.decodeBoard(boardBytes)));
+    }
+
+    @Test
+    @DisplayName("Round Trips Positions From Random Games")
+    public void randomPositions() {
+        var random = new Random(45);
+        var moves = new int[ChessGame.MAX_MOVES];
+        var buffer = ByteBuffer.allocate(BinaryCodec.MAX_GAME_BYTES * 3000);
+        var expected = new ChessGame[3000];
+        var game = new ChessGame();
+        for (int i = 0; i < expected.length; i++) {
+            int count = game.generateMoves(moves);
+            if (count == 0 || game.getHistorySize() > 150) {
+                game = new ChessGame();
+                count = game.generateMoves(moves);
+            }
+            game.doMove(moves[random.nextInt(count)]);
+            expected[i] = new ChessGame(game);
+            BinaryCodec.encode(game, buffer);
+        }
+        buffer.flip();
+        var decoded = new ChessGame();
+        for (var position : expected) {
+            BinaryCodec.decode(buffer, decoded);
+            Assertions.assertEquals(position, decoded);
+            Assertions.assertEquals(position.getHash(), decoded.getHash());
+            Assertions.assertEquals(position.toFen(), decoded.toFen());
+        }
+        Assertions.assertFalse(buffer.hasRemaining());
+    }
+
+    @Test
+    @DisplayName("Rejects Other Versions And Bad Data Without Changing The Game")
+    public void rejectsBadData() {
+        var game = Fen.parse("4k3/8/8/8/8/8/4P3/4K3 b - - 0 1");
+        var bytes = BinaryCodec.encode(game);
+        Assertions.assertEquals(1 + 8 + 2 + 2, bytes.length, "Three pieces take two bytes");
+
+        var target = new ChessGame();
+        var otherVersion = bytes.clone();
+        otherVersion[0] = (byte) ((BinaryCodec.VERSION + 1) << 4 | 1);
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> BinaryCodec.decode(ByteBuffer.wrap(otherVersion), target));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> BinaryCodec.decodeBoard(bytes), "A game is not a board");
+        var truncated = Arrays.copyOf(bytes, bytes.length - 1);
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> BinaryCodec.decode(ByteBuffer.wrap(truncated), target));
+        var badPiece = bytes.clone();
+        badPiece[9] = 0x7;
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> BinaryCodec.decode(ByteBuffer.wrap(badPiece), target));
+        Assertions.assertEquals(new ChessGame(), target);
+
+        BinaryCodec.decode(ByteBuffer.wrap(bytes), target);
+        Assertions.assertEquals(game, target);
+    }
+}
@@ -0,0 +1,57 @@
+package chess;
+
+import chess.testing.GameTestUtilities;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+public class EpdTests {
+    @Test
+    @DisplayName("Reads The Position")
+    public void readsPosition() {
+        var epd = Epd.parse("rnbqkbnr/ppp1pppp/8/3pP3/8/8/PPPP1PPP/RNBQKBNR b KQkq - id \"start\";");
+        var expected = GameTestUtilities.play("e2e4", "d7d5", "e4e5");
+        Assertions.assertEquals(expected, epd.getGame());
+        Assertions.assertEquals(expected.getHash(), epd.getGame().getHash());
+        Assertions.assertEquals("start", epd.getId());
+
+        var enPassant = Epd.parse("rnbqkbnr/ppp1p1pp/8/3pPp2/8/8/PPPP1PPP/RNBQKBNR w KQkq f6 ;");
+        var played = GameTestUtilities.play("e2e4", "d7d5", "e4e5", "f7f5");
+        Assertions.assertEquals(played, enPassant.getGame());
+        Assertions.assertEquals(played.getHash(), enPassant.getGame().getHash());
+    }
+
+    @Test
+    @DisplayName("Honours Missing Castling Rights")
+    public void castlingRights() {
+        var moves = new int[ChessGame.MAX_MOVES];
+        var withRights = Epd.parse("r3k2r/8/8/8/8/8/8/R3K2R w KQkq -").getGame();
+        var withoutRights = Epd.parse("r3k2r/8/8/8/8/8/8/R3K2R w Kq -").getGame();
+        Assertions.assertEquals(withRights.generateMoves(moves) - 1, withoutRights.generateMoves(moves));
+        Assertions.assertNotEquals(withRights.getHash(), withoutRights.getHash());
+    }
+
+    @Test
+    @DisplayName("Reads Operations")
+    public void readsOperations() {
+        var epd = Epd.parse("r1bqkbnr/pppp1ppp/2n5/4p3/4P3/5N2/PPPP1PPP/RNBQKB1R w KQkq - "
+                + "bm Bb5 Bc4; am Ke2; id \"Open; game\"; c0 \"first\" \"second\";");
+        Assertions.assertEquals("Open; game", epd.getId());
+        Assertions.assertEquals(List.of("first", "second"), epd.getOperands("c0"));
+        Assertions.assertEquals(List.of(), epd.getOperands("pv"));
+        Assertions.assertArrayEquals(new int[]{PackedMove.parse("f1b5"), PackedMove.parse("f1c4")}, epd.getMoves("bm"));
+        Assertions.assertArrayEquals(new int[]{PackedMove.parse("e1e2")}, epd.getMoves("am"));
+    }
+
+    @Test
+    @DisplayName("Rejects Malformed Records")
+    public void rejectsMalformed() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> Epd.parse("8/8/8 w - -"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> Epd.parse("9/8/8/8/8/8/8/8 w - -"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> Epd.parse("8/8/8/8/8/8/8/8 x - -"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> Epd.parse("8/8/8/8/8/8/8/8 w - - bm e4"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> Epd.parse("8/8/8/8/8/8/8/8 w"));
+    }
+}
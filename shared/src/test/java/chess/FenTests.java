@@ -0,0 +1,90 @@
+package chess;
+
+import chess.testing.GameTestUtilities;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import passoff.chess.TestUtilities;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+public class FenTests {
+    @Test
+    @DisplayName("Reads And Writes The Starting Position")
+    public void startingPosition() {
+        Assertions.assertEquals(new ChessGame(), Fen.parse(Fen.START));
+        Assertions.assertEquals(Fen.START, new ChessGame().toFen());
+        Assertions.assertEquals("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR", new ChessGame().getBoard().toFen());
+    }
+
+    @Test
+    @DisplayName("Round Trips Castling And En Passant")
+    public void roundTrip() {
+        var game = GameTestUtilities.play("e2e4", "d7d5", "e4e5", "f7f5", "e1e2");
+        var fen = game.toFen();
+        Assertions.assertEquals("rnbqkbnr/ppp1p1pp/8/3pPp2/8/8/PPPPKPPP/RNBQ1BNR b kq - 0 1", fen);
+        var parsed = ChessGame.fromFen(fen);
+        Assertions.assertEquals(game, parsed);
+        Assertions.assertEquals(game.getHash(), parsed.getHash());
+
+        game.undoMove();
+        var enPassant = Fen.parse(game.toFen());
+        Assertions.assertEquals(game, enPassant);
+        Assertions.assertEquals(game.getHash(), enPassant.getHash());
+        Assertions.assertTrue(game.toFen().contains(" w KQkq f6 "));
+    }
+
+    @Test
+    @DisplayName("Parses Records From A Buffer")
+    public void byteBuffer() {
+        var text = "8/8/8/8/8/8/8/K6k w - - 0 1\r\n"
+                + "r3k2r/8/8/8/8/8/8/R3K2R b Kq - 12 40\n"
+                + Fen.START;
+        var buffer = ByteBuffer.wrap(text.getBytes(StandardCharsets.US_ASCII));
+        var game = new ChessGame();
+        Fen.load(game, buffer);
+        Assertions.assertEquals("8/8/8/8/8/8/8/K6k w - - 0 1", game.toFen());
+        Fen.load(game, buffer);
+        Assertions.assertEquals("r3k2r/8/8/8/8/8/8/R3K2R b Kq - 0 1", game.toFen());
+        Assertions.assertEquals(new ChessGame(), Fen.parse(buffer));
+        Assertions.assertFalse(buffer.hasRemaining());
+    }
+
+    @Test
+    @DisplayName("Rejects Malformed FEN Without Changing The Game")
+    public void rejectsMalformed() {
+        var game = new ChessGame();
+        for (var fen : new String[]{
+                "",
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP w KQkq - 0 1",
+                "rnbqkbnr/pppppppp/9/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1",
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNX w KQkq - 0 1",
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR x KQkq - 0 1",
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQxq - 0 1",
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq e3 0 1",
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - zero 1",
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1 extra",
+        }) {
+            Assertions.assertThrows(IllegalArgumentException.class, () -> Fen.load(game, fen), fen);
+            Assertions.assertEquals(new ChessGame(), game, fen);
+        }
+    }
+
+    @Test
+    @DisplayName("Board Text Is Unchanged")
+    public void boardToString() {
+        var text = """
+                |r|n|b|q|k|b|n|r|
+                |p|p|p|p|p|p|p|p|
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                |P|P|P|P|P|P|P|P|
+                |R|N|B|Q|K|B|N|R|
+                """;
+        Assertions.assertEquals(text, new ChessGame().getBoard().toString());
+        Assertions.assertEquals(TestUtilities.loadBoard(text), new ChessGame().getBoard());
+    }
+}
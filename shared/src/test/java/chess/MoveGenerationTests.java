@@ -0,0 +1,242 @@
+package chess;
+
+import chess.testing.GameTestUtilities;
+import com.google.gson.Gson;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Checks the allocation-free move generator by counting leaf nodes to a fixed depth
+ * (perft) against published totals, and against the ChessMove based validMoves.
+ */
+public class MoveGenerationTests {
+    private static final String KIWIPETE = """
+            |r| | | |k| | |r|
+            |p| |p|p|q|p|b| |
+            |b|n| | |p|n|p| |
+            | | | |P|N| | | |
+            | |p| | |P| | | |
+            | | |N| | |Q| |p|
+            |P|P|P|B|B|P|P|P|
+            |R| | | |K| | |R|
+            """;
+
+    private static final String ROOK_ENDGAME = """
+            | | | | | | | | |
+            | | |p| | | | | |
+            | | | |p| | | | |
+            |K|P| | | | | |r|
+            | |R| | | |p| |k|
+            | | | | | | | | |
+            | | | | |P| |P| |
+            | | | | | | | | |
+            """;
+
+    @Test
+    @DisplayName("Starting Position Perft")
+    public void startingPosition() {
+        var game = new ChessGame();
+        Assertions.assertEquals(20, perft(game, 1));
+        Assertions.assertEquals(400, perft(game, 2));
+        Assertions.assertEquals(8902, perft(game, 3));
+        Assertions.assertEquals(197281, perft(game, 4));
+    }
+
+    @Test
+    @DisplayName("Castling, Promotion and Pins Perft")
+    public void kiwipete() {
+        var game = GameTestUtilities.gameWithBoard(KIWIPETE);
+        Assertions.assertEquals(48, perft(game, 1));
+        Assertions.assertEquals(2039, perft(game, 2));
+        Assertions.assertEquals(97862, perft(game, 3));
+    }
+
+    @Test
+    @DisplayName("En Passant and Discovered Check Perft")
+    public void rookEndgame() {
+        var game = GameTestUtilities.gameWithBoard(ROOK_ENDGAME);
+        Assertions.assertEquals(14, perft(game, 1));
+        Assertions.assertEquals(191, perft(game, 2));
+        Assertions.assertEquals(2812, perft(game, 3));
+        Assertions.assertEquals(43238, perft(game, 4));
+    }
+
+    @Test
+    @DisplayName("Generated Moves Match validMoves")
+    public void matchesValidMoves() {
+        assertMatchesValidMoves(GameTestUtilities.gameWithBoard(KIWIPETE), 2);
+        assertMatchesValidMoves(GameTestUtilities.gameWithBoard(ROOK_ENDGAME), 3);
+    }
+
+    @Test
+    @DisplayName("isLegal Matches Generated Moves")
+    public void isLegalMatchesGeneratedMoves() {
+        assertIsLegalMatches(GameTestUtilities.gameWithBoard(KIWIPETE), 2);
+        assertIsLegalMatches(GameTestUtilities.gameWithBoard(ROOK_ENDGAME), 2);
+    }
+
+    @Test
+    @DisplayName("Undo Restores The Game")
+    public void undoRestoresGame() {
+        var game = GameTestUtilities.gameWithBoard(KIWIPETE);
+        var original = GameTestUtilities.gameWithBoard(KIWIPETE);
+        var moves = new int[ChessGame.MAX_MOVES];
+        int count = game.generateMoves(moves);
+        for (int i = 0; i < count; i++) {
+            game.doMove(moves[i]);
+            game.undoMove();
+            Assertions.assertEquals(original, game, "Undoing " + PackedMove.toString(moves[i]) + " changed the game");
+        }
+        game.doNullMove();
+        Assertions.assertEquals(ChessGame.TeamColor.BLACK, game.getTeamTurn());
+        game.undoMove();
+        Assertions.assertEquals(original, game, "Undoing a null move changed the game");
+    }
+
+    @Test
+    @DisplayName("Hash Follows Moves And Undo")
+    public void hashFollowsMoves() {
+        var game = GameTestUtilities.gameWithBoard(KIWIPETE);
+        assertUndoRestoresHash(game, 3);
+
+        var knightsFirst = GameTestUtilities.play("g1f3", "g8f6", "b1c3", "b8c6");
+        var knightsSecond = GameTestUtilities.play("b1c3", "b8c6", "g1f3", "g8f6");
+        Assertions.assertEquals(knightsFirst.getHash(), knightsSecond.getHash());
+        Assertions.assertNotEquals(new ChessGame().getHash(), knightsFirst.getHash());
+
+        var reloaded = new ChessGame();
+        reloaded.setBoard(copy(knightsFirst.getBoard()));
+        Assertions.assertEquals(knightsFirst.getHash(), reloaded.getHash());
+        reloaded.setTeamTurn(ChessGame.TeamColor.BLACK);
+        Assertions.assertNotEquals(knightsFirst.getHash(), reloaded.getHash());
+    }
+
+    @Test
+    @DisplayName("En Passant Only Hashed When A Capture Is Possible")
+    public void enPassantHash() {
+        // no black pawn can take on e3, so this matches reaching the same position later
+        Assertions.assertEquals(GameTestUtilities.play("e2e4").getHash(),
+                GameTestUtilities.play("e2e4", "g8f6", "g1f3", "f6g8", "f3g1").getHash());
+
+        var capturable = GameTestUtilities.play("e2e4", "g8f6", "e4e5", "d7d5");
+        long hash = capturable.getHash();
+        capturable.doNullMove();
+        capturable.doNullMove();
+        Assertions.assertNotEquals(hash, capturable.getHash(), "Losing the en passant capture should change the hash");
+        capturable.undoMove();
+        capturable.undoMove();
+        Assertions.assertEquals(hash, capturable.getHash());
+    }
+
+    @Test
+    @DisplayName("Gson Round Trip Keeps The Hash")
+    public void gsonHash() {
+        var gson = new Gson();
+        var played = GameTestUtilities.play("e2e4");
+        var read = gson.fromJson(gson.toJson(played), ChessGame.class);
+        Assertions.assertEquals(played, read);
+        Assertions.assertEquals(played.getHash(), read.getHash());
+        played.doMove(PackedMove.parse("e7e5"));
+        var moved = gson.fromJson(gson.toJson(GameTestUtilities.play("e2e4")), ChessGame.class);
+        moved.doMove(PackedMove.parse("e7e5"));
+        Assertions.assertEquals(played.getHash(), moved.getHash());
+        moved.undoMove();
+        Assertions.assertEquals(read.getHash(), moved.getHash());
+        Assertions.assertEquals(played.getHash(), new ChessGame(gson.fromJson(gson.toJson(played), ChessGame.class))
+                .getHash());
+    }
+
+    private static void assertUndoRestoresHash(ChessGame game, int depth) {
+        var moves = new int[ChessGame.MAX_MOVES];
+        int count = game.generateMoves(moves);
+        long hash = game.getHash();
+        for (int i = 0; i < count; i++) {
+            game.doMove(moves[i]);
+            Assertions.assertNotEquals(hash, game.getHash());
+            if (depth > 1) {
+                assertUndoRestoresHash(game, depth - 1);
+            }
+            game.undoMove();
+            Assertions.assertEquals(hash, game.getHash(), "Undoing " + PackedMove.toString(moves[i]));
+        }
+    }
+
+    private static ChessBoard copy(ChessBoard board) {
+        var copy = new ChessBoard();
+        for (int square = 0; square < 64; square++) {
+            var piece = board.getPiece(square);
+            if (piece != null) {
+                copy.addPiece(ChessPosition.fromSquare(square), piece);
+            }
+        }
+        return copy;
+    }
+
+    private static long perft(ChessGame game, int depth) {
+        var moves = new int[ChessGame.MAX_MOVES];
+        int count = game.generateMoves(moves);
+        if (depth == 1) {
+            return count;
+        }
+        long nodes = 0;
+        for (int i = 0; i < count; i++) {
+            game.doMove(moves[i]);
+            nodes += perft(game, depth - 1);
+            game.undoMove();
+        }
+        return nodes;
+    }
+
+    private static void assertMatchesValidMoves(ChessGame game, int depth) {
+        var moves = new int[ChessGame.MAX_MOVES];
+        int count = game.generateMoves(moves);
+        Set<ChessMove> generated = new HashSet<>();
+        for (int i = 0; i < count; i++) {
+            generated.add(PackedMove.unpack(moves[i]));
+        }
+        Set<ChessMove> valid = new HashSet<>();
+        for (int square = 0; square < 64; square++) {
+            var piece = game.getBoard().getPiece(square);
+            if (piece != null && piece.getTeamColor() == game.getTeamTurn()) {
+                valid.addAll(game.validMoves(ChessPosition.fromSquare(square)));
+            }
+        }
+        Assertions.assertEquals(valid, generated);
+        if (depth > 1) {
+            for (int i = 0; i < count; i++) {
+                game.doMove(moves[i]);
+                assertMatchesValidMoves(game, depth - 1);
+                game.undoMove();
+            }
+        }
+    }
+
+    private static void assertIsLegalMatches(ChessGame game, int depth) {
+        var moves = new int[ChessGame.MAX_MOVES];
+        int count = game.generateMoves(moves);
+        Set<Integer> generated = new HashSet<>();
+        for (int i = 0; i < count; i++) {
+            generated.add(moves[i]);
+        }
+        var promotions = new ChessPiece.PieceType[]{null, ChessPiece.PieceType.QUEEN, ChessPiece.PieceType.KNIGHT};
+        for (int start = 0; start < 64; start++) {
+            for (int end = 0; end < 64; end++) {
+                for (var promotion : promotions) {
+                    int move = PackedMove.pack(start, end, promotion);
+                    Assertions.assertEquals(generated.contains(move), game.isLegal(move), PackedMove.toString(move));
+                }
+            }
+        }
+        if (depth > 1) {
+            for (int i = 0; i < count; i++) {
+                game.doMove(moves[i]);
+                assertIsLegalMatches(game, depth - 1);
+                game.undoMove();
+            }
+        }
+    }
+}
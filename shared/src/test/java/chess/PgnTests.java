@@ -0,0 +1,133 @@
+package chess;
+
+import chess.testing.GameTestUtilities;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+
+public class PgnTests {
+    private static final String PGN = """
+            [Event "Casual"]
+            [White "A \\"The Hammer\\""]
+            [Result "1-0"]
+
+            1. e4 e5 2. Nf3 {the most common move} Nc6 3. Bb5 (3. Bc4 Bc5 (3... Nf6)) a6 $1
+            4. Ba4 Nf6 5. O-O Be7 1-0
+            [Event "Endgame"]
+            [SetUp "1"]
+            [FEN "4k3/8/8/8/8/8/4P3/4K3 b - - 0 40"]
+
+            40... Kd7 41.e4 Ke6 *
+
+            [Result "0-1"]
+
+            1. Nf3 Nc6 2. e4 e5 3. Nc3 Zz9 4. d4 0-1
+            """;
+
+    @Test
+    @DisplayName("Reads Games One At A Time")
+    public void readsGames() throws IOException {
+        var reader = reader(PGN.getBytes(StandardCharsets.ISO_8859_1));
+        Assertions.assertTrue(reader.next());
+        Assertions.assertEquals("A \"The Hammer\"", reader.getTag("White"));
+        Assertions.assertEquals("1-0", reader.getResult());
+        Assertions.assertEquals(10, reader.getMoveCount());
+        Assertions.assertNull(reader.getError());
+        Assertions.assertEquals(PackedMove.parse("e1g1"), reader.getMoves()[8]);
+        Assertions.assertEquals(10, reader.getGame().getHistorySize());
+
+        Assertions.assertTrue(reader.next());
+        Assertions.assertEquals("*", reader.getResult());
+        Assertions.assertEquals(3, reader.getMoveCount());
+        Assertions.assertEquals("8/8/4k3/8/4P3/8/8/4K3 w - - 0 1", reader.getGame().toFen());
+
+        Assertions.assertTrue(reader.next());
+        Assertions.assertEquals("0-1", reader.getResult());
+        Assertions.assertEquals(5, reader.getMoveCount(), "Moves before the unreadable one are kept");
+        Assertions.assertNotNull(reader.getError());
+        var expected = GameTestUtilities.play("g1f3", "b8c6", "e2e4", "e7e5", "b1c3");
+        Assertions.assertEquals(expected, reader.getGame(), "The game starts from the starting position after a FEN game");
+
+        Assertions.assertFalse(reader.next());
+        Assertions.assertEquals(3, reader.getGames());
+    }
+
+    @Test
+    @DisplayName("Reads Across Buffer Refills")
+    public void smallReads() throws IOException {
+        var bytes = PGN.repeat(2000).getBytes(StandardCharsets.ISO_8859_1);
+        // a stream channel that hands out a few bytes at a time
+        var reader = new PgnReader(Channels.newChannel(new ByteArrayInputStream(bytes) {
+            @Override
+            public synchronized int read(byte[] b, int off, int len) {
+                return super.read(b, off, Math.min(len, 7));
+            }
+        }));
+        int games = 0;
+        int moves = 0;
+        while (reader.next()) {
+            games++;
+            moves += reader.getMoveCount();
+        }
+        Assertions.assertEquals(6000, games);
+        Assertions.assertEquals(2000 * 18, moves);
+    }
+
+    @Test
+    @DisplayName("Written Games Read Back The Same")
+    public void roundTrip() throws IOException {
+        var random = new Random(40);
+        var legal = new int[ChessGame.MAX_MOVES];
+        var played = new int[100][];
+        var output = new ByteArrayOutputStream();
+        try (var writer = new PgnWriter(Channels.newChannel(output))) {
+            for (int i = 0; i < played.length; i++) {
+                var game = new ChessGame();
+                var line = new int[120];
+                int count = 0;
+                int legalCount;
+                while (count < line.length && (legalCount = game.generateMoves(legal)) > 0) {
+                    line[count] = legal[random.nextInt(legalCount)];
+                    game.doMove(line[count++]);
+                }
+                played[i] = Arrays.copyOf(line, count);
+                Map<String, String> tags = new LinkedHashMap<>();
+                tags.put("Round", String.valueOf(i));
+                tags.put("Result", "*");
+                writer.write(tags, new ChessGame(), played[i], count);
+            }
+            var endgame = ChessGame.fromFen("4k3/8/8/8/8/8/4P3/4K3 b - - 0 1");
+            writer.write(Map.of("Result", "1/2-1/2"), endgame, new int[]{PackedMove.parse("e8d7")}, 1);
+            Assertions.assertEquals("4k3/8/8/8/8/8/4P3/4K3 b - - 0 1", endgame.toFen(), "The game is left unchanged");
+        }
+
+        var text = output.toString(StandardCharsets.ISO_8859_1);
+        Assertions.assertTrue(text.lines().allMatch(line -> line.length() < 80), "Lines are wrapped");
+        var reader = reader(output.toByteArray());
+        for (int i = 0; i < played.length; i++) {
+            Assertions.assertTrue(reader.next());
+            Assertions.assertEquals(String.valueOf(i), reader.getTag("Round"));
+            Assertions.assertNull(reader.getError(), reader.getError());
+            Assertions.assertArrayEquals(played[i], Arrays.copyOf(reader.getMoves(), reader.getMoveCount()));
+        }
+        Assertions.assertTrue(reader.next());
+        Assertions.assertEquals("1", reader.getTag("SetUp"));
+        Assertions.assertEquals("1/2-1/2", reader.getResult());
+        Assertions.assertEquals(1, reader.getMoveCount());
+        Assertions.assertFalse(reader.next());
+    }
+
+    private static PgnReader reader(byte[] bytes) {
+        return new PgnReader(Channels.newChannel(new ByteArrayInputStream(bytes)));
+    }
+}
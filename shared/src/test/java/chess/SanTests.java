@@ -0,0 +1,126 @@
+package chess;
+
+import chess.testing.GameTestUtilities;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import passoff.chess.TestUtilities;
+
+import java.util.Random;
+
+public class SanTests {
+    private final int[] moves = new int[ChessGame.MAX_MOVES];
+
+    @Test
+    @DisplayName("Reads Pawn, Piece And Castling Moves")
+    public void readsMoves() {
+        var game = new ChessGame();
+        for (var move : new String[]{"e4", "e5", "Nf3", "Nc6", "Bb5", "a6", "Bxc6", "dxc6", "O-O"}) {
+            game.doMove(San.parse(game, move, moves));
+        }
+        Assertions.assertEquals(ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KING),
+                game.getBoard().getPiece(6));
+        Assertions.assertEquals(ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.PAWN),
+                game.getBoard().getPiece(42));
+    }
+
+    @Test
+    @DisplayName("Uses Disambiguation And Promotion")
+    public void disambiguation() {
+        var game = new ChessGame();
+        game.setBoard(TestUtilities.loadBoard("""
+                | | | | |k| | | |
+                | |P| | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                |R| | | | | | |R|
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | |K| | | |
+                """));
+        Assertions.assertEquals(PackedMove.parse("a4d4"), San.parse(game, "Rad4", moves));
+        Assertions.assertEquals(PackedMove.parse("h4d4"), San.parse(game, "Rhd4+", moves));
+        Assertions.assertEquals(PackedMove.parse("b7b8n"), San.parse(game, "b8=N", moves));
+        Assertions.assertEquals(PackedMove.parse("b7b8q"), San.parse(game, "b8Q#", moves));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> San.parse(game, "Rd4", moves));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> San.parse(game, "Nf3", moves));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> San.parse(game, "O-O", moves));
+    }
+
+    @Test
+    @DisplayName("Writes Moves With Disambiguation, Check And Mate")
+    public void writesMoves() {
+        var game = new ChessGame();
+        game.setBoard(TestUtilities.loadBoard("""
+                | | | | |k| | | |
+                | |P| | | | | | |
+                | | | | | | | | |
+                |N| | | | | | | |
+                |R| | | | | | |R|
+                | | | | | | | | |
+                | | | | | | | | |
+                |N| | | |K| | | |
+                """));
+        Assertions.assertEquals("Rad4", San.toString(game, PackedMove.parse("a4d4")));
+        Assertions.assertEquals("Rhd4", San.toString(game, PackedMove.parse("h4d4")));
+        Assertions.assertEquals("Rae4+", San.toString(game, PackedMove.parse("a4e4")));
+        Assertions.assertEquals("N5b3", San.toString(game, PackedMove.parse("a5b3")));
+        Assertions.assertEquals("Nc4", San.toString(game, PackedMove.parse("a5c4")));
+        Assertions.assertEquals("b8=Q+", San.toString(game, PackedMove.parse("b7b8q")));
+        Assertions.assertEquals("b8=N", San.toString(game, PackedMove.parse("b7b8n")));
+        Assertions.assertEquals("b7-b8=Q+", San.appendLan(game, PackedMove.parse("b7b8q"), new StringBuilder(), moves).toString());
+        Assertions.assertEquals("Ra4-d4", San.appendLan(game, PackedMove.parse("a4d4"), new StringBuilder(), moves).toString());
+
+        game.setBoard(TestUtilities.loadBoard("""
+                | | | | |r| | |k|
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | |N| |N| | | |
+                | | | | | | | | |
+                | | | | |K| | | |
+                """));
+        Assertions.assertEquals("Nd5", San.toString(game, PackedMove.parse("c3d5")), "The knight on e3 is pinned");
+
+        var mate = GameTestUtilities.play("e2e4", "e7e5", "d1h5", "b8c6", "f1c4", "g8f6");
+        Assertions.assertEquals("Qxf7#", San.toString(mate, PackedMove.parse("h5f7")));
+        Assertions.assertEquals("Qh5xf7#", San.appendLan(mate, PackedMove.parse("h5f7"), new StringBuilder(), moves).toString());
+    }
+
+    @Test
+    @DisplayName("Writes Numbered Move Lists Without Changing The Game")
+    public void writesMoveLists() {
+        var game = new ChessGame();
+        var line = new int[]{PackedMove.parse("e2e4"), PackedMove.parse("e7e5"), PackedMove.parse("g1f3")};
+        Assertions.assertEquals("1. e4 e5 2. Nf3", San.appendMoves(game, line, 3, new StringBuilder(), moves).toString());
+        Assertions.assertEquals(new ChessGame(), game);
+
+        game.doMove(line[0]);
+        var fromBlack = new int[]{line[1], line[2]};
+        Assertions.assertEquals("1... e5 2. Nf3", San.appendMoves(game, fromBlack, 2, new StringBuilder(), moves).toString());
+    }
+
+    @Test
+    @DisplayName("Written Moves Read Back As The Same Move")
+    public void roundTrip() {
+        var random = new Random(39);
+        var legal = new int[ChessGame.MAX_MOVES];
+        var builder = new StringBuilder();
+        for (int games = 0; games < 20; games++) {
+            var game = new ChessGame();
+            int count;
+            while ((count = game.generateMoves(legal)) > 0 && game.getHistorySize() < 200) {
+                for (int i = 0; i < count; i++) {
+                    builder.setLength(0);
+                    San.append(game, legal[i], builder, moves);
+                    Assertions.assertEquals(legal[i], San.parse(game, builder, moves), builder.toString());
+                    builder.setLength(0);
+                    San.appendLan(game, legal[i], builder, moves);
+                    Assertions.assertEquals(legal[i], San.parse(game, builder, moves), builder.toString());
+                }
+                game.doMove(legal[random.nextInt(count)]);
+            }
+        }
+    }
+}
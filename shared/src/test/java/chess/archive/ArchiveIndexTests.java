@@ -0,0 +1,81 @@
+package chess.archive;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+public class ArchiveIndexTests {
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("Reads Any Game By Number")
+    public void readsGames() throws IOException {
+        var archive = writeGames(5000);
+        var indexPath = directory.resolve("games.idx");
+        Assertions.assertEquals(5000, ArchiveIndex.build(archive, indexPath));
+        Assertions.assertEquals(24 + 5000 * 12, Files.size(indexPath));
+        try (var index = ArchiveIndex.open(archive, indexPath)) {
+            Assertions.assertEquals(5000, index.size());
+            Assertions.assertEquals(game(0), index.read(0));
+            Assertions.assertEquals(game(4321), index.read(4321));
+            Assertions.assertEquals(game(4999), index.read(4999));
+            var thrown = Assertions.assertThrows(IndexOutOfBoundsException.class, () -> index.read(5000));
+            Assertions.assertEquals("Game 5000 of 5000", thrown.getMessage());
+        }
+    }
+
+    @Test
+    @DisplayName("Reads Pages Of Games")
+    public void readsPages() throws IOException {
+        var archive = writeGames(25);
+        var indexPath = directory.resolve("games.idx");
+        ArchiveIndex.build(archive, indexPath);
+        try (var index = ArchiveIndex.open(archive, indexPath)) {
+            Assertions.assertEquals(List.of(game(10), game(11), game(12)), index.read(10, 3));
+            Assertions.assertEquals(List.of(game(23), game(24)), index.read(23, 10), "The last page is short");
+            Assertions.assertEquals(List.of(), index.read(25, 10));
+            Assertions.assertEquals(List.of(game(24)), index.read(24, Integer.MAX_VALUE), "The end does not overflow");
+        }
+    }
+
+    @Test
+    @DisplayName("Refuses Stale And Foreign Indexes")
+    public void refusesBadIndexes() throws IOException {
+        var archive = writeGames(3);
+        var indexPath = directory.resolve("games.idx");
+        ArchiveIndex.build(archive, indexPath);
+        Files.writeString(archive, game(3) + "\n\n", StandardOpenOption.APPEND);
+        Assertions.assertThrows(IOException.class, () -> ArchiveIndex.open(archive, indexPath));
+
+        Assertions.assertEquals(4, ArchiveIndex.build(archive, indexPath));
+        try (var index = ArchiveIndex.open(archive, indexPath)) {
+            Assertions.assertEquals(game(3), index.read(3));
+        }
+
+        var other = directory.resolve("other.idx");
+        Files.write(other, new byte[64]);
+        Assertions.assertThrows(IOException.class, () -> ArchiveIndex.open(archive, other));
+    }
+
+    private Path writeGames(int count) throws IOException {
+        var text = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            text.append(game(i)).append("\n\n");
+        }
+        var path = directory.resolve("games.pgn");
+        Files.writeString(path, text);
+        return path;
+    }
+
+    private static String game(int number) {
+        return "[Event \"Game " + number + "\"]\n[Result \"*\"]\n\n1. e4 " + (number % 2 == 0 ? "e5" : "c5") + " *";
+    }
+}
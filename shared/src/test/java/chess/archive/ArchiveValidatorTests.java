@@ -0,0 +1,171 @@
+package chess.archive;
+
+import chess.PgnReader;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+public class ArchiveValidatorTests {
+    private static final String GAMES = """
+            [Event "Scholar's mate"]
+            [Result "1-0"]
+
+            1. e4 e5 2. Qh5 Nc6 3. Bc4 Nf6 4. Qxf7# 1-0
+
+            [Event "Illegal"]
+            [Result "*"]
+
+            1. e4 e5 2. Ke3 *
+
+            [Event "Stalemate"]
+            [SetUp "1"]
+            [FEN "7k/8/6Q1/8/8/8/8/K7 w - - 0 1"]
+            [Result "1/2-1/2"]
+
+            1. Qf7 1/2-1/2
+
+            [Event "Open"]
+            1. d4 d5 2. c4 {queen's gambit} e6 (2... c6) *
+            """;
+
+    @TempDir
+    Path directory;
+
+    private final ForkJoinPool pool = new ForkJoinPool(3);
+
+    @AfterEach
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("Reports Every Game With Its Final State")
+    public void reportsGames() throws IOException {
+        var path = write(GAMES.repeat(200));
+        var expected = sequentialOffsets(path);
+        var reports = new HashMap<Long, ArchiveValidator.GameReport>();
+        var validator = new ArchiveValidator(pool, 1000, 8);
+        var metrics = validator.validate(path, report -> Assertions.assertNull(reports.put(report.offset(), report)));
+
+        Assertions.assertEquals(800, metrics.games());
+        Assertions.assertEquals(200, metrics.illegalGames());
+        Assertions.assertTrue(metrics.chunks() > 10, "The archive should be split into many chunks");
+        Assertions.assertEquals(expected.keySet(), reports.keySet(), "Offsets match a sequential read");
+        for (var entry : expected.entrySet()) {
+            var report = reports.get(entry.getKey());
+            switch (entry.getValue()) {
+                case "Scholar's mate" -> {
+                    Assertions.assertEquals(ArchiveValidator.State.CHECKMATE, report.state());
+                    Assertions.assertEquals(7, report.plies());
+                }
+                case "Illegal" -> {
+                    Assertions.assertEquals(ArchiveValidator.State.ILLEGAL, report.state());
+                    Assertions.assertEquals(2, report.plies());
+                    Assertions.assertNotNull(report.error());
+                }
+                case "Stalemate" -> Assertions.assertEquals(ArchiveValidator.State.STALEMATE, report.state());
+                default -> {
+                    Assertions.assertEquals(ArchiveValidator.State.PLAYABLE, report.state());
+                    Assertions.assertEquals("rnbqkbnr/ppp2ppp/4p3/3p4/2PP4/8/PP2PPPP/RNBQKBNR w KQkq - 0 1",
+                            report.fen());
+                }
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Splits Only At Game Boundaries")
+    public void splitsAtGames() throws IOException {
+        var path = write(GAMES.repeat(50));
+        var validator = new ArchiveValidator(pool, 300, 8);
+        var offsets = sequentialOffsets(path).keySet();
+        try (var channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            var starts = validator.split(channel, channel.size());
+            Assertions.assertEquals(0L, starts.get(0));
+            Assertions.assertEquals(channel.size(), starts.get(starts.size() - 1));
+            for (var start : starts.subList(1, starts.size() - 1)) {
+                Assertions.assertTrue(offsets.contains(start), "Chunk at " + start + " starts a game");
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Does Not Split Inside Comments That Span Lines")
+    public void wrappedComments() throws IOException {
+        var annotated = """
+                [Event "Annotated"]
+                [Result "1-0"]
+
+                1. e4 {White opens with the king's pawn,
+                [as most games do] and black answers} e5 2. Qh5 Nc6 {a note
+
+                [Event "Quoted"] in the middle of a comment} 3. Bc4 ; a line comment {
+                Nf6 4. Qxf7# 1-0
+
+                """;
+        var path = write((annotated + GAMES).repeat(50));
+        var offsets = sequentialOffsets(path).keySet();
+        Assertions.assertEquals(250, offsets.size());
+        try (var channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            for (int chunkBytes = 50; chunkBytes < 400; chunkBytes += 7) {
+                var starts = new ArchiveValidator(pool, chunkBytes, 8).split(channel, channel.size());
+                for (var start : starts.subList(1, starts.size() - 1)) {
+                    Assertions.assertTrue(offsets.contains(start), "Chunk at " + start + " starts a game");
+                }
+            }
+        }
+        var metrics = new ArchiveValidator(pool, 300, 8).validate(path, report -> {
+        });
+        Assertions.assertEquals(250, metrics.games());
+    }
+
+    @Test
+    @DisplayName("Stops The Workers When The Consumer Throws")
+    public void consumerThrows() throws IOException {
+        var path = write(GAMES.repeat(200));
+        var validator = new ArchiveValidator(pool, 300, 1);
+        var thrown = Assertions.assertThrows(IllegalStateException.class, () -> validator.validate(path, report -> {
+            throw new IllegalStateException("consumer failed");
+        }));
+        Assertions.assertEquals("consumer failed", thrown.getMessage());
+        Assertions.assertTrue(pool.awaitQuiescence(5, TimeUnit.SECONDS), "No worker is left waiting on the queue");
+    }
+
+    @Test
+    @DisplayName("Handles Empty Archives")
+    public void emptyArchive() throws IOException {
+        var metrics = new ArchiveValidator(pool).validate(write(""), report -> Assertions.fail());
+        Assertions.assertEquals(0, metrics.games());
+    }
+
+    private Path write(String text) throws IOException {
+        var path = directory.resolve("games.pgn");
+        Files.writeString(path, text);
+        return path;
+    }
+
+    /**
+     * @return the event of each game by its offset
+     */
+    private static Map<Long, String> sequentialOffsets(Path path) throws IOException {
+        var events = new HashMap<Long, String>();
+        try (var reader = new PgnReader(FileChannel.open(path, StandardOpenOption.READ))) {
+            while (reader.next()) {
+                events.put(reader.getOffset(), reader.getTag("Event"));
+            }
+        }
+        return events;
+    }
+}
@@ -0,0 +1,128 @@
+package chess.archive;
+
+import chess.ChessGame;
+import chess.testing.GameTestUtilities;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+public class PositionIndexTests {
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("Finds Games By Position Across Move Orders")
+    public void findsGames() throws IOException {
+        try (var index = PositionIndex.open(directory, 1000)) {
+            index.addGame(7, new ChessGame(), GameTestUtilities.moves("e2e4", "e7e5", "g1f3", "b8c6"), 4);
+            index.addGame(8, new ChessGame(), GameTestUtilities.moves("g1f3", "b8c6", "e2e4", "e7e5"), 4);
+            index.addGame(9, new ChessGame(), GameTestUtilities.moves("d2d4", "d7d5"), 2);
+
+            var game = GameTestUtilities.play("e2e4", "e7e5", "g1f3", "b8c6");
+            Assertions.assertEquals(List.of(new PositionIndex.Posting(7, 4), new PositionIndex.Posting(8, 4)),
+                    index.find(game.getHash()));
+            Assertions.assertEquals(List.of(new PositionIndex.Posting(7, 1)),
+                    index.find(GameTestUtilities.play("e2e4").getHash()));
+            Assertions.assertEquals(List.of(), index.find(GameTestUtilities.play("c2c4").getHash()));
+            Assertions.assertEquals(0, index.getSegmentCount(), "Nothing is flushed yet");
+        }
+        try (var index = PositionIndex.open(directory, 1000)) {
+            Assertions.assertEquals(1, index.getSegmentCount());
+            Assertions.assertEquals(2, index.count(GameTestUtilities.play("e2e4", "e7e5", "g1f3", "b8c6").getHash()));
+            Assertions.assertEquals(List.of(new PositionIndex.Posting(9, 2)),
+                    index.find(GameTestUtilities.play("d2d4", "d7d5").getHash()));
+        }
+    }
+
+    @Test
+    @DisplayName("Matches A Full Scan Across Segments And After Compaction")
+    public void matchesScan() throws IOException {
+        var random = new Random(43);
+        var expected = new HashMap<Long, List<PositionIndex.Posting>>();
+        var legal = new int[ChessGame.MAX_MOVES];
+        try (var index = PositionIndex.open(directory, 500)) {
+            for (int gameId = 0; gameId < 300; gameId++) {
+                var game = new ChessGame();
+                var line = new int[30];
+                int count = 0;
+                int legalCount;
+                while (count < line.length && (legalCount = game.generateMoves(legal)) > 0) {
+                    // few choices, so games share positions
+                    line[count] = legal[random.nextInt(Math.min(legalCount, 3))];
+                    game.doMove(line[count++]);
+                    expected.computeIfAbsent(game.getHash(), key -> new ArrayList<>())
+                            .add(new PositionIndex.Posting(gameId * 3, count));
+                }
+                index.addGame(gameId * 3, new ChessGame(), line, count);
+            }
+            Assertions.assertTrue(index.getSegmentCount() > 5);
+            assertMatches(expected, index);
+            index.compact();
+            Assertions.assertEquals(1, index.getSegmentCount());
+            assertMatches(expected, index);
+        }
+        try (var files = Files.list(directory)) {
+            Assertions.assertEquals(1, files.count(), "Merged segments are deleted");
+        }
+    }
+
+    @Test
+    @DisplayName("Deletes Segments A Finished Compaction Replaced")
+    public void recoversCompaction() throws IOException {
+        var inputs = directory.resolve("inputs");
+        try (var index = PositionIndex.open(directory, 1000)) {
+            index.addGame(1, new ChessGame(), GameTestUtilities.moves("e2e4", "e7e5"), 2);
+            index.flush();
+            index.addGame(2, new ChessGame(), GameTestUtilities.moves("e2e4", "c7c5"), 2);
+            index.flush();
+            Files.createDirectory(inputs);
+            try (var files = Files.list(directory)) {
+                for (var path : files.filter(Files::isRegularFile).toList()) {
+                    Files.copy(path, inputs.resolve(path.getFileName()));
+                }
+            }
+            index.compact();
+        }
+        // as if the process died after writing the merged segment but before deleting its inputs
+        try (var files = Files.list(inputs)) {
+            for (var path : files.toList()) {
+                Files.move(path, directory.resolve(path.getFileName()));
+            }
+        }
+        Files.delete(inputs);
+        try (var index = PositionIndex.open(directory, 1000)) {
+            Assertions.assertEquals(1, index.getSegmentCount());
+            Assertions.assertEquals(List.of(new PositionIndex.Posting(1, 1), new PositionIndex.Posting(2, 1)),
+                    index.find(GameTestUtilities.play("e2e4").getHash()));
+            index.addGame(3, new ChessGame(), GameTestUtilities.moves("e2e4"), 1);
+        }
+        try (var index = PositionIndex.open(directory, 1000)) {
+            Assertions.assertEquals(2, index.getSegmentCount(), "New flushes are numbered after the merged range");
+            Assertions.assertEquals(3, index.count(GameTestUtilities.play("e2e4").getHash()));
+        }
+    }
+
+    @Test
+    @DisplayName("Refuses Foreign Segment Files")
+    public void refusesBadSegments() throws IOException {
+        Files.write(directory.resolve("postings-000000.seg"), new byte[32]);
+        Assertions.assertThrows(IOException.class, () -> PositionIndex.open(directory, 1000));
+    }
+
+    private static void assertMatches(Map<Long, List<PositionIndex.Posting>> expected, PositionIndex index) {
+        for (var entry : expected.entrySet()) {
+            Assertions.assertEquals(entry.getValue(), index.find(entry.getKey()));
+            Assertions.assertEquals(entry.getValue().size(), index.count(entry.getKey()));
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package chess.benchmark;
+
+import com.google.gson.JsonParser;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+public class EpdSuiteRunnerTests {
+    private static final List<String> SUITE = List.of(
+            "# a tiny suite",
+            "4k3/8/8/3q4/8/8/3R4/4K3 w - - bm Rxd5; id \"queen\";",
+            "",
+            "6k1/5ppp/8/8/8/8/8/R5K1 w - - bm Ra8#; id \"back rank\";",
+            "4k3/8/8/3q4/8/8/3R4/4K3 w - - am Rxd5;");
+
+    @Test
+    @DisplayName("Counts Solved Positions")
+    public void countsSolved() {
+        var result = new EpdSuiteRunner(3, 0).run("tiny", SUITE);
+        Assertions.assertEquals(3, result.positions());
+        Assertions.assertEquals(2, result.solved());
+        Assertions.assertEquals(0.667, result.solveRate());
+        Assertions.assertEquals(List.of("queen", "back rank", "3"),
+                result.results().stream().map(EpdSuiteRunner.PositionResult::id).toList());
+        Assertions.assertEquals(List.of(true, true, false),
+                result.results().stream().map(EpdSuiteRunner.PositionResult::solved).toList());
+        Assertions.assertEquals("d2d5", result.results().get(0).move());
+        Assertions.assertEquals("a1a8", result.results().get(1).move());
+
+        long nodes = result.results().stream().mapToLong(EpdSuiteRunner.PositionResult::nodes).sum();
+        Assertions.assertEquals(nodes, result.nodes());
+        Assertions.assertEquals(3, result.timeToDepthMillis().length);
+        for (var position : result.results()) {
+            Assertions.assertEquals(3, position.depth());
+            Assertions.assertTrue(position.branchingFactor() > 0);
+        }
+        Assertions.assertTrue(result.branchingFactor() > 0);
+    }
+
+    @Test
+    @DisplayName("Reports The Suite As JSON")
+    public void reportsJson() {
+        var result = new EpdSuiteRunner(2, 0).run("tiny", SUITE);
+        var json = JsonParser.parseString(EpdSuiteRunner.toJson(result)).getAsJsonObject();
+        Assertions.assertEquals("tiny", json.get("suite").getAsString());
+        Assertions.assertEquals(2, json.get("depthLimit").getAsInt());
+        Assertions.assertFalse(json.has("movetimeLimitMillis"), "A limit that does not apply is left out");
+        Assertions.assertEquals(3, json.get("positions").getAsInt());
+        Assertions.assertEquals(2, json.get("solved").getAsInt());
+        Assertions.assertEquals(0.667, json.get("solveRate").getAsDouble());
+        Assertions.assertEquals(result.nodes(), json.get("nodes").getAsLong());
+        Assertions.assertTrue(json.has("nodesPerSecond"));
+        Assertions.assertEquals(2, json.getAsJsonArray("timeToDepthMillis").size());
+        Assertions.assertTrue(json.has("branchingFactor"));
+
+        var positions = json.getAsJsonArray("results");
+        Assertions.assertEquals(3, positions.size());
+        var queen = positions.get(0).getAsJsonObject();
+        Assertions.assertEquals("queen", queen.get("id").getAsString());
+        Assertions.assertTrue(queen.get("solved").getAsBoolean());
+        Assertions.assertEquals("d2d5", queen.get("move").getAsString());
+        Assertions.assertEquals("d2d5", queen.getAsJsonArray("bestMoves").get(0).getAsString());
+        Assertions.assertEquals(0, queen.getAsJsonArray("avoidMoves").size());
+        var avoided = positions.get(2).getAsJsonObject();
+        Assertions.assertFalse(avoided.get("solved").getAsBoolean());
+        Assertions.assertEquals("d2d5", avoided.getAsJsonArray("avoidMoves").get(0).getAsString());
+    }
+
+    @Test
+    @DisplayName("Needs A Depth Or A Move Time")
+    public void needsLimit() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new EpdSuiteRunner(0, 0));
+    }
+}
@@ -0,0 +1,140 @@
+package chess.book;
+
+import chess.ChessGame;
+import chess.PackedMove;
+import chess.testing.GameTestUtilities;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+public class OpeningBookTests {
+    private static final String PGN = """
+            [Event "Casual"]
+            [White "A"]
+            [Black "B"]
+            [Result "1-0"]
+
+            1. e4 e5 2. Nf3 {the most common move} Nc6 3. Bb5 (3. Bc4 Bc5) a6 4. Ba4 Nf6 5. O-O Be7 1-0
+
+            [Event "Casual"]
+            [Result "1/2-1/2"]
+
+            1.e4 e5 2.Nf3 Nc6 3.Bc4 $1 Bc5 1/2-1/2
+
+            [Event "Casual"]
+            [Result "0-1"]
+
+            1. Nf3 Nc6 2. e4 e5 3. Nc3 Zz9 4. d4 0-1
+
+            [Event "Casual"]
+            [Result "*"]
+
+            1. d4 d5 2. c4 e6 *
+            """;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("Counts Moves From PGN Games")
+    public void buildFromPgn() throws IOException {
+        var builder = new OpeningBookBuilder(40);
+        Assertions.assertEquals(4, builder.addPgn(write(PGN)));
+        Assertions.assertEquals(1, builder.getRejectedGames());
+        var path = directory.resolve("book.bin");
+        builder.write(path, 1);
+        var book = OpeningBook.open(path);
+
+        var game = new ChessGame();
+        assertBookMoves(book, game, "e2e4", 2, "g1f3", 1, "d2d4", 1);
+        GameTestUtilities.play(game, "e2e4", "e7e5");
+        // the third game reaches this position by another move order
+        assertBookMoves(book, game, "g1f3", 2);
+        GameTestUtilities.play(game, "g1f3");
+        assertBookMoves(book, game, "b8c6", 2);
+        GameTestUtilities.play(game, "b8c6");
+        assertBookMoves(book, game, "f1b5", 1, "f1c4", 1, "b1c3", 1);
+        GameTestUtilities.play(game, "b1c3");
+        Assertions.assertEquals(-1, book.find(game.getHash()), "The unreadable move should end the third game");
+    }
+
+    @Test
+    @DisplayName("Stops At The Ply Limit And Drops Rare Moves")
+    public void limits() throws IOException {
+        var book = build(PGN, 2, 2);
+        var game = new ChessGame();
+        assertBookMoves(book, game, "e2e4", 2);
+        GameTestUtilities.play(game, "e2e4");
+        assertBookMoves(book, game, "e7e5", 2);
+        GameTestUtilities.play(game, "e7e5");
+        Assertions.assertEquals(-1, book.find(game.getHash()));
+    }
+
+    @Test
+    @DisplayName("Chooses Only Book Moves")
+    public void chooseMove() throws IOException {
+        var book = build(PGN, 40, 1);
+        var random = new Random(7);
+        var seen = new HashSet<Integer>();
+        for (int i = 0; i < 200; i++) {
+            seen.add(book.chooseMove(new ChessGame(), random));
+        }
+        Assertions.assertEquals(Set.of(PackedMove.parse("e2e4"), PackedMove.parse("g1f3"),
+                PackedMove.parse("d2d4")), seen);
+
+        var outOfBook = GameTestUtilities.play("a2a3");
+        Assertions.assertEquals(PackedMove.NONE, book.chooseMove(outOfBook, random));
+        Assertions.assertEquals(0, book.probe(outOfBook, new int[4], new int[4]));
+    }
+
+    @Test
+    @DisplayName("Rejects Files That Are Not Books")
+    public void notABook() throws IOException {
+        var path = directory.resolve("junk.bin");
+        Files.write(path, new byte[64]);
+        Assertions.assertThrows(IOException.class, () -> OpeningBook.open(path));
+    }
+
+    private OpeningBook build(String pgn, int maxPly, int minimumWeight) throws IOException {
+        var builder = new OpeningBookBuilder(maxPly);
+        builder.addPgn(write(pgn));
+        var path = directory.resolve("book-" + maxPly + "-" + minimumWeight + ".bin");
+        builder.write(path, minimumWeight);
+        return OpeningBook.open(path);
+    }
+
+    private Path write(String pgn) throws IOException {
+        var path = directory.resolve("games.pgn");
+        Files.writeString(path, pgn);
+        return path;
+    }
+
+    /**
+     * @param expected alternating coordinate moves and weights
+     */
+    private static void assertBookMoves(OpeningBook book, ChessGame game, Object... expected) {
+        var moves = new int[8];
+        var weights = new int[8];
+        int count = book.probe(game, moves, weights);
+        Assertions.assertEquals(expected.length / 2, count);
+        for (int i = 0; i < expected.length; i += 2) {
+            int move = PackedMove.parse((String) expected[i]);
+            boolean found = false;
+            for (int j = 0; j < count; j++) {
+                if (moves[j] == move) {
+                    Assertions.assertEquals(expected[i + 1], weights[j], "Weight of " + expected[i]);
+                    found = true;
+                }
+            }
+            Assertions.assertTrue(found, expected[i] + " should be in the book");
+        }
+    }
+}
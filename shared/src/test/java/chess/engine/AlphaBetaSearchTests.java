@@ -0,0 +1,85 @@
+package chess.engine;
+
+import chess.ChessGame;
+import chess.PackedMove;
+import chess.testing.GameTestUtilities;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class AlphaBetaSearchTests {
+    @Test
+    @DisplayName("Finds Mate In One")
+    public void mateInOne() {
+        var game = GameTestUtilities.gameWithBoard(SearchPositions.BACK_RANK_MATE);
+        var search = new AlphaBetaSearch(new MaterialEvaluator());
+        int score = search.search(game, 2);
+        Assertions.assertEquals(PackedMove.parse("a1a8"), search.getBestMove());
+        Assertions.assertEquals(AlphaBetaSearch.MATE_SCORE - 1, score);
+    }
+
+    @Test
+    @DisplayName("Takes A Hanging Queen With And Without Ordering")
+    public void hangingQueen() {
+        for (var orderer : new MoveOrderer[]{null, new MoveOrderer(AlphaBetaSearch.MAX_PLY + 1)}) {
+            var game = GameTestUtilities.gameWithBoard(SearchPositions.HANGING_QUEEN);
+            var search = new AlphaBetaSearch(new MaterialEvaluator(), orderer, SearchOptions.NONE);
+            search.search(game, 3);
+            Assertions.assertEquals(PackedMove.parse("c3d5"), search.getBestMove());
+            Assertions.assertEquals(GameTestUtilities.gameWithBoard(SearchPositions.HANGING_QUEEN), game,
+                    "Search should leave the game as it found it");
+        }
+    }
+
+    @Test
+    @DisplayName("Ordering Never Changes The Result")
+    public void orderingKeepsScore() {
+        var evaluator = new MaterialEvaluator();
+        var game = GameTestUtilities.play("e2e4", "e7e5", "g1f3", "b8c6", "f1c4", "g8f6");
+        var unordered = new AlphaBetaSearch(evaluator, null, SearchOptions.NONE);
+        var ordered = new AlphaBetaSearch(evaluator, new MoveOrderer(AlphaBetaSearch.MAX_PLY + 1), SearchOptions.NONE);
+        Assertions.assertEquals(unordered.search(game, 3), ordered.search(game, 3));
+        Assertions.assertTrue(ordered.getNodes() < unordered.getNodes());
+    }
+
+    @Test
+    @DisplayName("Each Selective Technique Still Finds Mate And Material")
+    public void selectiveTechniques() {
+        var configurations = new SearchOptions[]{
+                new SearchOptions(true, false, false, false),
+                new SearchOptions(false, true, false, false),
+                new SearchOptions(false, false, true, false),
+                new SearchOptions(false, false, false, true),
+                SearchOptions.ALL,
+        };
+        for (var options : configurations) {
+            var search = new AlphaBetaSearch(new MaterialEvaluator(), new MoveOrderer(AlphaBetaSearch.MAX_PLY + 1),
+                    options);
+            search.search(GameTestUtilities.gameWithBoard(SearchPositions.BACK_RANK_MATE), 4);
+            Assertions.assertEquals(PackedMove.parse("a1a8"), search.getBestMove(), options.toString());
+            search.search(GameTestUtilities.gameWithBoard(SearchPositions.HANGING_QUEEN), 4);
+            Assertions.assertEquals(PackedMove.parse("c3d5"), search.getBestMove(), options.toString());
+        }
+    }
+
+    @Test
+    @DisplayName("No Null Move Pruning With Only Pawns Left")
+    public void zugzwang() {
+        // white wins only because black must move the king away from its pawn; passing would lose the pawn ending
+        var game = GameTestUtilities.gameWithBoard("""
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | |k| | | | |
+                | | | |p| | | | |
+                | | | |K| | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                """, ChessGame.TeamColor.BLACK);
+        var withNullMove = new AlphaBetaSearch(new MaterialEvaluator(), new MoveOrderer(AlphaBetaSearch.MAX_PLY + 1),
+                new SearchOptions(true, false, false, false));
+        var fullWidth = new AlphaBetaSearch(new MaterialEvaluator(), new MoveOrderer(AlphaBetaSearch.MAX_PLY + 1),
+                SearchOptions.NONE);
+        Assertions.assertEquals(fullWidth.search(game, 5), withNullMove.search(game, 5));
+    }
+}
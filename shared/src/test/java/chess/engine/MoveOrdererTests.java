@@ -0,0 +1,80 @@
+package chess.engine;
+
+import chess.ChessGame;
+import chess.PackedMove;
+import chess.testing.GameTestUtilities;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class MoveOrdererTests {
+    @Test
+    @DisplayName("Static Exchange Of Defended And Undefended Captures")
+    public void staticExchange() {
+        var game = GameTestUtilities.gameWithBoard("""
+                | | | | |k| | | |
+                | | | | | | | | |
+                | | |p| | | | |p|
+                | | | |n| | |r| |
+                | | | | |P| | | |
+                | | | | | | | | |
+                | | | | | | |R| |
+                | | | |Q|K| | | |
+                """, ChessGame.TeamColor.WHITE);
+        var orderer = new MoveOrderer(8);
+
+        // pawn takes a knight defended by a pawn
+        Assertions.assertTrue(orderer.staticExchange(game, PackedMove.parse("e4d5")) > 0);
+        // queen takes the same knight, the pawn takes the queen and the other pawn takes back
+        Assertions.assertEquals(320 - 900 + 100, orderer.staticExchange(game, PackedMove.parse("d1d5")));
+        // even rook trade on g5
+        Assertions.assertEquals(0, orderer.staticExchange(game, PackedMove.parse("g2g5")));
+    }
+
+    @Test
+    @DisplayName("X-Ray Attackers Join The Exchange")
+    public void xRay() {
+        var game = GameTestUtilities.gameWithBoard("""
+                | | | | |k| | | |
+                | | | |r| | | | |
+                | | | | | | | | |
+                | | | |p| | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | |R| | | | |
+                | | | |Q|K| | | |
+                """, ChessGame.TeamColor.WHITE);
+        var orderer = new MoveOrderer(8);
+
+        // RxP, RxR, QxR: wins a pawn and a rook for a rook
+        Assertions.assertEquals(100, orderer.staticExchange(game, PackedMove.parse("d2d5")));
+    }
+
+    @Test
+    @DisplayName("Winning Captures Before Killers Before Losing Captures")
+    public void ordering() {
+        var game = GameTestUtilities.gameWithBoard("""
+                | | | | |k| | | |
+                | | | | | | | | |
+                | | |p| | | | |p|
+                | | | |n| | |r| |
+                | | | | |P| | | |
+                | | | | | | | | |
+                | | | | | | |R| |
+                | | | |Q|K| | | |
+                """, ChessGame.TeamColor.WHITE);
+        var orderer = new MoveOrderer(8);
+        int killer = PackedMove.parse("g2h2");
+        orderer.recordCutoff(game, killer, 1, 3);
+
+        var moves = new int[ChessGame.MAX_MOVES];
+        int count = game.generateMoves(moves);
+        orderer.orderMoves(game, moves, count, 1, PackedMove.NONE);
+
+        // the rook is the more valuable victim, so its even trade comes before the winning pawn capture
+        Assertions.assertEquals(PackedMove.parse("g2g5"), moves[0]);
+        Assertions.assertEquals(PackedMove.parse("e4d5"), moves[1]);
+        Assertions.assertEquals(killer, moves[2]);
+        Assertions.assertEquals(PackedMove.parse("d1d5"), moves[count - 1]);
+    }
+}
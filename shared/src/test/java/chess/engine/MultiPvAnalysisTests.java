@@ -0,0 +1,114 @@
+package chess.engine;
+
+import chess.ChessGame;
+import chess.PackedMove;
+import chess.testing.GameTestUtilities;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+
+public class MultiPvAnalysisTests {
+    @Test
+    @DisplayName("Reports Every Depth With Distinct Ranked Lines")
+    public void rankedLines() {
+        var game = GameTestUtilities.gameWithBoard(SearchPositions.HANGING_QUEEN);
+        var analysis = new MultiPvAnalysis(new AlphaBetaSearch(new MaterialEvaluator()), 3);
+        List<AnalysisUpdate> updates = new ArrayList<>();
+        var last = analysis.analyze(game, 4, updates::add);
+
+        Assertions.assertEquals(4, updates.size());
+        for (int i = 0; i < updates.size(); i++) {
+            var update = updates.get(i);
+            Assertions.assertEquals(i + 1, update.depth());
+            Assertions.assertEquals(3, update.lines().size());
+            var roots = new HashSet<>();
+            for (int line = 0; line < update.lines().size(); line++) {
+                var moves = update.lines().get(line).moves();
+                Assertions.assertFalse(moves.isEmpty());
+                Assertions.assertTrue(roots.add(moves.getFirst()), "Lines should start with different moves");
+                if (line > 0) {
+                    Assertions.assertTrue(update.lines().get(line).score() <= update.lines().get(line - 1).score());
+                }
+                assertPlayable(GameTestUtilities.gameWithBoard(SearchPositions.HANGING_QUEEN),
+                        moves.stream().mapToInt(PackedMove::pack).toArray());
+            }
+        }
+        Assertions.assertSame(updates.getLast(), last);
+        Assertions.assertEquals(PackedMove.unpack(PackedMove.parse("c3d5")), last.lines().getFirst().moves().getFirst());
+        Assertions.assertEquals(GameTestUtilities.gameWithBoard(SearchPositions.HANGING_QUEEN), game,
+                "Analysis should leave the game as it found it");
+    }
+
+    @Test
+    @DisplayName("A Single Line Matches A Plain Search")
+    public void singleLine() {
+        var game = GameTestUtilities.play("e2e4", "e7e5", "g1f3", "b8c6", "f1c4", "g8f6");
+        var search = new AlphaBetaSearch(new MaterialEvaluator());
+        int score = search.search(game, 4);
+
+        var last = new MultiPvAnalysis(new AlphaBetaSearch(new MaterialEvaluator()), 1).analyze(game, 4, update -> {
+        });
+        Assertions.assertEquals(score, last.lines().getFirst().score());
+        Assertions.assertEquals(PackedMove.unpack(search.getBestMove()), last.lines().getFirst().moves().getFirst());
+        Assertions.assertArrayEquals(search.getLine(0),
+                last.lines().getFirst().moves().stream().mapToInt(PackedMove::pack).toArray());
+    }
+
+    @Test
+    @DisplayName("Publishes Each Depth To Subscribers")
+    public void publisher() throws Exception {
+        var game = GameTestUtilities.gameWithBoard(SearchPositions.HANGING_QUEEN);
+        var analysis = new MultiPvAnalysis(new AlphaBetaSearch(new MaterialEvaluator()), 2);
+        var executor = Executors.newSingleThreadExecutor();
+        try {
+            List<Integer> depths = new ArrayList<>();
+            var done = new CompletableFuture<Void>();
+            analysis.publish(game, 3, executor).subscribe(new Flow.Subscriber<>() {
+                @Override
+                public void onSubscribe(Flow.Subscription subscription) {
+                    subscription.request(Long.MAX_VALUE);
+                }
+
+                @Override
+                public void onNext(AnalysisUpdate item) {
+                    depths.add(item.depth());
+                }
+
+                @Override
+                public void onError(Throwable throwable) {
+                    done.completeExceptionally(throwable);
+                }
+
+                @Override
+                public void onComplete() {
+                    done.complete(null);
+                }
+            });
+            done.get(30, TimeUnit.SECONDS);
+            Assertions.assertEquals(List.of(1, 2, 3), depths);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void assertPlayable(ChessGame game, int[] line) {
+        var moves = new int[ChessGame.MAX_MOVES];
+        for (int move : line) {
+            int count = game.generateMoves(moves);
+            boolean legal = false;
+            for (int i = 0; i < count; i++) {
+                legal |= moves[i] == move;
+            }
+            Assertions.assertTrue(legal, PackedMove.toString(move) + " is not legal in the line");
+            game.doMove(move);
+        }
+    }
+}
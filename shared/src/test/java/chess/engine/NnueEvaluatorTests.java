@@ -0,0 +1,121 @@
+package chess.engine;
+
+import chess.BoardListener;
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.ChessPosition;
+import chess.InvalidMoveException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+public class NnueEvaluatorTests {
+    private static final NnueWeights WEIGHTS = NnueWeights.random(240, 32, 8);
+
+    @Test
+    @DisplayName("Incremental Updates Match Full Refresh")
+    public void incrementalMatchesRefresh() throws InvalidMoveException {
+        var game = new ChessGame();
+        var incremental = new NnueEvaluator(WEIGHTS);
+        incremental.attach(game);
+
+        // captures, en passant, promotion and castling for both sides
+        int[][] moves = {
+                {2, 5, 4, 5}, {7, 4, 5, 4}, {4, 5, 5, 4}, {7, 3, 5, 3}, {5, 4, 6, 3}, {8, 7, 6, 6},
+                {6, 3, 7, 2}, {7, 5, 6, 5}, {7, 2, 8, 1}, {8, 6, 7, 5}, {1, 7, 3, 6}, {8, 5, 8, 7},
+                {1, 6, 2, 5}, {8, 4, 7, 4}, {1, 5, 1, 7},
+        };
+        for (var move : moves) {
+            var promotion = move[2] == 8 && move[0] == 7 ? ChessPiece.PieceType.QUEEN : null;
+            game.makeMove(new ChessMove(new ChessPosition(move[0], move[1]),
+                    new ChessPosition(move[2], move[3]), promotion));
+            assertMatchesRefresh(game, incremental);
+        }
+        while (game.getHistorySize() > 0) {
+            game.undoMove();
+            assertMatchesRefresh(game, incremental);
+        }
+    }
+
+    @Test
+    @DisplayName("Hears Each Piece A Move Adds Or Removes And Nothing Else")
+    public void listenerEventsPerMove() throws InvalidMoveException {
+        var game = new ChessGame();
+        var events = new int[1];
+        game.setBoardListener(new BoardListener() {
+            @Override
+            public void pieceAdded(ChessPiece piece, int square) {
+                events[0]++;
+            }
+
+            @Override
+            public void pieceRemoved(ChessPiece piece, int square) {
+                events[0]++;
+            }
+
+            @Override
+            public void boardReset(ChessBoard board) {
+            }
+        });
+        game.makeMove(new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null));
+        Assertions.assertEquals(2, events[0], "e2e4 removes the pawn from e2 and adds it on e4");
+        game.makeMove(new ChessMove(new ChessPosition(7, 4), new ChessPosition(5, 4), null));
+        events[0] = 0;
+        game.makeMove(new ChessMove(new ChessPosition(4, 5), new ChessPosition(5, 4), null));
+        Assertions.assertEquals(3, events[0], "exd5 also removes the captured pawn");
+        events[0] = 0;
+        game.generateMoves(new int[ChessGame.MAX_MOVES]);
+        game.validMoves(new ChessPosition(8, 4));
+        Assertions.assertEquals(0, events[0], "Testing moves for legality changes nothing");
+    }
+
+    @Test
+    @DisplayName("Only Evaluates The Attached Game")
+    public void attachedGameOnly() {
+        var game = new ChessGame();
+        var evaluator = new NnueEvaluator(WEIGHTS);
+        evaluator.attach(game);
+        Assertions.assertEquals(evaluator.evaluate(ChessGame.TeamColor.WHITE), evaluator.evaluate(game));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> evaluator.evaluate(new ChessGame()));
+    }
+
+    @Test
+    @DisplayName("Weights Survive Save And Load")
+    public void saveAndLoad(@TempDir Path directory) throws IOException {
+        var path = directory.resolve("weights.nnue");
+        WEIGHTS.save(path);
+        var loaded = NnueWeights.load(path);
+
+        var game = new ChessGame();
+        var original = new NnueEvaluator(WEIGHTS);
+        var reloaded = new NnueEvaluator(loaded);
+        original.refresh(game.getBoard());
+        reloaded.refresh(game.getBoard());
+        Assertions.assertEquals(original.evaluate(ChessGame.TeamColor.WHITE),
+                reloaded.evaluate(ChessGame.TeamColor.WHITE));
+    }
+
+    @Test
+    @DisplayName("Rejects Files That Are Not Weights")
+    public void rejectsBadFile(@TempDir Path directory) throws IOException {
+        var path = directory.resolve("notes.txt");
+        Files.writeString(path, "These are not the weights you are looking for");
+        Assertions.assertThrows(IOException.class, () -> NnueWeights.load(path));
+    }
+
+    private void assertMatchesRefresh(ChessGame game, NnueEvaluator incremental) {
+        var refreshed = new NnueEvaluator(WEIGHTS);
+        refreshed.refresh(game.getBoard());
+        for (var side : ChessGame.TeamColor.values()) {
+            Assertions.assertEquals(refreshed.evaluate(side), incremental.evaluate(side),
+                    "Incremental accumulator drifted from a full refresh");
+        }
+    }
+}
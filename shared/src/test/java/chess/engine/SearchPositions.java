@@ -0,0 +1,38 @@
+package chess.engine;
+
+/**
+ * Boards shared by the search tests, drawn as for
+ * {@link passoff.chess.TestUtilities#loadBoard(String)}, both with white to move
+ */
+final class SearchPositions {
+    /**
+     * Ra8 is mate
+     */
+    static final String BACK_RANK_MATE = """
+            | | | | | | |k| |
+            | | | | | |p|p|p|
+            | | | | | | | | |
+            | | | | | | | | |
+            | | | | | | | | |
+            | | | | | | | | |
+            | | | | | |P|P|P|
+            |R| | | | | |K| |
+            """;
+
+    /**
+     * Nxd5 wins the queen
+     */
+    static final String HANGING_QUEEN = """
+            | | | | |k| | | |
+            | | | | | | | | |
+            | | | | | | | | |
+            | | | |q| | | | |
+            | | | | | | | | |
+            | | |N| | | | | |
+            | | | | | | | | |
+            | | | | |K| | | |
+            """;
+
+    private SearchPositions() {
+    }
+}
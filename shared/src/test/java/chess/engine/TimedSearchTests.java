@@ -0,0 +1,87 @@
+package chess.engine;
+
+import chess.ChessGame;
+import chess.PackedMove;
+import chess.testing.GameTestUtilities;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class TimedSearchTests {
+    private static final long MILLI = 1_000_000;
+
+    /**
+     * A clock that moves forward a fixed step every time it is read
+     */
+    private static class SteppingClock {
+        private final long step;
+        private long now;
+
+        SteppingClock(long step) {
+            this.step = step;
+        }
+
+        long read() {
+            now += step;
+            return now;
+        }
+    }
+
+    @Test
+    @DisplayName("Stays Within The Hard Limit")
+    public void hardLimit() {
+        var clock = new SteppingClock(MILLI);
+        var search = new AlphaBetaSearch(new MaterialEvaluator());
+        var timedSearch = new TimedSearch(search, clock::read, 64);
+        var game = new ChessGame();
+
+        int move = timedSearch.searchWithin(game, 50, 100);
+        Assertions.assertTrue(clock.now <= 100 * MILLI + MILLI, "Took " + clock.now / MILLI + " ms");
+        assertLegal(game, move);
+        Assertions.assertEquals(new ChessGame(), game, "Search should leave the game as it found it");
+    }
+
+    @Test
+    @DisplayName("Returns A Legal Move When Stopped During The First Iteration")
+    public void stoppedImmediately() {
+        var clock = new SteppingClock(1000 * MILLI);
+        var timedSearch = new TimedSearch(new AlphaBetaSearch(new MaterialEvaluator()), clock::read, 1);
+        var game = new ChessGame();
+        assertLegal(game, timedSearch.chooseMove(game, 10, 0));
+    }
+
+    @Test
+    @DisplayName("Stops Deepening Once Mate Is Found")
+    public void stopsAtMate() {
+        // a clock that never moves would let the search run to the maximum depth
+        var clock = new SteppingClock(0);
+        var search = new AlphaBetaSearch(new MaterialEvaluator());
+        var timedSearch = new TimedSearch(search, clock::read, TimedSearch.DEFAULT_POLL_INTERVAL);
+        var game = GameTestUtilities.gameWithBoard(SearchPositions.BACK_RANK_MATE);
+
+        Assertions.assertEquals(PackedMove.parse("a1a8"), timedSearch.chooseMove(game, 60_000, 0));
+        Assertions.assertTrue(search.getCompletedDepth() < AlphaBetaSearch.MAX_PLY);
+    }
+
+    @Test
+    @DisplayName("Budgets From The Clock")
+    public void budget() {
+        var clock = new SteppingClock(10 * MILLI);
+        var timedSearch = new TimedSearch(new AlphaBetaSearch(new MaterialEvaluator()), clock::read, 1);
+        timedSearch.chooseMove(new ChessGame(), 60_000, 1_000);
+        Assertions.assertEquals((60_000 / 30 + 750) * MILLI, timedSearch.getSoftLimitNanos());
+        Assertions.assertTrue(timedSearch.getHardLimitNanos() > timedSearch.getSoftLimitNanos());
+        Assertions.assertTrue(timedSearch.getHardLimitNanos() < 60_000 * MILLI / 2);
+    }
+
+    private static void assertLegal(ChessGame game, int move) {
+        var moves = new int[ChessGame.MAX_MOVES];
+        int count = game.generateMoves(moves);
+        for (int i = 0; i < count; i++) {
+            if (moves[i] == move) {
+                return;
+            }
+        }
+        Assertions.fail(PackedMove.toString(move) + " is not a legal move");
+    }
+}
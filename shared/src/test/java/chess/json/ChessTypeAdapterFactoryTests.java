@@ -0,0 +1,80 @@
+package chess.json;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.ChessPosition;
+import chess.Fen;
+import chess.PackedMove;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+public class ChessTypeAdapterFactoryTests {
+    private final Gson reflective = new Gson();
+    private final Gson gson = ChessTypeAdapterFactory.register(new GsonBuilder()).create();
+
+    @Test
+    @DisplayName("Writes Compact Boards, Positions And Moves")
+    public void writesCompactForms() {
+        Assertions.assertEquals("\"e4\"", gson.toJson(new ChessPosition(4, 5)));
+        Assertions.assertEquals("{\"startPosition\":\"e2\",\"endPosition\":\"e4\"}",
+                gson.toJson(new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null)));
+        Assertions.assertEquals("{\"startPosition\":\"b7\",\"endPosition\":\"a8\",\"promotionPiece\":\"QUEEN\"}",
+                gson.toJson(new ChessMove(new ChessPosition(7, 2), new ChessPosition(8, 1),
+                        ChessPiece.PieceType.QUEEN)));
+        var board = new ChessBoard();
+        board.resetBoard();
+        Assertions.assertEquals("\"rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR\"", gson.toJson(board));
+        Assertions.assertEquals(board, gson.fromJson(gson.toJson(board), ChessBoard.class));
+        Assertions.assertTrue(gson.toJson(new ChessGame()).length() * 10 < reflective.toJson(new ChessGame()).length());
+    }
+
+    @Test
+    @DisplayName("Reads Both The Compact And The Reflective Forms")
+    public void readsBothForms() {
+        var random = new Random(46);
+        var moves = new int[ChessGame.MAX_MOVES];
+        var game = new ChessGame();
+        for (int i = 0; i < 500; i++) {
+            int count = game.generateMoves(moves);
+            if (count == 0 || game.getHistorySize() > 120) {
+                game = new ChessGame();
+                count = game.generateMoves(moves);
+            }
+            for (int j = 0; j < count; j++) {
+                var move = PackedMove.unpack(moves[j]);
+                Assertions.assertEquals(move, gson.fromJson(gson.toJson(move), ChessMove.class));
+                Assertions.assertEquals(move, gson.fromJson(reflective.toJson(move), ChessMove.class));
+            }
+            game.doMove(moves[random.nextInt(count)]);
+            var compact = gson.fromJson(gson.toJson(game), ChessGame.class);
+            Assertions.assertEquals(game, compact);
+            Assertions.assertEquals(Fen.toString(game), Fen.toString(compact));
+            Assertions.assertEquals(game, gson.fromJson(reflective.toJson(game), ChessGame.class));
+        }
+        var promotion = new ChessMove(new ChessPosition(7, 7), new ChessPosition(8, 8), ChessPiece.PieceType.KNIGHT);
+        Assertions.assertEquals(promotion, gson.fromJson(gson.toJson(promotion), ChessMove.class));
+        Assertions.assertEquals(promotion, gson.fromJson(reflective.toJson(promotion), ChessMove.class));
+        Assertions.assertNull(gson.fromJson("null", ChessMove.class));
+    }
+
+    @Test
+    @DisplayName("Rejects Malformed Values")
+    public void rejectsMalformed() {
+        Assertions.assertThrows(JsonParseException.class, () -> gson.fromJson("\"i9\"", ChessPosition.class));
+        Assertions.assertThrows(JsonParseException.class, () -> gson.fromJson("\"e\"", ChessPosition.class));
+        Assertions.assertThrows(JsonParseException.class, () -> gson.fromJson("\"8/8/8\"", ChessBoard.class));
+        Assertions.assertThrows(JsonParseException.class,
+                () -> gson.fromJson("{\"startPosition\":\"e2\"}", ChessMove.class));
+        Assertions.assertThrows(JsonParseException.class,
+                () -> gson.fromJson("{\"startPosition\":\"e7\",\"endPosition\":\"e8\",\"promotionPiece\":\"CAT\"}",
+                        ChessMove.class));
+    }
+}
@@ -0,0 +1,191 @@
+package chess.tablebase;
+
+import chess.ChessGame;
+import chess.PackedMove;
+import chess.engine.AlphaBetaSearch;
+import chess.engine.MaterialEvaluator;
+import chess.testing.GameTestUtilities;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+public class TablebaseTests {
+    @TempDir
+    static Path directory;
+
+    private static TablebaseGenerator generator;
+    private static Tablebase tablebase;
+
+    @BeforeAll
+    public static void generate() throws IOException {
+        generator = new TablebaseGenerator();
+        generator.write(directory, Material.KQK, Material.KRK, Material.KPK);
+        tablebase = Tablebase.open(directory);
+    }
+
+    @Test
+    @DisplayName("Longest Mates Match Published Results")
+    public void longestMates() {
+        // mate in 10 with a queen, 16 with a rook and 28 with a pawn
+        Assertions.assertEquals(19, longestWin(generator.generate(Material.KQK)));
+        Assertions.assertEquals(31, longestWin(generator.generate(Material.KRK)));
+        Assertions.assertEquals(55, longestWin(generator.generate(Material.KPK)));
+    }
+
+    @Test
+    @DisplayName("Bishop And Knight Mates Match Published Results")
+    public void bishopAndKnight() throws IOException {
+        var kbnkDirectory = directory.resolve("kbnk");
+        generator.write(kbnkDirectory, Material.KBNK);
+        // mate in 33 from the worst starting position
+        Assertions.assertEquals(65, longestWin(generator.generate(Material.KBNK)));
+
+        var mateInOne = GameTestUtilities.gameWithBoard("""
+                |k| | | | | | | |
+                | | | |N| | | | |
+                | |K| | |B| | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                """, ChessGame.TeamColor.WHITE);
+        var kbnk = Tablebase.open(kbnkDirectory);
+        Assertions.assertEquals(AlphaBetaSearch.MATE_SCORE - 1, kbnk.probe(mateInOne));
+        mateInOne.doMove(PackedMove.parse("e6d5"));
+        Assertions.assertEquals(0, mateInOne.generateMoves(new int[ChessGame.MAX_MOVES]), "Bd5 is mate");
+    }
+
+    @Test
+    @DisplayName("Probes Mates, Wins And Draws")
+    public void probe() {
+        var mated = GameTestUtilities.gameWithBoard("""
+                | | | | | | |k| |
+                | | | | | | | | |
+                | | | | | | |K| |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                |R| | | | | | | |
+                """, ChessGame.TeamColor.WHITE);
+        Assertions.assertEquals(AlphaBetaSearch.MATE_SCORE - 1, tablebase.probe(mated));
+
+        var keySquare = GameTestUtilities.gameWithBoard("""
+                | | | |k| | | | |
+                | | | | | | | | |
+                | | | |K| | | | |
+                | | | |P| | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                """, ChessGame.TeamColor.BLACK);
+        Assertions.assertTrue(tablebase.probe(keySquare) < -AlphaBetaSearch.MATE_SCORE / 2);
+
+        var rookPawn = GameTestUtilities.gameWithBoard("""
+                |k| | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                |P| | | | | | | |
+                | | | | |K| | | |
+                """, ChessGame.TeamColor.WHITE);
+        Assertions.assertEquals(0, tablebase.probe(rookPawn));
+
+        var hangingQueen = GameTestUtilities.gameWithBoard("""
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | |Q|k|
+                | | | | |K| | | |
+                """, ChessGame.TeamColor.BLACK);
+        Assertions.assertEquals(0, tablebase.probe(hangingQueen));
+    }
+
+    @Test
+    @DisplayName("Flips The Board When Black Is Stronger")
+    public void blackIsStronger() {
+        var white = GameTestUtilities.gameWithBoard("""
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | |k| | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | |P| | | |
+                | | | | |K| | | |
+                | | | | | | | | |
+                """, ChessGame.TeamColor.WHITE);
+        var black = GameTestUtilities.gameWithBoard("""
+                | | | | | | | | |
+                | | | | |k| | | |
+                | | | | |p| | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | |K| | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                """, ChessGame.TeamColor.BLACK);
+        Assertions.assertNotEquals(Tablebase.NOT_FOUND, tablebase.probe(white));
+        Assertions.assertEquals(tablebase.probe(white), tablebase.probe(black));
+    }
+
+    @Test
+    @DisplayName("Agrees With Search On Short Mates")
+    public void agreesWithSearch() {
+        var game = GameTestUtilities.gameWithBoard("""
+                | | | | | | | |k|
+                | | | | | | | | |
+                | | | | | | |K| |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                |Q| | | | | | | |
+                | | | | | | | | |
+                """, ChessGame.TeamColor.WHITE);
+        int score = tablebase.probe(game);
+        Assertions.assertEquals(AlphaBetaSearch.MATE_SCORE - 1, score);
+        // the search needs one ply past the mate to see that the king has no moves
+        Assertions.assertEquals(score, new AlphaBetaSearch(new MaterialEvaluator()).search(game, 2));
+
+        game.doMove(PackedMove.parse("a2a3"));
+        // Kg8 is forced and Qa8 mates
+        Assertions.assertEquals(-AlphaBetaSearch.MATE_SCORE + 2, tablebase.probe(game));
+    }
+
+    @Test
+    @DisplayName("Positions Without A Table Are Not Found")
+    public void notFound() {
+        Assertions.assertEquals(Tablebase.NOT_FOUND, tablebase.probe(new ChessGame()));
+        var bishopAndKnight = GameTestUtilities.gameWithBoard("""
+                | | | | | | | | |
+                | | | |k| | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | |B|N| | |
+                | | | | | | | | |
+                | | | | |K| | | |
+                | | | | | | | | |
+                """, ChessGame.TeamColor.WHITE);
+        Assertions.assertFalse(tablebase.covers(Material.KBNK));
+        Assertions.assertEquals(Tablebase.NOT_FOUND, tablebase.probe(bishopAndKnight));
+    }
+
+    private static int longestWin(byte[] table) {
+        int longest = 0;
+        for (byte entry : table) {
+            longest = Math.max(longest, entry);
+        }
+        return longest;
+    }
+}
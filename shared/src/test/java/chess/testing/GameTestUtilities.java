@@ -0,0 +1,55 @@
+package chess.testing;
+
+import chess.ChessGame;
+import chess.PackedMove;
+import passoff.chess.TestUtilities;
+
+/**
+ * Builds games for the engine, archive and server tests from moves in coordinate notation
+ * or from a drawn board
+ */
+public class GameTestUtilities {
+    /**
+     * @return the moves in coordinate notation, such as "e2e4", as packed moves
+     */
+    public static int[] moves(String... moves) {
+        var packed = new int[moves.length];
+        for (int i = 0; i < moves.length; i++) {
+            packed[i] = PackedMove.parse(moves[i]);
+        }
+        return packed;
+    }
+
+    /**
+     * @return a game with the moves played from the starting position
+     */
+    public static ChessGame play(String... moves) {
+        return play(new ChessGame(), moves);
+    }
+
+    /**
+     * Plays the moves on from the game's current position
+     *
+     * @return the game
+     */
+    public static ChessGame play(ChessGame game, String... moves) {
+        for (int move : moves(moves)) {
+            game.doMove(move);
+        }
+        return game;
+    }
+
+    /**
+     * @return a game on the board, drawn as for {@link TestUtilities#loadBoard(String)}, with white to move
+     */
+    public static ChessGame gameWithBoard(String boardText) {
+        return gameWithBoard(boardText, ChessGame.TeamColor.WHITE);
+    }
+
+    public static ChessGame gameWithBoard(String boardText, ChessGame.TeamColor turn) {
+        var game = new ChessGame();
+        game.setBoard(TestUtilities.loadBoard(boardText));
+        game.setTeamTurn(turn);
+        return game;
+    }
+}
@@ -0,0 +1,119 @@
+package chess.uci;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+public class UciTests {
+    private final BlockingQueue<String> output = new LinkedBlockingQueue<>();
+    private final Uci uci = new Uci(new BufferedReader(new StringReader("")), new PrintStream(new LineCollector(), true));
+
+    @Test
+    @DisplayName("Identifies Itself")
+    public void handshake() throws InterruptedException {
+        uci.execute("uci");
+        Assertions.assertTrue(nextLine().startsWith("id name"));
+        String line;
+        do {
+            line = nextLine();
+        } while (line.startsWith("id ") || line.startsWith("option "));
+        Assertions.assertEquals("uciok", line);
+        uci.execute("isready");
+        Assertions.assertEquals("readyok", nextLine());
+    }
+
+    @Test
+    @DisplayName("Searches Positions From FEN And Moves")
+    public void searchesPositions() throws InterruptedException {
+        uci.execute("position fen r1bqkb1r/pppp1ppp/2n2n2/4p2Q/2B1P3/8/PPPP1PPP/RNB1K1NR w KQkq - 4 4");
+        uci.execute("go depth 2");
+        Assertions.assertEquals("bestmove h5f7", awaitBestMove());
+
+        uci.execute("position startpos moves e2e4 e7e5 d1h5 b8c6 f1c4 g8f6");
+        uci.execute("go wtime 1000 btime 1000 winc 0 binc 0");
+        Assertions.assertEquals("bestmove h5f7", awaitBestMove());
+
+        uci.execute("position startpos moves e2e4 e7e5 d1h5 b8c6 f1c4 g8f6 h5f7");
+        uci.execute("go movetime 50");
+        Assertions.assertEquals("bestmove 0000", awaitBestMove(), "Checkmated, so there is no move");
+    }
+
+    @Test
+    @DisplayName("Stops On Request")
+    public void stops() throws InterruptedException {
+        uci.execute("position startpos");
+        uci.execute("go infinite");
+        Assertions.assertTrue(nextLine().startsWith("info depth 1 "));
+        uci.execute("stop");
+        Assertions.assertTrue(awaitBestMove().matches("bestmove [a-h][1-8][a-h][1-8]"));
+    }
+
+    @Test
+    @DisplayName("Holds The Best Move In Infinite Mode Until Stopped")
+    public void infiniteWaitsForStop() throws InterruptedException {
+        uci.execute("position startpos moves e2e4 e7e5 d1h5 b8c6 f1c4 g8f6 h5f7");
+        uci.execute("go infinite");
+        String line;
+        while ((line = output.poll(200, TimeUnit.MILLISECONDS)) != null) {
+            Assertions.assertTrue(line.startsWith("info "), "Printed before stop: " + line);
+        }
+        uci.execute("stop");
+        Assertions.assertEquals("bestmove 0000", awaitBestMove());
+    }
+
+    @Test
+    @DisplayName("Bench Node Count Is Deterministic")
+    public void bench() throws InterruptedException {
+        uci.execute("bench 3");
+        var first = nextLine();
+        uci.execute("setoption name Hash value 64");
+        uci.execute("bench 3");
+        var second = nextLine();
+        Assertions.assertTrue(first.matches("\\d+ nodes \\d+ nps"), first);
+        Assertions.assertEquals(first.split(" ")[0], second.split(" ")[0]);
+    }
+
+    private String awaitBestMove() throws InterruptedException {
+        String line;
+        do {
+            line = nextLine();
+        } while (line.startsWith("info "));
+        return line;
+    }
+
+    private String nextLine() throws InterruptedException {
+        var line = output.poll(10, TimeUnit.SECONDS);
+        Assertions.assertNotNull(line, "No output from the engine");
+        return line;
+    }
+
+    private class LineCollector extends OutputStream {
+        private final StringBuilder line = new StringBuilder();
+
+        @Override
+        public synchronized void write(int b) {
+            if (b == '\n') {
+                output.add(line.toString().strip());
+                line.setLength(0);
+            } else {
+                line.append((char) b);
+            }
+        }
+
+        @Override
+        public synchronized void write(byte[] bytes, int offset, int length) {
+            for (var c : new String(bytes, offset, length, StandardCharsets.UTF_8).toCharArray()) {
+                write(c);
+            }
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package websocket;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.ChessPosition;
+import chess.PackedMove;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import websocket.commands.ConnectCommand;
+import websocket.commands.MakeMoveCommand;
+import websocket.commands.UserGameCommand;
+import websocket.messages.ErrorMessage;
+import websocket.messages.LoadGameMessage;
+import websocket.messages.MoveMessage;
+import websocket.messages.NotificationMessage;
+import websocket.messages.ServerMessage;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.UUID;
+
+public class BinaryProtocolTests {
+    private final Gson gson = WebSocketTypeAdapterFactory.register(new GsonBuilder()).create();
+
+    @Test
+    @DisplayName("Round Trips Commands")
+    public void commands() {
+        var token = UUID.randomUUID().toString();
+        var promotion = new ChessMove(new ChessPosition(7, 1), new ChessPosition(8, 2), ChessPiece.PieceType.KNIGHT);
+        UserGameCommand[] commands = {new UserGameCommand(UserGameCommand.CommandType.CONNECT, token, 12),
+                new ConnectCommand(token, 300_000, true), new MakeMoveCommand(token, 1, promotion),
+                new UserGameCommand(UserGameCommand.CommandType.LEAVE, "not-a-uuid", null),
+                new UserGameCommand(UserGameCommand.CommandType.RESIGN, null, 0),
+                new UserGameCommand(UserGameCommand.CommandType.LEAVE, token.toUpperCase(), 5)};
+        for (var command : commands) {
+            var frame = BinaryProtocol.encode(command);
+            var read = BinaryProtocol.decodeCommand(frame);
+            Assertions.assertEquals(command.getClass(), read.getClass());
+            Assertions.assertEquals(command, read);
+            Assertions.assertTrue(frame.remaining() < gson.toJson(command).length() / 2);
+        }
+        Assertions.assertEquals(20, BinaryProtocol.encode(new MakeMoveCommand(token, 1, promotion)).remaining());
+    }
+
+    @Test
+    @DisplayName("Round Trips Server Messages")
+    public void messages() {
+        var game = new ChessGame();
+        ServerMessage[] messages = {new LoadGameMessage(game), new LoadGameMessage(game, 42),
+                new MoveMessage(new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null), game.getHash(), 1),
+                new ErrorMessage("Error: unauthorized"), new NotificationMessage("Ünïcode moved ♞ to f3"),
+                new NotificationMessage(null)};
+        for (var message : messages) {
+            var read = BinaryProtocol.decodeMessage(BinaryProtocol.encode(message));
+            Assertions.assertEquals(message.getClass(), read.getClass());
+            Assertions.assertEquals(message, read);
+        }
+        var load = (LoadGameMessage) BinaryProtocol.decodeMessage(BinaryProtocol.encode(new LoadGameMessage(game, 0)));
+        Assertions.assertEquals(game.getHash(), load.getGame().getHash());
+    }
+
+    @Test
+    @DisplayName("Negotiates And Rejects Bad Frames")
+    public void rejectsBadFrames() {
+        Assertions.assertTrue(BinaryProtocol.isOffered("json, " + BinaryProtocol.NAME));
+        Assertions.assertTrue(BinaryProtocol.isOffered(List.of("other", BinaryProtocol.NAME)));
+        Assertions.assertFalse(BinaryProtocol.isOffered((String) null));
+        Assertions.assertFalse(BinaryProtocol.isOffered("chess-binary"));
+
+        var connect = BinaryProtocol.encode(new ConnectCommand(UUID.randomUUID().toString(), 3, true));
+        var truncated = connect.duplicate().limit(connect.limit() - 1);
+        Assertions.assertThrows(IllegalArgumentException.class, () -> BinaryProtocol.decodeCommand(truncated));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> BinaryProtocol.decodeMessage(connect));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> BinaryProtocol.decodeCommand(ByteBuffer.wrap(new byte[]{0x07, 0})));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> BinaryProtocol.decodeCommand(ByteBuffer.wrap(new byte[]{0x02, (byte) 0xFF, (byte) 0xFF,
+                        (byte) 0xFF, (byte) 0xFF, 0x7F, 0})));
+        // promotion bits of 7, past the last piece type
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> BinaryProtocol.decodeCommand(ByteBuffer.wrap(new byte[]{0x01, 0, 0, 0x0C, 0x7F})));
+        var move = BinaryProtocol.encode(new MoveMessage(PackedMove.unpack(PackedMove.parse("e7e8q")), 0, 1));
+        move.put(2, (byte) 0xF0);
+        Assertions.assertThrows(IllegalArgumentException.class, () -> BinaryProtocol.decodeMessage(move));
+        var padded = ByteBuffer.allocate(connect.remaining() + 1).put(connect.duplicate()).put((byte) 0).flip();
+        Assertions.assertThrows(IllegalArgumentException.class, () -> BinaryProtocol.decodeCommand(padded));
+    }
+}
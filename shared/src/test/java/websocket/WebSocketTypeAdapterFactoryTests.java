@@ -0,0 +1,68 @@
+package websocket;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.ChessPosition;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import websocket.commands.ConnectCommand;
+import websocket.commands.MakeMoveCommand;
+import websocket.commands.UserGameCommand;
+import websocket.messages.ErrorMessage;
+import websocket.messages.LoadGameMessage;
+import websocket.messages.MoveMessage;
+import websocket.messages.NotificationMessage;
+import websocket.messages.ServerMessage;
+
+public class WebSocketTypeAdapterFactoryTests {
+    private final Gson gson = WebSocketTypeAdapterFactory.register(new GsonBuilder()).create();
+
+    @Test
+    @DisplayName("Reads Commands As Their Subtypes")
+    public void readsCommands() {
+        var move = new MakeMoveCommand("token", 7,
+                new ChessMove(new ChessPosition(7, 1), new ChessPosition(8, 1), ChessPiece.PieceType.QUEEN));
+        var json = gson.toJson(move);
+        Assertions.assertTrue(json.indexOf("\"move\"") < json.indexOf("\"commandType\""), json);
+        var read = gson.fromJson(json, UserGameCommand.class);
+        Assertions.assertInstanceOf(MakeMoveCommand.class, read);
+        Assertions.assertEquals(move, read);
+        Assertions.assertEquals(json, gson.toJson(read, UserGameCommand.class));
+
+        var connect = new UserGameCommand(UserGameCommand.CommandType.CONNECT, "token", 7);
+        Assertions.assertEquals(connect, gson.fromJson(gson.toJson(connect), UserGameCommand.class));
+        Assertions.assertEquals(UserGameCommand.class,
+                gson.fromJson("{\"gameID\":null,\"extra\":[1,{}],\"commandType\":\"LEAVE\"}", UserGameCommand.class)
+                        .getClass());
+        var withUpdates = new ConnectCommand("token", 7, true);
+        Assertions.assertEquals(withUpdates, gson.fromJson(gson.toJson(withUpdates), UserGameCommand.class));
+    }
+
+    @Test
+    @DisplayName("Reads Server Messages As Their Subtypes")
+    public void readsMessages() {
+        ServerMessage[] messages = {new LoadGameMessage(new ChessGame()), new ErrorMessage("Error: not your turn"),
+                new NotificationMessage("white moved e2e4"), new LoadGameMessage(new ChessGame(), 0),
+                new MoveMessage(new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null),
+                        new ChessGame().getHash(), 1)};
+        for (var message : messages) {
+            var read = gson.fromJson(gson.toJson(message, ServerMessage.class), ServerMessage.class);
+            Assertions.assertEquals(message.getClass(), read.getClass());
+            Assertions.assertEquals(message, read);
+        }
+    }
+
+    @Test
+    @DisplayName("Rejects Messages Without A Type")
+    public void rejectsUntyped() {
+        Assertions.assertThrows(JsonParseException.class,
+                () -> gson.fromJson("{\"authToken\":\"token\"}", UserGameCommand.class));
+        Assertions.assertThrows(JsonParseException.class,
+                () -> gson.fromJson("{\"serverMessageType\":\"SHOUT\"}", ServerMessage.class));
+    }
+}